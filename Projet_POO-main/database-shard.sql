@@ -0,0 +1,4 @@
+-- Bases des shards (mode réparti, propriété db.shards). Les tables et index sont créés
+-- au démarrage de l'application par les migrations de src/main/resources/db/migration/shard.
+CREATE DATABASE IF NOT EXISTS bibliotheque_s0;
+CREATE DATABASE IF NOT EXISTS bibliotheque_s1;
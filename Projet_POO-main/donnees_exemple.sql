@@ -0,0 +1,11 @@
+-- Données d'exemple, à charger après un premier démarrage de l'application (qui crée les
+-- tables) : mysql -u root -p bibliotheque < donnees_exemple.sql
+INSERT INTO livres (isbn, titre, auteur, annee_publication, disponible) VALUES
+('978-2070361564', 'Le Seigneur des Anneaux', 'J.R.R. Tolkien', 1954, TRUE),
+('978-2070368945', 'Harry Potter à l''école des sorciers', 'J.K. Rowling', 1998, TRUE),
+('978-2253121138', 'Les Misérables', 'Victor Hugo', 1862, FALSE);
+
+INSERT INTO membres (nom, prenom, email, actif, date_inscription) VALUES
+('Dupont', 'Jean', 'jean.dupont@example.com', TRUE, '2024-01-15'),
+('Martin', 'Marie', 'marie.martin@example.com', TRUE, '2024-02-20'),
+('Bernard', 'Pierre', 'pierre.bernard@example.com', FALSE, '2024-03-10');
@@ -0,0 +1,39 @@
+package com.bibliotheque;
+
+import com.bibliotheque.api.ApiServer;
+import javafx.application.Application;
+
+import java.util.Arrays;
+
+/**
+ * Point d'entrée du JAR ombré.
+ * <p>
+ * La JVM refuse de lancer directement une sous-classe d'{@link Application} quand JavaFX
+ * est sur le classpath et non sur le module path ({@code java -jar}) : cette classe, qui
+ * n'en hérite pas, choisit le mode puis démarre l'interface ou le serveur.
+ */
+public final class Lanceur {
+
+    private Lanceur() {
+    }
+
+    /**
+     * Avec l'option {@code --serveur}, démarre l'API HTTP au lieu de l'interface JavaFX.
+     *
+     * @param args les arguments de la ligne de commande
+     * @throws Exception si le serveur ne peut pas démarrer
+     */
+    public static void main(String[] args) throws Exception {
+        if (Arrays.asList(args).contains("--serveur")) {
+            // Mode sans interface graphique : API HTTP pour les bornes et le portail web
+            ApiServer.main(args);
+            return;
+        }
+        Application.launch(Main.class, args);
+        if (Arrays.asList(args).contains(Main.OPTION_ENTRAINEMENT_CDS)) {
+            // Des threads non démons (pool, tâches planifiées) retiendraient la JVM :
+            // quitter explicitement pour que l'archive AppCDS soit écrite
+            System.exit(0);
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.bibliotheque;
 
+import com.bibliotheque.controller.MainController;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
@@ -10,6 +12,12 @@ import javafx.stage.Stage;
  */
 public class Main extends Application {
 
+    /**
+     * Démarre, charge tous les onglets puis quitte : sert à générer l'archive AppCDS
+     * (profil Maven {@code appcds}).
+     */
+    static final String OPTION_ENTRAINEMENT_CDS = "--quitter-apres-demarrage";
+
     @Override
     public void start(Stage primaryStage) throws Exception {
         // Charger le fichier FXML principal
@@ -25,14 +33,29 @@ public class Main extends Application {
         primaryStage.show();
 
         System.out.println("Application démarrée avec succès!");
+
+        if (getParameters().getRaw().contains(OPTION_ENTRAINEMENT_CDS)) {
+            // Exécution d'entraînement AppCDS : charger toutes les vues puis quitter
+            MainController controller = loader.getController();
+            controller.chargerTousLesOnglets().whenComplete((fait, erreur) -> {
+                if (erreur != null) {
+                    // Une archive incomplète ne doit pas passer pour valide : échec de la construction
+                    System.err.println("Entraînement AppCDS interrompu : " + erreur.getMessage());
+                    System.exit(1);
+                }
+                Platform.runLater(Platform::exit);
+            });
+        }
     }
 
     /**
-     * Point d'entrée de l'application.
+     * Point d'entrée depuis un IDE ou {@code mvn javafx:run} ; le JAR ombré démarre par
+     * {@link Lanceur}.
      *
      * @param args les arguments de la ligne de commande
+     * @throws Exception si le serveur ne peut pas démarrer
      */
-    public static void main(String[] args) {
-        launch(args);
+    public static void main(String[] args) throws Exception {
+        Lanceur.main(args);
     }
 }
@@ -0,0 +1,210 @@
+package com.bibliotheque.api;
+
+import com.bibliotheque.audit.Acteur;
+import com.bibliotheque.exception.LimiteEmpruntDepasseeException;
+import com.bibliotheque.exception.LivreIndisponibleException;
+import com.bibliotheque.exception.MembreInactifException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Base des gestionnaires HTTP de l'API : lecture des paramètres, écriture des
+ * réponses JSON en flux et traduction des exceptions métier en codes HTTP.
+ */
+abstract class ApiHandler implements HttpHandler {
+
+    private static final int TAILLE_TAMPON = 8 * 1024;
+    private static final int TAILLE_CORPS_MAX = 64 * 1024;
+
+    /**
+     * Écrit un élément dans un flux JSON.
+     */
+    @FunctionalInterface
+    interface Ecriture<T> {
+        void ecrire(JsonWriter json, T element) throws IOException;
+    }
+
+    @Override
+    public final void handle(HttpExchange exchange) throws IOException {
+        try {
+            // Écritures attribuées au client dans le journal d'audit
+            Acteur.executer("api " + exchange.getRemoteAddress().getAddress().getHostAddress(), () -> {
+                traiter(exchange, lireParametres(exchange));
+                return null;
+            });
+        } catch (ApiException e) {
+            erreur(exchange, e.getStatut(), e.getMessage());
+        } catch (LivreIndisponibleException | LimiteEmpruntDepasseeException e) {
+            erreur(exchange, 409, e.getMessage());
+        } catch (MembreInactifException e) {
+            erreur(exchange, 403, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            erreur(exchange, 400, e.getMessage());
+        } catch (SQLException e) {
+            erreur(exchange, 503, "Base de données indisponible");
+        } catch (Exception e) {
+            System.err.println("Erreur API sur " + exchange.getRequestURI() + " : " + e);
+            erreur(exchange, 500, "Erreur interne");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Traite une requête.
+     *
+     * @param exchange   l'échange HTTP
+     * @param parametres les paramètres de l'URL et du corps (formulaire)
+     */
+    protected abstract void traiter(HttpExchange exchange, Map<String, String> parametres) throws Exception;
+
+    /* ============================
+       Réponses
+       ============================ */
+
+    protected static <T> void envoyerObjet(HttpExchange exchange, int statut, Ecriture<T> ecriture, T element)
+            throws IOException {
+        try (JsonWriter json = ouvrirFlux(exchange, statut)) {
+            ecriture.ecrire(json, element);
+        }
+    }
+
+    /**
+     * Diffuse une collection sous forme de tableau JSON, élément par élément.
+     */
+    protected static <T> void envoyerListe(HttpExchange exchange, Iterable<T> elements, Ecriture<T> ecriture)
+            throws IOException {
+        try (JsonWriter json = ouvrirFlux(exchange, 200)) {
+            json.beginArray();
+            for (T element : elements) {
+                ecriture.ecrire(json, element);
+            }
+            json.endArray();
+        }
+    }
+
+    private static JsonWriter ouvrirFlux(HttpExchange exchange, int statut) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        // Longueur 0 : réponse en transfert « chunked », écrite au fil de l'eau
+        exchange.sendResponseHeaders(statut, 0);
+        return new JsonWriter(new BufferedWriter(
+                new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8), TAILLE_TAMPON));
+    }
+
+    private static void erreur(HttpExchange exchange, int statut, String message) throws IOException {
+        if (exchange.getResponseCode() != -1) {
+            // En-têtes déjà envoyés : le flux est interrompu, le client verra un JSON tronqué
+            return;
+        }
+        try (JsonWriter json = ouvrirFlux(exchange, statut)) {
+            json.beginObject().name("erreur").value(message).endObject();
+        }
+    }
+
+    /* ============================
+       Paramètres
+       ============================ */
+
+    protected static void exigerMethode(HttpExchange exchange, String methode) {
+        if (!methode.equalsIgnoreCase(exchange.getRequestMethod())) {
+            throw new ApiException(405, "Méthode non autorisée : " + exchange.getRequestMethod());
+        }
+    }
+
+    protected static String parametreObligatoire(Map<String, String> parametres, String nom) {
+        String valeur = parametres.get(nom);
+        if (valeur == null || valeur.isBlank()) {
+            throw new ApiException(400, "Paramètre manquant : " + nom);
+        }
+        return valeur.trim();
+    }
+
+    protected static int entierObligatoire(Map<String, String> parametres, String nom) {
+        String valeur = parametreObligatoire(parametres, nom);
+        try {
+            return Integer.parseInt(valeur);
+        } catch (NumberFormatException e) {
+            throw new ApiException(400, "Paramètre entier invalide : " + nom);
+        }
+    }
+
+    protected static int entierFacultatif(Map<String, String> parametres, String nom, int defaut) {
+        String valeur = parametres.get(nom);
+        return valeur == null || valeur.isBlank() ? defaut : entierObligatoire(parametres, nom);
+    }
+
+    /**
+     * @return la date ({@code AAAA-MM-JJ}), ou null si le paramètre est absent
+     */
+    protected static LocalDate dateFacultative(Map<String, String> parametres, String nom) {
+        String valeur = parametres.get(nom);
+        if (valeur == null || valeur.isBlank()) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(valeur.trim());
+        } catch (DateTimeParseException e) {
+            throw new ApiException(400, "Date invalide (AAAA-MM-JJ attendu) : " + nom);
+        }
+    }
+
+    private static Map<String, String> lireParametres(HttpExchange exchange) throws IOException {
+        Map<String, String> parametres = new HashMap<>();
+        decoder(exchange.getRequestURI().getRawQuery(), parametres);
+
+        String type = exchange.getRequestHeaders().getFirst("Content-Type");
+        if (type != null && type.startsWith("application/x-www-form-urlencoded")) {
+            try (InputStream in = exchange.getRequestBody()) {
+                byte[] corps = in.readNBytes(TAILLE_CORPS_MAX + 1);
+                if (corps.length > TAILLE_CORPS_MAX) {
+                    throw new ApiException(413, "Corps de requête trop volumineux");
+                }
+                decoder(new String(corps, StandardCharsets.UTF_8), parametres);
+            }
+        }
+        return parametres;
+    }
+
+    private static void decoder(String brut, Map<String, String> parametres) {
+        if (brut == null || brut.isEmpty()) {
+            return;
+        }
+        for (String paire : brut.split("&")) {
+            int egal = paire.indexOf('=');
+            String nom = egal < 0 ? paire : paire.substring(0, egal);
+            String valeur = egal < 0 ? "" : paire.substring(egal + 1);
+            parametres.put(URLDecoder.decode(nom, StandardCharsets.UTF_8),
+                    URLDecoder.decode(valeur, StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Erreur portant directement son code HTTP.
+     */
+    static class ApiException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private final int statut;
+
+        ApiException(int statut, String message) {
+            super(message);
+            this.statut = statut;
+        }
+
+        int getStatut() {
+            return statut;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.bibliotheque.api;
+
+import com.bibliotheque.service.ContexteApplication;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serveur HTTP sans interface graphique exposant les services de la bibliothèque
+ * en JSON (bornes libre-service, portail web).
+ * <p>
+ * Lancement : {@code java -jar bibliotheque.jar --serveur} ; le port se règle avec
+ * la propriété système {@code bibliotheque.api.port} (8080 par défaut).
+ */
+public class ApiServer {
+
+    private static final int PORT_PAR_DEFAUT = 8080;
+    private static final int FILE_ATTENTE_TCP = 1024;
+
+    private final HttpServer serveur;
+    private final ExecutorService executeur;
+
+    /**
+     * Crée le serveur et enregistre les routes.
+     *
+     * @param contexte les services partagés
+     * @param port     le port d'écoute
+     * @throws IOException si le port ne peut pas être ouvert
+     */
+    public ApiServer(ContexteApplication contexte, int port) throws IOException {
+        this.serveur = HttpServer.create(new InetSocketAddress(port), FILE_ATTENTE_TCP);
+        this.executeur = creerExecuteur();
+
+        serveur.createContext("/api/emprunts", new EmpruntHandler(contexte.getEmpruntService()));
+        serveur.createContext("/api/membres", new MembreHandler(contexte.getBibliothequeService()));
+        serveur.createContext("/api/livres", new LivreHandler(contexte.getBibliothequeService()));
+        serveur.createContext("/api/documents", new DocumentHandler(contexte.getBibliothequeService()));
+        serveur.createContext("/api/reservations", new ReservationHandler(contexte.getReservationService()));
+        serveur.createContext("/api/indicateurs", new IndicateurHandler(contexte.getIndicateurs()));
+        serveur.createContext("/api/audit", new AuditHandler(contexte.getAudit()));
+        serveur.setExecutor(executeur);
+    }
+
+    public void demarrer() {
+        serveur.start();
+        System.out.println("API démarrée sur le port " + serveur.getAddress().getPort());
+    }
+
+    /**
+     * Arrête le serveur en laissant aux requêtes en cours le délai indiqué pour se terminer.
+     *
+     * @param delaiSecondes le délai de grâce
+     */
+    public void arreter(int delaiSecondes) {
+        serveur.stop(delaiSecondes);
+        executeur.shutdown();
+        try {
+            executeur.awaitTermination(delaiSecondes, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Un thread virtuel par requête lorsque la JVM le permet (Java 21+) ; sinon un pool
+     * de threads plateforme, le projet étant compilé pour Java 17.
+     */
+    static ExecutorService creerExecuteur() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            int threads = Math.max(32, Runtime.getRuntime().availableProcessors() * 8);
+            return Executors.newFixedThreadPool(threads);
+        }
+    }
+
+    /**
+     * Point d'entrée du mode serveur.
+     *
+     * @param args les arguments de la ligne de commande
+     * @throws IOException si le serveur ne peut pas démarrer
+     */
+    public static void main(String[] args) throws IOException {
+        int port = Integer.getInteger("bibliotheque.api.port", PORT_PAR_DEFAUT);
+        ApiServer api = new ApiServer(new ContexteApplication(), port);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> api.arreter(5)));
+        api.demarrer();
+    }
+}
@@ -0,0 +1,25 @@
+package com.bibliotheque.api;
+
+import com.bibliotheque.audit.JournalAudit;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.util.Map;
+
+/**
+ * {@code GET /api/audit} : compteurs du journal d'audit (entrées reçues, écrites, en
+ * attente, perdues), pour surveiller sa contre-pression.
+ */
+class AuditHandler extends ApiHandler {
+
+    private final JournalAudit audit;
+
+    AuditHandler(JournalAudit audit) {
+        this.audit = audit;
+    }
+
+    @Override
+    protected void traiter(HttpExchange exchange, Map<String, String> parametres) throws Exception {
+        exigerMethode(exchange, "GET");
+        envoyerObjet(exchange, 200, JsonMapping::ecrire, audit.metriques());
+    }
+}
@@ -0,0 +1,50 @@
+package com.bibliotheque.api;
+
+import com.bibliotheque.model.Document;
+import com.bibliotheque.model.Magazine;
+import com.bibliotheque.service.BibliothequeService;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.util.Map;
+
+/**
+ * {@code GET /api/documents?q=...} : recherche dans tout le catalogue, livres et
+ * magazines ; {@code GET /api/documents?disponibles=true} : documents disponibles au prêt ;
+ * {@code POST /api/documents/magazines} : ajout d'un magazine.
+ */
+class DocumentHandler extends ApiHandler {
+
+    private final BibliothequeService bibliothequeService;
+
+    DocumentHandler(BibliothequeService bibliothequeService) {
+        this.bibliothequeService = bibliothequeService;
+    }
+
+    @Override
+    protected void traiter(HttpExchange exchange, Map<String, String> parametres) throws Exception {
+        String chemin = exchange.getRequestURI().getPath();
+
+        switch (chemin) {
+            case "/api/documents":
+                exigerMethode(exchange, "GET");
+                if (Boolean.parseBoolean(parametres.get("disponibles"))) {
+                    envoyerListe(exchange, bibliothequeService.getDocumentsDisponibles(), JsonMapping::ecrire);
+                } else {
+                    envoyerListe(exchange, bibliothequeService.rechercherDocuments(parametres.get("q")),
+                            JsonMapping::ecrire);
+                }
+                break;
+            case "/api/documents/magazines": {
+                exigerMethode(exchange, "POST");
+                Magazine magazine = new Magazine(parametreObligatoire(parametres, "identifiant"),
+                        parametreObligatoire(parametres, "titre"), entierObligatoire(parametres, "numero"),
+                        parametreObligatoire(parametres, "mois"), true);
+                bibliothequeService.ajouterMagazine(magazine);
+                envoyerObjet(exchange, 201, JsonMapping::ecrire, (Document) magazine);
+                break;
+            }
+            default:
+                throw new ApiException(404, "Ressource inconnue : " + chemin);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.bibliotheque.api;
+
+import com.bibliotheque.dao.PageHistorique;
+import com.bibliotheque.dao.RequetePage;
+import com.bibliotheque.model.Emprunt;
+import com.bibliotheque.service.EmpruntService;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Emprunts :
+ * <ul>
+ *   <li>{@code POST /api/emprunts} (isbn, membreId) : emprunter un livre</li>
+ *   <li>{@code POST /api/emprunts/retour} (isbn, membreId) : retourner un livre</li>
+ *   <li>{@code GET /api/emprunts/retard} : liste des emprunts en retard</li>
+ *   <li>{@code GET /api/emprunts/historique} (membreId, du, au, taille, apresDate, apresId) :
+ *       historique d'un membre par pages, du plus récent au plus ancien ; la page suivante
+ *       est demandée avec l'ancre {@code suivante} de la réponse</li>
+ * </ul>
+ */
+class EmpruntHandler extends ApiHandler {
+
+    private static final int TAILLE_PAGE_MAX = 500;
+
+    private final EmpruntService empruntService;
+
+    EmpruntHandler(EmpruntService empruntService) {
+        this.empruntService = empruntService;
+    }
+
+    @Override
+    protected void traiter(HttpExchange exchange, Map<String, String> parametres) throws Exception {
+        String chemin = exchange.getRequestURI().getPath();
+
+        switch (chemin) {
+            case "/api/emprunts": {
+                exigerMethode(exchange, "POST");
+                Emprunt emprunt = empruntService.emprunterLivre(
+                        parametreObligatoire(parametres, "isbn"), entierObligatoire(parametres, "membreId"));
+                envoyerObjet(exchange, 201, JsonMapping::ecrire, emprunt);
+                break;
+            }
+            case "/api/emprunts/retour": {
+                exigerMethode(exchange, "POST");
+                Emprunt emprunt = empruntService.retournerLivre(
+                        parametreObligatoire(parametres, "isbn"), entierObligatoire(parametres, "membreId"));
+                envoyerObjet(exchange, 200, JsonMapping::ecrire, emprunt);
+                break;
+            }
+            case "/api/emprunts/retard":
+                exigerMethode(exchange, "GET");
+                envoyerListe(exchange, empruntService.getEmpruntEnRetard(), JsonMapping::ecrire);
+                break;
+            case "/api/emprunts/historique": {
+                exigerMethode(exchange, "GET");
+                int taille = Math.min(entierFacultatif(parametres, "taille", 50), TAILLE_PAGE_MAX);
+                int membreId = entierObligatoire(parametres, "membreId");
+                LocalDate du = dateFacultative(parametres, "du");
+                LocalDate au = dateFacultative(parametres, "au");
+                LocalDate apresDate = dateFacultative(parametres, "apresDate");
+                PageHistorique page = apresDate == null
+                        ? empruntService.getHistorique(membreId, du, au, taille)
+                        : empruntService.getHistorique(membreId, du, au, RequetePage.apres("date_emprunt", false,
+                                apresDate, entierObligatoire(parametres, "apresId"), taille));
+                envoyerObjet(exchange, 200, (json, p) -> JsonMapping.ecrire(json, p, taille), page);
+                break;
+            }
+            default:
+                throw new ApiException(404, "Ressource inconnue : " + chemin);
+        }
+    }
+}
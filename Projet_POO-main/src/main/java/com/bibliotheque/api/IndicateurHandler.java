@@ -0,0 +1,25 @@
+package com.bibliotheque.api;
+
+import com.bibliotheque.service.IndicateursEmprunts;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.util.Map;
+
+/**
+ * {@code GET /api/indicateurs} : indicateurs des emprunts en direct (débits, emprunts en
+ * cours et en retard, pénalités du jour), lus sans requête à la base.
+ */
+class IndicateurHandler extends ApiHandler {
+
+    private final IndicateursEmprunts indicateurs;
+
+    IndicateurHandler(IndicateursEmprunts indicateurs) {
+        this.indicateurs = indicateurs;
+    }
+
+    @Override
+    protected void traiter(HttpExchange exchange, Map<String, String> parametres) throws Exception {
+        exigerMethode(exchange, "GET");
+        envoyerObjet(exchange, 200, JsonMapping::ecrire, indicateurs.instantane());
+    }
+}
@@ -0,0 +1,167 @@
+package com.bibliotheque.api;
+
+import com.bibliotheque.audit.JournalAudit;
+import com.bibliotheque.dao.PageHistorique;
+import com.bibliotheque.dao.RequetePage;
+import com.bibliotheque.model.Document;
+import com.bibliotheque.model.Emprunt;
+import com.bibliotheque.model.Empruntable;
+import com.bibliotheque.model.Livre;
+import com.bibliotheque.model.Magazine;
+import com.bibliotheque.model.Membre;
+import com.bibliotheque.model.Reservation;
+import com.bibliotheque.service.IndicateursEmprunts;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Représentations JSON des entités exposées par l'API.
+ */
+final class JsonMapping {
+
+    private JsonMapping() {
+    }
+
+    static void ecrire(JsonWriter json, Livre livre) throws IOException {
+        if (livre == null) {
+            json.nullValue();
+            return;
+        }
+        json.beginObject()
+                .name("isbn").value(livre.getIsbn())
+                .name("titre").value(livre.getTitre())
+                .name("auteur").value(livre.getAuteur())
+                .name("disponible").value(livre.isDisponible())
+                .endObject();
+    }
+
+    /**
+     * Document de type quelconque : les champs communs, puis ceux de son type.
+     */
+    static void ecrire(JsonWriter json, Empruntable document) throws IOException {
+        if (document == null) {
+            json.nullValue();
+            return;
+        }
+        json.beginObject()
+                .name("type").value(document instanceof Magazine ? "magazine" : "livre")
+                .name("identifiant").value(document.getIdentifiant())
+                .name("titre").value(document.getTitre())
+                .name("disponible").value(document.peutEtreEmprunte());
+        if (document instanceof Livre) {
+            json.name("auteur").value(((Livre) document).getAuteur());
+        } else if (document instanceof Magazine) {
+            Magazine magazine = (Magazine) document;
+            json.name("numero").value(magazine.getNumero())
+                    .name("mois").value(magazine.getMois());
+        }
+        json.endObject();
+    }
+
+    static void ecrire(JsonWriter json, Document document) throws IOException {
+        ecrire(json, document instanceof Empruntable ? (Empruntable) document : null);
+    }
+
+    static void ecrire(JsonWriter json, Membre membre) throws IOException {
+        if (membre == null) {
+            json.nullValue();
+            return;
+        }
+        json.beginObject()
+                .name("id").value(membre.getId())
+                .name("nom").value(membre.getNom())
+                .name("prenom").value(membre.getPrenom())
+                .name("email").value(membre.getEmail())
+                .name("actif").value(membre.isActif())
+                .endObject();
+    }
+
+    static void ecrire(JsonWriter json, Emprunt emprunt) throws IOException {
+        json.beginObject()
+                .name("id").value(emprunt.getId())
+                .name("dateEmprunt").value(emprunt.getDateEmprunt())
+                .name("dateRetourPrevue").value(emprunt.getdateRetourPrevue())
+                .name("dateRetourEffective").value(emprunt.getdateRetourEffective())
+                .name("penalite").value(emprunt.getPenalite());
+        // "livre" reste renseigné pour les clients existants (null pour un magazine)
+        json.name("livre");
+        ecrire(json, emprunt.getLivre());
+        json.name("document");
+        ecrire(json, emprunt.getDocument());
+        json.name("membre");
+        ecrire(json, emprunt.getMembre());
+        json.endObject();
+    }
+
+    /**
+     * Page d'historique : totaux de la période, emprunts de la page et ancre de la
+     * page suivante ({@code suivante} vaut null sur la dernière).
+     */
+    static void ecrire(JsonWriter json, PageHistorique page, int taille) throws IOException {
+        json.beginObject()
+                .name("total").value(page.getTotal())
+                .name("totalPenalites").value(page.getTotalPenalites());
+        json.name("emprunts").beginArray();
+        for (Emprunt emprunt : page.getEmprunts()) {
+            ecrire(json, emprunt);
+        }
+        json.endArray();
+        RequetePage suivante = page.suivante(taille);
+        json.name("suivante");
+        if (suivante == null) {
+            json.nullValue();
+        } else {
+            json.beginObject()
+                    .name("apresDate").value((LocalDate) suivante.getValeurAncre())
+                    .name("apresId").value(suivante.getIdAncre())
+                    .endObject();
+        }
+        json.endObject();
+    }
+
+    static void ecrire(JsonWriter json, IndicateursEmprunts.Instantane indicateurs) throws IOException {
+        json.beginObject()
+                .name("horodatage").value(Instant.ofEpochMilli(indicateurs.getHorodatage()).toString())
+                .name("empruntsMinute").value(indicateurs.getEmpruntsMinute())
+                .name("retoursMinute").value(indicateurs.getRetoursMinute())
+                .name("empruntsHeure").value(indicateurs.getEmpruntsHeure())
+                .name("retoursHeure").value(indicateurs.getRetoursHeure())
+                .name("emprunts24h").value(indicateurs.getEmprunts24h())
+                .name("retours24h").value(indicateurs.getRetours24h())
+                .name("empruntsJour").value(indicateurs.getEmpruntsJour())
+                .name("retoursJour").value(indicateurs.getRetoursJour())
+                .name("enCours").value(indicateurs.getEnCours())
+                .name("enRetard").value(indicateurs.getEnRetard())
+                .name("penalitesJour").value(indicateurs.getPenalitesJour())
+                .endObject();
+    }
+
+    static void ecrire(JsonWriter json, JournalAudit.Metriques audit) throws IOException {
+        json.beginObject()
+                .name("actif").value(audit.isActif())
+                .name("enregistrees").value(audit.getEnregistrees())
+                .name("ecrites").value(audit.getEcrites())
+                .name("enAttente").value(audit.getEnAttente())
+                .name("capacite").value(audit.getCapacite())
+                .name("occupationMax").value(audit.getOccupationMax())
+                .name("perdues").value(audit.getPerdues())
+                .name("echecs").value(audit.getEchecs())
+                .endObject();
+    }
+
+    static void ecrire(JsonWriter json, Reservation reservation) throws IOException {
+        json.beginObject()
+                .name("id").value(reservation.getId())
+                .name("priorite").value(reservation.getPriorite())
+                .name("dateReservation").value(reservation.getDateReservation())
+                .name("statut").value(reservation.getStatut().name())
+                .name("dateLimite").value(reservation.getDateLimite());
+        json.name("livre");
+        ecrire(json, reservation.getLivre());
+        json.name("membre");
+        ecrire(json, reservation.getMembre());
+        json.endObject();
+    }
+}
@@ -0,0 +1,167 @@
+package com.bibliotheque.api;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDate;
+
+/**
+ * Écrivain JSON en flux : chaque valeur est écrite directement dans le {@link Writer}
+ * sous-jacent, sans construire de document en mémoire. Permet de diffuser de longues
+ * listes (emprunts en retard, catalogue) avec une empreinte mémoire constante.
+ */
+public class JsonWriter implements Closeable, Flushable {
+
+    private static final int PROFONDEUR_MAX = 32;
+
+    private final Writer out;
+    // premierElement[n] vaut true tant qu'aucun élément n'a été écrit au niveau n
+    private final boolean[] premierElement = new boolean[PROFONDEUR_MAX];
+    private int profondeur;
+    private boolean apresNom;
+
+    public JsonWriter(Writer out) {
+        this.out = out;
+    }
+
+    public JsonWriter beginObject() throws IOException {
+        return ouvrir('{');
+    }
+
+    public JsonWriter endObject() throws IOException {
+        return fermer('}');
+    }
+
+    public JsonWriter beginArray() throws IOException {
+        return ouvrir('[');
+    }
+
+    public JsonWriter endArray() throws IOException {
+        return fermer(']');
+    }
+
+    /**
+     * Écrit le nom d'un membre d'objet ; doit être suivi d'une valeur.
+     */
+    public JsonWriter name(String nom) throws IOException {
+        separer();
+        chaine(nom);
+        out.write(':');
+        apresNom = true;
+        return this;
+    }
+
+    public JsonWriter value(String valeur) throws IOException {
+        if (valeur == null) {
+            return nullValue();
+        }
+        separer();
+        chaine(valeur);
+        return this;
+    }
+
+    public JsonWriter value(long valeur) throws IOException {
+        separer();
+        out.write(Long.toString(valeur));
+        return this;
+    }
+
+    public JsonWriter value(double valeur) throws IOException {
+        if (Double.isNaN(valeur) || Double.isInfinite(valeur)) {
+            return nullValue();
+        }
+        separer();
+        out.write(Double.toString(valeur));
+        return this;
+    }
+
+    public JsonWriter value(boolean valeur) throws IOException {
+        separer();
+        out.write(valeur ? "true" : "false");
+        return this;
+    }
+
+    public JsonWriter value(LocalDate valeur) throws IOException {
+        return value(valeur == null ? null : valeur.toString());
+    }
+
+    public JsonWriter nullValue() throws IOException {
+        separer();
+        out.write("null");
+        return this;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private JsonWriter ouvrir(char c) throws IOException {
+        if (profondeur == PROFONDEUR_MAX) {
+            throw new IllegalStateException("Profondeur JSON maximale atteinte");
+        }
+        separer();
+        out.write(c);
+        premierElement[profondeur++] = true;
+        return this;
+    }
+
+    private JsonWriter fermer(char c) throws IOException {
+        if (profondeur == 0) {
+            throw new IllegalStateException("Aucun objet ou tableau ouvert");
+        }
+        profondeur--;
+        out.write(c);
+        return this;
+    }
+
+    private void separer() throws IOException {
+        if (apresNom) {
+            apresNom = false;
+            return;
+        }
+        if (profondeur > 0) {
+            if (premierElement[profondeur - 1]) {
+                premierElement[profondeur - 1] = false;
+            } else {
+                out.write(',');
+            }
+        }
+    }
+
+    private void chaine(String s) throws IOException {
+        out.write('"');
+        int debut = 0;
+        int longueur = s.length();
+        for (int i = 0; i < longueur; i++) {
+            char c = s.charAt(i);
+            String echappement;
+            if (c == '"') {
+                echappement = "\\\"";
+            } else if (c == '\\') {
+                echappement = "\\\\";
+            } else if (c == '\n') {
+                echappement = "\\n";
+            } else if (c == '\r') {
+                echappement = "\\r";
+            } else if (c == '\t') {
+                echappement = "\\t";
+            } else if (c < 0x20) {
+                echappement = String.format("\\u%04x", (int) c);
+            } else {
+                continue;
+            }
+            out.write(s, debut, i - debut);
+            out.write(echappement);
+            debut = i + 1;
+        }
+        out.write(s, debut, longueur - debut);
+        out.write('"');
+    }
+}
@@ -0,0 +1,24 @@
+package com.bibliotheque.api;
+
+import com.bibliotheque.service.BibliothequeService;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.util.Map;
+
+/**
+ * {@code GET /api/livres?q=...} : recherche dans le catalogue par ISBN, titre ou auteur.
+ */
+class LivreHandler extends ApiHandler {
+
+    private final BibliothequeService bibliothequeService;
+
+    LivreHandler(BibliothequeService bibliothequeService) {
+        this.bibliothequeService = bibliothequeService;
+    }
+
+    @Override
+    protected void traiter(HttpExchange exchange, Map<String, String> parametres) throws Exception {
+        exigerMethode(exchange, "GET");
+        envoyerListe(exchange, bibliothequeService.rechercherLivres(parametres.get("q")), JsonMapping::ecrire);
+    }
+}
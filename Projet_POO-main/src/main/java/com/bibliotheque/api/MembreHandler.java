@@ -0,0 +1,24 @@
+package com.bibliotheque.api;
+
+import com.bibliotheque.service.BibliothequeService;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.util.Map;
+
+/**
+ * {@code GET /api/membres?q=...} : recherche de membres par nom, prénom ou email.
+ */
+class MembreHandler extends ApiHandler {
+
+    private final BibliothequeService bibliothequeService;
+
+    MembreHandler(BibliothequeService bibliothequeService) {
+        this.bibliothequeService = bibliothequeService;
+    }
+
+    @Override
+    protected void traiter(HttpExchange exchange, Map<String, String> parametres) throws Exception {
+        exigerMethode(exchange, "GET");
+        envoyerListe(exchange, bibliothequeService.rechercherMembres(parametres.get("q")), JsonMapping::ecrire);
+    }
+}
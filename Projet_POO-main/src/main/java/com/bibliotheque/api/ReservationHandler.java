@@ -0,0 +1,57 @@
+package com.bibliotheque.api;
+
+import com.bibliotheque.model.Reservation;
+import com.bibliotheque.service.ReservationService;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.util.Map;
+
+/**
+ * Réservations :
+ * <ul>
+ *   <li>{@code POST /api/reservations} (isbn, membreId, priorite facultative) : réserver un livre indisponible</li>
+ *   <li>{@code POST /api/reservations/annulation} (id) : annuler une réservation</li>
+ *   <li>{@code GET /api/reservations?isbn=...} : file d'attente d'un livre</li>
+ *   <li>{@code GET /api/reservations?membreId=...} : réservations en cours d'un membre</li>
+ * </ul>
+ */
+class ReservationHandler extends ApiHandler {
+
+    private final ReservationService reservationService;
+
+    ReservationHandler(ReservationService reservationService) {
+        this.reservationService = reservationService;
+    }
+
+    @Override
+    protected void traiter(HttpExchange exchange, Map<String, String> parametres) throws Exception {
+        String chemin = exchange.getRequestURI().getPath();
+
+        switch (chemin) {
+            case "/api/reservations":
+                if ("POST".equals(exchange.getRequestMethod())) {
+                    int priorite = parametres.containsKey("priorite") ? entierObligatoire(parametres, "priorite") : 0;
+                    Reservation reservation = reservationService.reserver(parametreObligatoire(parametres, "isbn"),
+                            entierObligatoire(parametres, "membreId"), priorite);
+                    envoyerObjet(exchange, 201, JsonMapping::ecrire, reservation);
+                } else {
+                    exigerMethode(exchange, "GET");
+                    if (parametres.containsKey("membreId")) {
+                        envoyerListe(exchange, reservationService.getReservations(entierObligatoire(parametres, "membreId")),
+                                JsonMapping::ecrire);
+                    } else {
+                        envoyerListe(exchange, reservationService.getFileAttente(parametreObligatoire(parametres, "isbn")),
+                                JsonMapping::ecrire);
+                    }
+                }
+                break;
+            case "/api/reservations/annulation":
+                exigerMethode(exchange, "POST");
+                envoyerObjet(exchange, 200, JsonMapping::ecrire,
+                        reservationService.annuler(entierObligatoire(parametres, "id")));
+                break;
+            default:
+                throw new ApiException(404, "Ressource inconnue : " + chemin);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.bibliotheque.audit;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Auteur des écritures du thread courant, pour le journal d'audit.
+ * <p>
+ * L'application n'a pas de comptes utilisateurs : par défaut, l'auteur est le poste
+ * ({@code utilisateur@machine} du système). Le serveur HTTP exécute chaque requête sous
+ * l'adresse de son client, par {@link #executer(String, Callable)}.
+ */
+public final class Acteur {
+
+    private static final String POSTE = poste();
+    private static final ThreadLocal<String> COURANT = new ThreadLocal<>();
+
+    private Acteur() {
+    }
+
+    /**
+     * @return l'auteur des écritures du thread courant
+     */
+    public static String courant() {
+        String acteur = COURANT.get();
+        return acteur != null ? acteur : POSTE;
+    }
+
+    /**
+     * Exécute la tâche sur le thread courant, ses écritures attribuées à {@code acteur}.
+     */
+    public static <R> R executer(String acteur, Callable<R> tache) throws Exception {
+        String precedent = COURANT.get();
+        COURANT.set(acteur);
+        try {
+            return tache.call();
+        } finally {
+            if (precedent == null) {
+                COURANT.remove();
+            } else {
+                COURANT.set(precedent);
+            }
+        }
+    }
+
+    // Sans résolution DNS (InetAddress.getLocalHost peut bloquer) : variables du système
+    private static String poste() {
+        String machine = System.getenv("HOSTNAME");
+        if (machine == null || machine.isBlank()) {
+            machine = System.getenv("COMPUTERNAME");
+        }
+        String utilisateur = System.getProperty("user.name", "inconnu");
+        return machine == null || machine.isBlank() ? utilisateur : utilisateur + "@" + machine;
+    }
+}
@@ -0,0 +1,18 @@
+package com.bibliotheque.audit;
+
+import java.util.List;
+
+/**
+ * Support où le journal d'audit écrit ses entrées.
+ */
+public interface DestinationAudit {
+
+    /**
+     * Écrit un lot d'entrées, dans l'ordre. Les entrées écrites sont retirées de la
+     * liste : après un échec, seules celles qui restent sont présentées de nouveau.
+     */
+    void ecrire(List<EntreeAudit> lot) throws Exception;
+
+    default void fermer() {
+    }
+}
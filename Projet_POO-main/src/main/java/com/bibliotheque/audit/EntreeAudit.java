@@ -0,0 +1,70 @@
+package com.bibliotheque.audit;
+
+/**
+ * Une écriture des services, telle qu'elle est conservée par le {@link JournalAudit}.
+ */
+public final class EntreeAudit {
+
+    /**
+     * Nature de l'écriture.
+     */
+    public enum Action {
+        LIVRE_AJOUTE,
+        LIVRE_SUPPRIME,
+        LIVRE_EMPRUNTE,
+        CATALOGUE_IMPORTE,
+        MAGAZINE_AJOUTE,
+        MEMBRE_AJOUTE,
+        MEMBRE_MODIFIE,
+        MEMBRE_ACTIVE,
+        MEMBRE_DESACTIVE,
+        MEMBRE_SUPPRIME,
+        EMPRUNT_CREE,
+        EMPRUNT_RETOURNE
+    }
+
+    private final long horodatage;
+    private final String acteur;
+    private final Action action;
+    private final String cible;
+    private final String details;
+
+    /**
+     * @param horodatage instant de l'écriture, en millisecondes
+     * @param acteur     auteur de l'écriture (voir {@link Acteur})
+     * @param cible      l'objet écrit, par exemple {@code membre 12}
+     * @param details    les valeurs utiles à la relecture, ou null
+     */
+    public EntreeAudit(long horodatage, String acteur, Action action, String cible, String details) {
+        this.horodatage = horodatage;
+        this.acteur = acteur;
+        this.action = action;
+        this.cible = cible;
+        this.details = details;
+    }
+
+    public long getHorodatage() {
+        return horodatage;
+    }
+
+    public String getActeur() {
+        return acteur;
+    }
+
+    public Action getAction() {
+        return action;
+    }
+
+    public String getCible() {
+        return cible;
+    }
+
+    public String getDetails() {
+        return details;
+    }
+
+    @Override
+    public String toString() {
+        return "EntreeAudit{" + action + " " + cible + " par " + acteur + '}';
+    }
+}
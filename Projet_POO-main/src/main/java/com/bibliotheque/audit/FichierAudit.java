@@ -0,0 +1,136 @@
+package com.bibliotheque.audit;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Journal d'audit dans un fichier texte local, une entrée par ligne : horodatage ISO,
+ * auteur, action, cible et détails séparés par des tabulations (tabulations, retours à
+ * la ligne et barres obliques inverses échappés comme en Java).
+ * <p>
+ * Le fichier reste ouvert et n'est vidé sur le disque qu'une fois par lot. Au-delà de
+ * {@code tailleMax} octets, il est renommé en {@code <fichier>.1} (les anciens sont
+ * décalés, le plus ancien au-delà de {@code conserves} est supprimé) et un nouveau
+ * fichier est commencé. Les fichiers ne sont jamais réécrits.
+ */
+public class FichierAudit implements DestinationAudit {
+
+    private final Path fichier;
+    private final long tailleMax;
+    private final int conserves;
+    private Writer sortie;
+    private long taille;
+
+    public FichierAudit(Path fichier, long tailleMax, int conserves) {
+        this.fichier = fichier;
+        this.tailleMax = tailleMax;
+        this.conserves = Math.max(0, conserves);
+    }
+
+    @Override
+    public synchronized void ecrire(List<EntreeAudit> lot) throws IOException {
+        if (lot.isEmpty()) {
+            return;
+        }
+        try {
+            if (sortie == null) {
+                ouvrir();
+            }
+            StringBuilder lignes = new StringBuilder(lot.size() * 128);
+            for (EntreeAudit entree : lot) {
+                ligne(lignes, entree);
+            }
+            String texte = lignes.toString();
+            sortie.write(texte);
+            sortie.flush();
+            // Approximation en caractères, suffisante pour la rotation
+            taille += texte.length();
+        } catch (IOException e) {
+            // Fichier rouvert au lot suivant ; le lot sera présenté de nouveau
+            fermer();
+            throw e;
+        }
+        lot.clear();
+        if (tailleMax > 0 && taille >= tailleMax) {
+            tourner();
+        }
+    }
+
+    private void ouvrir() throws IOException {
+        Path dossier = fichier.toAbsolutePath().getParent();
+        if (dossier != null) {
+            Files.createDirectories(dossier);
+        }
+        sortie = Files.newBufferedWriter(fichier, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        taille = Files.size(fichier);
+    }
+
+    private void tourner() throws IOException {
+        fermer();
+        if (conserves == 0) {
+            Files.deleteIfExists(fichier);
+            return;
+        }
+        Files.deleteIfExists(ancien(conserves));
+        for (int i = conserves - 1; i >= 1; i--) {
+            if (Files.exists(ancien(i))) {
+                Files.move(ancien(i), ancien(i + 1), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        Files.move(fichier, ancien(1), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private Path ancien(int rang) {
+        return fichier.resolveSibling(fichier.getFileName() + "." + rang);
+    }
+
+    private static void ligne(StringBuilder lignes, EntreeAudit entree) {
+        lignes.append(Instant.ofEpochMilli(entree.getHorodatage())).append('\t');
+        echapper(lignes, entree.getActeur());
+        lignes.append('\t').append(entree.getAction()).append('\t');
+        echapper(lignes, entree.getCible());
+        lignes.append('\t');
+        echapper(lignes, entree.getDetails());
+        lignes.append('\n');
+    }
+
+    private static void echapper(StringBuilder lignes, String valeur) {
+        if (valeur == null) {
+            return;
+        }
+        for (int i = 0; i < valeur.length(); i++) {
+            char c = valeur.charAt(i);
+            if (c == '\\') {
+                lignes.append("\\\\");
+            } else if (c == '\t') {
+                lignes.append("\\t");
+            } else if (c == '\n') {
+                lignes.append("\\n");
+            } else if (c == '\r') {
+                lignes.append("\\r");
+            } else {
+                lignes.append(c);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void fermer() {
+        if (sortie != null) {
+            try {
+                sortie.close();
+            } catch (IOException ignored) {
+                // rien à sauver : le fichier sera rouvert au prochain lot
+            }
+            sortie = null;
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.bibliotheque.audit;
+
+import com.bibliotheque.util.AnneauSansVerrou;
+import com.bibliotheque.util.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Journal d'audit des écritures des services : ajout de livres et de membres,
+ * modifications, suppressions, emprunts et retours, imports de catalogue.
+ * <p>
+ * {@link #enregistrer} ne fait que déposer l'entrée dans un {@link AnneauSansVerrou} :
+ * ni verrou, ni entrée-sortie sur le parcours d'emprunt. Un seul thread d'écriture
+ * ({@code audit}) vide l'anneau par lots de {@code audit.lot} entrées vers la
+ * {@link DestinationAudit} (fichier tournant ou table {@code audit}). Un lot en échec
+ * est présenté de nouveau, avec une attente croissante, au lieu d'être abandonné.
+ * <p>
+ * Anneau plein (destination trop lente ou injoignable) : l'entrée est perdue et comptée
+ * aussitôt, sans faire attendre l'appelant ; le thread d'écriture signale les pertes.
+ * Les compteurs de {@link #metriques()} permettent de surveiller cette saturation. À
+ * l'arrêt du processus, l'anneau est vidé avant la sortie.
+ */
+public class JournalAudit {
+
+    private static final long PAUSE_VIDE_NS = TimeUnit.MILLISECONDS.toNanos(5);
+    private static final long REPRISE_MIN_MS = 100;
+    private static final long REPRISE_MAX_MS = 30_000;
+    private static final long ARRET_MAX_MS = 5_000;
+
+    private final DestinationAudit destination;
+    private final AnneauSansVerrou<EntreeAudit> anneau;
+    private final int tailleLot;
+
+    private final LongAdder enregistrees = new LongAdder();
+    private final LongAdder perdues = new LongAdder();
+    // Écrits par le seul thread d'écriture
+    private volatile long ecrites;
+    private volatile long echecs;
+    private volatile int occupationMax;
+
+    private volatile boolean arret;
+    private Thread ecrivain;
+
+    /**
+     * Journal configuré par {@code audit.capacite} et {@code audit.lot}.
+     */
+    public JournalAudit(DestinationAudit destination) {
+        this(destination, Configuration.getInt("audit.capacite", 65536), Configuration.getInt("audit.lot", 500));
+    }
+
+    public JournalAudit(DestinationAudit destination, int capacite, int tailleLot) {
+        this.destination = destination;
+        this.anneau = destination != null ? new AnneauSansVerrou<>(Math.max(1, capacite)) : null;
+        this.tailleLot = Math.max(1, tailleLot);
+    }
+
+    /**
+     * @return un journal qui n'enregistre rien ({@code audit.actif=false}, tests)
+     */
+    public static JournalAudit aucun() {
+        return new JournalAudit(null, 1, 1);
+    }
+
+    public boolean isActif() {
+        return destination != null;
+    }
+
+    /**
+     * Démarre le thread d'écriture, vidé à l'arrêt du processus.
+     */
+    public synchronized void demarrer() {
+        if (destination == null || ecrivain != null) {
+            return;
+        }
+        ecrivain = new Thread(this::ecrireEnContinu, "audit");
+        ecrivain.setDaemon(true);
+        ecrivain.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::arreter));
+    }
+
+    /**
+     * Écrit les entrées restantes, puis arrête le thread d'écriture.
+     */
+    public void arreter() {
+        Thread t;
+        synchronized (this) {
+            if (ecrivain == null || arret) {
+                return;
+            }
+            arret = true;
+            t = ecrivain;
+        }
+        LockSupport.unpark(t);
+        try {
+            t.join(ARRET_MAX_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        destination.fermer();
+    }
+
+    /**
+     * Enregistre une écriture du thread courant, attribuée à {@link Acteur#courant()}.
+     * Ne bloque jamais : anneau plein, l'entrée est perdue et comptée.
+     *
+     * @param cible   l'objet écrit, par exemple {@code membre 12}
+     * @param details les valeurs utiles à la relecture, ou null
+     */
+    public void enregistrer(EntreeAudit.Action action, String cible, String details) {
+        if (destination == null) {
+            return;
+        }
+        EntreeAudit entree = new EntreeAudit(System.currentTimeMillis(), Acteur.courant(), action, cible, details);
+        enregistrees.increment();
+        if (!anneau.offrir(entree)) {
+            perdues.increment();
+        }
+    }
+
+    private void ecrireEnContinu() {
+        List<EntreeAudit> lot = new ArrayList<>(tailleLot);
+        long reprise = REPRISE_MIN_MS;
+        long pertesSignalees = 0;
+        while (true) {
+            if (lot.isEmpty()) {
+                int occupation = anneau.taille();
+                if (occupation > occupationMax) {
+                    occupationMax = occupation;
+                }
+                anneau.vider(lot, tailleLot);
+            }
+            long pertes = perdues.sum();
+            if (pertes > pertesSignalees) {
+                System.err.println((pertes - pertesSignalees) + " entrée(s) d'audit perdue(s) : journal saturé");
+                pertesSignalees = pertes;
+            }
+            if (lot.isEmpty()) {
+                if (arret) {
+                    return;
+                }
+                LockSupport.parkNanos(PAUSE_VIDE_NS);
+                continue;
+            }
+            int avant = lot.size();
+            try {
+                destination.ecrire(lot);
+                reprise = REPRISE_MIN_MS;
+            } catch (Exception e) {
+                echecs++;
+                if (reprise == REPRISE_MIN_MS) {
+                    System.err.println("Écriture du journal d'audit impossible : " + e.getMessage());
+                }
+                if (arret) {
+                    // Plus de nouvelle tentative possible : le reste est perdu
+                    perdues.add(lot.size() + anneau.taille());
+                    System.err.println((perdues.sum() - pertesSignalees) + " entrée(s) d'audit perdue(s) à l'arrêt");
+                    return;
+                }
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(reprise));
+                reprise = Math.min(reprise * 2, REPRISE_MAX_MS);
+            } finally {
+                ecrites += avant - lot.size();
+            }
+        }
+    }
+
+    /**
+     * @return les compteurs du journal à cet instant
+     */
+    public Metriques metriques() {
+        return new Metriques(isActif(), enregistrees.sum(), ecrites, anneau != null ? anneau.taille() : 0,
+                anneau != null ? anneau.getCapacite() : 0, occupationMax, perdues.sum(), echecs);
+    }
+
+    /**
+     * Compteurs du journal depuis le démarrage.
+     */
+    public static final class Metriques {
+        private final boolean actif;
+        private final long enregistrees;
+        private final long ecrites;
+        private final int enAttente;
+        private final int capacite;
+        private final int occupationMax;
+        private final long perdues;
+        private final long echecs;
+
+        Metriques(boolean actif, long enregistrees, long ecrites, int enAttente, int capacite,
+                  int occupationMax, long perdues, long echecs) {
+            this.actif = actif;
+            this.enregistrees = enregistrees;
+            this.ecrites = ecrites;
+            this.enAttente = enAttente;
+            this.capacite = capacite;
+            this.occupationMax = occupationMax;
+            this.perdues = perdues;
+            this.echecs = echecs;
+        }
+
+        public boolean isActif() {
+            return actif;
+        }
+
+        /** Entrées reçues des services. */
+        public long getEnregistrees() {
+            return enregistrees;
+        }
+
+        /** Entrées écrites sur la destination. */
+        public long getEcrites() {
+            return ecrites;
+        }
+
+        /** Entrées dans l'anneau, pas encore écrites. */
+        public int getEnAttente() {
+            return enAttente;
+        }
+
+        public int getCapacite() {
+            return capacite;
+        }
+
+        /** Plus forte occupation de l'anneau observée par le thread d'écriture. */
+        public int getOccupationMax() {
+            return occupationMax;
+        }
+
+        /** Entrées abandonnées faute de place dans l'anneau, ou à l'arrêt. */
+        public long getPerdues() {
+            return perdues;
+        }
+
+        /** Lots dont l'écriture a échoué (et a été reprise). */
+        public long getEchecs() {
+            return echecs;
+        }
+    }
+}
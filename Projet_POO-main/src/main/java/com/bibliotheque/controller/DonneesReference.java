@@ -0,0 +1,82 @@
+package com.bibliotheque.controller;
+
+import com.bibliotheque.model.Livre;
+import com.bibliotheque.model.Membre;
+import com.bibliotheque.service.BibliothequeService;
+import com.bibliotheque.event.BusEvenements;
+import com.bibliotheque.event.CatalogueImporte;
+import com.bibliotheque.event.LivreModifie;
+import com.bibliotheque.event.LivreSupprime;
+import com.bibliotheque.event.MembreEnregistre;
+import com.bibliotheque.event.MembreSupprime;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Listes de référence (livres, membres) partagées par les onglets et chargées
+ * en arrière-plan, hors du thread JavaFX.
+ * <p>
+ * Le préchargement est lancé au démarrage : quand un onglet s'ouvre, ses données
+ * sont en général déjà disponibles. Une liste modifiée depuis est rechargée au
+ * prochain accès.
+ */
+public class DonneesReference {
+
+    private final BibliothequeService service;
+    private final ExecutorService executeur = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "prechargement-donnees");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private volatile CompletableFuture<List<Membre>> membres;
+    private volatile CompletableFuture<List<Livre>> livres;
+
+    public DonneesReference(BibliothequeService service, BusEvenements bus) {
+        this.service = service;
+        // Une liste modifiée n'est rechargée qu'au prochain besoin : les onglets déjà
+        // ouverts appliquent eux-mêmes les changements
+        bus.abonner(MembreEnregistre.class, e -> membres = null);
+        bus.abonner(MembreSupprime.class, e -> membres = null);
+        bus.abonner(LivreModifie.class, e -> livres = null);
+        bus.abonner(LivreSupprime.class, e -> livres = null);
+        bus.abonner(CatalogueImporte.class, e -> livres = null);
+    }
+
+    /**
+     * Lance le chargement des listes en arrière-plan.
+     */
+    public void precharger() {
+        rechargerMembres();
+        rechargerLivres();
+    }
+
+    /**
+     * @return la liste des membres, chargée ou en cours de chargement
+     */
+    public CompletableFuture<List<Membre>> membres() {
+        CompletableFuture<List<Membre>> courant = membres;
+        return courant != null ? courant : rechargerMembres();
+    }
+
+    /**
+     * @return la liste des livres, chargée ou en cours de chargement
+     */
+    public CompletableFuture<List<Livre>> livres() {
+        CompletableFuture<List<Livre>> courant = livres;
+        return courant != null ? courant : rechargerLivres();
+    }
+
+    public CompletableFuture<List<Membre>> rechargerMembres() {
+        membres = CompletableFuture.supplyAsync(service::getTousLesMembres, executeur);
+        return membres;
+    }
+
+    public CompletableFuture<List<Livre>> rechargerLivres() {
+        livres = CompletableFuture.supplyAsync(service::getTousLesLivres, executeur);
+        return livres;
+    }
+}
@@ -1,18 +1,39 @@
 package com.bibliotheque.controller;
 
+import com.bibliotheque.dao.FiltreEmprunt;
+import com.bibliotheque.dao.RequetePage;
+import com.bibliotheque.event.BusEvenements;
+import com.bibliotheque.event.CatalogueImporte;
+import com.bibliotheque.event.EmpruntCree;
+import com.bibliotheque.event.EmpruntRetourne;
+import com.bibliotheque.event.LivreModifie;
+import com.bibliotheque.event.LivreSupprime;
+import com.bibliotheque.event.MembreEnregistre;
+import com.bibliotheque.event.MembreSupprime;
+import com.bibliotheque.event.ReservationDisponible;
 import com.bibliotheque.exception.LimiteEmpruntDepasseeException;
 import com.bibliotheque.exception.LivreIndisponibleException;
 import com.bibliotheque.exception.MembreInactifException;
 import com.bibliotheque.model.Emprunt;
+import com.bibliotheque.model.Livre;
+import com.bibliotheque.model.Membre;
+import com.bibliotheque.model.Reservation;
 import com.bibliotheque.service.BibliothequeService;
 import com.bibliotheque.service.EmpruntService;
+import com.bibliotheque.service.ReservationService;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
+import javafx.util.StringConverter;
 
 import java.sql.SQLException;
 import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
 
 public class EmpruntController {
@@ -35,14 +56,16 @@ public class EmpruntController {
     private TableColumn<Emprunt, Double> colPenalite;
 
     @FXML
-    private ComboBox<String> comboLivres;
+    private ComboBox<Livre> comboLivres;
     @FXML
-    private ComboBox<String> comboMembres;
+    private ComboBox<Membre> comboMembres;
     @FXML
     private Button btnEmprunter;
     @FXML
     private Button btnRetourner;
     @FXML
+    private Button btnReserver;
+    @FXML
     private Button btnAfficherEnCours;
     @FXML
     private Button btnAfficherEnRetard;
@@ -51,64 +74,226 @@ public class EmpruntController {
 
     private BibliothequeService bibliothequeService;
     private EmpruntService empruntService;
+    private ReservationService reservationService;
+    private DonneesReference donneesReference;
+    private ListePaginee<Emprunt> listeEmprunts;
+    private FiltreEmprunt filtre = FiltreEmprunt.TOUS;
 
 
-    public void setServices(BibliothequeService bibliothequeService, EmpruntService empruntService) {
+    public void setServices(BibliothequeService bibliothequeService, EmpruntService empruntService,
+                            ReservationService reservationService, BusEvenements bus,
+                            DonneesReference donneesReference) {
         this.bibliothequeService = bibliothequeService;
         this.empruntService = empruntService;
+        this.reservationService = reservationService;
+        this.donneesReference = donneesReference;
+        initialiserTable();
+        initialiserCombos();
         chargerDonnees();
+        abonnerEvenements(bus);
+    }
+
+    /**
+     * La table des emprunts est paginée : seules les lignes visibles sont chargées,
+     * le filtre et le tri sont appliqués par la base.
+     */
+    private void initialiserTable() {
+        listeEmprunts = new ListePaginee<>(new ListePaginee.Source<>() {
+            @Override
+            public int compter() throws SQLException {
+                return empruntService.compterEmprunts(filtre);
+            }
+
+            @Override
+            public List<Emprunt> charger(RequetePage page) throws SQLException {
+                return empruntService.getPageEmprunts(filtre, page);
+            }
+
+            @Override
+            public Object valeurTri(Emprunt emprunt, String colonne) {
+                switch (colonne) {
+                    // NULL pour un magazine, comme la colonne
+                    case "isbn": return emprunt.getLivre() != null ? emprunt.getLivre().getIsbn() : null;
+                    case "membre_id": return emprunt.getMembre() != null ? emprunt.getMembre().getId() : null;
+                    case "date_emprunt": return emprunt.getDateEmprunt();
+                    case "date_retour_prevue": return emprunt.getdateRetourPrevue();
+                    case "penalite": return emprunt.getPenalite();
+                    default: return emprunt.getId();
+                }
+            }
+
+            @Override
+            public int id(Emprunt emprunt) {
+                return emprunt.getId();
+            }
+
+            @Override
+            public boolean accepte(Emprunt emprunt) {
+                return correspondFiltre(emprunt);
+            }
+        }, e -> afficherErreur("Erreur de chargement", e.getMessage()));
+
+        Map<TableColumn<Emprunt, ?>, String> colonnesTri = Map.of(
+                colId, "id",
+                colLivre, "isbn",
+                colMembre, "membre_id",
+                colDateEmprunt, "date_emprunt",
+                colDateRetourPrevue, "date_retour_prevue",
+                colPenalite, "penalite");
+        colDateRetourEffective.setSortable(false);
+        tableViewEmprunts.setSortPolicy(table -> {
+            TableColumn<Emprunt, ?> colonne = table.getSortOrder().isEmpty() ? null : table.getSortOrder().get(0);
+            listeEmprunts.trier(colonnesTri.getOrDefault(colonne, "id"),
+                    colonne == null || colonne.getSortType() == TableColumn.SortType.ASCENDING);
+            return true;
+        });
+        tableViewEmprunts.setItems(listeEmprunts);
+    }
+
+
+    /**
+     * Les combos contiennent les livres et membres eux-mêmes : le libellé n'est construit
+     * que pour les lignes affichées.
+     */
+    private void initialiserCombos() {
+        comboLivres.setConverter(new Libelle<>(l -> l.getIsbn() + " - " + l.getTitre()));
+        comboMembres.setConverter(new Libelle<>(m -> m.getId() + " - " + m.getNom()));
     }
 
+    private static final class Libelle<T> extends StringConverter<T> {
+        private final Function<T, String> libelle;
+
+        Libelle(Function<T, String> libelle) {
+            this.libelle = libelle;
+        }
+
+        @Override
+        public String toString(T valeur) {
+            return valeur == null ? "" : libelle.apply(valeur);
+        }
+
+        @Override
+        public T fromString(String texte) {
+            // Combos non éditables
+            return null;
+        }
+    }
 
     private void chargerDonnees() {
-        try {
-            chargerLivres();
-            chargerMembres();
-            chargerEmprunts();
-        } catch (SQLException e) {
-            afficherErreur("Erreur de chargement", e.getMessage());
+        // Les listes des combos viennent du préchargement lancé au démarrage
+        afficherLivres(donneesReference.livres());
+        afficherMembres(donneesReference.membres());
+        chargerEmprunts();
+    }
+
+    private void afficherLivres(CompletableFuture<List<Livre>> livres) {
+        livres.whenCompleteAsync((liste, erreur) -> {
+            if (erreur != null) {
+                afficherErreur("Erreur de chargement", erreur.getMessage());
+                return;
+            }
+            comboLivres.setItems(FXCollections.observableArrayList(liste));
+        }, Platform::runLater);
+    }
+
+    private void afficherMembres(CompletableFuture<List<Membre>> membres) {
+        membres.whenCompleteAsync((liste, erreur) -> {
+            if (erreur != null) {
+                afficherErreur("Erreur de chargement", erreur.getMessage());
+                return;
+            }
+            comboMembres.setItems(FXCollections.observableArrayList(liste));
+        }, Platform::runLater);
+    }
+
+    private void chargerEmprunts() {
+        listeEmprunts.recharger();
+    }
+
+    private boolean correspondFiltre(Emprunt emprunt) {
+        switch (filtre) {
+            case EN_COURS:
+                return emprunt.getdateRetourEffective() == null;
+            case EN_RETARD:
+                return emprunt.getdateRetourEffective() == null
+                        && emprunt.getdateRetourPrevue() != null
+                        && emprunt.getdateRetourPrevue().isBefore(LocalDate.now());
+            default:
+                return true;
         }
     }
 
-    private void chargerLivres() throws SQLException {
-        var livres = bibliothequeService.getTousLesLivres();
-        ObservableList<String> items = FXCollections.observableArrayList();
-        livres.forEach(l -> items.add(l.getIsbn() + " - " + l.getTitre()));
-        comboLivres.setItems(items);
+    /**
+     * Les écritures publiées sur le bus (depuis cet onglet ou un autre) sont
+     * appliquées ligne par ligne à la table et aux combos.
+     */
+    private void abonnerEvenements(BusEvenements bus) {
+        bus.abonner(EmpruntCree.class, e -> ThreadFx.executer(() -> listeEmprunts.ajouter(e.getEmprunt())));
+        bus.abonner(EmpruntRetourne.class, e -> ThreadFx.executer(() -> listeEmprunts.remplacer(e.getEmprunt())));
+        bus.abonner(LivreModifie.class, e -> ThreadFx.executer(() -> appliquerLivre(e.getLivre(), false)));
+        bus.abonner(LivreSupprime.class, e -> ThreadFx.executer(() -> appliquerLivre(e.getLivre(), true)));
+        bus.abonner(CatalogueImporte.class, e -> ThreadFx.executer(() -> afficherLivres(donneesReference.livres())));
+        bus.abonner(MembreEnregistre.class, e -> ThreadFx.executer(() -> appliquerMembre(e.getMembre(), false)));
+        bus.abonner(MembreSupprime.class, e -> ThreadFx.executer(() -> {
+            appliquerMembre(e.getMembre(), true);
+            // Les emprunts du membre supprimé disparaissent avec lui
+            listeEmprunts.recharger();
+        }));
+        // Le livre rendu doit être mis de côté plutôt que rangé en rayon
+        bus.abonner(ReservationDisponible.class, e -> ThreadFx.executer(() -> {
+            Reservation reservation = e.getReservation();
+            afficherSucces("Réservation disponible", "Mettre de côté « " + reservation.getLivre().getTitre()
+                    + " » pour " + reservation.getMembre().getNom() + " " + reservation.getMembre().getPrenom()
+                    + " jusqu'au " + reservation.getDateLimite());
+        }));
+    }
+
+    private void appliquerLivre(Livre livre, boolean suppression) {
+        appliquer(comboLivres.getItems(), suppression, livre, l -> l.getIsbn().equals(livre.getIsbn()));
+    }
+
+    private void appliquerMembre(Membre membre, boolean suppression) {
+        appliquer(comboMembres.getItems(), suppression, membre, m -> m.getId() == membre.getId());
     }
 
-    private void chargerMembres() throws SQLException {
-        var membres = bibliothequeService.getTousLesMembres();
-        ObservableList<String> items = FXCollections.observableArrayList();
-        membres.forEach(m -> items.add(m.getId() + " - " + m.getNom()));
-        comboMembres.setItems(items);
+    private static <T> void appliquer(List<T> items, boolean suppression, T valeur, Predicate<T> meme) {
+        int index = -1;
+        for (int i = 0; i < items.size(); i++) {
+            if (meme.test(items.get(i))) {
+                index = i;
+                break;
+            }
+        }
+        if (suppression) {
+            if (index >= 0) {
+                items.remove(index);
+            }
+        } else if (index >= 0) {
+            items.set(index, valeur);
+        } else {
+            items.add(valeur);
+        }
     }
 
-    private void chargerEmprunts() throws SQLException {
-        var emprunts = empruntService.getTousEmprunt();
-        ObservableList<Emprunt> data = FXCollections.observableArrayList(emprunts);
-        tableViewEmprunts.setItems(data);
+    private void afficherFiltre(FiltreEmprunt nouveauFiltre) {
+        filtre = nouveauFiltre;
+        listeEmprunts.recharger();
     }
 
 
     @FXML
     public void handleEmprunter() {
         try {
-            String livreStr = comboLivres.getValue();
-            String membreStr = comboMembres.getValue();
+            Livre livre = comboLivres.getValue();
+            Membre membre = comboMembres.getValue();
 
-            if (livreStr == null || membreStr == null) {
+            if (livre == null || membre == null) {
                 afficherErreur("Erreur", "Veuillez sélectionner un livre et un membre");
                 return;
             }
 
-            String isbn = livreStr.split(" - ")[0];
-            int membreId = Integer.parseInt(membreStr.split(" - ")[0]);
-
-            empruntService.emprunterLivre(isbn, membreId);
+            empruntService.emprunterLivre(livre.getIsbn(), membre.getId());
             afficherSucces("Succès", "Livre emprunté avec succès!");
-            chargerEmprunts();
-            chargerLivres();
         } catch (MembreInactifException | LivreIndisponibleException | LimiteEmpruntDepasseeException e) {
             afficherErreur("Erreur", e.getMessage());
         } catch (SQLException e) {
@@ -125,46 +310,48 @@ public class EmpruntController {
         }
 
         try {
-            empruntService.retournerLivre(selected.getLivre().getIsbn(),selected.getMembre().getId());
+            empruntService.retournerLivre(selected.getDocument().getIdentifiant(),selected.getMembre().getId());
             afficherSucces("Succès", "Livre retourné avec succès!");
-            chargerEmprunts();
-            chargerLivres();
         } catch (SQLException e) {
             afficherErreur("Erreur de base de données", e.getMessage());
         }
     }
 
     @FXML
-    public void handleAfficherEnCours() {
+    public void handleReserver() {
+        Livre livre = comboLivres.getValue();
+        Membre membre = comboMembres.getValue();
+        if (livre == null || membre == null) {
+            afficherErreur("Erreur", "Veuillez sélectionner un livre et un membre");
+            return;
+        }
+        String isbn = livre.getIsbn();
         try {
-            var emprunts = empruntService.getEmpruntsEnCours();
-            ObservableList<Emprunt> data = FXCollections.observableArrayList(emprunts);
-            tableViewEmprunts.setItems(data);
-        } catch (SQLException e) {
+            reservationService.reserver(isbn, membre.getId());
+            int rang = reservationService.getFileAttente(isbn).size();
+            afficherSucces("Succès", "Livre réservé (position " + rang + " dans la file)");
+        } catch (MembreInactifException | IllegalArgumentException e) {
             afficherErreur("Erreur", e.getMessage());
+        } catch (SQLException e) {
+            afficherErreur("Erreur de base de données", e.getMessage());
         }
     }
 
+    @FXML
+    public void handleAfficherEnCours() {
+        afficherFiltre(FiltreEmprunt.EN_COURS);
+    }
+
 
     @FXML
     public void handleAfficherEnRetard() {
-        try {
-            var emprunts = empruntService.getEmpruntEnRetard();
-            ObservableList<Emprunt> data = FXCollections.observableArrayList(emprunts);
-            tableViewEmprunts.setItems(data);
-        } catch (SQLException e) {
-            afficherErreur("Erreur", e.getMessage());
-        }
+        afficherFiltre(FiltreEmprunt.EN_RETARD);
     }
 
     
     @FXML
     public void handleAfficherTous() {
-        try {
-            chargerEmprunts();
-        } catch (SQLException e) {
-            afficherErreur("Erreur", e.getMessage());
-        }
+        afficherFiltre(FiltreEmprunt.TOUS);
     }
 
 
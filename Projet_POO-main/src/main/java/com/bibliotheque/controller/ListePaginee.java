@@ -0,0 +1,330 @@
+package com.bibliotheque.controller;
+
+import com.bibliotheque.dao.RequetePage;
+import javafx.application.Platform;
+import javafx.collections.ObservableListBase;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Liste observable paginée pour les TableView : seule la taille totale est connue
+ * d'avance, les lignes sont chargées par pages à mesure que la table les affiche.
+ * <p>
+ * Une ligne non encore chargée vaut {@code null} (ligne vide) ; elle est remplacée
+ * dès l'arrivée de sa page. Le tri est délégué à la base ; la page suivant une page
+ * déjà chargée est demandée par clé (valeur de tri et id de sa dernière ligne), un
+ * saut direct utilise un décalage. Seules les dernières pages consultées sont gardées.
+ * <p>
+ * Les modifications connues (création, mise à jour, suppression d'une ligne) sont
+ * appliquées directement par {@link #ajouter}, {@link #remplacer} et {@link #retirer},
+ * sans recompter ni recharger la liste.
+ * <p>
+ * Toutes les méthodes doivent être appelées sur le thread JavaFX ; les requêtes
+ * s'exécutent sur un thread dédié.
+ *
+ * @param <T> le type de ligne
+ */
+public class ListePaginee<T> extends ObservableListBase<T> {
+
+    /**
+     * Accès aux données paginées.
+     */
+    public interface Source<T> {
+        int compter() throws Exception;
+
+        List<T> charger(RequetePage page) throws Exception;
+
+        /**
+         * @return la valeur de la colonne de tri pour cette ligne, ou null si inconnue
+         */
+        Object valeurTri(T element, String colonne);
+
+        int id(T element);
+
+        /**
+         * @return true si la ligne correspond au filtre courant (utilisé pour les deltas)
+         */
+        default boolean accepte(T element) {
+            return true;
+        }
+    }
+
+    private static final int TAILLE_PAGE = 100;
+    private static final int PAGES_EN_CACHE = 10;
+
+    private final Source<T> source;
+    private final Consumer<Throwable> gestionErreur;
+    private final ExecutorService executeur = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "chargement-pages");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final Map<Integer, List<T>> pages = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, List<T>> eldest) {
+            return size() > PAGES_EN_CACHE;
+        }
+    };
+    // Dernière ligne de chaque page chargée : ancre de la page suivante
+    private final Map<Integer, Ancre> ancres = new HashMap<>();
+    private final Set<Integer> enChargement = new HashSet<>();
+
+    private String colonneTri = "id";
+    private boolean croissant = true;
+    private int taille;
+    // Lue aussi par le thread de chargement, pour sauter les tâches devenues inutiles
+    private volatile int generation;
+
+    public ListePaginee(Source<T> source, Consumer<Throwable> gestionErreur) {
+        this.source = source;
+        this.gestionErreur = gestionErreur;
+    }
+
+    @Override
+    public T get(int index) {
+        if (index < 0 || index >= taille) {
+            throw new IndexOutOfBoundsException("Index " + index + " hors de [0, " + taille + ")");
+        }
+        int numero = index / TAILLE_PAGE;
+        List<T> page = pages.get(numero);
+        if (page == null) {
+            demanderPage(numero);
+            return null;
+        }
+        int position = index % TAILLE_PAGE;
+        return position < page.size() ? page.get(position) : null;
+    }
+
+    @Override
+    public int size() {
+        return taille;
+    }
+
+    /**
+     * Change le tri puis recharge la liste.
+     *
+     * @param colonne   la colonne SQL de tri
+     * @param croissant le sens du tri
+     */
+    public void trier(String colonne, boolean croissant) {
+        this.colonneTri = colonne;
+        this.croissant = croissant;
+        recharger();
+    }
+
+    /**
+     * Oublie les pages chargées et recompte les lignes (après un changement de filtre
+     * ou une modification des données).
+     */
+    public void recharger() {
+        int courante = ++generation;
+        pages.clear();
+        ancres.clear();
+        enChargement.clear();
+        executer(courante, source::compter, this::changerTaille);
+    }
+
+    /**
+     * Ajoute une ligne créée. Triée par id croissant, elle va en fin de liste ;
+     * sinon sa position est inconnue et les pages affichées sont redemandées.
+     */
+    public void ajouter(T element) {
+        if (!source.accepte(element)) {
+            return;
+        }
+        int index = taille++;
+        if ("id".equals(colonneTri) && croissant) {
+            int numero = index / TAILLE_PAGE;
+            List<T> page = pages.get(numero);
+            if (page == null && index % TAILLE_PAGE == 0) {
+                page = new ArrayList<>();
+                pages.put(numero, page);
+            }
+            if (page != null && page.size() == index % TAILLE_PAGE) {
+                page.add(element);
+                ancres.put(numero, new Ancre(source.id(element), source.id(element)));
+            }
+            beginChange();
+            nextAdd(index, index + 1);
+            endChange();
+        } else {
+            beginChange();
+            nextAdd(index, index + 1);
+            endChange();
+            invaliderPagesDepuis(0);
+        }
+    }
+
+    /**
+     * Remplace une ligne modifiée si elle est affichée. Si elle ne correspond plus
+     * au filtre, elle est retirée.
+     */
+    public void remplacer(T element) {
+        if (!source.accepte(element)) {
+            retirer(element);
+            return;
+        }
+        int[] position = chercher(source.id(element));
+        if (position == null) {
+            return;
+        }
+        T ancien = pages.get(position[0]).set(position[1], element);
+        beginChange();
+        nextSet(position[0] * TAILLE_PAGE + position[1], ancien);
+        endChange();
+    }
+
+    /**
+     * Retire une ligne supprimée. Les pages suivantes sont décalées d'une ligne :
+     * elles seront redemandées à l'affichage.
+     */
+    public void retirer(T element) {
+        int[] position = chercher(source.id(element));
+        if (position == null) {
+            // Ligne non chargée : son index est inconnu
+            recharger();
+            return;
+        }
+        T retire = pages.get(position[0]).remove(position[1]);
+        taille--;
+        beginChange();
+        nextRemove(position[0] * TAILLE_PAGE + position[1], retire);
+        endChange();
+        invaliderPagesDepuis(position[0]);
+    }
+
+    private int[] chercher(int id) {
+        for (Map.Entry<Integer, List<T>> entree : pages.entrySet()) {
+            List<T> page = entree.getValue();
+            for (int i = 0; i < page.size(); i++) {
+                if (source.id(page.get(i)) == id) {
+                    return new int[]{entree.getKey(), i};
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Oublie les pages à partir de {@code premiere} et signale leurs lignes comme
+     * modifiées pour que la table les redemande.
+     */
+    private void invaliderPagesDepuis(int premiere) {
+        generation++;
+        enChargement.clear();
+        ancres.keySet().removeIf(numero -> numero >= premiere);
+        List<Integer> numeros = new ArrayList<>(pages.keySet());
+        for (Integer numero : numeros) {
+            if (numero >= premiere) {
+                pages.remove(numero);
+                signalerPage(numero);
+            }
+        }
+    }
+
+    private void demanderPage(int numero) {
+        if (!enChargement.add(numero)) {
+            return;
+        }
+        int courante = generation;
+        RequetePage requete = requete(numero);
+        executer(courante, () -> source.charger(requete), page -> {
+            enChargement.remove(numero);
+            pages.put(numero, page);
+            if (!page.isEmpty()) {
+                T derniere = page.get(page.size() - 1);
+                Object valeur = source.valeurTri(derniere, colonneTri);
+                if (valeur != null || "id".equals(colonneTri)) {
+                    ancres.put(numero, new Ancre(valeur, source.id(derniere)));
+                }
+            }
+            signalerPage(numero);
+        });
+    }
+
+    private RequetePage requete(int numero) {
+        Ancre precedente = ancres.get(numero - 1);
+        if (precedente != null) {
+            return RequetePage.apres(colonneTri, croissant, precedente.valeur, precedente.id, TAILLE_PAGE);
+        }
+        return RequetePage.aDecalage(colonneTri, croissant, numero * TAILLE_PAGE, TAILLE_PAGE);
+    }
+
+    private void signalerPage(int numero) {
+        int debut = numero * TAILLE_PAGE;
+        int fin = Math.min(debut + TAILLE_PAGE, taille);
+        if (debut >= fin) {
+            return;
+        }
+        beginChange();
+        nextReplace(debut, fin, Collections.nCopies(fin - debut, null));
+        endChange();
+    }
+
+    private void changerTaille(int nouvelle) {
+        int ancienne = taille;
+        taille = nouvelle;
+        beginChange();
+        if (ancienne > 0) {
+            nextRemove(0, Collections.nCopies(ancienne, null));
+        }
+        if (nouvelle > 0) {
+            nextAdd(0, nouvelle);
+        }
+        endChange();
+    }
+
+    /**
+     * Exécute la tâche hors du thread JavaFX. Elle est sautée, ou son résultat et son
+     * erreur ignorés, si la liste a été rechargée entre-temps : une requête abandonnée
+     * (recherche remplacée par une autre) n'a plus rien à afficher.
+     */
+    private <R> void executer(int courante, Tache<R> tache, Consumer<R> suite) {
+        CompletableFuture.supplyAsync(() -> {
+            if (courante != generation) {
+                return null;
+            }
+            try {
+                return tache.executer();
+            } catch (Exception e) {
+                throw new IllegalStateException(e.getMessage(), e);
+            }
+        }, executeur).whenCompleteAsync((resultat, erreur) -> {
+            if (courante != generation) {
+                return;
+            }
+            if (erreur != null) {
+                gestionErreur.accept(erreur.getCause() != null ? erreur.getCause() : erreur);
+            } else {
+                suite.accept(resultat);
+            }
+        }, Platform::runLater);
+    }
+
+    @FunctionalInterface
+    private interface Tache<R> {
+        R executer() throws Exception;
+    }
+
+    private static final class Ancre {
+        final Object valeur;
+        final int id;
+
+        Ancre(Object valeur, int id) {
+            this.valeur = valeur;
+            this.id = id;
+        }
+    }
+}
@@ -1,21 +1,73 @@
 package com.bibliotheque.controller;
 
+import com.bibliotheque.event.BusEvenements;
+import com.bibliotheque.event.CatalogueImporte;
+import com.bibliotheque.event.LivreModifie;
+import com.bibliotheque.event.LivreSupprime;
+import com.bibliotheque.importation.RapportImport;
 import com.bibliotheque.model.Livre;
 import com.bibliotheque.service.LivreService;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.fxml.FXML;
+import javafx.scene.control.Alert;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
 import javafx.scene.control.TableView;
+import javafx.stage.FileChooser;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public class LivreController {
 
     @FXML
     private TableView<Livre> tableLivres;
+    @FXML
+    private Button btnImporter;
+    @FXML
+    private Label lblImport;
 
-    private LivreService service = new LivreService();
+    private LivreService service;
+    private DonneesReference donneesReference;
 
-    @FXML
-    public void initialize() {
-        rafraichirTable();
+    /**
+     * Reçoit les services partagés du MainController ; la première liste affichée
+     * est celle préchargée en arrière-plan.
+     */
+    public void setServices(LivreService service, BusEvenements bus, DonneesReference donneesReference) {
+        this.service = service;
+        this.donneesReference = donneesReference;
+        afficherLivres();
+        // La disponibilité change à chaque emprunt ou retour, depuis l'onglet Emprunts
+        bus.abonner(LivreModifie.class, e -> ThreadFx.executer(() -> appliquer(e.getLivre(), false)));
+        bus.abonner(LivreSupprime.class, e -> ThreadFx.executer(() -> appliquer(e.getLivre(), true)));
+        bus.abonner(CatalogueImporte.class, e -> ThreadFx.executer(this::afficherLivres));
+    }
+
+    private void afficherLivres() {
+        donneesReference.livres().thenAcceptAsync(
+                livres -> tableLivres.setItems(FXCollections.observableArrayList(livres)),
+                Platform::runLater);
+    }
+
+    private void appliquer(Livre livre, boolean suppression) {
+        List<Livre> items = tableLivres.getItems();
+        for (int i = 0; i < items.size(); i++) {
+            if (items.get(i).getIsbn().equals(livre.getIsbn())) {
+                if (suppression) {
+                    items.remove(i);
+                } else {
+                    items.set(i, livre);
+                }
+                return;
+            }
+        }
+        if (!suppression) {
+            items.add(livre);
+        }
     }
 
     @FXML
@@ -24,4 +76,56 @@ public class LivreController {
             FXCollections.observableArrayList(service.listerLivres())
         );
     }
+
+    /**
+     * Importe un fichier CSV ou MARC texte en arrière-plan ; les notices rejetées sont
+     * décrites dans un fichier {@code .rejets.csv} placé à côté.
+     */
+    @FXML
+    public void handleImporter() {
+        FileChooser choix = new FileChooser();
+        choix.setTitle("Importer un catalogue");
+        choix.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("Catalogues (CSV, MARC texte)", "*.csv", "*.txt", "*.mrk"),
+                new FileChooser.ExtensionFilter("Tous les fichiers", "*.*"));
+        File fichier = choix.showOpenDialog(tableLivres.getScene().getWindow());
+        if (fichier == null) {
+            return;
+        }
+        Path rejets = fichier.toPath().resolveSibling(fichier.getName() + ".rejets.csv");
+        btnImporter.setDisable(true);
+        lblImport.setText("Import en cours...");
+        CompletableFuture.supplyAsync(() -> {
+            try {
+                return service.importerCatalogue(fichier.toPath(), rejets);
+            } catch (Exception e) {
+                throw new IllegalStateException(e.getMessage(), e);
+            }
+        }).whenCompleteAsync((rapport, erreur) -> {
+            btnImporter.setDisable(false);
+            lblImport.setText("");
+            if (erreur != null) {
+                afficherAlerte(Alert.AlertType.ERROR, "Erreur d'import",
+                        erreur.getCause() != null ? erreur.getCause().getMessage() : erreur.getMessage());
+            } else {
+                afficherAlerte(Alert.AlertType.INFORMATION, "Import terminé", message(rapport, rejets));
+            }
+        }, Platform::runLater);
+    }
+
+    private static String message(RapportImport rapport, Path rejets) {
+        String message = rapport.toString();
+        if (rapport.getRejetees() > 0) {
+            message += "\nDétail des rejets : " + rejets;
+        }
+        return message;
+    }
+
+    private void afficherAlerte(Alert.AlertType type, String titre, String message) {
+        Alert alert = new Alert(type);
+        alert.setTitle(titre);
+        alert.setHeaderText(null);
+        alert.setContentText(message);
+        alert.showAndWait();
+    }
 }
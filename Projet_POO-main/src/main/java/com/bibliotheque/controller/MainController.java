@@ -1,18 +1,27 @@
 package com.bibliotheque.controller;
 
-import com.bibliotheque.dao.impl.LivreDAOImpl;
-import com.bibliotheque.dao.impl.MembreDAOImpl;
-import com.bibliotheque.dao.impl.EmpruntDAOImpl;
+import com.bibliotheque.event.BusEvenements;
 import com.bibliotheque.service.BibliothequeService;
+import com.bibliotheque.service.ContexteApplication;
 import com.bibliotheque.service.EmpruntService;
+import com.bibliotheque.service.IndicateursEmprunts;
+import com.bibliotheque.service.LivreService;
+import com.bibliotheque.service.ReservationService;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Node;
+import javafx.scene.control.Tab;
 import javafx.scene.control.TabPane;
 import javafx.scene.control.Alert;
 
- 
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Contrôleur principal de l'application JavaFX.
+ * Les onglets sont chargés à leur première sélection ; leurs contrôleurs reçoivent
+ * les services partagés au lieu de créer les leurs.
  */
 public class MainController {
 
@@ -21,22 +30,99 @@ public class MainController {
 
     private BibliothequeService bibliothequeService;
     private EmpruntService empruntService;
+    private LivreService livreService;
+    private ReservationService reservationService;
+    private IndicateursEmprunts indicateurs;
+    private BusEvenements bus;
+    private DonneesReference donneesReference;
+    // Terminé sur le thread JavaFX, une fois les services reliés (ou l'erreur affichée)
+    private CompletableFuture<Void> pret;
 
     /**
-     * Initialise le contrôleur et charge les données.
+     * Initialise le contrôleur. Les services (connexion à la base, migrations, caches)
+     * sont construits hors du thread JavaFX : la fenêtre s'affiche aussitôt, les onglets
+     * restent inactifs jusqu'à ce qu'ils soient prêts.
      */
     @FXML
     public void initialize() {
+        tabPane.setDisable(true);
+        pret = CompletableFuture.supplyAsync(ContexteApplication::new, r -> {
+            Thread t = new Thread(r, "initialisation");
+            t.setDaemon(true);
+            t.start();
+        }).handleAsync(this::demarrer, Platform::runLater);
+    }
+
+    /**
+     * Relie les services aux onglets, lance le préchargement et affiche l'onglet sélectionné.
+     */
+    private Void demarrer(ContexteApplication contexte, Throwable erreur) {
+        if (erreur != null) {
+            Throwable cause = erreur.getCause() != null ? erreur.getCause() : erreur;
+            afficherErreur("Erreur d'initialisation", "Impossible d'initialiser l'application : " + cause.getMessage());
+            return null;
+        }
+        bibliothequeService = contexte.getBibliothequeService();
+        empruntService = contexte.getEmpruntService();
+        livreService = contexte.getLivreService();
+        reservationService = contexte.getReservationService();
+        indicateurs = contexte.getIndicateurs();
+        bus = contexte.getBus();
+
+        donneesReference = new DonneesReference(bibliothequeService, bus);
+        donneesReference.precharger();
+
+        tabPane.getSelectionModel().selectedItemProperty()
+                .addListener((obs, ancien, onglet) -> chargerOnglet(onglet));
+        tabPane.setDisable(false);
+        chargerOnglet(tabPane.getSelectionModel().getSelectedItem());
+        return null;
+    }
+
+    /**
+     * Charge tous les onglets une fois les services prêts (utilisé pour l'entraînement
+     * de l'archive AppCDS).
+     *
+     * @return terminé quand les onglets sont chargés, ou quand l'initialisation a échoué
+     */
+    public CompletableFuture<Void> chargerTousLesOnglets() {
+        return pret.thenRunAsync(() -> {
+            if (bus != null) {
+                tabPane.getTabs().forEach(this::chargerOnglet);
+            }
+        }, Platform::runLater);
+    }
+
+    /**
+     * Charge le contenu d'un onglet la première fois qu'il est affiché.
+     * Le chemin du FXML est porté par la propriété {@code userData} de l'onglet.
+     *
+     * @param onglet l'onglet à afficher
+     */
+    private void chargerOnglet(Tab onglet) {
+        if (onglet == null || onglet.getContent() != null || !(onglet.getUserData() instanceof String)) {
+            return;
+        }
         try {
-            // Initialiser les services
-            var livreDAO = new LivreDAOImpl();
-            var membreDAO = new MembreDAOImpl();
-            var empruntDAO = new EmpruntDAOImpl();
-
-            bibliothequeService = new BibliothequeService(livreDAO, membreDAO);
-            empruntService = new EmpruntService(empruntDAO, livreDAO, membreDAO);
-        } catch (Exception e) {
-            afficherErreur("Erreur d'initialisation", "Impossible d'initialiser l'application : " + e.getMessage());
+            FXMLLoader loader = new FXMLLoader(getClass().getResource((String) onglet.getUserData()));
+            Node contenu = loader.load();
+            injecterServices(loader.getController());
+            onglet.setContent(contenu);
+        } catch (IOException e) {
+            afficherErreur("Erreur de chargement", "Impossible d'ouvrir l'onglet " + onglet.getText() + " : " + e.getMessage());
+        }
+    }
+
+    private void injecterServices(Object controleur) {
+        if (controleur instanceof LivreController) {
+            ((LivreController) controleur).setServices(livreService, bus, donneesReference);
+        } else if (controleur instanceof MembreController) {
+            ((MembreController) controleur).setServices(bibliothequeService, empruntService, bus);
+        } else if (controleur instanceof EmpruntController) {
+            ((EmpruntController) controleur).setServices(bibliothequeService, empruntService, reservationService,
+                    bus, donneesReference);
+        } else if (controleur instanceof TableauDeBordController) {
+            ((TableauDeBordController) controleur).setServices(indicateurs);
         }
     }
 
@@ -77,4 +163,8 @@ public class MainController {
     public EmpruntService getEmpruntService() {
         return empruntService;
     }
+
+    public DonneesReference getDonneesReference() {
+        return donneesReference;
+    }
 }
@@ -1,14 +1,30 @@
 package com.bibliotheque.controller;
 
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
+import javafx.application.Platform;
+import javafx.beans.property.SimpleObjectProperty;
+import javafx.beans.property.SimpleStringProperty;
 import javafx.fxml.FXML;
+import javafx.geometry.Pos;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.VBox;
+import com.bibliotheque.dao.RequetePage;
+import com.bibliotheque.event.BusEvenements;
+import com.bibliotheque.event.MembreEnregistre;
+import com.bibliotheque.event.MembreSupprime;
+import com.bibliotheque.model.Emprunt;
 import com.bibliotheque.model.Membre;
 import com.bibliotheque.service.BibliothequeService;
+import com.bibliotheque.service.EmpruntService;
 
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * Controller pour la gestion des membres (CRUD + activation + historique)
@@ -58,17 +74,18 @@ public class MembreController {
 
     /* ==================== ATTRIBUTS ==================== */
 
+    private static final int TAILLE_PAGE_HISTORIQUE = 50;
+
     private BibliothequeService service;
-    private ObservableList<Membre> listeMembres;
+    private EmpruntService empruntService;
+    private ListePaginee<Membre> listeMembres;
+    private RechercheIncrementale<Membre> recherche;
     private Membre membreSelectionne;
 
     /* ==================== INITIALISATION ==================== */
 
     @FXML
     public void initialize() {
-        service = new BibliothequeService();
-        listeMembres = FXCollections.observableArrayList();
-
         colId.setCellValueFactory(new PropertyValueFactory<>("id"));
         colNom.setCellValueFactory(new PropertyValueFactory<>("nom"));
         colPrenom.setCellValueFactory(new PropertyValueFactory<>("prenom"));
@@ -88,16 +105,86 @@ public class MembreController {
             }
         });
 
-        tableMembres.setItems(listeMembres);
-
         tableMembres.getSelectionModel().selectedItemProperty()
                 .addListener((obs, oldVal, newVal) -> onMembreSelected(newVal));
 
-        chargerMembres();
-        afficherStatistiques();
         desactiverBoutons();
     }
 
+    /**
+     * Reçoit les services partagés du MainController. La table est paginée :
+     * seules les lignes affichées sont chargées, triées et filtrées par la base.
+     */
+    public void setServices(BibliothequeService service, EmpruntService empruntService, BusEvenements bus) {
+        this.service = service;
+        this.empruntService = empruntService;
+
+        recherche = new RechercheIncrementale<>(new RechercheIncrementale.Requetes<>() {
+            @Override
+            public int compter(String motCle) {
+                return service.compterMembres(motCle);
+            }
+
+            @Override
+            public List<Membre> charger(String motCle, RequetePage page) {
+                return service.getPageMembres(motCle, page);
+            }
+
+            @Override
+            public boolean correspond(Membre membre, String motCle) {
+                return correspondRecherche(membre, motCle);
+            }
+
+            @Override
+            public Object valeurTri(Membre membre, String colonne) {
+                switch (colonne) {
+                    case "nom": return membre.getNom();
+                    case "prenom": return membre.getPrenom();
+                    case "email": return membre.getEmail();
+                    case "actif": return membre.isActif();
+                    default: return membre.getId();
+                }
+            }
+
+            @Override
+            public int id(Membre membre) {
+                return membre.getId();
+            }
+        }, () -> listeMembres.recharger());
+        listeMembres = new ListePaginee<>(recherche,
+                e -> afficherErreur("Chargement des membres impossible : " + e.getMessage()));
+
+        Map<TableColumn<Membre, ?>, String> colonnesTri = Map.of(
+                colId, "id", colNom, "nom", colPrenom, "prenom", colEmail, "email", colActif, "actif");
+        tableMembres.setSortPolicy(table -> {
+            TableColumn<Membre, ?> colonne = table.getSortOrder().isEmpty() ? null : table.getSortOrder().get(0);
+            listeMembres.trier(colonnesTri.getOrDefault(colonne, "id"),
+                    colonne == null || colonne.getSortType() == TableColumn.SortType.ASCENDING);
+            return true;
+        });
+
+        tableMembres.setItems(listeMembres);
+        listeMembres.recharger();
+        afficherStatistiques();
+        txtRecherche.textProperty().addListener((obs, ancien, texte) -> recherche.saisir(texte));
+
+        bus.abonner(MembreEnregistre.class, e -> ThreadFx.executer(() -> {
+            recherche.oublier();
+            if (e.isCreation()) {
+                listeMembres.ajouter(e.getMembre());
+            } else {
+                listeMembres.remplacer(e.getMembre());
+            }
+        }));
+        bus.abonner(MembreSupprime.class, e -> ThreadFx.executer(() -> {
+            recherche.oublier();
+            listeMembres.retirer(e.getMembre());
+        }));
+        // Les compteurs sont recalculés une fois par rafale de modifications
+        bus.abonnerParLots(MembreEnregistre.class, lot -> afficherStatistiques(), 200);
+        bus.abonnerParLots(MembreSupprime.class, lot -> afficherStatistiques(), 200);
+    }
+
     /* ==================== CRUD ==================== */
 
     @FXML
@@ -112,9 +199,7 @@ public class MembreController {
 
             service.ajouterMembre(membre);
             afficherSucces("Membre ajouté avec succès");
-            chargerMembres();
             viderFormulaire();
-            afficherStatistiques();
 
         } catch (Exception e) {
             afficherErreur(e.getMessage());
@@ -136,7 +221,6 @@ public class MembreController {
 
             service.modifierMembre(membreSelectionne);
             afficherSucces("Membre modifié");
-            chargerMembres();
 
         } catch (Exception e) {
             afficherErreur(e.getMessage());
@@ -157,9 +241,7 @@ public class MembreController {
         if (result.isPresent() && result.get() == ButtonType.OK) {
             service.supprimerMembre(membreSelectionne.getId());
             afficherSucces("Membre supprimé");
-            chargerMembres();
             viderFormulaire();
-            afficherStatistiques();
         }
     }
 
@@ -183,8 +265,6 @@ public class MembreController {
 
         service.activerDesactiver(membreSelectionne.getId(), actif);
         afficherSucces("Statut mis à jour");
-        chargerMembres();
-        afficherStatistiques();
     }
 
     /* ==================== HISTORIQUE ==================== */
@@ -196,32 +276,105 @@ public class MembreController {
             return;
         }
 
-        service.getHistorique(membreSelectionne.getId());
+        new FenetreHistorique(membreSelectionne).showAndWait();
+    }
+
+    /**
+     * Historique d'un membre, du plus récent au plus ancien, filtrable par période. Les
+     * emprunts sont chargés par pages ; les totaux de la période viennent avec la première.
+     */
+    private final class FenetreHistorique extends Dialog<Void> {
+        private final Membre membre;
+        private final DatePicker du = new DatePicker();
+        private final DatePicker au = new DatePicker();
+        private final TableView<Emprunt> table = new TableView<>();
+        private final Label totaux = new Label();
+        private final Button plusAnciens = new Button("Plus anciens");
+        private RequetePage suivante;
+
+        FenetreHistorique(Membre membre) {
+            this.membre = membre;
+            setTitle("Historique des emprunts");
+            setHeaderText(membre.getPrenom() + " " + membre.getNom());
+            setResizable(true);
+
+            TableColumn<Emprunt, String> colLivre = new TableColumn<>("Document");
+            colLivre.setCellValueFactory(c -> new SimpleStringProperty(
+                    c.getValue().getDocument() != null ? c.getValue().getDocument().getTitre() : "?"));
+            colLivre.setPrefWidth(220);
+            TableColumn<Emprunt, LocalDate> colEmprunt = new TableColumn<>("Emprunté le");
+            colEmprunt.setCellValueFactory(c -> new SimpleObjectProperty<>(c.getValue().getDateEmprunt()));
+            TableColumn<Emprunt, LocalDate> colRetour = new TableColumn<>("Rendu le");
+            colRetour.setCellValueFactory(c -> new SimpleObjectProperty<>(c.getValue().getdateRetourEffective()));
+            TableColumn<Emprunt, Double> colPenalite = new TableColumn<>("Pénalité");
+            colPenalite.setCellValueFactory(c -> new SimpleObjectProperty<>(c.getValue().getPenalite()));
+            table.getColumns().addAll(List.of(colLivre, colEmprunt, colRetour, colPenalite));
+            table.setSortPolicy(t -> false);
+            table.setPrefSize(560, 360);
+
+            Button afficher = new Button("Afficher");
+            afficher.setOnAction(e -> charger(null));
+            plusAnciens.setOnAction(e -> charger(suivante));
+            HBox periode = new HBox(8, new Label("Du"), du, new Label("au"), au, afficher);
+            periode.setAlignment(Pos.CENTER_LEFT);
+            getDialogPane().setContent(new VBox(8, periode, table, new HBox(8, totaux, plusAnciens)));
+            getDialogPane().getButtonTypes().add(ButtonType.CLOSE);
+            charger(null);
+        }
 
-        Alert info = new Alert(Alert.AlertType.INFORMATION);
-        info.setHeaderText("Historique des emprunts");
-        info.setContentText("Fonctionnalité à compléter avec EmpruntService");
-        info.showAndWait();
+        /**
+         * @param page null pour recommencer à la première page
+         */
+        private void charger(RequetePage page) {
+            plusAnciens.setDisable(true);
+            LocalDate debut = du.getValue();
+            LocalDate fin = au.getValue();
+            CompletableFuture.supplyAsync(() -> {
+                try {
+                    return page == null
+                            ? empruntService.getHistorique(membre.getId(), debut, fin, TAILLE_PAGE_HISTORIQUE)
+                            : empruntService.getHistorique(membre.getId(), debut, fin, page);
+                } catch (SQLException e) {
+                    throw new CompletionException(e);
+                }
+            }).whenCompleteAsync((resultat, erreur) -> {
+                if (erreur != null) {
+                    Throwable cause = erreur.getCause() != null ? erreur.getCause() : erreur;
+                    afficherErreur("Historique indisponible : " + cause.getMessage());
+                    return;
+                }
+                if (page == null) {
+                    table.getItems().setAll(resultat.getEmprunts());
+                    totaux.setText(resultat.getTotal() + " emprunt(s), "
+                            + String.format("%.2f", resultat.getTotalPenalites()) + " DH de pénalités");
+                } else {
+                    table.getItems().addAll(resultat.getEmprunts());
+                }
+                suivante = resultat.suivante(TAILLE_PAGE_HISTORIQUE);
+                plusAnciens.setDisable(suivante == null);
+            }, Platform::runLater);
+        }
     }
 
     /* ==================== RECHERCHE ==================== */
 
+    /**
+     * Entrée ou bouton : recherche immédiate, sans attendre la pause de frappe.
+     */
     @FXML
     private void handleRechercher() {
-        String motCle = txtRecherche.getText();
-
-        if (motCle == null || motCle.isBlank()) {
-            chargerMembres();
-            return;
-        }
-
-        listeMembres.setAll(service.rechercherMembres(motCle));
+        recherche.lancer(txtRecherche.getText());
     }
 
     /* ==================== UTILITAIRES ==================== */
 
-    private void chargerMembres() {
-        listeMembres.setAll(service.rechercherMembres());
+    /**
+     * Même filtre que la base : le mot-clé (en minuscules) apparaît dans le nom, le prénom ou l'email.
+     */
+    private static boolean correspondRecherche(Membre membre, String cle) {
+        return (membre.getNom() != null && membre.getNom().toLowerCase().contains(cle))
+                || (membre.getPrenom() != null && membre.getPrenom().toLowerCase().contains(cle))
+                || (membre.getEmail() != null && membre.getEmail().toLowerCase().contains(cle));
     }
 
     private void onMembreSelected(Membre membre) {
@@ -246,9 +399,12 @@ public class MembreController {
     }
 
     private void afficherStatistiques() {
-        int total = service.rechercherMembres().size();
-        int actifs = service.rechercherMembresActifs().size();
-        lblStatistiques.setText("Total Membres: " + total + " | Actifs: " + actifs);
+        CompletableFuture.supplyAsync(() -> new int[]{service.compterMembres(null), service.compterMembresActifs()})
+                .whenCompleteAsync((totaux, erreur) -> {
+                    if (erreur == null) {
+                        lblStatistiques.setText("Total Membres: " + totaux[0] + " | Actifs: " + totaux[1]);
+                    }
+                }, Platform::runLater);
     }
 
     private void activerBoutons() {
@@ -0,0 +1,292 @@
+package com.bibliotheque.controller;
+
+import com.bibliotheque.dao.RequetePage;
+import com.bibliotheque.util.Annulation;
+import javafx.animation.PauseTransition;
+import javafx.util.Duration;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Recherche au fil de la frappe, source d'une {@link ListePaginee}.
+ * <p>
+ * La saisie ({@link #saisir}) n'interroge la base qu'après une pause de frappe. Chaque
+ * nouvelle recherche annule la précédente, y compris ses requêtes en cours d'exécution
+ * sur le serveur ({@link Annulation}). Quand une recherche a peu de résultats, ils sont
+ * tous chargés en une requête et gardés quelques secondes : la même recherche précisée
+ * (« dup » puis « dupo ») est alors filtrée, triée et paginée localement, sans requête.
+ * <p>
+ * {@link #saisir}, {@link #lancer} et {@link #oublier} s'appellent sur le thread JavaFX.
+ *
+ * @param <T> le type de ligne
+ */
+public class RechercheIncrementale<T> implements ListePaginee.Source<T> {
+
+    /**
+     * Requêtes de recherche et règles de filtrage et de tri, identiques à celles de la base.
+     */
+    public interface Requetes<T> {
+        /**
+         * @param motCle le mot-clé, ou null pour tout compter
+         */
+        int compter(String motCle) throws Exception;
+
+        List<T> charger(String motCle, RequetePage page) throws Exception;
+
+        /**
+         * @param motCle le mot-clé en minuscules
+         * @return true si la ligne correspond au mot-clé, comme pour la base
+         */
+        boolean correspond(T element, String motCle);
+
+        Object valeurTri(T element, String colonne);
+
+        int id(T element);
+    }
+
+    private static final long DELAI_FRAPPE_MS = 250;
+    // En dessous, une saisie ne déclenche pas de recherche (un caractère balaie toute la table)
+    private static final int LONGUEUR_MINIMALE = 2;
+    private static final int LIMITE_LOCALE = 500;
+    private static final int RESULTATS_EN_CACHE = 8;
+    private static final long DUREE_CACHE_MS = 30_000;
+
+    private final Requetes<T> requetes;
+    private final Runnable relancer;
+    private final PauseTransition pause = new PauseTransition(Duration.millis(DELAI_FRAPPE_MS));
+    private final Map<String, Resultats<T>> cache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Resultats<T>> eldest) {
+            return size() > RESULTATS_EN_CACHE;
+        }
+    };
+    private volatile Recherche<T> courante = new Recherche<>(null, new Annulation());
+
+    /**
+     * @param requetes les requêtes à la base
+     * @param relancer recharge la liste affichée après un changement de recherche
+     */
+    public RechercheIncrementale(Requetes<T> requetes, Runnable relancer) {
+        this.requetes = requetes;
+        this.relancer = relancer;
+    }
+
+    /**
+     * Texte modifié par l'utilisateur : la recherche part après la pause de frappe,
+     * sauf si le texte est encore modifié d'ici là.
+     */
+    public void saisir(String texte) {
+        String motCle = normaliser(texte);
+        pause.setOnFinished(e -> {
+            if (motCle == null || motCle.length() >= LONGUEUR_MINIMALE) {
+                changer(motCle, false);
+            }
+        });
+        pause.playFromStart();
+    }
+
+    /**
+     * Recherche demandée explicitement (Entrée, bouton) : immédiate et relue en base.
+     */
+    public void lancer(String texte) {
+        pause.stop();
+        oublier();
+        changer(normaliser(texte), true);
+    }
+
+    /**
+     * Oublie les résultats gardés, après une modification des données.
+     */
+    public void oublier() {
+        synchronized (cache) {
+            cache.clear();
+        }
+        courante.lignes = null;
+    }
+
+    public String getMotCle() {
+        return courante.motCle;
+    }
+
+    private void changer(String motCle, boolean forcer) {
+        Recherche<T> precedente = courante;
+        if (!forcer && Objects.equals(motCle, precedente.motCle)) {
+            return;
+        }
+        precedente.jeton.annuler();
+        Recherche<T> recherche = new Recherche<>(motCle, new Annulation());
+        recherche.lignes = affiner(motCle);
+        courante = recherche;
+        relancer.run();
+    }
+
+    /**
+     * @return les lignes du mot-clé obtenues en filtrant celles d'une recherche plus
+     *         large encore en cache, ou null s'il n'y en a pas
+     */
+    private List<T> affiner(String motCle) {
+        // % et _ sont des jokers pour la base : le filtrage local ne les comprend pas
+        if (motCle == null || motCle.contains("%") || motCle.contains("_")) {
+            return null;
+        }
+        Resultats<T> meilleurs = null;
+        synchronized (cache) {
+            long limite = System.currentTimeMillis() - DUREE_CACHE_MS;
+            Iterator<Map.Entry<String, Resultats<T>>> it = cache.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<String, Resultats<T>> entree = it.next();
+                if (entree.getValue().obtenusA < limite) {
+                    it.remove();
+                } else if (motCle.contains(entree.getKey())
+                        && (meilleurs == null || entree.getValue().lignes.size() < meilleurs.lignes.size())) {
+                    meilleurs = entree.getValue();
+                }
+            }
+        }
+        if (meilleurs == null) {
+            return null;
+        }
+        List<T> lignes = meilleurs.lignes.stream()
+                .filter(e -> requetes.correspond(e, motCle))
+                .collect(Collectors.toList());
+        retenir(motCle, lignes, meilleurs.obtenusA);
+        return lignes;
+    }
+
+    private void retenir(String motCle, List<T> lignes, long obtenusA) {
+        synchronized (cache) {
+            cache.put(motCle, new Resultats<>(lignes, obtenusA));
+        }
+    }
+
+    @Override
+    public int compter() throws Exception {
+        Recherche<T> recherche = courante;
+        List<T> lignes = recherche.lignes;
+        if (lignes != null) {
+            return lignes.size();
+        }
+        return recherche.jeton.executer(() -> {
+            if (recherche.motCle == null) {
+                return requetes.compter(null);
+            }
+            // Une requête limitée suffit souvent à tout obtenir, comptage compris
+            List<T> premieres = requetes.charger(recherche.motCle,
+                    RequetePage.aDecalage("id", true, 0, LIMITE_LOCALE + 1));
+            if (premieres.size() <= LIMITE_LOCALE) {
+                retenir(recherche.motCle, premieres, System.currentTimeMillis());
+                recherche.lignes = premieres;
+                return premieres.size();
+            }
+            return requetes.compter(recherche.motCle);
+        });
+    }
+
+    @Override
+    public List<T> charger(RequetePage page) throws Exception {
+        Recherche<T> recherche = courante;
+        List<T> lignes = recherche.lignes;
+        if (lignes != null) {
+            return decouper(lignes, page);
+        }
+        return recherche.jeton.executer(() -> requetes.charger(recherche.motCle, page));
+    }
+
+    @Override
+    public Object valeurTri(T element, String colonne) {
+        return requetes.valeurTri(element, colonne);
+    }
+
+    @Override
+    public int id(T element) {
+        return requetes.id(element);
+    }
+
+    @Override
+    public boolean accepte(T element) {
+        String motCle = courante.motCle;
+        return motCle == null || requetes.correspond(element, motCle);
+    }
+
+    /**
+     * Page extraite des lignes gardées, dans l'ordre de la base (colonne de tri puis id).
+     */
+    private List<T> decouper(List<T> lignes, RequetePage page) {
+        String colonne = page.getColonneTri();
+        Comparator<T> ordre = Comparator.<T, Object>comparing(e -> requetes.valeurTri(e, colonne),
+                RechercheIncrementale::comparer).thenComparingInt(requetes::id);
+        if (!page.isCroissant()) {
+            ordre = ordre.reversed();
+        }
+        List<T> triees = new ArrayList<>(lignes);
+        triees.sort(ordre);
+        int debut;
+        if (page.hasAncre()) {
+            debut = 0;
+            while (debut < triees.size() && !apresAncre(triees.get(debut), page)) {
+                debut++;
+            }
+        } else {
+            debut = Math.min(page.getDecalage(), triees.size());
+        }
+        int fin = Math.min(debut + page.getTaille(), triees.size());
+        return new ArrayList<>(triees.subList(debut, fin));
+    }
+
+    private boolean apresAncre(T element, RequetePage page) {
+        int ecart = "id".equals(page.getColonneTri())
+                ? 0 : comparer(requetes.valeurTri(element, page.getColonneTri()), page.getValeurAncre());
+        if (ecart == 0) {
+            ecart = Integer.compare(requetes.id(element), page.getIdAncre());
+        }
+        return page.isCroissant() ? ecart > 0 : ecart < 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int comparer(Object a, Object b) {
+        // NULL en premier, comme MySQL en ordre croissant
+        if (a == null || b == null) {
+            return a == null ? (b == null ? 0 : -1) : 1;
+        }
+        if (a instanceof String) {
+            // Collation MySQL par défaut insensible à la casse
+            return ((String) a).compareToIgnoreCase((String) b);
+        }
+        return ((Comparable<Object>) a).compareTo(b);
+    }
+
+    private static String normaliser(String texte) {
+        return texte == null || texte.isBlank() ? null : texte.trim().toLowerCase();
+    }
+
+    /**
+     * Recherche en cours : son mot-clé, son jeton et, si elles sont toutes connues, ses lignes.
+     */
+    private static final class Recherche<T> {
+        final String motCle;
+        final Annulation jeton;
+        volatile List<T> lignes;
+
+        Recherche(String motCle, Annulation jeton) {
+            this.motCle = motCle;
+            this.jeton = jeton;
+        }
+    }
+
+    private static final class Resultats<T> {
+        final List<T> lignes;
+        final long obtenusA;
+
+        Resultats(List<T> lignes, long obtenusA) {
+            this.lignes = lignes;
+            this.obtenusA = obtenusA;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.bibliotheque.controller;
+
+import com.bibliotheque.service.IndicateursEmprunts;
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.fxml.FXML;
+import javafx.scene.control.Label;
+import javafx.util.Duration;
+
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Onglet « Tableau de bord » : indicateurs des emprunts en direct, relus toutes les
+ * deux secondes. Une lecture ne coûte aucune requête ({@link IndicateursEmprunts#instantane()}).
+ */
+public class TableauDeBordController {
+
+    private static final Duration PERIODE = Duration.seconds(2);
+    private static final DateTimeFormatter HEURE = DateTimeFormatter.ofPattern("HH:mm:ss");
+
+    @FXML
+    private Label lblEmpruntsMinute;
+    @FXML
+    private Label lblRetoursMinute;
+    @FXML
+    private Label lblEmpruntsHeure;
+    @FXML
+    private Label lblRetoursHeure;
+    @FXML
+    private Label lblEmprunts24h;
+    @FXML
+    private Label lblRetours24h;
+    @FXML
+    private Label lblEmpruntsJour;
+    @FXML
+    private Label lblRetoursJour;
+    @FXML
+    private Label lblEnCours;
+    @FXML
+    private Label lblEnRetard;
+    @FXML
+    private Label lblPenalitesJour;
+    @FXML
+    private Label lblMiseAJour;
+
+    private IndicateursEmprunts indicateurs;
+    private final Timeline rafraichissement = new Timeline(new KeyFrame(PERIODE, e -> afficher()));
+
+    public void setServices(IndicateursEmprunts indicateurs) {
+        this.indicateurs = indicateurs;
+        rafraichissement.setCycleCount(Animation.INDEFINITE);
+        afficher();
+        rafraichissement.play();
+    }
+
+    private void afficher() {
+        IndicateursEmprunts.Instantane i = indicateurs.instantane();
+        lblEmpruntsMinute.setText(String.valueOf(i.getEmpruntsMinute()));
+        lblRetoursMinute.setText(String.valueOf(i.getRetoursMinute()));
+        lblEmpruntsHeure.setText(String.valueOf(i.getEmpruntsHeure()));
+        lblRetoursHeure.setText(String.valueOf(i.getRetoursHeure()));
+        lblEmprunts24h.setText(String.valueOf(i.getEmprunts24h()));
+        lblRetours24h.setText(String.valueOf(i.getRetours24h()));
+        lblEmpruntsJour.setText(String.valueOf(i.getEmpruntsJour()));
+        lblRetoursJour.setText(String.valueOf(i.getRetoursJour()));
+        lblEnCours.setText(String.valueOf(i.getEnCours()));
+        lblEnRetard.setText(String.valueOf(i.getEnRetard()));
+        lblPenalitesJour.setText(String.format("%.2f DH", i.getPenalitesJour()));
+        lblMiseAJour.setText("Mis à jour à " + heure(i.getHorodatage())
+                + (i.getRecaleA() == 0 ? "" : " ; en cours et en retard comptés en base à " + heure(i.getRecaleA())));
+    }
+
+    private static String heure(long instantMs) {
+        return LocalTime.ofInstant(Instant.ofEpochMilli(instantMs), ZoneId.systemDefault()).format(HEURE);
+    }
+}
@@ -0,0 +1,21 @@
+package com.bibliotheque.controller;
+
+import javafx.application.Platform;
+
+/**
+ * Exécution sur le thread JavaFX des notifications reçues des services,
+ * qui peuvent être publiées depuis n'importe quel thread.
+ */
+final class ThreadFx {
+
+    private ThreadFx() {
+    }
+
+    static void executer(Runnable action) {
+        if (Platform.isFxApplicationThread()) {
+            action.run();
+        } else {
+            Platform.runLater(action);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.bibliotheque.dao;
+
+import com.bibliotheque.model.Document;
+import com.bibliotheque.model.Empruntable;
+import com.bibliotheque.model.Livre;
+import com.bibliotheque.model.Magazine;
+
+import java.util.List;
+
+/**
+ * Catalogue de tous les documents, livres et magazines, par identifiant
+ * ({@link Document#getIdentifiant()}) : un identifiant ne désigne qu'un document, quel
+ * que soit son type.
+ */
+public interface DocumentDAO {
+
+    void save(Document document);
+    Document findById(String identifiant);
+    List<Document> findAll();
+    void update(Document document);
+
+    /**
+     * Marque le document emprunté s'il est disponible, en une seule opération : de deux
+     * emprunts simultanés du même document, un seul réussit.
+     *
+     * @return false si le document n'est plus au catalogue ou n'est pas disponible
+     */
+    boolean emprunter(Empruntable document);
+    void delete(String identifiant);
+
+    /**
+     * @return les documents disponibles au prêt, tous types confondus
+     */
+    List<Document> findDisponibles();
+
+    /**
+     * Recherche sur l'identifiant, le titre et l'auteur des livres, sans distinction de casse.
+     */
+    List<Document> rechercher(String motCle);
+
+    List<Livre> findByAuteur(String auteur);
+    List<Magazine> findByNumero(int numero);
+    List<Magazine> findByMois(String mois);
+}
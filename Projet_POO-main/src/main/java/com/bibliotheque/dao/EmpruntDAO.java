@@ -1,9 +1,11 @@
 package com.bibliotheque.dao;
 
 import com.bibliotheque.model.Emprunt;
+import com.bibliotheque.model.Empruntable;
 import com.bibliotheque.model.Membre;
 
 import java.sql.SQLException;
+import java.time.LocalDate;
 import java.util.List;
 
 public interface EmpruntDAO {
@@ -12,6 +14,23 @@ public interface EmpruntDAO {
     List<Emprunt> findAll() throws SQLException;
     void update(Emprunt emprunt) throws SQLException;
     List<Emprunt> findEnCours() throws SQLException;
+
+    /**
+     * @return l'emprunt non rendu du document, ou null s'il n'est pas prêté
+     */
+    Emprunt findEnCours(Empruntable document) throws SQLException;
+    List<Emprunt> findEnRetard(LocalDate date) throws SQLException;
     int countEmpruntEnCours(Membre member) throws SQLException;
-    List<Emprunt> findByMember(Membre member) throws SQLException;
+    int count(FiltreEmprunt filtre) throws SQLException;
+    List<Emprunt> findPage(FiltreEmprunt filtre, RequetePage page) throws SQLException;
+
+    /**
+     * Historique d'un membre (emprunts en cours, rendus et archivés), trié par date
+     * d'emprunt décroissante.
+     *
+     * @param du   première date d'emprunt incluse, ou null
+     * @param au   dernière date d'emprunt incluse, ou null
+     * @param page page triée sur {@code date_emprunt}
+     */
+    PageHistorique findHistorique(int membreId, LocalDate du, LocalDate au, RequetePage page) throws SQLException;
 }
@@ -0,0 +1,10 @@
+package com.bibliotheque.dao;
+
+/**
+ * Filtres applicables à la liste des emprunts.
+ */
+public enum FiltreEmprunt {
+    TOUS,
+    EN_COURS,
+    EN_RETARD
+}
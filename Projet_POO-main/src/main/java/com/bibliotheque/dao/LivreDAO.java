@@ -1,6 +1,8 @@
 package com.bibliotheque.dao;
 
 import com.bibliotheque.model.Livre;
+
+import java.util.ArrayList;
 import java.util.List;
 
 public interface LivreDAO {
@@ -10,5 +12,23 @@ public interface LivreDAO {
     List<Livre> findAll();
     void update(Livre livre);
     void delete(String isbn);
+
+    /**
+     * Ajoute des livres en une seule opération (import de catalogue). Un livre dont
+     * l'ISBN existe déjà n'est pas remplacé.
+     *
+     * @return les livres non ajoutés car leur ISBN est déjà présent
+     */
+    default List<Livre> saveAll(List<Livre> livres) {
+        List<Livre> existants = new ArrayList<>();
+        for (Livre livre : livres) {
+            if (findByIsbn(livre.getIsbn()) != null) {
+                existants.add(livre);
+            } else {
+                save(livre);
+            }
+        }
+        return existants;
+    }
 }
 
@@ -0,0 +1,17 @@
+package com.bibliotheque.dao;
+
+import com.bibliotheque.model.Magazine;
+
+import java.util.List;
+
+/**
+ * Stockage des magazines, par identifiant.
+ */
+public interface MagazineDAO {
+
+    void save(Magazine magazine);
+    Magazine findById(String identifiant);
+    List<Magazine> findAll();
+    void update(Magazine magazine);
+    void delete(String identifiant);
+}
@@ -18,4 +18,21 @@ public interface MembreDAO {
     Membre findByEmail(String email);
 
     List<Membre> findActifs();
+
+    int countActifs();
+
+    /**
+     * Compte les membres dont le nom, le prénom ou l'email contient le mot-clé.
+     *
+     * @param motCle le mot-clé, ou null pour tous les membres
+     */
+    int count(String motCle);
+
+    /**
+     * Retourne une page de membres filtrés par mot-clé, triée côté base.
+     *
+     * @param motCle le mot-clé, ou null pour tous les membres
+     * @param page   la page demandée
+     */
+    List<Membre> findPage(String motCle, RequetePage page);
 }
@@ -0,0 +1,45 @@
+package com.bibliotheque.dao;
+
+import com.bibliotheque.model.Emprunt;
+
+import java.util.List;
+
+/**
+ * Une page de l'historique d'un membre, du plus récent au plus ancien, avec les
+ * totaux de tout l'historique demandé (et non de la seule page).
+ */
+public class PageHistorique {
+
+    private final List<Emprunt> emprunts;
+    private final int total;
+    private final double totalPenalites;
+
+    public PageHistorique(List<Emprunt> emprunts, int total, double totalPenalites) {
+        this.emprunts = emprunts;
+        this.total = total;
+        this.totalPenalites = totalPenalites;
+    }
+
+    public List<Emprunt> getEmprunts() {
+        return emprunts;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public double getTotalPenalites() {
+        return totalPenalites;
+    }
+
+    /**
+     * @return la requête de la page suivante (plus anciens), ou null si c'est la dernière
+     */
+    public RequetePage suivante(int taille) {
+        if (emprunts.size() < taille) {
+            return null;
+        }
+        Emprunt dernier = emprunts.get(emprunts.size() - 1);
+        return RequetePage.apres("date_emprunt", false, dernier.getDateEmprunt(), dernier.getId(), taille);
+    }
+}
@@ -0,0 +1,107 @@
+package com.bibliotheque.dao;
+
+import java.util.Objects;
+
+/**
+ * Fenêtre de résultats demandée à un DAO : colonne de tri, position et taille.
+ * <p>
+ * La position est donnée soit par une ancre (pagination par clé : valeur de tri et id
+ * de la dernière ligne de la page précédente), soit par un décalage quand l'ancre
+ * n'est pas connue (saut direct au milieu de la liste).
+ */
+public class RequetePage {
+
+    private final String colonneTri;
+    private final boolean croissant;
+    private final Object valeurAncre;
+    private final Integer idAncre;
+    private final int decalage;
+    private final int taille;
+
+    private RequetePage(String colonneTri, boolean croissant, Object valeurAncre, Integer idAncre,
+                        int decalage, int taille) {
+        if (taille <= 0) {
+            throw new IllegalArgumentException("La taille de page doit être positive");
+        }
+        this.colonneTri = colonneTri;
+        this.croissant = croissant;
+        this.valeurAncre = valeurAncre;
+        this.idAncre = idAncre;
+        this.decalage = decalage;
+        this.taille = taille;
+    }
+
+    /**
+     * Page suivant la ligne identifiée par son couple (valeur de tri, id).
+     */
+    public static RequetePage apres(String colonneTri, boolean croissant, Object valeurAncre, int idAncre, int taille) {
+        return new RequetePage(colonneTri, croissant, valeurAncre, idAncre, 0, taille);
+    }
+
+    /**
+     * Page commençant à la position donnée.
+     */
+    public static RequetePage aDecalage(String colonneTri, boolean croissant, int decalage, int taille) {
+        return new RequetePage(colonneTri, croissant, null, null, decalage, taille);
+    }
+
+    /**
+     * Page à demander à chacune des sources dont les résultats seront fusionnés puis
+     * découpés : sans ancre, une seule source peut fournir toutes les lignes jusqu'à
+     * la fin de la page, le décalage ne s'applique qu'après la fusion.
+     */
+    public RequetePage pourFusion() {
+        if (hasAncre() || decalage == 0) {
+            return this;
+        }
+        return aDecalage(colonneTri, croissant, 0, decalage + taille);
+    }
+
+    public String getColonneTri() {
+        return colonneTri;
+    }
+
+    public boolean isCroissant() {
+        return croissant;
+    }
+
+    public boolean hasAncre() {
+        return idAncre != null;
+    }
+
+    public Object getValeurAncre() {
+        return valeurAncre;
+    }
+
+    public Integer getIdAncre() {
+        return idAncre;
+    }
+
+    public int getDecalage() {
+        return decalage;
+    }
+
+    public int getTaille() {
+        return taille;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof RequetePage)) {
+            return false;
+        }
+        RequetePage autre = (RequetePage) o;
+        return croissant == autre.croissant && decalage == autre.decalage && taille == autre.taille
+                && Objects.equals(colonneTri, autre.colonneTri)
+                && Objects.equals(valeurAncre, autre.valeurAncre)
+                && Objects.equals(idAncre, autre.idAncre);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(colonneTri, croissant, valeurAncre, idAncre, decalage, taille);
+    }
+}
@@ -0,0 +1,49 @@
+package com.bibliotheque.dao;
+
+import com.bibliotheque.model.Reservation;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+
+public interface ReservationDAO {
+    void save(Reservation reservation) throws SQLException;
+    Reservation findById(int id) throws SQLException;
+    void updateStatut(Reservation reservation) throws SQLException;
+
+    /**
+     * Passe une réservation disponible à l'état honoré, si elle l'est encore.
+     *
+     * @return false si elle a déjà été honorée, annulée ou a expiré entre-temps
+     */
+    boolean honorer(Reservation reservation) throws SQLException;
+
+    /**
+     * @return la file d'attente d'un livre, dans l'ordre de service
+     */
+    List<Reservation> findEnAttente(String isbn) throws SQLException;
+
+    /**
+     * @return les réservations en attente ou disponibles d'un membre
+     */
+    List<Reservation> findActives(int membreId) throws SQLException;
+
+    /**
+     * @return la réservation pour laquelle le livre est mis de côté, ou null
+     */
+    Reservation findDisponible(String isbn) throws SQLException;
+
+    /**
+     * Passe atomiquement la première réservation de la file à l'état disponible.
+     *
+     * @return la réservation servie, ou null si la file est vide
+     */
+    Reservation attribuerSuivante(String isbn, LocalDate dateLimite) throws SQLException;
+
+    /**
+     * Passe à l'état expiré les réservations disponibles dont la date limite est dépassée.
+     *
+     * @return les réservations expirées
+     */
+    List<Reservation> expirer(LocalDate date) throws SQLException;
+}
@@ -0,0 +1,211 @@
+package com.bibliotheque.dao.impl;
+
+import com.bibliotheque.dao.PageHistorique;
+import com.bibliotheque.util.Configuration;
+import com.bibliotheque.util.ConnectionPool;
+import com.bibliotheque.util.Disjoncteur;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.SQLException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.SQLTransientException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Accès borné dans le temps à un DAO JDBC, placé devant lui par {@link FabriqueDAO}.
+ * <p>
+ * Chaque appel passe d'abord par le {@link Disjoncteur} de la base : s'il est ouvert,
+ * l'appel échoue aussitôt au lieu d'attendre le délai de connexion ou de requête. Les
+ * lectures ({@code find*}, {@code count*}) en échec passager (connexion perdue, délai
+ * dépassé, interblocage) sont retentées avec une attente exponentielle tirée au hasard,
+ * pour que les postes ne reviennent pas tous en même temps, tant que
+ * {@code db.resilience.delai} secondes ne se sont pas écoulées depuis le premier essai.
+ * Une connexion non obtenue du pool ({@link ConnectionPool.AttenteDepassee}) n'est pas
+ * retentée : l'appelant a déjà attendu le délai du pool. Les écritures ne sont jamais
+ * retentées : un échec après envoi ne dit pas si elles ont été appliquées.
+ * <p>
+ * Avec {@code db.resilience.secours=true}, la dernière réponse de chaque lecture est
+ * gardée (quelques centaines au plus) et resservie quand la base ne répond pas, pour
+ * que la consultation reste possible ; les données peuvent alors être anciennes. Chaque
+ * appelant reçoit sa propre copie des listes gardées.
+ */
+final class AccesResilient implements InvocationHandler {
+
+    private static final long ATTENTE_BASE_MS = 100;
+    private static final long ATTENTE_MAX_MS = 2000;
+    private static final int TAILLE_SECOURS = 500;
+    // Verrou non obtenu dans le délai, interblocage (MySQL)
+    private static final List<Integer> CODES_PASSAGERS = List.of(1205, 1213);
+
+    private final Object delegue;
+    private final Disjoncteur disjoncteur;
+    private final int tentatives;
+    private final long delaiTotalNs;
+    private final Map<List<Object>, Object> secours;
+
+    private AccesResilient(Object delegue, Disjoncteur disjoncteur) {
+        this.delegue = delegue;
+        this.disjoncteur = disjoncteur;
+        this.tentatives = Math.max(Configuration.getInt("db.resilience.tentatives", 3), 1);
+        this.delaiTotalNs = TimeUnit.SECONDS.toNanos(Math.max(Configuration.getInt("db.resilience.delai", 15), 0));
+        this.secours = Boolean.parseBoolean(Configuration.get("db.resilience.secours", "false"))
+                ? Collections.synchronizedMap(new LinkedHashMap<>(64, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<List<Object>, Object> plusAncienne) {
+                        return size() > TAILLE_SECOURS;
+                    }
+                })
+                : null;
+    }
+
+    /**
+     * @return le DAO {@code dao} vu à travers le disjoncteur, sous son interface {@code type}
+     */
+    static <T> T envelopper(Class<T> type, T dao, Disjoncteur disjoncteur) {
+        return type.cast(Proxy.newProxyInstance(AccesResilient.class.getClassLoader(),
+                new Class<?>[]{type}, new AccesResilient(dao, disjoncteur)));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if (method.getDeclaringClass() == Object.class) {
+            return appeler(method, args);
+        }
+        boolean lecture = method.getName().startsWith("find") || method.getName().startsWith("count");
+        List<Object> cle = lecture && secours != null ? cle(method, args) : null;
+        Throwable erreur = null;
+        long debut = System.nanoTime();
+        for (int tentative = 1; tentative <= (lecture ? tentatives : 1); tentative++) {
+            if (!disjoncteur.autoriser()) {
+                break;
+            }
+            try {
+                Object resultat = appeler(method, args);
+                disjoncteur.succes();
+                if (cle != null) {
+                    secours.put(cle, copie(resultat));
+                }
+                return resultat;
+            } catch (Throwable e) {
+                if (!passager(e)) {
+                    // Erreur de la requête ou des données : la base a répondu
+                    disjoncteur.succes();
+                    throw e;
+                }
+                disjoncteur.echec();
+                erreur = e;
+                if (attentePool(e)) {
+                    break;
+                }
+            }
+            if (tentative < tentatives && lecture) {
+                long reste = delaiTotalNs - (System.nanoTime() - debut);
+                if (reste <= 0) {
+                    break;
+                }
+                attendre(tentative, reste);
+            }
+        }
+        if (cle != null && secours.containsKey(cle)) {
+            return copie(secours.get(cle));
+        }
+        if (erreur != null) {
+            throw erreur;
+        }
+        return refuser(method);
+    }
+
+    private Object appeler(Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(delegue, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static List<Object> cle(Method method, Object[] args) {
+        List<Object> cle = new ArrayList<>();
+        cle.add(method);
+        if (args != null) {
+            cle.addAll(Arrays.asList(args));
+        }
+        return cle;
+    }
+
+    /**
+     * Copie d'une réponse gardée en secours : ni le premier appelant ni ceux qui la
+     * reçoivent ensuite ne modifient la liste des autres.
+     */
+    private static Object copie(Object resultat) {
+        if (resultat instanceof List) {
+            return new ArrayList<>((List<?>) resultat);
+        }
+        if (resultat instanceof PageHistorique) {
+            PageHistorique page = (PageHistorique) resultat;
+            return new PageHistorique(new ArrayList<>(page.getEmprunts()), page.getTotal(), page.getTotalPenalites());
+        }
+        return resultat;
+    }
+
+    /**
+     * Attente avant la tentative suivante : tirée entre 0 et une borne qui double à
+     * chaque essai, sans dépasser le temps qui reste.
+     */
+    private static void attendre(int tentative, long resteNs) throws InterruptedException {
+        long borne = Math.min(ATTENTE_MAX_MS, ATTENTE_BASE_MS << Math.min(tentative - 1, 20));
+        borne = Math.min(borne, TimeUnit.NANOSECONDS.toMillis(resteNs));
+        Thread.sleep(ThreadLocalRandom.current().nextLong(borne + 1));
+    }
+
+    private static boolean attentePool(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConnectionPool.AttenteDepassee) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Object refuser(Method method) throws SQLException {
+        SQLTransientConnectionException e =
+                new SQLTransientConnectionException("Base de données indisponible (disjoncteur ouvert)", "08000");
+        if (Arrays.asList(method.getExceptionTypes()).contains(SQLException.class)) {
+            throw e;
+        }
+        throw new RuntimeException("Base de données indisponible", e);
+    }
+
+    /**
+     * Échec dû à la base ou au réseau plutôt qu'à la requête : délai dépassé, connexion
+     * perdue (états SQL 08xxx), conflit de verrous ou interblocage.
+     */
+    static boolean passager(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLTransientException || cause instanceof SQLRecoverableException) {
+                return true;
+            }
+            if (cause instanceof SQLException) {
+                SQLException sql = (SQLException) cause;
+                String etat = sql.getSQLState();
+                if (etat != null && (etat.startsWith("08") || etat.equals("40001"))) {
+                    return true;
+                }
+                if (CODES_PASSAGERS.contains(sql.getErrorCode())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,182 @@
+package com.bibliotheque.dao.impl;
+
+import com.bibliotheque.util.Configuration;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Déplace les emprunts rendus depuis plus de {@code archivage.mois} mois de la table
+ * {@code emprunts} vers {@code emprunts_archive}, par lots de {@code archivage.lot}
+ * lignes (une transaction par lot, pour ne pas verrouiller la table longtemps).
+ * <p>
+ * La table chaude ne garde ainsi que les emprunts en cours et les retours récents :
+ * les requêtes du parcours d'emprunt et de retour restent rapides quel que soit
+ * l'historique. Plusieurs postes peuvent lancer la tâche : un verrou nommé MySQL
+ * garantit qu'une seule instance archive à la fois.
+ */
+public class ArchivageEmprunts {
+
+    private static final String VERROU = "archivage_emprunts";
+    // Un lot verrouille et recopie jusqu'à archivage.lot lignes : plus long qu'une requête courante
+    private static final int DELAI_LOT_S = 60;
+
+    private final List<SourceConnexions> bases;
+    private final int mois;
+    private final int lot;
+    private ScheduledExecutorService planificateur;
+
+    public ArchivageEmprunts() {
+        this(Collections.singletonList(SourceConnexions.PRINCIPALE));
+    }
+
+    /**
+     * En mode réparti, chaque shard archive ses propres emprunts.
+     */
+    public ArchivageEmprunts(Shards shards) {
+        this(sourcesDe(shards));
+    }
+
+    private ArchivageEmprunts(List<SourceConnexions> bases) {
+        this.bases = bases;
+        this.mois = Configuration.getInt("archivage.mois", 12);
+        this.lot = Configuration.getInt("archivage.lot", 1000);
+    }
+
+    private static List<SourceConnexions> sourcesDe(Shards shards) {
+        List<SourceConnexions> sources = new ArrayList<>();
+        for (int i = 0; i < shards.nombre(); i++) {
+            sources.add(shards.source(i));
+        }
+        return sources;
+    }
+
+    /**
+     * Planifie l'archivage une fois par jour (premier passage quelques minutes après
+     * le démarrage). Sans effet si {@code archivage.mois} vaut 0.
+     */
+    public synchronized void planifier() {
+        if (mois <= 0 || planificateur != null) {
+            return;
+        }
+        planificateur = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "archivage-emprunts");
+            t.setDaemon(true);
+            return t;
+        });
+        planificateur.scheduleWithFixedDelay(() -> {
+            try {
+                int archives = archiver();
+                if (archives > 0) {
+                    System.out.println(archives + " emprunts archivés");
+                }
+            } catch (SQLException e) {
+                System.err.println("Archivage des emprunts impossible : " + e.getMessage());
+            }
+        }, 5, TimeUnit.DAYS.toMinutes(1), TimeUnit.MINUTES);
+    }
+
+    public synchronized void arreter() {
+        if (planificateur != null) {
+            planificateur.shutdownNow();
+            planificateur = null;
+        }
+    }
+
+    /**
+     * Archive tous les emprunts éligibles.
+     *
+     * @return le nombre d'emprunts déplacés
+     */
+    public int archiver() throws SQLException {
+        LocalDate limite = LocalDate.now().minusMonths(mois);
+        int total = 0;
+        for (SourceConnexions base : bases) {
+            total += archiver(base, limite);
+        }
+        return total;
+    }
+
+    private int archiver(SourceConnexions base, LocalDate limite) throws SQLException {
+        try (Connection conn = base.ecriture()) {
+            if (!verrouiller(conn)) {
+                // Une autre instance est déjà en train d'archiver cette base
+                return 0;
+            }
+            try {
+                int total = 0;
+                int deplaces;
+                do {
+                    deplaces = deplacerLot(conn, limite);
+                    total += deplaces;
+                } while (deplaces == lot);
+                return total;
+            } finally {
+                try (PreparedStatement stmt = conn.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+                    stmt.setString(1, VERROU);
+                    stmt.executeQuery();
+                }
+            }
+        }
+    }
+
+    private static boolean verrouiller(Connection conn) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT GET_LOCK(?, 0)")) {
+            stmt.setString(1, VERROU);
+            ResultSet rs = stmt.executeQuery();
+            return rs.next() && rs.getInt(1) == 1;
+        }
+    }
+
+    private int deplacerLot(Connection conn, LocalDate limite) throws SQLException {
+        conn.setAutoCommit(false);
+        try {
+            List<Integer> ids = new ArrayList<>();
+            String selection = "SELECT id FROM emprunts WHERE date_retour_effective IS NOT NULL"
+                    + " AND date_retour_effective < ? ORDER BY id LIMIT ? FOR UPDATE";
+            try (PreparedStatement stmt = conn.prepareStatement(selection)) {
+                stmt.setQueryTimeout(DELAI_LOT_S);
+                stmt.setDate(1, Date.valueOf(limite));
+                stmt.setInt(2, lot);
+                ResultSet rs = stmt.executeQuery();
+                while (rs.next()) {
+                    ids.add(rs.getInt(1));
+                }
+            }
+            if (ids.isEmpty()) {
+                conn.commit();
+                return 0;
+            }
+            String liste = String.join(",", Collections.nCopies(ids.size(), "?"));
+            executer(conn, "INSERT INTO emprunts_archive SELECT * FROM emprunts WHERE id IN (" + liste + ")", ids);
+            executer(conn, "DELETE FROM emprunts WHERE id IN (" + liste + ")", ids);
+            conn.commit();
+            return ids.size();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
+    private static void executer(Connection conn, String sql, List<Integer> ids) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setQueryTimeout(DELAI_LOT_S);
+            for (int i = 0; i < ids.size(); i++) {
+                stmt.setInt(i + 1, ids.get(i));
+            }
+            stmt.executeUpdate();
+        }
+    }
+}
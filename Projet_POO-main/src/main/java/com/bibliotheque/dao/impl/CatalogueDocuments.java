@@ -0,0 +1,420 @@
+package com.bibliotheque.dao.impl;
+
+import com.bibliotheque.dao.DocumentDAO;
+import com.bibliotheque.dao.LivreDAO;
+import com.bibliotheque.dao.MagazineDAO;
+import com.bibliotheque.model.Document;
+import com.bibliotheque.model.Empruntable;
+import com.bibliotheque.model.Livre;
+import com.bibliotheque.model.Magazine;
+import com.bibliotheque.util.Dictionnaire;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Catalogue unique des livres et magazines, indexé par identifiant.
+ * <p>
+ * Chaque type a ses index secondaires : l'auteur pour les livres, le numéro et le mois
+ * pour les magazines ; un index des documents disponibles sert tous les types. Les
+ * recherches et listes de disponibilité parcourent ainsi un seul ensemble, au lieu d'un
+ * parcours par type. Les clés indexées de chaque document sont retenues à l'écriture :
+ * un document modifié en place est désindexé sous ses anciennes valeurs par
+ * {@link #update}.
+ * <p>
+ * Les livres restent enregistrés par leur stockage ({@link LivreDAOImpl},
+ * {@link LivreDAOHorsTas}) ; ils doivent être modifiés à travers ce catalogue, ou sa vue
+ * {@link #livres()}, pour que les index suivent. Les magazines sont enregistrés par leur
+ * {@link MagazineDAO} (table {@code magazines}, à laquelle leurs emprunts font référence)
+ * et chargés à la construction ; sans lui, ils ne sont gardés qu'en mémoire. Un stockage
+ * hors tas n'est pas recopié dans les index, ce qui annulerait son intérêt : les
+ * requêtes sur les livres lui sont alors transmises.
+ */
+public class CatalogueDocuments implements DocumentDAO {
+
+    private final LivreDAO stockage;
+    private final MagazineDAO magazines;
+    private final boolean livresIndexes;
+    private final Map<String, Document> documents = new LinkedHashMap<>();
+    private final Map<String, Cles> cles = new HashMap<>();
+    private final Map<Integer, Set<String>> parAuteur = new HashMap<>();
+    private final Map<Integer, Set<String>> parNumero = new HashMap<>();
+    private final Map<String, Set<String>> parMois = new HashMap<>();
+    private final Set<String> disponibles = new LinkedHashSet<>();
+    private final LivreDAO vueLivres = new VueLivres();
+
+    /**
+     * Catalogue dont les magazines ne sont gardés qu'en mémoire.
+     */
+    public CatalogueDocuments(LivreDAO stockage) {
+        this(stockage, null);
+    }
+
+    /**
+     * @param magazines le stockage des magazines, ou null pour les garder en mémoire
+     */
+    public CatalogueDocuments(LivreDAO stockage, MagazineDAO magazines) {
+        this.stockage = stockage;
+        this.magazines = magazines;
+        this.livresIndexes = !(stockage instanceof LivreDAOHorsTas);
+        if (livresIndexes) {
+            stockage.findAll().forEach(this::indexer);
+        }
+        if (magazines != null) {
+            try {
+                magazines.findAll().forEach(this::indexer);
+            } catch (RuntimeException e) {
+                // Comme pour les migrations, une base injoignable n'empêche pas le démarrage
+                System.err.println("Chargement des magazines impossible : " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * @return les livres du catalogue sous forme de {@link LivreDAO}, dont les écritures
+     *         tiennent les index à jour
+     */
+    public LivreDAO livres() {
+        return vueLivres;
+    }
+
+    @Override
+    public synchronized void save(Document document) {
+        verifierIdentifiant(document);
+        if (document instanceof Livre) {
+            stockage.save((Livre) document);
+        } else if (document instanceof Magazine && magazines != null) {
+            if (documents.get(document.getIdentifiant()) instanceof Magazine) {
+                magazines.update((Magazine) document);
+            } else {
+                magazines.save((Magazine) document);
+            }
+        }
+        reindexer(document);
+    }
+
+    @Override
+    public synchronized Document findById(String identifiant) {
+        Document document = documents.get(identifiant);
+        if (document == null && !livresIndexes) {
+            return stockage.findByIsbn(identifiant);
+        }
+        return document;
+    }
+
+    @Override
+    public synchronized List<Document> findAll() {
+        List<Document> tous = new ArrayList<>(documents.values());
+        if (!livresIndexes) {
+            tous.addAll(stockage.findAll());
+        }
+        return tous;
+    }
+
+    @Override
+    public synchronized void update(Document document) {
+        verifierIdentifiant(document);
+        if (document instanceof Livre) {
+            stockage.update((Livre) document);
+        } else if (document instanceof Magazine && magazines != null) {
+            magazines.update((Magazine) document);
+        }
+        reindexer(document);
+    }
+
+    @Override
+    public synchronized boolean emprunter(Empruntable document) {
+        // Relu sous le verrou du catalogue : un stockage hors tas rend une copie
+        Document actuel = findById(document.getIdentifiant());
+        if (!(actuel instanceof Empruntable) || !((Empruntable) actuel).peutEtreEmprunte()) {
+            return false;
+        }
+        document.emprunter();
+        update((Document) document);
+        return true;
+    }
+
+    @Override
+    public synchronized void delete(String identifiant) {
+        Document document = documents.get(identifiant);
+        if (document == null || document instanceof Livre) {
+            stockage.delete(identifiant);
+        } else if (document instanceof Magazine && magazines != null) {
+            magazines.delete(identifiant);
+        }
+        desindexer(identifiant);
+    }
+
+    @Override
+    public synchronized List<Document> findDisponibles() {
+        List<Document> resultat = new ArrayList<>(disponibles.size());
+        for (String identifiant : disponibles) {
+            resultat.add(documents.get(identifiant));
+        }
+        if (!livresIndexes) {
+            for (Livre livre : stockage.findAll()) {
+                if (livre.isDisponible()) {
+                    resultat.add(livre);
+                }
+            }
+        }
+        return resultat;
+    }
+
+    @Override
+    public synchronized List<Document> rechercher(String motCle) {
+        if (motCle == null || motCle.isBlank()) {
+            return findAll();
+        }
+        String mot = motCle.trim().toLowerCase();
+        // Les auteurs sont comparés une fois chacun, puis les livres par leur code
+        BitSet auteurs = Dictionnaire.AUTEURS.codesContenant(mot);
+        List<Document> resultat = new ArrayList<>();
+        for (Document document : findAll()) {
+            if (correspond(document, mot, auteurs)) {
+                resultat.add(document);
+            }
+        }
+        return resultat;
+    }
+
+    @Override
+    public synchronized List<Livre> findByAuteur(String auteur) {
+        int code = Dictionnaire.AUTEURS.codeExistant(auteur);
+        List<Livre> resultat = new ArrayList<>();
+        if (code == Dictionnaire.AUCUN) {
+            return resultat;
+        }
+        if (!livresIndexes) {
+            for (Livre livre : stockage.findAll()) {
+                if (livre.getCodeAuteur() == code) {
+                    resultat.add(livre);
+                }
+            }
+            return resultat;
+        }
+        for (String isbn : parAuteur.getOrDefault(code, Collections.emptySet())) {
+            resultat.add((Livre) documents.get(isbn));
+        }
+        return resultat;
+    }
+
+    @Override
+    public synchronized List<Magazine> findByNumero(int numero) {
+        return magazines(parNumero.get(numero));
+    }
+
+    @Override
+    public synchronized List<Magazine> findByMois(String mois) {
+        return mois == null ? new ArrayList<>() : magazines(parMois.get(cleMois(mois)));
+    }
+
+    private List<Magazine> magazines(Set<String> identifiants) {
+        List<Magazine> resultat = new ArrayList<>();
+        if (identifiants != null) {
+            for (String identifiant : identifiants) {
+                resultat.add((Magazine) documents.get(identifiant));
+            }
+        }
+        return resultat;
+    }
+
+    private static boolean correspond(Document document, String mot, BitSet auteurs) {
+        if (document.getIdentifiant().toLowerCase().contains(mot)
+                || (document.getTitre() != null && document.getTitre().toLowerCase().contains(mot))) {
+            return true;
+        }
+        if (document instanceof Livre) {
+            int code = ((Livre) document).getCodeAuteur();
+            return code != Dictionnaire.AUCUN && auteurs.get(code);
+        }
+        return false;
+    }
+
+    /**
+     * Un identifiant ne peut pas désigner à la fois un livre et un magazine.
+     */
+    private void verifierIdentifiant(Document document) {
+        String identifiant = document.getIdentifiant();
+        if (identifiant == null || identifiant.isBlank()) {
+            throw new IllegalArgumentException("Identifiant de document manquant");
+        }
+        Document existant = documents.get(identifiant);
+        if (existant == null && !livresIndexes && document instanceof Magazine) {
+            existant = stockage.findByIsbn(identifiant);
+        }
+        if (existant != null && existant.getClass() != document.getClass()) {
+            throw new IllegalArgumentException("L'identifiant " + identifiant + " désigne déjà un "
+                    + existant.getClass().getSimpleName().toLowerCase());
+        }
+    }
+
+    // --- Index ---
+
+    private void reindexer(Document document) {
+        desindexer(document.getIdentifiant());
+        if (livresIndexes || !(document instanceof Livre)) {
+            indexer(document);
+        }
+    }
+
+    private void indexer(Document document) {
+        String identifiant = document.getIdentifiant();
+        Cles c = new Cles(document);
+        documents.put(identifiant, document);
+        cles.put(identifiant, c);
+        if (c.disponible) {
+            disponibles.add(identifiant);
+        }
+        if (document instanceof Livre) {
+            ajouter(parAuteur, c.auteur, identifiant);
+        } else if (document instanceof Magazine) {
+            ajouter(parNumero, c.numero, identifiant);
+            ajouter(parMois, c.mois, identifiant);
+        }
+    }
+
+    private void desindexer(String identifiant) {
+        Document document = documents.remove(identifiant);
+        Cles c = cles.remove(identifiant);
+        if (document == null) {
+            return;
+        }
+        disponibles.remove(identifiant);
+        if (document instanceof Livre) {
+            retirer(parAuteur, c.auteur, identifiant);
+        } else if (document instanceof Magazine) {
+            retirer(parNumero, c.numero, identifiant);
+            retirer(parMois, c.mois, identifiant);
+        }
+    }
+
+    private static <K> void ajouter(Map<K, Set<String>> index, K cle, String identifiant) {
+        index.computeIfAbsent(cle, k -> new LinkedHashSet<>()).add(identifiant);
+    }
+
+    private static <K> void retirer(Map<K, Set<String>> index, K cle, String identifiant) {
+        Set<String> identifiants = index.get(cle);
+        if (identifiants != null && identifiants.remove(identifiant) && identifiants.isEmpty()) {
+            index.remove(cle);
+        }
+    }
+
+    private static String cleMois(String mois) {
+        return mois.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Valeurs sous lesquelles un document est indexé, au moment de son écriture.
+     */
+    private static final class Cles {
+        final boolean disponible;
+        final int auteur;
+        final int numero;
+        final String mois;
+
+        Cles(Document document) {
+            if (document instanceof Livre) {
+                Livre livre = (Livre) document;
+                disponible = livre.isDisponible();
+                auteur = livre.getCodeAuteur();
+                numero = 0;
+                mois = null;
+            } else if (document instanceof Magazine) {
+                Magazine magazine = (Magazine) document;
+                disponible = magazine.isDisponible();
+                auteur = Dictionnaire.AUCUN;
+                numero = magazine.getNumero();
+                mois = magazine.getMois() == null ? "" : cleMois(magazine.getMois());
+            } else {
+                disponible = false;
+                auteur = Dictionnaire.AUCUN;
+                numero = 0;
+                mois = null;
+            }
+        }
+    }
+
+    /**
+     * Les livres du catalogue, pour le code qui ne connaît que {@link LivreDAO}.
+     */
+    private final class VueLivres implements LivreDAO {
+
+        @Override
+        public void save(Livre livre) {
+            CatalogueDocuments.this.save(livre);
+        }
+
+        @Override
+        public Livre findByIsbn(String isbn) {
+            Document document = findById(isbn);
+            return document instanceof Livre ? (Livre) document : null;
+        }
+
+        @Override
+        public List<Livre> findAll() {
+            synchronized (CatalogueDocuments.this) {
+                if (!livresIndexes) {
+                    return stockage.findAll();
+                }
+                List<Livre> livres = new ArrayList<>();
+                for (Document document : documents.values()) {
+                    if (document instanceof Livre) {
+                        livres.add((Livre) document);
+                    }
+                }
+                return livres;
+            }
+        }
+
+        @Override
+        public void update(Livre livre) {
+            CatalogueDocuments.this.update(livre);
+        }
+
+        @Override
+        public void delete(String isbn) {
+            synchronized (CatalogueDocuments.this) {
+                if (!(documents.get(isbn) instanceof Magazine)) {
+                    CatalogueDocuments.this.delete(isbn);
+                }
+            }
+        }
+
+        @Override
+        public List<Livre> saveAll(List<Livre> nouveaux) {
+            synchronized (CatalogueDocuments.this) {
+                List<Livre> acceptes = new ArrayList<>(nouveaux.size());
+                List<Livre> refuses = new ArrayList<>();
+                for (Livre livre : nouveaux) {
+                    if (documents.get(livre.getIsbn()) instanceof Magazine) {
+                        refuses.add(livre);
+                    } else {
+                        acceptes.add(livre);
+                    }
+                }
+                List<Livre> existants = stockage.saveAll(acceptes);
+                if (livresIndexes) {
+                    Set<Livre> ignores = Collections.newSetFromMap(new IdentityHashMap<>());
+                    ignores.addAll(existants);
+                    for (Livre livre : acceptes) {
+                        if (!ignores.contains(livre)) {
+                            reindexer(livre);
+                        }
+                    }
+                }
+                refuses.addAll(existants);
+                return refuses;
+            }
+        }
+    }
+}
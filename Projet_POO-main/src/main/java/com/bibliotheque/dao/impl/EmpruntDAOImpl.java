@@ -1,135 +1,323 @@
 package com.bibliotheque.dao.impl;
+import java.sql.Connection;
 import java.sql.Date;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 import com.bibliotheque.dao.EmpruntDAO;
-import com.bibliotheque.dao.LivreDAO;
+import com.bibliotheque.dao.FiltreEmprunt;
+import com.bibliotheque.dao.DocumentDAO;
 import com.bibliotheque.dao.MembreDAO;
+import com.bibliotheque.dao.PageHistorique;
+import com.bibliotheque.dao.RequetePage;
+import com.bibliotheque.model.Document;
 import com.bibliotheque.model.Emprunt;
+import com.bibliotheque.model.Empruntable;
 import com.bibliotheque.model.Livre;
+import com.bibliotheque.model.Magazine;
 import com.bibliotheque.model.Membre;
-import com.bibliotheque.util.DatabaseConnection;
+/**
+ * Emprunts stockés dans deux tables : {@code emprunts} (en cours et retours récents,
+ * interrogée par le parcours d'emprunt/retour) et {@code emprunts_archive} (retours
+ * anciens, déplacés par {@link ArchivageEmprunts}). Les requêtes d'historique
+ * réunissent les deux tables.
+ * <p>
+ * Le document prêté est désigné par l'une de deux colonnes, selon son type :
+ * {@code isbn} pour un livre, {@code magazine_id} pour un magazine, l'autre restant NULL.
+ */
 public class EmpruntDAOImpl implements EmpruntDAO  {
-        private Emprunt ToEmprunt(ResultSet result) throws SQLException {
-        LivreDAO livreDAO = new LivreDAOImpl();
-        Livre livre = livreDAO.findByIsbn(result.getString("isbn"));
-        MembreDAO membreDAO = new MembreDAOImpl();
+    private static final List<String> TABLES = List.of("emprunts", "emprunts_archive");
+    private static final Set<String> COLONNES_TRI =
+            Set.of("id", "isbn", "membre_id", "date_emprunt", "date_retour_prevue", "penalite");
+    private static final Set<String> COLONNES_HISTORIQUE = Set.of("date_emprunt");
+
+    private final DocumentDAO documentDAO;
+    private final MembreDAO membreDAO;
+    private final SourceConnexions connexions;
+
+    public EmpruntDAOImpl() {
+        this(new CatalogueDocuments(new LivreDAOImpl()), new MembreDAOImpl());
+    }
+
+    public EmpruntDAOImpl(DocumentDAO documentDAO, MembreDAO membreDAO) {
+        this(documentDAO, membreDAO, SourceConnexions.PRINCIPALE);
+    }
+
+    EmpruntDAOImpl(DocumentDAO documentDAO, MembreDAO membreDAO, SourceConnexions connexions) {
+        this.documentDAO = documentDAO;
+        this.membreDAO = membreDAO;
+        this.connexions = connexions;
+    }
+
+    private Emprunt ToEmprunt(ResultSet result) throws SQLException {
+        String isbn = result.getString("isbn");
+        Document document = documentDAO.findById(isbn != null ? isbn : result.getString("magazine_id"));
         Membre membre = membreDAO.findById(result.getInt("membre_id")) ;
         return new Emprunt(result.getInt("id"),
-                           result.getDate("dateEmprunt").toLocalDate(),
-                           result.getDate("dateRetourPrevue").toLocalDate(), 
-                           result.getDate("dateRetoureffective").toLocalDate(), 
-                           livre, 
-                           membre, 
+                           toLocalDate(result.getDate("date_emprunt")),
+                           toLocalDate(result.getDate("date_retour_prevue")),
+                           toLocalDate(result.getDate("date_retour_effective")),
+                           document instanceof Empruntable ? (Empruntable) document : null,
+                           membre,
                            result.getDouble("penalite"));
     }
 
-    @Override 
-    
+    /**
+     * Renseigne les colonnes {@code isbn} et {@code magazine_id} (paramètres
+     * {@code indice} et {@code indice + 1}) d'après le type du document.
+     */
+    private static void setDocument(PreparedStatement stmt, int indice, Empruntable document) throws SQLException {
+        stmt.setString(indice, document instanceof Livre ? document.getIdentifiant() : null);
+        stmt.setString(indice + 1, document instanceof Magazine ? document.getIdentifiant() : null);
+    }
+
+    private static LocalDate toLocalDate(Date date) {
+        return date == null ? null : date.toLocalDate();
+    }
+
+    private static Date toSqlDate(LocalDate date) {
+        return date == null ? null : Date.valueOf(date);
+    }
+
+    private List<Emprunt> toEmprunts(ResultSet result) throws SQLException {
+        List<Emprunt> ListEmprunt = new ArrayList<>();
+        while (result.next()) {
+            ListEmprunt.add(ToEmprunt(result));
+        }
+        return ListEmprunt;
+    }
+
+    @Override
     public void save(Emprunt emprunt) throws SQLException{
-        String sql = "INSERT INTO emprunts (id, isbn , membre_id , date_emprunt , date_retour_prevue , date_retour_effective , penalite) VALUES (?, ?, ?, ?, ?, ? , ?)";
-        try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql)) {
-            stmt.setInt(1, emprunt.getId());
-            stmt.setString(2, emprunt.getLivre().getIsbn());
+        // Un id déjà attribué (mode réparti, séquence commune aux shards) est inséré tel quel
+        boolean idAttribue = emprunt.getId() > 0;
+        String sql = idAttribue
+                ? "INSERT INTO emprunts (isbn , magazine_id , membre_id , date_emprunt , date_retour_prevue , date_retour_effective , penalite, id) VALUES (?, ?, ?, ?, ?, ? , ?, ?)"
+                : "INSERT INTO emprunts (isbn , magazine_id , membre_id , date_emprunt , date_retour_prevue , date_retour_effective , penalite) VALUES (?, ?, ?, ?, ?, ? , ?)";
+        try (Connection conn = connexions.ecriture();
+             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            setDocument(stmt, 1, emprunt.getDocument());
             stmt.setInt(3, emprunt.getMembre().getId());
-            stmt.setDate(4, Date.valueOf(emprunt.getDateEmprunt()));
-            stmt.setDate(5, Date.valueOf(emprunt.getdateRetourPrevue()));
-            stmt.setDate(6, Date.valueOf(emprunt.getdateRetourEffective()));
+            stmt.setDate(4, toSqlDate(emprunt.getDateEmprunt()));
+            stmt.setDate(5, toSqlDate(emprunt.getdateRetourPrevue()));
+            stmt.setDate(6, toSqlDate(emprunt.getdateRetourEffective()));
             stmt.setDouble(7, emprunt.getPenalite());
+            if (idAttribue) {
+                stmt.setInt(8, emprunt.getId());
+            }
             stmt.executeUpdate();
+            if (idAttribue) {
+                return;
+            }
+            try (ResultSet keys = stmt.getGeneratedKeys()) {
+                if (keys.next()) {
+                    emprunt.setId(keys.getInt(1));
+                }
+            }
         }
     }
     @Override
     public Emprunt findById(int id) throws SQLException{
-        String sql = "SELECT * FROM emprunts WHERE id = ?" ;
-        try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql)) {
-            stmt.setInt(1, id);
-            ResultSet result = stmt.executeQuery();
-                if (result.next()){
-                    return ToEmprunt(result);
+        try (Connection conn = connexions.ecriture()) {
+            for (String table : TABLES) {
+                try (PreparedStatement stmt = conn.prepareStatement("SELECT * FROM " + table + " WHERE id = ?")) {
+                    stmt.setInt(1, id);
+                    ResultSet result = stmt.executeQuery();
+                    if (result.next()){
+                        return ToEmprunt(result);
+                    }
                 }
+            }
         }
         return null;
 
     }
     @Override
     public List<Emprunt> findAll() throws SQLException {
-        List<Emprunt> ListEmprunt = new ArrayList<>();
-        String sql = "SELECT * FROM empeunts " ; 
-         try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql)){
-            ResultSet result = stmt.executeQuery();
-            while(result.next()){
-                Emprunt emprunt = ToEmprunt(result);
-                ListEmprunt.add(emprunt);
-            }
-            return ListEmprunt ; 
+        String sql = "SELECT * FROM emprunts UNION ALL SELECT * FROM emprunts_archive" ;
+         try (Connection conn = connexions.lecture();
+              PreparedStatement stmt = conn.prepareStatement(sql)){
+            return toEmprunts(stmt.executeQuery());
          }
     }
-    @Override 
+    @Override
     public void update(Emprunt emprunt) throws SQLException {
-        String sql = "UPDATE emprunts SET id = ? ,  membre_id = ? , date_emprunt = ? , date_retour_prevue = ?, date_retour_effective = ?, penalite = ?" ; 
-        try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql)){
-            stmt.setInt(1, emprunt.getId());
-            stmt.setString(2, emprunt.getLivre().getIsbn());
+        String sql = "UPDATE emprunts SET isbn = ? , magazine_id = ? ,  membre_id = ? , date_emprunt = ? , date_retour_prevue = ?, date_retour_effective = ?, penalite = ? WHERE id = ?" ;
+        try (Connection conn = connexions.ecriture();
+             PreparedStatement stmt = conn.prepareStatement(sql)){
+            setDocument(stmt, 1, emprunt.getDocument());
             stmt.setInt(3, emprunt.getMembre().getId());
-            stmt.setDate(4, Date.valueOf(emprunt.getDateEmprunt()));
-            stmt.setDate(5, Date.valueOf(emprunt.getdateRetourPrevue()));
-            stmt.setDate(6, Date.valueOf(emprunt.getdateRetourEffective()));
+            stmt.setDate(4, toSqlDate(emprunt.getDateEmprunt()));
+            stmt.setDate(5, toSqlDate(emprunt.getdateRetourPrevue()));
+            stmt.setDate(6, toSqlDate(emprunt.getdateRetourEffective()));
             stmt.setDouble(7, emprunt.getPenalite());
-            stmt.executeUpdate();
+            stmt.setInt(8, emprunt.getId());
+            // Emprunt déjà archivé (correction d'une pénalité par exemple)
+            if (stmt.executeUpdate() == 0 && updateArchive(conn, emprunt) == 0) {
+                // Sinon l'appelant croirait l'emprunt clôturé alors que rien n'a été écrit
+                throw new SQLException("Emprunt introuvable : " + emprunt.getId());
+            }
         }
     }
-    @Override
-    public List<Emprunt> findByMember(Membre member) throws SQLException{
-        String sql = "SELECT * FROM emprunts WHERE member_id = ?" ;
-        List<Emprunt> ListEmprunt = new ArrayList<>();
-        try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql)) {
-            stmt.setInt(1, member.getId());
-            ResultSet result = stmt.executeQuery();
-                while(result.next()){
-                    Emprunt emprunt = ToEmprunt(result);
-                    ListEmprunt.add(emprunt);
 
-                   
+    private int updateArchive(Connection conn, Emprunt emprunt) throws SQLException {
+        String sql = "UPDATE emprunts_archive SET date_retour_effective = ?, penalite = ? WHERE id = ?";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setDate(1, toSqlDate(emprunt.getdateRetourEffective()));
+            stmt.setDouble(2, emprunt.getPenalite());
+            stmt.setInt(3, emprunt.getId());
+            return stmt.executeUpdate();
+        }
+    }
+    /**
+     * Une seule requête : les lignes du membre sont lues dans chaque table par l'index
+     * {@code (membre_id, date_emprunt)}, les totaux sont calculés sur l'ensemble par des
+     * fonctions de fenêtre avant que l'ancre et la limite ne découpent la page.
+     */
+    @Override
+    public PageHistorique findHistorique(int membreId, LocalDate du, LocalDate au, RequetePage page)
+            throws SQLException {
+        List<Object> parametres = new ArrayList<>();
+        String sql = "SELECT * FROM (SELECT h.*, COUNT(*) OVER () AS total,"
+                + " SUM(h.penalite) OVER () AS total_penalites FROM ("
+                + historique(membreId, du, au, parametres) + ") h) t"
+                + SqlPagination.completer("", page, COLONNES_HISTORIQUE, parametres);
+        try (Connection conn = connexions.lecture()) {
+            List<Emprunt> emprunts = new ArrayList<>();
+            int total = 0;
+            double totalPenalites = 0;
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                SqlPagination.lier(stmt, parametres);
+                ResultSet result = stmt.executeQuery();
+                while (result.next()) {
+                    if (emprunts.isEmpty()) {
+                        total = result.getInt("total");
+                        totalPenalites = result.getDouble("total_penalites");
+                    }
+                    emprunts.add(ToEmprunt(result));
+                }
+            }
+            if (emprunts.isEmpty() && (page.hasAncre() || page.getDecalage() > 0)) {
+                // Page au-delà de la fin : les totaux ne sont portés par aucune ligne
+                parametres.clear();
+                try (PreparedStatement stmt = conn.prepareStatement("SELECT COUNT(*), SUM(penalite) FROM ("
+                        + historique(membreId, du, au, parametres) + ") h")) {
+                    SqlPagination.lier(stmt, parametres);
+                    ResultSet result = stmt.executeQuery();
+                    if (result.next()) {
+                        total = result.getInt(1);
+                        totalPenalites = result.getDouble(2);
+                    }
                 }
-            return ListEmprunt;
+            }
+            return new PageHistorique(emprunts, total, totalPenalites);
+        }
+    }
+
+    private static String historique(int membreId, LocalDate du, LocalDate au, List<Object> parametres) {
+        return "SELECT * FROM emprunts" + clauseHistorique(membreId, du, au, parametres)
+                + " UNION ALL SELECT * FROM emprunts_archive" + clauseHistorique(membreId, du, au, parametres);
+    }
+
+    private static String clauseHistorique(int membreId, LocalDate du, LocalDate au, List<Object> parametres) {
+        StringBuilder where = new StringBuilder(" WHERE membre_id = ?");
+        parametres.add(membreId);
+        if (du != null) {
+            where.append(" AND date_emprunt >= ?");
+            parametres.add(du);
         }
+        if (au != null) {
+            where.append(" AND date_emprunt <= ?");
+            parametres.add(au);
+        }
+        return where.toString();
     }
     @Override
     public List<Emprunt> findEnCours() throws SQLException{
-        List<Emprunt> ListEmprunt = new ArrayList<>();
         String sql = "SELECT * FROM emprunts where date_retour_effective IS NULL " ;
-        try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql)) {
-            ResultSet result = stmt.executeQuery();
-                while(result.next()){
-                    Emprunt emprunt = ToEmprunt(result);
-                    ListEmprunt.add(emprunt);
-
-                   
-                }
-            return ListEmprunt;
+        try (Connection conn = connexions.lecture();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            return toEmprunts(stmt.executeQuery());
         }
 
     }
     @Override
-    public int countEmpruntEnCours(Membre member) throws SQLException{
-        List<Emprunt> ListEmprunt = new ArrayList<>();
-        String sql = "SELECT * FROM emprunts where date_retour_effective IS NULL AND membre_id = ? " ;
-        int count = 0 ;
-        try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql)) {
+    public Emprunt findEnCours(Empruntable document) throws SQLException {
+        // Par l'index de la clé étrangère du document : quelques lignes au plus, l'archivage
+        // ne laissant que les emprunts récents
+        String sql = "SELECT * FROM emprunts WHERE " + (document instanceof Magazine ? "magazine_id" : "isbn")
+                + " = ? AND date_retour_effective IS NULL";
+        try (Connection conn = connexions.lecture();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, document.getIdentifiant());
             ResultSet result = stmt.executeQuery();
+            return result.next() ? ToEmprunt(result) : null;
+        }
+    }
+    @Override
+    public List<Emprunt> findEnRetard(LocalDate date) throws SQLException {
+        String sql = "SELECT * FROM emprunts WHERE date_retour_effective IS NULL AND date_retour_prevue < ?";
+        try (Connection conn = connexions.lecture();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setDate(1, toSqlDate(date));
+            return toEmprunts(stmt.executeQuery());
+        }
+    }
+    @Override
+    public int countEmpruntEnCours(Membre member) throws SQLException{
+        String sql = "SELECT COUNT(*) FROM emprunts where date_retour_effective IS NULL AND membre_id = ? " ;
+        try (Connection conn = connexions.ecriture();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, member.getId());
-                while(result.next()){
-                    Emprunt emprunt = ToEmprunt(result);
-                    ListEmprunt.add(emprunt);
-                    count ++ ;
-                }
-            return count;
+            ResultSet result = stmt.executeQuery();
+            return result.next() ? result.getInt(1) : 0;
+        }
+
+    }
+    @Override
+    public int count(FiltreEmprunt filtre) throws SQLException {
+        List<Object> parametres = new ArrayList<>();
+        String sql = "SELECT COUNT(*) FROM emprunts" + clauseFiltre(filtre, parametres);
+        if (filtre == FiltreEmprunt.TOUS) {
+            sql = "SELECT (" + sql + ") + (SELECT COUNT(*) FROM emprunts_archive)";
         }
+        try (Connection conn = connexions.lecture();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            SqlPagination.lier(stmt, parametres);
+            ResultSet result = stmt.executeQuery();
+            return result.next() ? result.getInt(1) : 0;
+        }
+    }
+    @Override
+    public List<Emprunt> findPage(FiltreEmprunt filtre, RequetePage page) throws SQLException {
+        List<Object> parametres = new ArrayList<>();
+        // Les emprunts archivés sont tous rendus : seule la liste complète les inclut
+        String sql = filtre == FiltreEmprunt.TOUS
+                ? SqlPagination.union(TABLES, p -> clauseFiltre(filtre, p), page, COLONNES_TRI, parametres)
+                : "SELECT * FROM emprunts"
+                        + SqlPagination.completer(clauseFiltre(filtre, parametres), page, COLONNES_TRI, parametres);
+        try (Connection conn = connexions.lecture();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            SqlPagination.lier(stmt, parametres);
+            return toEmprunts(stmt.executeQuery());
+        }
+    }
 
+    private static String clauseFiltre(FiltreEmprunt filtre, List<Object> parametres) {
+        switch (filtre) {
+            case EN_COURS:
+                return " WHERE date_retour_effective IS NULL";
+            case EN_RETARD:
+                parametres.add(LocalDate.now());
+                return " WHERE date_retour_effective IS NULL AND date_retour_prevue < ?";
+            default:
+                return "";
+        }
     }
 }
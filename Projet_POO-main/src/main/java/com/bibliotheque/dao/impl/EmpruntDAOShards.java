@@ -0,0 +1,121 @@
+package com.bibliotheque.dao.impl;
+
+import com.bibliotheque.dao.DocumentDAO;
+import com.bibliotheque.dao.EmpruntDAO;
+import com.bibliotheque.dao.FiltreEmprunt;
+import com.bibliotheque.dao.MembreDAO;
+import com.bibliotheque.dao.PageHistorique;
+import com.bibliotheque.dao.RequetePage;
+import com.bibliotheque.model.Emprunt;
+import com.bibliotheque.model.Empruntable;
+import com.bibliotheque.model.Membre;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Emprunts répartis entre les {@link Shards} : chaque emprunt est rangé sur le shard
+ * de son membre. Les requêtes d'un membre n'interrogent qu'un shard, les autres sont
+ * envoyées en parallèle à tous.
+ */
+public class EmpruntDAOShards implements EmpruntDAO {
+
+    private final Shards shards;
+    private final List<EmpruntDAOImpl> daos = new ArrayList<>();
+    private final SequenceIds sequence = new SequenceIds(SourceConnexions.PRINCIPALE, "emprunts");
+
+    public EmpruntDAOShards(Shards shards, DocumentDAO documentDAO, MembreDAO membreDAO) {
+        this.shards = shards;
+        for (int i = 0; i < shards.nombre(); i++) {
+            daos.add(new EmpruntDAOImpl(documentDAO, membreDAO, shards.source(i)));
+        }
+    }
+
+    private EmpruntDAOImpl dao(Membre membre) {
+        return daos.get(shards.indice(membre.getId()));
+    }
+
+    @Override
+    public void save(Emprunt emprunt) throws SQLException {
+        emprunt.setId(sequence.suivant());
+        dao(emprunt.getMembre()).save(emprunt);
+    }
+
+    @Override
+    public void update(Emprunt emprunt) throws SQLException {
+        dao(emprunt.getMembre()).update(emprunt);
+    }
+
+    @Override
+    public PageHistorique findHistorique(int membreId, LocalDate du, LocalDate au, RequetePage page)
+            throws SQLException {
+        return daos.get(shards.indice(membreId)).findHistorique(membreId, du, au, page);
+    }
+
+    @Override
+    public int countEmpruntEnCours(Membre member) throws SQLException {
+        return dao(member).countEmpruntEnCours(member);
+    }
+
+    @Override
+    public Emprunt findById(int id) throws SQLException {
+        for (Emprunt emprunt : shards.surTous(i -> daos.get(i).findById(id))) {
+            if (emprunt != null) {
+                return emprunt;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public List<Emprunt> findAll() throws SQLException {
+        return Shards.concatener(shards.surTous(i -> daos.get(i).findAll()));
+    }
+
+    @Override
+    public List<Emprunt> findEnCours() throws SQLException {
+        return Shards.concatener(shards.surTous(i -> daos.get(i).findEnCours()));
+    }
+
+    @Override
+    public Emprunt findEnCours(Empruntable document) throws SQLException {
+        // Le membre n'est pas connu : le document peut être prêté sur n'importe quel shard
+        for (Emprunt emprunt : shards.surTous(i -> daos.get(i).findEnCours(document))) {
+            if (emprunt != null) {
+                return emprunt;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public List<Emprunt> findEnRetard(LocalDate date) throws SQLException {
+        return Shards.concatener(shards.surTous(i -> daos.get(i).findEnRetard(date)));
+    }
+
+    @Override
+    public int count(FiltreEmprunt filtre) throws SQLException {
+        return shards.surTous(i -> daos.get(i).count(filtre)).stream().mapToInt(Integer::intValue).sum();
+    }
+
+    @Override
+    public List<Emprunt> findPage(FiltreEmprunt filtre, RequetePage page) throws SQLException {
+        RequetePage pageShard = page.pourFusion();
+        List<List<Emprunt>> parties = shards.surTous(i -> daos.get(i).findPage(filtre, pageShard));
+        return Shards.fusionner(parties, page, EmpruntDAOShards::valeurTri, Emprunt::getId);
+    }
+
+    private static Object valeurTri(Emprunt emprunt, String colonne) {
+        switch (colonne) {
+            // NULL pour un magazine, comme la colonne
+            case "isbn": return emprunt.getLivre() != null ? emprunt.getLivre().getIsbn() : null;
+            case "membre_id": return emprunt.getMembre() != null ? emprunt.getMembre().getId() : null;
+            case "date_emprunt": return emprunt.getDateEmprunt();
+            case "date_retour_prevue": return emprunt.getdateRetourPrevue();
+            case "penalite": return emprunt.getPenalite();
+            default: return emprunt.getId();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.bibliotheque.dao.impl;
+
+import com.bibliotheque.dao.DocumentDAO;
+import com.bibliotheque.dao.EmpruntDAO;
+import com.bibliotheque.dao.LivreDAO;
+import com.bibliotheque.dao.MagazineDAO;
+import com.bibliotheque.dao.MembreDAO;
+import com.bibliotheque.dao.ReservationDAO;
+import com.bibliotheque.util.Configuration;
+import com.bibliotheque.util.Disjoncteur;
+import com.bibliotheque.util.MoteurBase;
+
+import java.sql.SQLException;
+
+/**
+ * Choix des implémentations des DAO d'après la configuration : stockage du catalogue
+ * ({@code catalogue.stockage}), répartition des membres et emprunts ({@code db.shards})
+ * et moteur de la base principale ({@code db.moteur}, voir {@link MoteurBase}).
+ * <p>
+ * Les DAO JDBC sont les mêmes pour les deux moteurs : la base embarquée comprend les
+ * requêtes MySQL. Elle n'est ouverte que par ce processus, d'où l'absence de shards.
+ * <p>
+ * Les DAO qui interrogent la base sont placés derrière {@link AccesResilient}, avec un
+ * {@link Disjoncteur} pour la base principale et un pour les shards.
+ */
+public class FabriqueDAO {
+
+    private final MoteurBase moteur;
+    private final Shards shards;
+    private final Disjoncteur principale = Disjoncteur.configure("base principale");
+    private final Disjoncteur disjoncteurShards;
+
+    public FabriqueDAO() {
+        this.moteur = MoteurBase.configure();
+        if (!Shards.configures()) {
+            this.shards = null;
+            this.disjoncteurShards = principale;
+        } else if (moteur == MoteurBase.EMBARQUE) {
+            throw new IllegalStateException("db.shards ne s'applique pas à la base embarquée (db.moteur=embarque)");
+        } else {
+            this.shards = new Shards();
+            this.disjoncteurShards = Disjoncteur.configure("shards");
+        }
+    }
+
+    public MoteurBase getMoteur() {
+        return moteur;
+    }
+
+    /**
+     * Applique les migrations du schéma à la base principale, puis à chaque shard.
+     *
+     * @return le nombre de migrations appliquées
+     */
+    public int migrer() throws SQLException {
+        int appliquees = Migrations.principale().appliquer();
+        if (shards != null) {
+            appliquees += Migrations.shards(shards).appliquer();
+        }
+        return appliquees;
+    }
+
+    /**
+     * Catalogue des livres et magazines, sur le stockage des livres choisi par la
+     * configuration. Les magazines sont dans la base principale, même en mode réparti.
+     */
+    public CatalogueDocuments documents() {
+        return new CatalogueDocuments(stockageLivres(),
+                AccesResilient.envelopper(MagazineDAO.class, new MagazineDAOImpl(), principale));
+    }
+
+    /**
+     * Très grands catalogues : livres stockés hors du tas ({@code catalogue.stockage=horsTas}).
+     */
+    private LivreDAO stockageLivres() {
+        if ("horsTas".equalsIgnoreCase(Configuration.get("catalogue.stockage", "memoire"))) {
+            return new LivreDAOHorsTas(Configuration.getInt("catalogue.capacite", 1024));
+        }
+        return new LivreDAOImpl();
+    }
+
+    /**
+     * Plusieurs postes partagent la base : le cache des membres est invalidé par le journal.
+     */
+    public MembreDAO membres(JournalModifications journal) {
+        MembreDAO membres = shards != null ? new MembreDAOShards(shards) : new MembreDAOImpl();
+        return new MembreDAOCache(AccesResilient.envelopper(MembreDAO.class, membres, disjoncteurShards), journal,
+                Configuration.getInt("cache.membres.capacite", 10_000));
+    }
+
+    public EmpruntDAO emprunts(DocumentDAO documents, MembreDAO membres) {
+        EmpruntDAO emprunts = shards != null
+                ? new EmpruntDAOShards(shards, documents, membres) : new EmpruntDAOImpl(documents, membres);
+        return AccesResilient.envelopper(EmpruntDAO.class, emprunts, disjoncteurShards);
+    }
+
+    /**
+     * Les réservations restent sur la base principale, même en mode réparti.
+     */
+    public ReservationDAO reservations(LivreDAO livres, MembreDAO membres) {
+        return AccesResilient.envelopper(ReservationDAO.class, new ReservationDAOImpl(livres, membres), principale);
+    }
+
+    /**
+     * Journal d'audit en table ({@code audit.destination=table}) : sur la base principale,
+     * même en mode réparti.
+     */
+    public TableAudit audit() {
+        return new TableAudit();
+    }
+
+    /**
+     * En mode réparti, chaque shard archive ses propres emprunts.
+     */
+    public ArchivageEmprunts archivage() {
+        return shards != null ? new ArchivageEmprunts(shards) : new ArchivageEmprunts();
+    }
+}
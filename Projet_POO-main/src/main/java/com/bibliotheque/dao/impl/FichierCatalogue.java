@@ -0,0 +1,276 @@
+package com.bibliotheque.dao.impl;
+
+import com.bibliotheque.model.Livre;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Persistance du catalogue en mémoire dans deux fichiers :
+ * <ul>
+ *   <li>{@code <prefixe>.snap} : instantané binaire de tout le catalogue, écrit et relu
+ *       par projection mémoire ({@link FileChannel#map}) ;</li>
+ *   <li>{@code <prefixe>.wal} : journal des modifications depuis cet instantané, une
+ *       entrée par écriture, rejoué au démarrage.</li>
+ * </ul>
+ * Chaque écriture (une entrée, ou tout un lot d'import) est forcée sur le disque
+ * ({@link FileChannel#force}) avant de rendre la main : une modification acceptée
+ * survit à une coupure de courant. Les écritures du catalogue sont rares (saisies,
+ * imports groupés), une synchronisation par écriture ne se remarque pas.
+ * <p>
+ * Au-delà de {@code catalogue.compaction} entrées, un nouvel instantané remplace
+ * l'ancien et le journal repart de zéro. Une entrée incomplète en fin de journal
+ * (arrêt brutal pendant l'écriture) est détectée par sa somme de contrôle et ignorée.
+ */
+class FichierCatalogue {
+
+    private static final long MAGIQUE = 0x4249424C43415431L; // "BIBLCAT1"
+    private static final byte ENREGISTRER = 'P';
+    private static final byte SUPPRIMER = 'D';
+    // Longueur et somme de contrôle en tête de chaque entrée du journal
+    private static final int ENTETE_ENTREE = 8;
+
+    private final Path instantane;
+    private final Path journal;
+    private final int seuilCompaction;
+    private FileChannel canalJournal;
+    private int entrees;
+
+    @FunctionalInterface
+    interface Ecriture {
+        void executer(FichierCatalogue fichier) throws IOException;
+    }
+
+    FichierCatalogue(Path prefixe, int seuilCompaction) {
+        this.instantane = Path.of(prefixe + ".snap");
+        this.journal = Path.of(prefixe + ".wal");
+        this.seuilCompaction = seuilCompaction;
+    }
+
+    /**
+     * Charge l'instantané puis rejoue le journal dans {@code livres}, et ouvre le journal
+     * pour les écritures suivantes.
+     */
+    void charger(Map<String, Livre> livres) throws IOException {
+        if (instantane.getParent() != null) {
+            Files.createDirectories(instantane.getParent());
+        }
+        if (Files.exists(instantane)) {
+            lireInstantane(livres);
+        }
+        long fin = 0;
+        if (Files.exists(journal)) {
+            fin = rejouer(livres);
+        }
+        canalJournal = FileChannel.open(journal, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        // Une entrée tronquée serait sinon suivie des nouvelles
+        canalJournal.truncate(fin);
+        canalJournal.position(fin);
+    }
+
+    private void lireInstantane(Map<String, Livre> livres) throws IOException {
+        try (FileChannel canal = FileChannel.open(instantane, StandardOpenOption.READ)) {
+            MappedByteBuffer tampon = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+            if (tampon.getLong() != MAGIQUE) {
+                throw new IOException("Instantané du catalogue invalide : " + instantane);
+            }
+            int nombre = tampon.getInt();
+            for (int i = 0; i < nombre; i++) {
+                Livre livre = lireLivre(tampon);
+                livres.put(livre.getIsbn(), livre);
+            }
+        }
+    }
+
+    /**
+     * @return la position de la fin de la dernière entrée complète
+     */
+    private long rejouer(Map<String, Livre> livres) throws IOException {
+        try (FileChannel canal = FileChannel.open(journal, StandardOpenOption.READ)) {
+            MappedByteBuffer tampon = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+            CRC32 crc = new CRC32();
+            while (tampon.remaining() >= ENTETE_ENTREE) {
+                int debut = tampon.position();
+                int longueur = tampon.getInt();
+                int controle = tampon.getInt();
+                if (longueur <= 0 || longueur > tampon.remaining()) {
+                    return debut;
+                }
+                ByteBuffer entree = tampon.slice(tampon.position(), longueur);
+                crc.reset();
+                crc.update(entree.duplicate());
+                if ((int) crc.getValue() != controle) {
+                    return debut;
+                }
+                tampon.position(tampon.position() + longueur);
+                try {
+                    if (entree.get() == SUPPRIMER) {
+                        livres.remove(lireTexte(entree));
+                    } else {
+                        Livre livre = lireLivre(entree);
+                        livres.put(livre.getIsbn(), livre);
+                    }
+                } catch (BufferUnderflowException e) {
+                    return debut;
+                }
+                entrees++;
+            }
+            return tampon.position();
+        }
+    }
+
+    void enregistrer(Livre livre) throws IOException {
+        enregistrer(List.of(livre));
+    }
+
+    void supprimer(String isbn) throws IOException {
+        byte[] cle = isbn.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer tampon = ByteBuffer.allocate(ENTETE_ENTREE + 1 + 4 + cle.length);
+        tampon.position(ENTETE_ENTREE);
+        tampon.put(SUPPRIMER).putInt(cle.length).put(cle);
+        sceller(tampon, 0);
+        tampon.flip();
+        ecrireTout(tampon);
+        entrees++;
+    }
+
+    /**
+     * Un lot (import) est écrit en un seul appel système.
+     */
+    void enregistrer(List<Livre> livres) throws IOException {
+        int taille = 0;
+        byte[][][] textes = new byte[livres.size()][][];
+        for (int i = 0; i < livres.size(); i++) {
+            textes[i] = encoder(livres.get(i));
+            taille += ENTETE_ENTREE + 1 + tailleLivre(textes[i]);
+        }
+        ByteBuffer tampon = ByteBuffer.allocate(taille);
+        for (int i = 0; i < livres.size(); i++) {
+            int debut = tampon.position();
+            tampon.position(debut + ENTETE_ENTREE);
+            tampon.put(ENREGISTRER);
+            ecrireLivre(tampon, textes[i], livres.get(i).isDisponible());
+            sceller(tampon, debut);
+        }
+        tampon.flip();
+        ecrireTout(tampon);
+        entrees += livres.size();
+    }
+
+    private void ecrireTout(ByteBuffer tampon) throws IOException {
+        while (tampon.hasRemaining()) {
+            canalJournal.write(tampon);
+        }
+        canalJournal.force(false);
+    }
+
+    /**
+     * Complète l'en-tête de l'entrée commencée en {@code debut} et finie à la position courante.
+     */
+    private static void sceller(ByteBuffer tampon, int debut) {
+        int longueur = tampon.position() - debut - ENTETE_ENTREE;
+        CRC32 crc = new CRC32();
+        crc.update(tampon.slice(debut + ENTETE_ENTREE, longueur));
+        tampon.putInt(debut, longueur);
+        tampon.putInt(debut + 4, (int) crc.getValue());
+    }
+
+    boolean compactionNecessaire() {
+        return entrees >= seuilCompaction;
+    }
+
+    /**
+     * Écrit un nouvel instantané du catalogue (fichier temporaire puis renommage) et
+     * vide le journal. L'appelant empêche toute écriture pendant l'opération.
+     */
+    void ecrireInstantane(Collection<Livre> livres) throws IOException {
+        byte[][][] textes = new byte[livres.size()][][];
+        boolean[] disponibles = new boolean[livres.size()];
+        long taille = 8 + 4;
+        int i = 0;
+        for (Livre livre : livres) {
+            textes[i] = encoder(livre);
+            disponibles[i] = livre.isDisponible();
+            taille += tailleLivre(textes[i]);
+            i++;
+        }
+        Path temporaire = Path.of(instantane + ".tmp");
+        try (FileChannel canal = FileChannel.open(temporaire, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer tampon = canal.map(FileChannel.MapMode.READ_WRITE, 0, taille);
+            tampon.putLong(MAGIQUE).putInt(textes.length);
+            for (int j = 0; j < textes.length; j++) {
+                ecrireLivre(tampon, textes[j], disponibles[j]);
+            }
+            tampon.force();
+        }
+        Files.move(temporaire, instantane, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        // Le renommage doit être sur le disque avant que le journal ne soit vidé
+        forcerDossier(instantane.toAbsolutePath().getParent());
+        // Le journal ne contient plus que des modifications incluses dans l'instantané
+        canalJournal.truncate(0);
+        canalJournal.position(0);
+        canalJournal.force(false);
+        entrees = 0;
+    }
+
+    private static void forcerDossier(Path dossier) {
+        try (FileChannel canal = FileChannel.open(dossier, StandardOpenOption.READ)) {
+            canal.force(true);
+        } catch (IOException e) {
+            // Dossier non ouvrable en lecture (Windows) : pas de synchronisation possible
+        }
+    }
+
+    void fermer() throws IOException {
+        if (canalJournal != null) {
+            canalJournal.force(false);
+            canalJournal.close();
+        }
+    }
+
+    private static byte[][] encoder(Livre livre) {
+        return new byte[][] {
+                livre.getIsbn().getBytes(StandardCharsets.UTF_8),
+                livre.getTitre().getBytes(StandardCharsets.UTF_8),
+                livre.getAuteur() == null ? new byte[0] : livre.getAuteur().getBytes(StandardCharsets.UTF_8)
+        };
+    }
+
+    private static int tailleLivre(byte[][] textes) {
+        return 3 * 4 + textes[0].length + textes[1].length + textes[2].length + 1;
+    }
+
+    private static void ecrireLivre(ByteBuffer tampon, byte[][] textes, boolean disponible) {
+        for (byte[] texte : textes) {
+            tampon.putInt(texte.length).put(texte);
+        }
+        tampon.put((byte) (disponible ? 1 : 0));
+    }
+
+    private static Livre lireLivre(ByteBuffer tampon) {
+        Livre livre = new Livre(lireTexte(tampon), lireTexte(tampon), lireTexte(tampon));
+        if (tampon.get() == 0) {
+            livre.emprunter();
+        }
+        return livre;
+    }
+
+    private static String lireTexte(ByteBuffer tampon) {
+        byte[] texte = new byte[tampon.getInt()];
+        tampon.get(texte);
+        return new String(texte, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,172 @@
+package com.bibliotheque.dao.impl;
+
+import com.bibliotheque.util.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Journal des modifications partagé par tous les postes connectés à la même base
+ * (table {@code journal_modifications}).
+ * <p>
+ * Chaque écriture d'un DAO en cache ajoute une ligne (entité, clé) ; le numéro de
+ * version est l'auto-incrément de la table. Chaque instance relit le journal à
+ * intervalle fixe depuis la dernière version vue et invalide les clés modifiées dans
+ * ses caches : une donnée en cache a donc au plus {@code delaiMs} de retard sur une
+ * écriture faite depuis un autre poste.
+ * <p>
+ * Un auto-incrément attribué avant un autre peut être validé après lui : une version
+ * sautée est donc retenue comme lacune et relue à chaque passage jusqu'à son arrivée,
+ * ou jusqu'à {@link #ATTENTE_LACUNE_MS} (insertion annulée, dont le numéro reste perdu).
+ */
+public class JournalModifications {
+
+    /** Délai de relecture par défaut, surchargeable par {@code -Dbibliotheque.cache.delaiMs}. */
+    public static final long DELAI_DEFAUT_MS = 500;
+    // Les lignes plus anciennes ne servent plus à personne (intervalle écrit en SQL standard,
+    // compris aussi par la base embarquée)
+    private static final String PURGE = "DELETE FROM journal_modifications WHERE date_modification < NOW() - INTERVAL '1' DAY";
+    private static final long PURGE_TOUS_LES = 7200;
+    /** Au-delà, une version manquante est tenue pour une insertion annulée. */
+    static final long ATTENTE_LACUNE_MS = 60_000;
+    // Un saut d'auto-incrément démesuré ne doit pas remplir la mémoire : seules les plus récentes sont attendues
+    private static final int LACUNES_MAX = 1000;
+
+    private final Map<String, List<Consumer<String>>> invalidations = new ConcurrentHashMap<>();
+    private final long delaiMs;
+    private ScheduledExecutorService lecteur;
+    private volatile long derniereVersion = -1;
+    // Versions sautées, encore attendues, et leur échéance (lues par le seul lecteur)
+    private final NavigableMap<Long, Long> lacunes = new TreeMap<>();
+    private long lectures;
+
+    public JournalModifications() {
+        this(Long.getLong("bibliotheque.cache.delaiMs", DELAI_DEFAUT_MS));
+    }
+
+    public JournalModifications(long delaiMs) {
+        this.delaiMs = delaiMs;
+    }
+
+    /**
+     * Enregistre la modification d'une entité.
+     *
+     * @param entite le type d'entité (ex. "membre")
+     * @param cle    la clé de l'entité modifiée
+     */
+    public void enregistrer(String entite, String cle) throws SQLException {
+        String sql = "INSERT INTO journal_modifications (entite, cle) VALUES (?, ?)";
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, entite);
+            stmt.setString(2, cle);
+            stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Abonne un cache aux modifications d'un type d'entité.
+     *
+     * @param entite   le type d'entité
+     * @param invalider appelé avec la clé de chaque entité modifiée, ou avec null si
+     *                  le journal n'a pas pu être lu (tout le cache est alors à vider)
+     */
+    public void surveiller(String entite, Consumer<String> invalider) {
+        invalidations.computeIfAbsent(entite, e -> new CopyOnWriteArrayList<>()).add(invalider);
+    }
+
+    /**
+     * Lance la relecture périodique du journal.
+     */
+    public synchronized void demarrer() {
+        if (lecteur != null) {
+            return;
+        }
+        lecteur = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "journal-modifications");
+            t.setDaemon(true);
+            return t;
+        });
+        lecteur.scheduleWithFixedDelay(this::lire, 0, delaiMs, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void arreter() {
+        if (lecteur != null) {
+            lecteur.shutdownNow();
+            lecteur = null;
+        }
+    }
+
+    private void lire() {
+        try (Connection conn = DatabaseConnection.getInstance().getConnection()) {
+            if (derniereVersion < 0) {
+                // Premier passage : les caches sont vides, seules les modifications à venir comptent
+                derniereVersion = versionCourante(conn);
+                return;
+            }
+            long maintenant = System.currentTimeMillis();
+            lacunes.values().removeIf(echeance -> echeance < maintenant);
+            // Relire depuis la plus ancienne lacune : les versions déjà vues sont ignorées
+            long depuis = lacunes.isEmpty() ? derniereVersion : Math.min(lacunes.firstKey() - 1, derniereVersion);
+            String sql = "SELECT version, entite, cle FROM journal_modifications WHERE version > ? ORDER BY version";
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setLong(1, depuis);
+                ResultSet rs = stmt.executeQuery();
+                while (rs.next()) {
+                    long version = rs.getLong("version");
+                    if (version <= derniereVersion) {
+                        if (lacunes.remove(version) == null) {
+                            continue;
+                        }
+                    } else {
+                        for (long sautee = Math.max(derniereVersion + 1, version - LACUNES_MAX); sautee < version; sautee++) {
+                            lacunes.put(sautee, maintenant + ATTENTE_LACUNE_MS);
+                        }
+                        derniereVersion = version;
+                    }
+                    invalider(rs.getString("entite"), rs.getString("cle"));
+                }
+            }
+            while (lacunes.size() > LACUNES_MAX) {
+                lacunes.pollFirstEntry();
+            }
+            if (++lectures % PURGE_TOUS_LES == 0) {
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.executeUpdate(PURGE);
+                }
+            }
+        } catch (SQLException e) {
+            // Base momentanément indisponible : sans le journal, plus rien ne garantit
+            // la fraîcheur des caches ; nouvel essai au prochain passage
+            System.err.println("Lecture du journal des modifications impossible : " + e.getMessage());
+            invalidations.values().forEach(abonnes -> abonnes.forEach(invalider -> invalider.accept(null)));
+        }
+    }
+
+    private static long versionCourante(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(version), 0) FROM journal_modifications")) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    private void invalider(String entite, String cle) {
+        List<Consumer<String>> abonnes = invalidations.get(entite);
+        if (abonnes != null) {
+            abonnes.forEach(invalider -> invalider.accept(cle));
+        }
+    }
+}
@@ -0,0 +1,375 @@
+package com.bibliotheque.dao.impl;
+
+import com.bibliotheque.dao.LivreDAO;
+import com.bibliotheque.model.Livre;
+import com.bibliotheque.util.Dictionnaire;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * Catalogue stocké hors du tas Java, pour les très grands fonds (catalogues collectifs) :
+ * le ramasse-miettes ne parcourt que quelques tampons, quel que soit le nombre de titres.
+ * <p>
+ * Chaque livre occupe une case de {@value #TAILLE_CASE} octets dans des blocs de
+ * {@link ByteBuffer} directs :
+ * <pre>
+ *   [long adresse][int hachage][short isbn][short titre][int auteur][byte disponible][byte etat]
+ * </pre>
+ * où {@code adresse} désigne, dans une zone de données distincte, les textes de l'ISBN
+ * et du titre en UTF-8, mis bout à bout, et {@code auteur} le code de l'auteur dans
+ * {@link Dictionnaire#AUTEURS}. L'index par ISBN est une table à
+ * adressage ouvert, elle aussi hors tas, qui associe au hachage le numéro de case.
+ * <p>
+ * Un {@link Livre} n'est construit qu'au moment où il est rendu : {@link #findAll()}
+ * renvoie une liste dont chaque élément est lu à la demande. Comme avec une base de
+ * données, le livre rendu est une copie, et ses modifications sont enregistrées par
+ * {@link #update}.
+ * <p>
+ * Les cases ne sont pas réutilisées et les textes remplacés ne sont pas récupérés : le
+ * catalogue est surtout alimenté par des imports, les suppressions y sont rares.
+ */
+public class LivreDAOHorsTas implements LivreDAO {
+
+    static final int TAILLE_CASE = 22;
+    private static final int CASES_PAR_BLOC = 1 << 20;
+    private static final int TAILLE_BLOC_DONNEES = 1 << 24;
+    private static final int TEXTE_ABSENT = -1;
+
+    // Décalages dans une case
+    private static final int ADRESSE = 0;
+    private static final int HACHAGE = 8;
+    private static final int LONGUEUR_ISBN = 12;
+    private static final int LONGUEUR_TITRE = 14;
+    private static final int AUTEUR = 16;
+    private static final int DISPONIBLE = 20;
+    private static final int ETAT = 21;
+
+    private static final byte VIVANT = 1;
+    private static final byte SUPPRIME = 2;
+
+    // Valeurs de l'index : numéro de case + 1, 0 pour une entrée libre
+    private static final int LIBRE = 0;
+    private static final int EFFACE = -1;
+
+    private final List<ByteBuffer> blocsCases = new ArrayList<>();
+    private final List<ByteBuffer> blocsDonnees = new ArrayList<>();
+    private int cases;
+    private int vivants;
+    private IntBuffer index;
+    // Entrées occupées de l'index, effacées comprises
+    private int occupees;
+
+    public LivreDAOHorsTas() {
+        this(1024);
+    }
+
+    /**
+     * @param capacite nombre de titres attendu, pour dimensionner l'index d'emblée
+     */
+    public LivreDAOHorsTas(int capacite) {
+        this.index = nouvelIndex(capacite);
+    }
+
+    private static IntBuffer nouvelIndex(int titres) {
+        int capacite = Integer.highestOneBit(Math.max(16, titres) * 2 - 1) << 1;
+        return ByteBuffer.allocateDirect(capacite * 4).asIntBuffer();
+    }
+
+    private static int hacher(byte[] isbn) {
+        int h = Arrays.hashCode(isbn);
+        // Les ISBN ne diffèrent souvent que par les derniers chiffres
+        return h ^ (h >>> 16);
+    }
+
+    // --- Cases ---
+
+    private ByteBuffer bloc(int numero) {
+        return blocsCases.get(numero / CASES_PAR_BLOC);
+    }
+
+    private static int position(int numero) {
+        return (numero % CASES_PAR_BLOC) * TAILLE_CASE;
+    }
+
+    private int nouvelleCase() {
+        if (cases == blocsCases.size() * CASES_PAR_BLOC) {
+            blocsCases.add(ByteBuffer.allocateDirect(CASES_PAR_BLOC * TAILLE_CASE));
+        }
+        return cases++;
+    }
+
+    /**
+     * Copie les textes du livre dans la zone de données et renseigne la case.
+     */
+    private void ecrire(int numero, byte[] isbn, int hachage, Livre livre) {
+        byte[] titre = encoder(livre.getTitre());
+        int taille = isbn.length + (titre == null ? 0 : titre.length);
+        ByteBuffer donnees = blocsDonnees.isEmpty() ? null : blocsDonnees.get(blocsDonnees.size() - 1);
+        if (donnees == null || donnees.remaining() < taille) {
+            donnees = ByteBuffer.allocateDirect(TAILLE_BLOC_DONNEES);
+            blocsDonnees.add(donnees);
+        }
+        long adresse = (long) (blocsDonnees.size() - 1) * TAILLE_BLOC_DONNEES + donnees.position();
+        donnees.put(isbn);
+        if (titre != null) {
+            donnees.put(titre);
+        }
+        ByteBuffer bloc = bloc(numero);
+        int p = position(numero);
+        bloc.putLong(p + ADRESSE, adresse);
+        bloc.putInt(p + HACHAGE, hachage);
+        bloc.putShort(p + LONGUEUR_ISBN, (short) isbn.length);
+        bloc.putShort(p + LONGUEUR_TITRE, (short) (titre == null ? TEXTE_ABSENT : titre.length));
+        bloc.putInt(p + AUTEUR, livre.getCodeAuteur());
+        bloc.put(p + DISPONIBLE, (byte) (livre.isDisponible() ? 1 : 0));
+        bloc.put(p + ETAT, VIVANT);
+    }
+
+    private static byte[] encoder(String texte) {
+        if (texte == null) {
+            return null;
+        }
+        byte[] octets = texte.getBytes(StandardCharsets.UTF_8);
+        if (octets.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Texte trop long pour le catalogue : " + octets.length + " octets");
+        }
+        return octets;
+    }
+
+    /**
+     * Construit le livre rangé dans une case.
+     */
+    private Livre lire(int numero) {
+        ByteBuffer bloc = bloc(numero);
+        int p = position(numero);
+        long adresse = bloc.getLong(p + ADRESSE);
+        ByteBuffer donnees = blocsDonnees.get((int) (adresse / TAILLE_BLOC_DONNEES));
+        int debut = (int) (adresse % TAILLE_BLOC_DONNEES);
+        short longueurIsbn = bloc.getShort(p + LONGUEUR_ISBN);
+        String isbn = lireTexte(donnees, debut, longueurIsbn);
+        String titre = lireTexte(donnees, debut + longueurIsbn, bloc.getShort(p + LONGUEUR_TITRE));
+        Livre livre = new Livre(isbn, titre, bloc.getInt(p + AUTEUR));
+        if (bloc.get(p + DISPONIBLE) == 0) {
+            livre.emprunter();
+        }
+        return livre;
+    }
+
+    private static String lireTexte(ByteBuffer donnees, int debut, int longueur) {
+        if (longueur == TEXTE_ABSENT) {
+            return null;
+        }
+        byte[] octets = new byte[longueur];
+        donnees.get(debut, octets);
+        return new String(octets, StandardCharsets.UTF_8);
+    }
+
+    private boolean memeIsbn(int numero, byte[] isbn, int hachage) {
+        ByteBuffer bloc = bloc(numero);
+        int p = position(numero);
+        if (bloc.getInt(p + HACHAGE) != hachage || bloc.getShort(p + LONGUEUR_ISBN) != isbn.length) {
+            return false;
+        }
+        long adresse = bloc.getLong(p + ADRESSE);
+        ByteBuffer donnees = blocsDonnees.get((int) (adresse / TAILLE_BLOC_DONNEES));
+        int debut = (int) (adresse % TAILLE_BLOC_DONNEES);
+        for (int i = 0; i < isbn.length; i++) {
+            if (donnees.get(debut + i) != isbn[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // --- Index ---
+
+    /**
+     * @return la position de l'ISBN dans l'index, ou {@code -(position libre) - 1}
+     */
+    private int chercher(byte[] isbn, int hachage) {
+        int masque = index.capacity() - 1;
+        int libre = -1;
+        for (int i = hachage & masque; ; i = (i + 1) & masque) {
+            int valeur = index.get(i);
+            if (valeur == LIBRE) {
+                return -(libre >= 0 ? libre : i) - 1;
+            }
+            if (valeur == EFFACE) {
+                if (libre < 0) {
+                    libre = i;
+                }
+            } else if (memeIsbn(valeur - 1, isbn, hachage)) {
+                return i;
+            }
+        }
+    }
+
+    private void indexer(int numero, int hachage, int position) {
+        if (index.get(position) == LIBRE) {
+            occupees++;
+        }
+        index.put(position, numero + 1);
+        if (occupees * 4L > index.capacity() * 3L) {
+            reindexer();
+        }
+    }
+
+    /**
+     * Reconstruit l'index, agrandi si besoin et débarrassé des entrées effacées.
+     */
+    private void reindexer() {
+        IntBuffer nouveau = nouvelIndex(vivants);
+        int masque = nouveau.capacity() - 1;
+        for (int i = 0; i < index.capacity(); i++) {
+            int valeur = index.get(i);
+            if (valeur > 0) {
+                int j = bloc(valeur - 1).getInt(position(valeur - 1) + HACHAGE) & masque;
+                while (nouveau.get(j) != LIBRE) {
+                    j = (j + 1) & masque;
+                }
+                nouveau.put(j, valeur);
+            }
+        }
+        index = nouveau;
+        occupees = vivants;
+    }
+
+    // --- LivreDAO ---
+
+    /**
+     * Ajoute le livre, ou remplace celui de même ISBN.
+     *
+     * @return {@code false} si l'ISBN était présent et {@code remplacer} faux
+     */
+    private boolean enregistrer(Livre livre, boolean remplacer) {
+        byte[] isbn = encoder(livre.getIsbn());
+        int hachage = hacher(isbn);
+        int trouve = chercher(isbn, hachage);
+        if (trouve >= 0) {
+            if (!remplacer) {
+                return false;
+            }
+            int numero = index.get(trouve) - 1;
+            if (memesTextes(numero, livre)) {
+                // Cas courant (emprunt, retour) : seule la disponibilité change
+                bloc(numero).put(position(numero) + DISPONIBLE, (byte) (livre.isDisponible() ? 1 : 0));
+            } else {
+                ecrire(numero, isbn, hachage, livre);
+            }
+            return true;
+        }
+        int numero = nouvelleCase();
+        ecrire(numero, isbn, hachage, livre);
+        vivants++;
+        indexer(numero, hachage, -trouve - 1);
+        return true;
+    }
+
+    private boolean memesTextes(int numero, Livre livre) {
+        if (bloc(numero).getInt(position(numero) + AUTEUR) != livre.getCodeAuteur()) {
+            return false;
+        }
+        return Objects.equals(lire(numero).getTitre(), livre.getTitre());
+    }
+
+    @Override
+    public synchronized void save(Livre livre) {
+        enregistrer(livre, true);
+    }
+
+    @Override
+    public synchronized List<Livre> saveAll(List<Livre> livres) {
+        List<Livre> existants = new ArrayList<>();
+        for (Livre livre : livres) {
+            if (!enregistrer(livre, false)) {
+                existants.add(livre);
+            }
+        }
+        return existants;
+    }
+
+    @Override
+    public synchronized Livre findByIsbn(String isbn) {
+        if (isbn == null) {
+            return null;
+        }
+        byte[] cle = isbn.getBytes(StandardCharsets.UTF_8);
+        int trouve = chercher(cle, hacher(cle));
+        return trouve >= 0 ? lire(index.get(trouve) - 1) : null;
+    }
+
+    /**
+     * Liste des livres dans l'ordre d'ajout. Seuls les numéros de case sont copiés ;
+     * chaque livre est lu au moment où il est demandé à la liste.
+     */
+    @Override
+    public synchronized List<Livre> findAll() {
+        int[] numeros = new int[vivants];
+        int n = 0;
+        for (int numero = 0; numero < cases; numero++) {
+            if (bloc(numero).get(position(numero) + ETAT) == VIVANT) {
+                numeros[n++] = numero;
+            }
+        }
+        return new Livres(numeros);
+    }
+
+    @Override
+    public synchronized void update(Livre livre) {
+        enregistrer(livre, true);
+    }
+
+    @Override
+    public synchronized void delete(String isbn) {
+        byte[] cle = isbn.getBytes(StandardCharsets.UTF_8);
+        int trouve = chercher(cle, hacher(cle));
+        if (trouve < 0) {
+            return;
+        }
+        int numero = index.get(trouve) - 1;
+        bloc(numero).put(position(numero) + ETAT, SUPPRIME);
+        index.put(trouve, EFFACE);
+        vivants--;
+    }
+
+    /**
+     * @return le nombre d'octets réservés hors tas (cases, textes et index)
+     */
+    public synchronized long getOctetsHorsTas() {
+        return (long) blocsCases.size() * CASES_PAR_BLOC * TAILLE_CASE
+                + (long) blocsDonnees.size() * TAILLE_BLOC_DONNEES
+                + index.capacity() * 4L;
+    }
+
+    /**
+     * Vue de {@link #findAll()} : un livre supprimé depuis reste lisible, dans son
+     * dernier état, puisque sa case n'est pas réutilisée.
+     */
+    private final class Livres extends AbstractList<Livre> implements RandomAccess {
+        private final int[] numeros;
+
+        Livres(int[] numeros) {
+            this.numeros = numeros;
+        }
+
+        @Override
+        public Livre get(int i) {
+            synchronized (LivreDAOHorsTas.this) {
+                return lire(numeros[i]);
+            }
+        }
+
+        @Override
+        public int size() {
+            return numeros.length;
+        }
+    }
+}
@@ -1,41 +1,126 @@
 package com.bibliotheque.dao.impl;
 import com.bibliotheque.dao.LivreDAO;
 import com.bibliotheque.model.Livre;
+import com.bibliotheque.util.Configuration;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
+/**
+ * Catalogue en mémoire. Si {@code catalogue.fichier} est renseigné (bornes hors ligne),
+ * il est conservé sur disque par un {@link FichierCatalogue} : chaque écriture est
+ * ajoutée au journal, et le catalogue est rechargé au démarrage.
+ */
 public class LivreDAOImpl implements LivreDAO {
 
-    private static List<Livre> livres = new ArrayList<>();
+    // Indexé par ISBN et synchronisé : le catalogue est partagé entre threads (serveur HTTP)
+    private static final Map<String, Livre> livres = Collections.synchronizedMap(new LinkedHashMap<>());
+    private static final FichierCatalogue fichier = ouvrirFichier();
+
+    private static FichierCatalogue ouvrirFichier() {
+        String prefixe = Configuration.get("catalogue.fichier", "");
+        if (prefixe.isBlank()) {
+            return null;
+        }
+        FichierCatalogue fichier = new FichierCatalogue(Path.of(prefixe),
+                Configuration.getInt("catalogue.compaction", 100_000));
+        try {
+            fichier.charger(livres);
+        } catch (IOException e) {
+            throw new IllegalStateException("Chargement du catalogue impossible : " + e.getMessage(), e);
+        }
+        // À l'arrêt, un instantané à jour évite de rejouer le journal au prochain démarrage ;
+        // sans lui (arrêt brutal), le journal, forcé à chaque écriture, suffit
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            synchronized (livres) {
+                try {
+                    fichier.ecrireInstantane(livres.values());
+                    fichier.fermer();
+                } catch (IOException e) {
+                    System.err.println("Instantané du catalogue impossible : " + e.getMessage());
+                }
+            }
+        }, "instantane-catalogue"));
+        return fichier;
+    }
+
+    /**
+     * Ajoute l'écriture au journal ; appelé sous le verrou du catalogue, pour que l'ordre
+     * du journal soit celui des modifications.
+     */
+    private static void journaliser(FichierCatalogue.Ecriture ecriture) {
+        if (fichier == null) {
+            return;
+        }
+        try {
+            ecriture.executer(fichier);
+            if (fichier.compactionNecessaire()) {
+                fichier.ecrireInstantane(livres.values());
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Erreur lors de l'écriture du catalogue sur disque", e);
+        }
+    }
 
     @Override
     public void save(Livre livre) {
-        livres.add(livre);
+        synchronized (livres) {
+            livres.put(livre.getIsbn(), livre);
+            journaliser(f -> f.enregistrer(livre));
+        }
+    }
+
+    @Override
+    public List<Livre> saveAll(List<Livre> nouveaux) {
+        List<Livre> existants = new ArrayList<>();
+        List<Livre> ajoutes = new ArrayList<>(nouveaux.size());
+        // Un seul verrou, et une seule écriture au journal, pour tout le lot
+        synchronized (livres) {
+            for (Livre livre : nouveaux) {
+                if (livres.putIfAbsent(livre.getIsbn(), livre) != null) {
+                    existants.add(livre);
+                } else {
+                    ajoutes.add(livre);
+                }
+            }
+            if (!ajoutes.isEmpty()) {
+                journaliser(f -> f.enregistrer(ajoutes));
+            }
+        }
+        return existants;
     }
 
     @Override
     public Livre findByIsbn(String isbn) {
-        return livres.stream()
-                .filter(l -> l.getIsbn().equals(isbn))
-                .findFirst()
-                .orElse(null);
+        return livres.get(isbn);
     }
 
     @Override
     public List<Livre> findAll() {
-        return livres;
+        synchronized (livres) {
+            return new ArrayList<>(livres.values());
+        }
     }
 
     @Override
     public void update(Livre livre) {
-        delete(livre.getIsbn());
-        save(livre);
+        synchronized (livres) {
+            livres.put(livre.getIsbn(), livre);
+            journaliser(f -> f.enregistrer(livre));
+        }
     }
 
     @Override
     public void delete(String isbn) {
-        livres.removeIf(l -> l.getIsbn().equals(isbn));
+        synchronized (livres) {
+            if (livres.remove(isbn) != null) {
+                journaliser(f -> f.supprimer(isbn));
+            }
+        }
     }
 }
-
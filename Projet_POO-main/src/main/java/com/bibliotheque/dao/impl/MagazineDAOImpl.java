@@ -0,0 +1,110 @@
+package com.bibliotheque.dao.impl;
+
+import com.bibliotheque.dao.MagazineDAO;
+import com.bibliotheque.model.Magazine;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Magazines de la table {@code magazines} (base principale, même en mode réparti) : les
+ * emprunts d'un magazine y font référence.
+ */
+public class MagazineDAOImpl implements MagazineDAO {
+
+    private final SourceConnexions connexions;
+
+    public MagazineDAOImpl() {
+        this(SourceConnexions.PRINCIPALE);
+    }
+
+    MagazineDAOImpl(SourceConnexions connexions) {
+        this.connexions = connexions;
+    }
+
+    @Override
+    public void save(Magazine magazine) {
+        String sql = "INSERT INTO magazines (identifiant, titre, numero, mois, disponible) VALUES (?, ?, ?, ?, ?)";
+        try (Connection conn = connexions.ecriture();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, magazine.getIdentifiant());
+            ps.setString(2, magazine.getTitre());
+            ps.setInt(3, magazine.getNumero());
+            ps.setString(4, magazine.getMois());
+            ps.setBoolean(5, magazine.isDisponible());
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException("Erreur lors de l'ajout du magazine", e);
+        }
+    }
+
+    @Override
+    public Magazine findById(String identifiant) {
+        String sql = "SELECT * FROM magazines WHERE identifiant = ?";
+        try (Connection conn = connexions.ecriture();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, identifiant);
+            ResultSet rs = ps.executeQuery();
+            if (rs.next()) {
+                return mapToMagazine(rs);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Erreur findById", e);
+        }
+        return null;
+    }
+
+    @Override
+    public List<Magazine> findAll() {
+        List<Magazine> magazines = new ArrayList<>();
+        String sql = "SELECT * FROM magazines ORDER BY identifiant";
+        try (Connection conn = connexions.ecriture();
+             Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery(sql)) {
+            while (rs.next()) {
+                magazines.add(mapToMagazine(rs));
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Erreur findAll", e);
+        }
+        return magazines;
+    }
+
+    @Override
+    public void update(Magazine magazine) {
+        String sql = "UPDATE magazines SET titre = ?, numero = ?, mois = ?, disponible = ? WHERE identifiant = ?";
+        try (Connection conn = connexions.ecriture();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, magazine.getTitre());
+            ps.setInt(2, magazine.getNumero());
+            ps.setString(3, magazine.getMois());
+            ps.setBoolean(4, magazine.isDisponible());
+            ps.setString(5, magazine.getIdentifiant());
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException("Erreur update", e);
+        }
+    }
+
+    @Override
+    public void delete(String identifiant) {
+        String sql = "DELETE FROM magazines WHERE identifiant = ?";
+        try (Connection conn = connexions.ecriture();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, identifiant);
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException("Erreur delete", e);
+        }
+    }
+
+    private static Magazine mapToMagazine(ResultSet rs) throws SQLException {
+        return new Magazine(rs.getString("identifiant"), rs.getString("titre"), rs.getInt("numero"),
+                rs.getString("mois"), rs.getBoolean("disponible"));
+    }
+}
@@ -0,0 +1,142 @@
+package com.bibliotheque.dao.impl;
+
+import com.bibliotheque.dao.MembreDAO;
+import com.bibliotheque.dao.RequetePage;
+import com.bibliotheque.model.Membre;
+
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache des membres par id devant un autre {@link MembreDAO}.
+ * <p>
+ * {@link #findById} est appelé pour chaque emprunt lu ; le cache évite une requête
+ * par ligne. Les écritures passent par le DAO délégué puis sont inscrites au
+ * {@link JournalModifications}, qui invalide la clé sur tous les postes. Les
+ * recherches et les pages ne sont pas mises en cache.
+ * <p>
+ * Le cache garde au plus {@code capacite} membres : plein, il libère une entrée
+ * quelconque avant d'en ajouter une.
+ */
+public class MembreDAOCache implements MembreDAO {
+
+    static final String ENTITE = "membre";
+
+    private final MembreDAO delegue;
+    private final JournalModifications journal;
+    private final int capacite;
+    private final Map<Integer, Membre> cache = new ConcurrentHashMap<>();
+    // Incrémenté à chaque invalidation : une lecture commencée avant ne doit pas remplir le cache
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public MembreDAOCache(MembreDAO delegue, JournalModifications journal, int capacite) {
+        if (capacite < 1) {
+            throw new IllegalArgumentException("Capacité du cache des membres invalide : " + capacite);
+        }
+        this.delegue = delegue;
+        this.journal = journal;
+        this.capacite = capacite;
+        journal.surveiller(ENTITE, this::invalider);
+    }
+
+    private void invalider(String cle) {
+        invalidations.incrementAndGet();
+        if (cle == null) {
+            cache.clear();
+        } else {
+            cache.remove(Integer.valueOf(cle));
+        }
+    }
+
+    private void modifie(int id) {
+        invalider(String.valueOf(id));
+        try {
+            journal.enregistrer(ENTITE, String.valueOf(id));
+        } catch (SQLException e) {
+            throw new RuntimeException("Erreur d'écriture du journal des modifications", e);
+        }
+    }
+
+    @Override
+    public Membre findById(int id) {
+        Membre membre = cache.get(id);
+        if (membre == null) {
+            long avant = invalidations.get();
+            membre = delegue.findById(id);
+            if (membre == null) {
+                return null;
+            }
+            if (invalidations.get() == avant) {
+                mettreEnCache(id, membre);
+            }
+        }
+        // Copie : une modification de l'objet par l'appelant ne doit pas toucher le cache
+        return copie(membre);
+    }
+
+    private void mettreEnCache(int id, Membre membre) {
+        Iterator<Integer> cles = cache.keySet().iterator();
+        // Approché sous concurrence : le cache peut dépasser la capacité de quelques entrées
+        while (cache.size() >= capacite && cles.hasNext()) {
+            cles.next();
+            cles.remove();
+        }
+        cache.putIfAbsent(id, membre);
+    }
+
+    private static Membre copie(Membre membre) {
+        return new Membre(membre.getId(), membre.getNom(), membre.getPrenom(), membre.getEmail(), membre.isActif());
+    }
+
+    @Override
+    public void save(Membre membre) {
+        delegue.save(membre);
+        modifie(membre.getId());
+    }
+
+    @Override
+    public void update(Membre membre) {
+        delegue.update(membre);
+        modifie(membre.getId());
+    }
+
+    @Override
+    public void delete(int id) {
+        delegue.delete(id);
+        modifie(id);
+    }
+
+    @Override
+    public List<Membre> findAll() {
+        return delegue.findAll();
+    }
+
+    @Override
+    public Membre findByEmail(String email) {
+        return delegue.findByEmail(email);
+    }
+
+    @Override
+    public List<Membre> findActifs() {
+        return delegue.findActifs();
+    }
+
+    @Override
+    public int countActifs() {
+        return delegue.countActifs();
+    }
+
+    @Override
+    public int count(String motCle) {
+        return delegue.count(motCle);
+    }
+
+    @Override
+    public List<Membre> findPage(String motCle, RequetePage page) {
+        return delegue.findPage(motCle, page);
+    }
+}
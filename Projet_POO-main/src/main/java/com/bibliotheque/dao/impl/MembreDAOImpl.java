@@ -1,28 +1,57 @@
 package com.bibliotheque.dao.impl;
 
 import com.bibliotheque.dao.MembreDAO;
+import com.bibliotheque.dao.RequetePage;
 import com.bibliotheque.model.Membre;
-import com.bibliotheque.util.DatabaseConnection;
 
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 public class MembreDAOImpl implements MembreDAO {
 
+    private static final Set<String> COLONNES_TRI = Set.of("id", "nom", "prenom", "email", "actif");
+
+    private final SourceConnexions connexions;
+
+    public MembreDAOImpl() {
+        this(SourceConnexions.PRINCIPALE);
+    }
+
+    MembreDAOImpl(SourceConnexions connexions) {
+        this.connexions = connexions;
+    }
+
     @Override
     public void save(Membre membre) {
-        String sql = "INSERT INTO membres (nom,prenom, email, actif) VALUES (?,?,?, ?)";
+        // Un id déjà attribué (mode réparti, séquence commune aux shards) est inséré tel quel
+        boolean idAttribue = membre.getId() > 0;
+        String sql = idAttribue
+                ? "INSERT INTO membres (nom,prenom, email, actif, date_inscription, id) VALUES (?,?,?, ?, CURRENT_DATE, ?)"
+                : "INSERT INTO membres (nom,prenom, email, actif, date_inscription) VALUES (?,?,?, ?, CURRENT_DATE)";
 
-        try (Connection conn = DatabaseConnection.getInstance().getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
+        try (Connection conn = connexions.ecriture();
+             PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
 
 
             ps.setString(1, membre.getNom());
             ps.setString(2, membre.getPrenom());
             ps.setString(3, membre.getEmail());
             ps.setBoolean(4, membre.isActif());
+            if (idAttribue) {
+                ps.setInt(5, membre.getId());
+            }
             ps.executeUpdate();
+            if (idAttribue) {
+                return;
+            }
+
+            // L'id généré est reporté sur l'objet : les vues l'ajoutent sans relire la table
+            ResultSet keys = ps.getGeneratedKeys();
+            if (keys.next()) {
+                membre.setId(keys.getInt(1));
+            }
 
         } catch (SQLException e) {
             throw new RuntimeException("Erreur lors de l'ajout du membre", e);
@@ -33,7 +62,7 @@ public class MembreDAOImpl implements MembreDAO {
     public Membre findById(int id) {
         String sql = "SELECT * FROM membres WHERE id = ?";
 
-        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+        try (Connection conn = connexions.ecriture();
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
 
@@ -55,7 +84,7 @@ public class MembreDAOImpl implements MembreDAO {
         List<Membre> membres = new ArrayList<>();
         String sql = "SELECT * FROM membres";
 
-        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+        try (Connection conn = connexions.lecture();
              Statement st = conn.createStatement();
              ResultSet rs = st.executeQuery(sql)) {
 
@@ -73,7 +102,7 @@ public class MembreDAOImpl implements MembreDAO {
     public void update(Membre membre) {
         String sql = "UPDATE membres SET nom = ?, prenom = ?, email = ?, actif = ? WHERE id = ?";
 
-        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+        try (Connection conn = connexions.ecriture();
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
             ps.setString(1, membre.getNom());
@@ -92,7 +121,7 @@ public class MembreDAOImpl implements MembreDAO {
     public void delete(int id) {
         String sql = "DELETE FROM membres WHERE id = ?";
 
-        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+        try (Connection conn = connexions.ecriture();
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
             ps.setInt(1, id);
@@ -107,7 +136,7 @@ public class MembreDAOImpl implements MembreDAO {
     public Membre findByEmail(String email) {
         String sql = "SELECT * FROM membres WHERE email = ?";
 
-        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+        try (Connection conn = connexions.ecriture();
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
             ps.setString(1, email);
@@ -128,7 +157,7 @@ public class MembreDAOImpl implements MembreDAO {
         List<Membre> membres = new ArrayList<>();
         String sql = "SELECT * FROM membres WHERE actif = true";
 
-        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+        try (Connection conn = connexions.lecture();
              Statement st = conn.createStatement();
              ResultSet rs = st.executeQuery(sql)) {
 
@@ -142,6 +171,71 @@ public class MembreDAOImpl implements MembreDAO {
         return membres;
     }
 
+    @Override
+    public int countActifs() {
+        String sql = "SELECT COUNT(*) FROM membres WHERE actif = true";
+
+        try (Connection conn = connexions.lecture();
+             Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery(sql)) {
+
+            return rs.next() ? rs.getInt(1) : 0;
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Erreur countActifs", e);
+        }
+    }
+
+    @Override
+    public int count(String motCle) {
+        List<Object> parametres = new ArrayList<>();
+        String sql = "SELECT COUNT(*) FROM membres" + clauseRecherche(motCle, parametres);
+
+        try (Connection conn = connexions.lecture();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            SqlPagination.lier(ps, parametres);
+            ResultSet rs = ps.executeQuery();
+            return rs.next() ? rs.getInt(1) : 0;
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Erreur count", e);
+        }
+    }
+
+    @Override
+    public List<Membre> findPage(String motCle, RequetePage page) {
+        List<Membre> membres = new ArrayList<>();
+        List<Object> parametres = new ArrayList<>();
+        String sql = "SELECT * FROM membres"
+                + SqlPagination.completer(clauseRecherche(motCle, parametres), page, COLONNES_TRI, parametres);
+
+        try (Connection conn = connexions.lecture();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            SqlPagination.lier(ps, parametres);
+            ResultSet rs = ps.executeQuery();
+            while (rs.next()) {
+                membres.add(mapToMembre(rs));
+            }
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Erreur findPage", e);
+        }
+        return membres;
+    }
+
+    private static String clauseRecherche(String motCle, List<Object> parametres) {
+        if (motCle == null || motCle.isBlank()) {
+            return "";
+        }
+        String motif = "%" + motCle.trim().toLowerCase() + "%";
+        parametres.add(motif);
+        parametres.add(motif);
+        parametres.add(motif);
+        return " WHERE (LOWER(nom) LIKE ? OR LOWER(prenom) LIKE ? OR LOWER(email) LIKE ?)";
+    }
+
     //  Méthode de mapping ResultSet → Membre
     private Membre mapToMembre(ResultSet rs) throws SQLException {
         Membre m = new Membre();
@@ -0,0 +1,111 @@
+package com.bibliotheque.dao.impl;
+
+import com.bibliotheque.dao.MembreDAO;
+import com.bibliotheque.dao.RequetePage;
+import com.bibliotheque.model.Membre;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Membres répartis entre les {@link Shards} selon leur id. Les ids sont tirés d'une
+ * séquence commune sur la base principale avant l'insertion, pour connaître le shard.
+ */
+public class MembreDAOShards implements MembreDAO {
+
+    private final Shards shards;
+    private final List<MembreDAOImpl> daos = new ArrayList<>();
+    private final SequenceIds sequence = new SequenceIds(SourceConnexions.PRINCIPALE, "membres");
+
+    public MembreDAOShards(Shards shards) {
+        this.shards = shards;
+        for (int i = 0; i < shards.nombre(); i++) {
+            daos.add(new MembreDAOImpl(shards.source(i)));
+        }
+    }
+
+    private MembreDAOImpl dao(int membreId) {
+        return daos.get(shards.indice(membreId));
+    }
+
+    private <R> List<R> surTous(Shards.TacheShard<R> tache, String operation) {
+        try {
+            return shards.surTous(tache);
+        } catch (SQLException e) {
+            throw new RuntimeException("Erreur " + operation, e);
+        }
+    }
+
+    @Override
+    public void save(Membre membre) {
+        try {
+            membre.setId(sequence.suivant());
+        } catch (SQLException e) {
+            throw new RuntimeException("Erreur lors de l'attribution de l'id du membre", e);
+        }
+        dao(membre.getId()).save(membre);
+    }
+
+    @Override
+    public Membre findById(int id) {
+        return dao(id).findById(id);
+    }
+
+    @Override
+    public void update(Membre membre) {
+        dao(membre.getId()).update(membre);
+    }
+
+    @Override
+    public void delete(int id) {
+        dao(id).delete(id);
+    }
+
+    @Override
+    public List<Membre> findAll() {
+        return Shards.concatener(surTous(i -> daos.get(i).findAll(), "findAll"));
+    }
+
+    @Override
+    public Membre findByEmail(String email) {
+        for (Membre membre : surTous(i -> daos.get(i).findByEmail(email), "findByEmail")) {
+            if (membre != null) {
+                return membre;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public List<Membre> findActifs() {
+        return Shards.concatener(surTous(i -> daos.get(i).findActifs(), "findActifs"));
+    }
+
+    @Override
+    public int countActifs() {
+        return surTous(i -> daos.get(i).countActifs(), "countActifs").stream().mapToInt(Integer::intValue).sum();
+    }
+
+    @Override
+    public int count(String motCle) {
+        return surTous(i -> daos.get(i).count(motCle), "count").stream().mapToInt(Integer::intValue).sum();
+    }
+
+    @Override
+    public List<Membre> findPage(String motCle, RequetePage page) {
+        RequetePage pageShard = page.pourFusion();
+        List<List<Membre>> parties = surTous(i -> daos.get(i).findPage(motCle, pageShard), "findPage");
+        return Shards.fusionner(parties, page, MembreDAOShards::valeurTri, Membre::getId);
+    }
+
+    private static Object valeurTri(Membre membre, String colonne) {
+        switch (colonne) {
+            case "nom": return membre.getNom();
+            case "prenom": return membre.getPrenom();
+            case "email": return membre.getEmail();
+            case "actif": return membre.isActif();
+            default: return membre.getId();
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package com.bibliotheque.dao.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Mise à jour du schéma au démarrage : les scripts {@code db/migration/<dossier>/V<n>__<description>.sql}
+ * du classpath sont appliqués dans l'ordre de leur numéro, chacun une seule fois.
+ * <p>
+ * Chaque script appliqué est inscrit dans la table {@code schema_version} avec une somme
+ * de contrôle (SHA-256) : un script modifié après son application arrête le démarrage,
+ * car la base ne correspondrait plus au script. Un verrou nommé MySQL empêche deux postes
+ * démarrant ensemble d'appliquer la même migration.
+ * <p>
+ * Les instructions d'un script sont séparées par un {@code ;} en fin de ligne. Un index
+ * déjà présent (base créée à la main avec l'ancien {@code database.sql}) ou déjà
+ * supprimé n'est pas une erreur : un script interrompu peut être rejoué.
+ */
+public class Migrations {
+
+    private static final String RACINE = "db/migration/";
+    private static final Pattern NOM = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+    private static final String VERROU = "migrations_schema";
+    private static final int ATTENTE_VERROU_SECONDES = 60;
+
+    // Codes d'erreur MySQL puis H2 (base embarquée) : nom d'index déjà utilisé,
+    // index à supprimer introuvable
+    private static final Set<Integer> INDEX_EXISTANT_OU_ABSENT = Set.of(1061, 1091, 42111, 42112);
+
+    private final String dossier;
+    private final List<SourceConnexions> bases;
+
+    /**
+     * Script de migration lu sur le classpath.
+     */
+    static final class Migration {
+        final int version;
+        final String description;
+        final String contenu;
+        final String somme;
+
+        Migration(int version, String description, String contenu) {
+            this.version = version;
+            this.description = description.replace('_', ' ');
+            // Indépendante des fins de ligne de l'extraction (CRLF sous Windows)
+            this.contenu = contenu.replace("\r", "");
+            this.somme = sha256(this.contenu);
+        }
+    }
+
+    private Migrations(String dossier, List<SourceConnexions> bases) {
+        this.dossier = dossier;
+        this.bases = bases;
+    }
+
+    /**
+     * Migrations de la base principale ({@code db/migration/principale}).
+     */
+    public static Migrations principale() {
+        return new Migrations("principale", Collections.singletonList(SourceConnexions.PRINCIPALE));
+    }
+
+    /**
+     * Migrations de chacun des shards ({@code db/migration/shard}).
+     */
+    public static Migrations shards(Shards shards) {
+        List<SourceConnexions> sources = new ArrayList<>();
+        for (int i = 0; i < shards.nombre(); i++) {
+            sources.add(shards.source(i));
+        }
+        return new Migrations("shard", sources);
+    }
+
+    /**
+     * Applique les migrations manquantes à chaque base.
+     *
+     * @return le nombre de migrations appliquées
+     * @throws IllegalStateException si un script déjà appliqué a été modifié
+     */
+    public int appliquer() throws SQLException {
+        List<Migration> migrations = lister(dossier);
+        int total = 0;
+        for (SourceConnexions base : bases) {
+            total += appliquer(base, migrations);
+        }
+        return total;
+    }
+
+    private int appliquer(SourceConnexions base, List<Migration> migrations) throws SQLException {
+        try (Connection conn = base.ecriture()) {
+            verrouiller(conn);
+            try {
+                creerTableVersions(conn);
+                Map<Integer, String> appliquees = lireVersions(conn);
+                int nombre = 0;
+                for (Migration migration : migrations) {
+                    String somme = appliquees.get(migration.version);
+                    if (somme == null) {
+                        executer(conn, migration);
+                        nombre++;
+                    } else if (!somme.equals(migration.somme)) {
+                        throw new IllegalStateException("La migration V" + migration.version + " ("
+                                + migration.description + ") a été modifiée après son application : "
+                                + "ajouter une nouvelle migration plutôt que modifier celle-ci");
+                    }
+                }
+                return nombre;
+            } finally {
+                try (PreparedStatement stmt = conn.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+                    stmt.setString(1, VERROU);
+                    stmt.executeQuery();
+                }
+            }
+        }
+    }
+
+    private static void verrouiller(Connection conn) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+            stmt.setQueryTimeout(0);
+            stmt.setString(1, VERROU);
+            stmt.setInt(2, ATTENTE_VERROU_SECONDES);
+            ResultSet rs = stmt.executeQuery();
+            if (!rs.next() || rs.getInt(1) != 1) {
+                throw new SQLException("Migrations du schéma en cours sur un autre poste depuis plus de "
+                        + ATTENTE_VERROU_SECONDES + " s");
+            }
+        }
+    }
+
+    private static void creerTableVersions(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE IF NOT EXISTS schema_version ("
+                    + "version INT PRIMARY KEY, "
+                    + "description VARCHAR(200) NOT NULL, "
+                    + "somme_controle CHAR(64) NOT NULL, "
+                    + "date_application TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
+        }
+    }
+
+    private static Map<Integer, String> lireVersions(Connection conn) throws SQLException {
+        Map<Integer, String> versions = new HashMap<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT version, somme_controle FROM schema_version")) {
+            while (rs.next()) {
+                versions.put(rs.getInt(1), rs.getString(2));
+            }
+        }
+        return versions;
+    }
+
+    /**
+     * Exécute les instructions du script puis l'inscrit dans {@code schema_version}.
+     * MySQL valide chaque instruction DDL d'elle-même : un échec laisse les précédentes
+     * appliquées, d'où la tolérance aux index existants ou absents au prochain essai.
+     */
+    private static void executer(Connection conn, Migration migration) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            // Une reconstruction d'index sur une grande table dépasse le délai des requêtes courantes
+            stmt.setQueryTimeout(0);
+            for (String instruction : instructions(migration.contenu)) {
+                try {
+                    stmt.execute(instruction);
+                } catch (SQLException e) {
+                    if (!INDEX_EXISTANT_OU_ABSENT.contains(e.getErrorCode())) {
+                        throw new SQLException("Migration V" + migration.version + " : " + e.getMessage(),
+                                e.getSQLState(), e.getErrorCode(), e);
+                    }
+                }
+            }
+        }
+        String sql = "INSERT INTO schema_version (version, description, somme_controle) VALUES (?, ?, ?)";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, migration.version);
+            stmt.setString(2, migration.description);
+            stmt.setString(3, migration.somme);
+            stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Découpe un script en instructions : lignes de commentaire ({@code --}) ignorées,
+     * instruction terminée par un {@code ;} en fin de ligne.
+     */
+    static List<String> instructions(String script) {
+        List<String> instructions = new ArrayList<>();
+        StringBuilder courante = new StringBuilder();
+        for (String ligne : script.split("\n")) {
+            String texte = ligne.strip();
+            if (texte.isEmpty() || texte.startsWith("--")) {
+                continue;
+            }
+            if (courante.length() > 0) {
+                courante.append('\n');
+            }
+            courante.append(ligne);
+            if (texte.endsWith(";")) {
+                courante.setLength(courante.lastIndexOf(";"));
+                instructions.add(courante.toString().strip());
+                courante.setLength(0);
+            }
+        }
+        if (courante.toString().strip().length() > 0) {
+            instructions.add(courante.toString().strip());
+        }
+        return instructions;
+    }
+
+    /**
+     * Scripts d'un dossier, triés par version, qu'ils soient dans un répertoire
+     * (développement) ou dans le jar de l'application.
+     */
+    static List<Migration> lister(String dossier) {
+        String chemin = RACINE + dossier + "/";
+        URL url = Migrations.class.getClassLoader().getResource(chemin);
+        if (url == null) {
+            return Collections.emptyList();
+        }
+        List<String> noms = new ArrayList<>();
+        try {
+            if ("jar".equals(url.getProtocol())) {
+                JarURLConnection connexion = (JarURLConnection) url.openConnection();
+                // Sans cache : fermer ce JarFile ne doit pas fermer celui du chargeur de classes
+                connexion.setUseCaches(false);
+                try (JarFile jar = connexion.getJarFile()) {
+                    for (JarEntry entree : Collections.list(jar.entries())) {
+                        if (entree.getName().startsWith(chemin) && !entree.isDirectory()) {
+                            noms.add(entree.getName().substring(chemin.length()));
+                        }
+                    }
+                }
+            } else {
+                try (Stream<Path> fichiers = Files.list(Path.of(url.toURI()))) {
+                    fichiers.forEach(f -> noms.add(f.getFileName().toString()));
+                }
+            }
+        } catch (IOException | URISyntaxException e) {
+            throw new IllegalStateException("Lecture des migrations impossible : " + e.getMessage(), e);
+        }
+
+        List<Migration> migrations = new ArrayList<>();
+        Set<Integer> versions = new HashSet<>();
+        for (String nom : noms) {
+            Matcher m = NOM.matcher(nom);
+            if (!m.matches()) {
+                continue;
+            }
+            int version = Integer.parseInt(m.group(1));
+            if (!versions.add(version)) {
+                throw new IllegalStateException("Deux migrations portent le numéro V" + version);
+            }
+            migrations.add(new Migration(version, m.group(2), lire(chemin + nom)));
+        }
+        migrations.sort(Comparator.comparingInt(m -> m.version));
+        return migrations;
+    }
+
+    private static String lire(String ressource) {
+        try (InputStream in = Migrations.class.getClassLoader().getResourceAsStream(ressource)) {
+            if (in == null) {
+                throw new IllegalStateException("Migration introuvable : " + ressource);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException("Lecture de " + ressource + " impossible", e);
+        }
+    }
+
+    private static String sha256(String texte) {
+        try {
+            byte[] empreinte = MessageDigest.getInstance("SHA-256").digest(texte.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(64);
+            for (byte b : empreinte) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.bibliotheque.dao.impl;
+
+import com.bibliotheque.dao.LivreDAO;
+import com.bibliotheque.dao.MembreDAO;
+import com.bibliotheque.dao.ReservationDAO;
+import com.bibliotheque.model.Livre;
+import com.bibliotheque.model.Membre;
+import com.bibliotheque.model.Reservation;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Réservations stockées dans la table {@code reservations} de la base principale
+ * (également en mode réparti : la file d'un livre est commune à tous les membres).
+ * <p>
+ * La file d'un ISBN est lue par l'index {@code (isbn, statut, priorite, id)} et le
+ * balayage des réservations échues par l'index {@code (statut, date_limite)}, sans
+ * parcourir la table.
+ */
+public class ReservationDAOImpl implements ReservationDAO {
+
+    private static final String ORDRE_FILE = " ORDER BY priorite DESC, id";
+
+    private final LivreDAO livreDAO;
+    private final MembreDAO membreDAO;
+    private final SourceConnexions connexions = SourceConnexions.PRINCIPALE;
+
+    public ReservationDAOImpl(LivreDAO livreDAO, MembreDAO membreDAO) {
+        this.livreDAO = livreDAO;
+        this.membreDAO = membreDAO;
+    }
+
+    private Reservation toReservation(ResultSet result) throws SQLException {
+        Livre livre = livreDAO.findByIsbn(result.getString("isbn"));
+        Membre membre = membreDAO.findById(result.getInt("membre_id"));
+        Date limite = result.getDate("date_limite");
+        return new Reservation(result.getInt("id"), livre, membre, result.getInt("priorite"),
+                result.getDate("date_reservation").toLocalDate(),
+                Reservation.Statut.valueOf(result.getString("statut")),
+                limite == null ? null : limite.toLocalDate());
+    }
+
+    private List<Reservation> toReservations(ResultSet result) throws SQLException {
+        List<Reservation> reservations = new ArrayList<>();
+        while (result.next()) {
+            reservations.add(toReservation(result));
+        }
+        return reservations;
+    }
+
+    @Override
+    public void save(Reservation reservation) throws SQLException {
+        String sql = "INSERT INTO reservations (isbn, membre_id, priorite, date_reservation, statut, date_limite)"
+                + " VALUES (?, ?, ?, ?, ?, ?)";
+        try (Connection conn = connexions.ecriture();
+             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            stmt.setString(1, reservation.getLivre().getIsbn());
+            stmt.setInt(2, reservation.getMembre().getId());
+            stmt.setInt(3, reservation.getPriorite());
+            stmt.setDate(4, Date.valueOf(reservation.getDateReservation()));
+            stmt.setString(5, reservation.getStatut().name());
+            stmt.setDate(6, reservation.getDateLimite() == null ? null : Date.valueOf(reservation.getDateLimite()));
+            stmt.executeUpdate();
+            try (ResultSet keys = stmt.getGeneratedKeys()) {
+                if (keys.next()) {
+                    reservation.setId(keys.getInt(1));
+                }
+            }
+        }
+    }
+
+    @Override
+    public Reservation findById(int id) throws SQLException {
+        try (Connection conn = connexions.ecriture();
+             PreparedStatement stmt = conn.prepareStatement("SELECT * FROM reservations WHERE id = ?")) {
+            stmt.setInt(1, id);
+            ResultSet result = stmt.executeQuery();
+            return result.next() ? toReservation(result) : null;
+        }
+    }
+
+    @Override
+    public void updateStatut(Reservation reservation) throws SQLException {
+        String sql = "UPDATE reservations SET statut = ?, date_limite = ? WHERE id = ?";
+        try (Connection conn = connexions.ecriture();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, reservation.getStatut().name());
+            stmt.setDate(2, reservation.getDateLimite() == null ? null : Date.valueOf(reservation.getDateLimite()));
+            stmt.setInt(3, reservation.getId());
+            stmt.executeUpdate();
+        }
+    }
+
+    @Override
+    public boolean honorer(Reservation reservation) throws SQLException {
+        // Conditionnelle : de deux postes qui honorent la même réservation, un seul réussit
+        String sql = "UPDATE reservations SET statut = 'HONOREE' WHERE id = ? AND statut = 'DISPONIBLE'";
+        try (Connection conn = connexions.ecriture();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, reservation.getId());
+            if (stmt.executeUpdate() == 0) {
+                return false;
+            }
+            reservation.setStatut(Reservation.Statut.HONOREE);
+            return true;
+        }
+    }
+
+    @Override
+    public List<Reservation> findEnAttente(String isbn) throws SQLException {
+        String sql = "SELECT * FROM reservations WHERE isbn = ? AND statut = 'EN_ATTENTE'" + ORDRE_FILE;
+        try (Connection conn = connexions.lecture();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, isbn);
+            return toReservations(stmt.executeQuery());
+        }
+    }
+
+    @Override
+    public List<Reservation> findActives(int membreId) throws SQLException {
+        String sql = "SELECT * FROM reservations WHERE membre_id = ? AND statut IN ('EN_ATTENTE', 'DISPONIBLE')";
+        try (Connection conn = connexions.ecriture();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, membreId);
+            return toReservations(stmt.executeQuery());
+        }
+    }
+
+    @Override
+    public Reservation findDisponible(String isbn) throws SQLException {
+        String sql = "SELECT * FROM reservations WHERE isbn = ? AND statut = 'DISPONIBLE' LIMIT 1";
+        try (Connection conn = connexions.ecriture();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, isbn);
+            ResultSet result = stmt.executeQuery();
+            return result.next() ? toReservation(result) : null;
+        }
+    }
+
+    @Override
+    public Reservation attribuerSuivante(String isbn, LocalDate dateLimite) throws SQLException {
+        String selection = "SELECT * FROM reservations WHERE isbn = ? AND statut = 'EN_ATTENTE'"
+                + ORDRE_FILE + " LIMIT 1 FOR UPDATE";
+        try (Connection conn = connexions.ecriture()) {
+            conn.setAutoCommit(false);
+            try {
+                Reservation suivante;
+                try (PreparedStatement stmt = conn.prepareStatement(selection)) {
+                    stmt.setString(1, isbn);
+                    ResultSet result = stmt.executeQuery();
+                    suivante = result.next() ? toReservation(result) : null;
+                }
+                if (suivante != null) {
+                    suivante.setStatut(Reservation.Statut.DISPONIBLE);
+                    suivante.setDateLimite(dateLimite);
+                    try (PreparedStatement stmt = conn.prepareStatement(
+                            "UPDATE reservations SET statut = 'DISPONIBLE', date_limite = ? WHERE id = ?")) {
+                        stmt.setDate(1, Date.valueOf(dateLimite));
+                        stmt.setInt(2, suivante.getId());
+                        stmt.executeUpdate();
+                    }
+                }
+                conn.commit();
+                return suivante;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    @Override
+    public List<Reservation> expirer(LocalDate date) throws SQLException {
+        String selection = "SELECT * FROM reservations WHERE statut = 'DISPONIBLE' AND date_limite < ? FOR UPDATE";
+        try (Connection conn = connexions.ecriture()) {
+            conn.setAutoCommit(false);
+            try {
+                List<Reservation> echues;
+                try (PreparedStatement stmt = conn.prepareStatement(selection)) {
+                    stmt.setDate(1, Date.valueOf(date));
+                    echues = toReservations(stmt.executeQuery());
+                }
+                if (!echues.isEmpty()) {
+                    String liste = String.join(",", Collections.nCopies(echues.size(), "?"));
+                    try (PreparedStatement stmt = conn.prepareStatement(
+                            "UPDATE reservations SET statut = 'EXPIREE' WHERE id IN (" + liste + ")")) {
+                        for (int i = 0; i < echues.size(); i++) {
+                            stmt.setInt(i + 1, echues.get(i).getId());
+                            echues.get(i).setStatut(Reservation.Statut.EXPIREE);
+                        }
+                        stmt.executeUpdate();
+                    }
+                }
+                conn.commit();
+                return echues;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.bibliotheque.dao.impl;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Identifiants uniques sur tous les shards, tirés de la table {@code sequences} de la
+ * base principale. Les AUTO_INCREMENT de chaque shard donneraient des doublons.
+ * <p>
+ * Les ids sont réservés par blocs : un aller-retour vers la base pour {@code BLOC}
+ * insertions. Les ids d'un bloc non épuisé à l'arrêt sont perdus (trous sans gravité).
+ */
+class SequenceIds {
+
+    private static final int BLOC = 50;
+
+    private final SourceConnexions connexions;
+    private final String nom;
+    private long prochain;
+    private long limite;
+
+    SequenceIds(SourceConnexions connexions, String nom) {
+        this.connexions = connexions;
+        this.nom = nom;
+    }
+
+    synchronized int suivant() throws SQLException {
+        if (prochain >= limite) {
+            limite = reserver();
+            prochain = limite - BLOC;
+        }
+        return Math.toIntExact(++prochain);
+    }
+
+    /**
+     * @return la fin (incluse) du bloc réservé
+     */
+    private long reserver() throws SQLException {
+        try (Connection conn = connexions.ecriture()) {
+            // LAST_INSERT_ID(expr) rend la nouvelle valeur propre à cette connexion : pas de verrou applicatif
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "UPDATE sequences SET valeur = LAST_INSERT_ID(valeur + ?) WHERE nom = ?")) {
+                stmt.setInt(1, BLOC);
+                stmt.setString(2, nom);
+                if (stmt.executeUpdate() == 0) {
+                    return creer(conn);
+                }
+            }
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT LAST_INSERT_ID()")) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        }
+    }
+
+    private long creer(Connection conn) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("INSERT INTO sequences (nom, valeur) VALUES (?, ?)")) {
+            stmt.setString(1, nom);
+            stmt.setInt(2, BLOC);
+            stmt.executeUpdate();
+            return BLOC;
+        } catch (SQLException e) {
+            // Un autre poste a créé la séquence entre-temps
+            if (e.getErrorCode() == 1062) {
+                return reserver();
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.bibliotheque.dao.impl;
+
+import com.bibliotheque.dao.RequetePage;
+import com.bibliotheque.util.Annulation;
+import com.bibliotheque.util.Configuration;
+import com.bibliotheque.util.ConnectionPool;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * Bases de données entre lesquelles les membres et leurs emprunts sont répartis
+ * (propriété {@code db.shards}, liste d'URL JDBC).
+ * <p>
+ * Un membre et tous ses emprunts vivent sur le shard désigné par le hachage de son
+ * id ; les requêtes sans membre sont envoyées en parallèle à tous les shards et leurs
+ * résultats fusionnés.
+ */
+public class Shards {
+
+    private final List<ConnectionPool> pools = new ArrayList<>();
+    private final List<SourceConnexions> sources = new ArrayList<>();
+    private final ExecutorService executeur;
+
+    /**
+     * @return true si la configuration déclare des shards
+     */
+    public static boolean configures() {
+        return !Configuration.getListe("db.shards").isEmpty();
+    }
+
+    public Shards() {
+        String utilisateur = Configuration.get("db.utilisateur", "root");
+        String motDePasse = Configuration.get("db.motDePasse", "");
+        int taille = Configuration.getInt("db.pool.taille", 20);
+        int delai = Configuration.getInt("db.requete.delai", 10);
+        for (String url : Configuration.getListe("db.shards")) {
+            ConnectionPool pool = new ConnectionPool(url, utilisateur, motDePasse, taille, delai);
+            pools.add(pool);
+            sources.add(SourceConnexions.de(pool));
+        }
+        if (pools.isEmpty()) {
+            throw new IllegalStateException("Aucun shard configuré (db.shards)");
+        }
+        executeur = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "requetes-shards");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    int nombre() {
+        return sources.size();
+    }
+
+    SourceConnexions source(int indice) {
+        return sources.get(indice);
+    }
+
+    /**
+     * @return l'indice du shard d'un membre
+     */
+    int indice(int membreId) {
+        // Brassage des bits (finaliseur de MurmurHash3) : des ids attribués par blocs
+        // se répartissent quand même uniformément
+        int h = membreId;
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        return Math.floorMod(h, sources.size());
+    }
+
+    @FunctionalInterface
+    interface TacheShard<R> {
+        R executer(int indice) throws SQLException;
+    }
+
+    /**
+     * Exécute la tâche sur chaque shard en parallèle.
+     *
+     * @return les résultats, dans l'ordre des shards
+     */
+    <R> List<R> surTous(TacheShard<R> tache) throws SQLException {
+        List<Future<R>> futurs = new ArrayList<>();
+        // Une annulation du thread appelant vaut pour les requêtes de chaque shard
+        Annulation jeton = Annulation.courante();
+        for (int i = 0; i < sources.size(); i++) {
+            int indice = i;
+            futurs.add(executeur.submit(() -> jeton == null
+                    ? tache.executer(indice) : jeton.executer(() -> tache.executer(indice))));
+        }
+        List<R> resultats = new ArrayList<>();
+        try {
+            for (Future<R> futur : futurs) {
+                resultats.add(futur.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Requête répartie interrompue", e);
+        } catch (ExecutionException e) {
+            futurs.forEach(f -> f.cancel(true));
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new SQLException(cause);
+        }
+        return resultats;
+    }
+
+    static <T> List<T> concatener(List<List<T>> parties) {
+        List<T> tout = new ArrayList<>();
+        parties.forEach(tout::addAll);
+        return tout;
+    }
+
+    /**
+     * Fusionne les pages des shards selon le même ordre que la base (colonne de tri
+     * puis id) et extrait la page demandée.
+     */
+    static <T> List<T> fusionner(List<List<T>> parties, RequetePage page,
+                                 BiFunction<T, String, Object> valeurTri, ToIntFunction<T> id) {
+        String colonne = page.getColonneTri();
+        Comparator<T> ordre = Comparator.<T, Object>comparing(e -> valeurTri.apply(e, colonne), Shards::comparer)
+                .thenComparingInt(id);
+        if (!page.isCroissant()) {
+            ordre = ordre.reversed();
+        }
+        List<T> tout = concatener(parties);
+        tout.sort(ordre);
+        int debut = page.hasAncre() ? 0 : Math.min(page.getDecalage(), tout.size());
+        int fin = Math.min(debut + page.getTaille(), tout.size());
+        return new ArrayList<>(tout.subList(debut, fin));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int comparer(Object a, Object b) {
+        // NULL en premier, comme MySQL en ordre croissant
+        if (a == null || b == null) {
+            return a == null ? (b == null ? 0 : -1) : 1;
+        }
+        if (a instanceof String) {
+            // Collation MySQL par défaut insensible à la casse
+            return ((String) a).compareToIgnoreCase((String) b);
+        }
+        return ((Comparable<Object>) a).compareTo(b);
+    }
+
+    public void fermer() {
+        executeur.shutdownNow();
+        pools.forEach(ConnectionPool::fermer);
+    }
+}
@@ -0,0 +1,50 @@
+package com.bibliotheque.dao.impl;
+
+import com.bibliotheque.util.ConnectionPool;
+import com.bibliotheque.util.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Origine des connexions d'un DAO JDBC : la base principale et ses répliques, ou un
+ * shard particulier en mode réparti.
+ */
+interface SourceConnexions {
+
+    /**
+     * Connexion pour les écritures et les lectures qui doivent voir les écritures récentes.
+     */
+    Connection ecriture() throws SQLException;
+
+    /**
+     * Connexion pour les lectures qui tolèrent un léger retard.
+     */
+    Connection lecture() throws SQLException;
+
+    SourceConnexions PRINCIPALE = new SourceConnexions() {
+        @Override
+        public Connection ecriture() throws SQLException {
+            return DatabaseConnection.getInstance().getConnection();
+        }
+
+        @Override
+        public Connection lecture() throws SQLException {
+            return DatabaseConnection.getInstance().getConnectionLecture();
+        }
+    };
+
+    static SourceConnexions de(ConnectionPool pool) {
+        return new SourceConnexions() {
+            @Override
+            public Connection ecriture() throws SQLException {
+                return pool.emprunter();
+            }
+
+            @Override
+            public Connection lecture() throws SQLException {
+                return pool.emprunter();
+            }
+        };
+    }
+}
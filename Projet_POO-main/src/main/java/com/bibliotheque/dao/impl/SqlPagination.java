@@ -0,0 +1,107 @@
+package com.bibliotheque.dao.impl;
+
+import com.bibliotheque.dao.RequetePage;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Construction des clauses ORDER BY / pagination par clé communes aux DAO JDBC.
+ * L'id sert de second critère de tri pour que l'ordre soit total et l'ancre non ambiguë.
+ */
+final class SqlPagination {
+
+    private SqlPagination() {
+    }
+
+    /**
+     * Complète une requête déjà filtrée avec la condition d'ancre, le tri et la limite.
+     *
+     * @param where      la clause WHERE existante (" WHERE ..." ou chaîne vide)
+     * @param page       la page demandée
+     * @param colonnes   les colonnes autorisées pour le tri
+     * @param parametres les paramètres déjà liés, complétés par cette méthode
+     * @return la fin de la requête SQL
+     */
+    static String completer(String where, RequetePage page, Set<String> colonnes, List<Object> parametres) {
+        String colonne = page.getColonneTri();
+        if (!colonnes.contains(colonne)) {
+            throw new IllegalArgumentException("Colonne de tri non autorisée : " + colonne);
+        }
+        String comparaison = page.isCroissant() ? ">" : "<";
+
+        StringBuilder sql = new StringBuilder(where);
+        if (page.hasAncre()) {
+            sql.append(where.isEmpty() ? " WHERE " : " AND ");
+            if ("id".equals(colonne)) {
+                sql.append("id ").append(comparaison).append(" ?");
+                parametres.add(page.getIdAncre());
+            } else {
+                sql.append('(').append(colonne).append(' ').append(comparaison).append(" ? OR (")
+                        .append(colonne).append(" = ? AND id ").append(comparaison).append(" ?))");
+                parametres.add(page.getValeurAncre());
+                parametres.add(page.getValeurAncre());
+                parametres.add(page.getIdAncre());
+            }
+        }
+
+        trierEtLimiter(sql, page, parametres);
+        return sql.toString();
+    }
+
+    /**
+     * Requête paginée sur plusieurs tables de même structure : chaque table fournit
+     * sa propre page triée (par index), puis l'union est triée et découpée.
+     *
+     * @param tables     les tables à réunir
+     * @param where      construit la clause WHERE d'une table en ajoutant ses paramètres
+     * @param page       la page demandée
+     * @param colonnes   les colonnes autorisées pour le tri
+     * @param parametres les paramètres, complétés par cette méthode
+     * @return la requête SQL complète
+     */
+    static String union(List<String> tables, Function<List<Object>, String> where, RequetePage page,
+                        Set<String> colonnes, List<Object> parametres) {
+        RequetePage partielle = page.pourFusion();
+        StringBuilder sql = new StringBuilder();
+        for (String table : tables) {
+            if (sql.length() > 0) {
+                sql.append(" UNION ALL ");
+            }
+            sql.append("(SELECT * FROM ").append(table)
+                    .append(completer(where.apply(parametres), partielle, colonnes, parametres)).append(')');
+        }
+        trierEtLimiter(sql, page, parametres);
+        return sql.toString();
+    }
+
+    private static void trierEtLimiter(StringBuilder sql, RequetePage page, List<Object> parametres) {
+        String colonne = page.getColonneTri();
+        String sens = page.isCroissant() ? "ASC" : "DESC";
+        sql.append(" ORDER BY ").append(colonne).append(' ').append(sens);
+        if (!"id".equals(colonne)) {
+            sql.append(", id ").append(sens);
+        }
+        sql.append(" LIMIT ?");
+        parametres.add(page.getTaille());
+        if (!page.hasAncre() && page.getDecalage() > 0) {
+            sql.append(" OFFSET ?");
+            parametres.add(page.getDecalage());
+        }
+    }
+
+    static void lier(PreparedStatement stmt, List<Object> parametres) throws SQLException {
+        for (int i = 0; i < parametres.size(); i++) {
+            Object valeur = parametres.get(i);
+            if (valeur instanceof LocalDate) {
+                valeur = Date.valueOf((LocalDate) valeur);
+            }
+            stmt.setObject(i + 1, valeur);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.bibliotheque.dao.impl;
+
+import com.bibliotheque.audit.DestinationAudit;
+import com.bibliotheque.audit.EntreeAudit;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Journal d'audit dans la table {@code audit} de la base principale, où tous les postes
+ * écrivent : un lot est inséré en une transaction, par une requête groupée.
+ */
+public class TableAudit implements DestinationAudit {
+
+    private static final String INSERTION =
+            "INSERT INTO audit (horodatage, acteur, action, cible, details) VALUES (?, ?, ?, ?, ?)";
+    private static final int DELAI_LOT_S = 30;
+
+    private final SourceConnexions connexions;
+
+    public TableAudit() {
+        this(SourceConnexions.PRINCIPALE);
+    }
+
+    TableAudit(SourceConnexions connexions) {
+        this.connexions = connexions;
+    }
+
+    @Override
+    public void ecrire(List<EntreeAudit> lot) throws SQLException {
+        if (lot.isEmpty()) {
+            return;
+        }
+        try (Connection conn = connexions.ecriture()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(INSERTION)) {
+                stmt.setQueryTimeout(DELAI_LOT_S);
+                for (EntreeAudit entree : lot) {
+                    // En texte : le pilote MySQL tronque les millisecondes d'un Timestamp
+                    // quand le serveur (MariaDB) s'annonce en version 5.5
+                    stmt.setString(1, new Timestamp(entree.getHorodatage()).toString());
+                    stmt.setString(2, tronquer(entree.getActeur(), 100));
+                    stmt.setString(3, entree.getAction().name());
+                    stmt.setString(4, tronquer(entree.getCible(), 100));
+                    stmt.setString(5, tronquer(entree.getDetails(), 1000));
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+        lot.clear();
+    }
+
+    private static String tronquer(String valeur, int longueur) {
+        return valeur == null || valeur.length() <= longueur ? valeur : valeur.substring(0, longueur);
+    }
+}
@@ -0,0 +1,167 @@
+package com.bibliotheque.event;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Bus d'événements métier interne au processus. Les services publient après chaque
+ * écriture réussie ; les vues, caches, index et compteurs s'abonnent par type
+ * d'événement (un abonnement à une classe reçoit aussi ses sous-classes).
+ * <p>
+ * Deux modes de livraison :
+ * <ul>
+ *   <li>{@link #abonner} : synchrone, sur le thread qui publie ;</li>
+ *   <li>{@link #abonnerParLots} : asynchrone, les événements arrivés pendant le délai
+ *       sont livrés ensemble sur le thread du bus (utile pour les traitements coûteux
+ *       qu'une rafale d'écritures déclencherait à répétition).</li>
+ * </ul>
+ * Un abonné en erreur n'empêche pas la livraison aux suivants.
+ */
+public class BusEvenements {
+
+    /**
+     * Abonnement renvoyé à l'abonné pour pouvoir l'annuler.
+     */
+    public interface Abonnement {
+        void annuler();
+    }
+
+    private final List<Livraison<?>> livraisons = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService planificateur = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "bus-evenements");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /**
+     * Abonne un consommateur, appelé sur le thread qui publie.
+     */
+    public <E extends Evenement> Abonnement abonner(Class<E> type, Consumer<? super E> abonne) {
+        return enregistrer(new Directe<>(type, abonne));
+    }
+
+    /**
+     * Abonne un consommateur qui reçoit les événements par lots, au plus une fois par
+     * délai, sur le thread du bus.
+     *
+     * @param delaiMs délai de regroupement en millisecondes
+     */
+    public <E extends Evenement> Abonnement abonnerParLots(Class<E> type, Consumer<List<E>> abonne, long delaiMs) {
+        if (delaiMs < 0) {
+            throw new IllegalArgumentException("Le délai doit être positif");
+        }
+        return enregistrer(new ParLots<>(type, abonne, delaiMs));
+    }
+
+    private Abonnement enregistrer(Livraison<?> livraison) {
+        livraisons.add(livraison);
+        return () -> livraisons.remove(livraison);
+    }
+
+    /**
+     * Publie un événement à tous les abonnés de son type.
+     */
+    public void publier(Evenement evenement) {
+        for (Livraison<?> livraison : livraisons) {
+            livraison.recevoir(evenement);
+        }
+    }
+
+    /**
+     * Arrête le thread du bus ; les lots déjà en attente sont encore livrés.
+     */
+    public void fermer() {
+        planificateur.shutdown();
+    }
+
+    private static void signalerErreur(Object evenement, RuntimeException e) {
+        System.err.println("Erreur d'un abonné sur " + evenement + " : " + e.getMessage());
+    }
+
+    private abstract static class Livraison<E extends Evenement> {
+        final Class<E> type;
+
+        Livraison(Class<E> type) {
+            this.type = type;
+        }
+
+        void recevoir(Evenement evenement) {
+            if (type.isInstance(evenement)) {
+                livrer(type.cast(evenement));
+            }
+        }
+
+        abstract void livrer(E evenement);
+    }
+
+    private static final class Directe<E extends Evenement> extends Livraison<E> {
+        private final Consumer<? super E> abonne;
+
+        Directe(Class<E> type, Consumer<? super E> abonne) {
+            super(type);
+            this.abonne = abonne;
+        }
+
+        @Override
+        void livrer(E evenement) {
+            try {
+                abonne.accept(evenement);
+            } catch (RuntimeException e) {
+                signalerErreur(evenement, e);
+            }
+        }
+    }
+
+    private final class ParLots<E extends Evenement> extends Livraison<E> {
+        private final Consumer<List<E>> abonne;
+        private final long delaiMs;
+        private final Queue<E> enAttente = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean planifie = new AtomicBoolean();
+
+        ParLots(Class<E> type, Consumer<List<E>> abonne, long delaiMs) {
+            super(type);
+            this.abonne = abonne;
+            this.delaiMs = delaiMs;
+        }
+
+        @Override
+        void livrer(E evenement) {
+            enAttente.add(evenement);
+            // Le premier événement d'un lot planifie sa livraison ; les suivants s'y ajoutent
+            if (planifie.compareAndSet(false, true)) {
+                try {
+                    planificateur.schedule(this::vider, delaiMs, TimeUnit.MILLISECONDS);
+                } catch (RejectedExecutionException e) {
+                    // Bus fermé : livraison immédiate sur le thread qui publie
+                    vider();
+                }
+            }
+        }
+
+        private void vider() {
+            planifie.set(false);
+            List<E> lot = new ArrayList<>();
+            E evenement;
+            while ((evenement = enAttente.poll()) != null) {
+                lot.add(evenement);
+            }
+            if (lot.isEmpty()) {
+                return;
+            }
+            try {
+                abonne.accept(lot);
+            } catch (RuntimeException e) {
+                signalerErreur(lot, e);
+            }
+        }
+    }
+}
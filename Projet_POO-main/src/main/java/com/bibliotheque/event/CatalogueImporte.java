@@ -0,0 +1,25 @@
+package com.bibliotheque.event;
+
+import com.bibliotheque.importation.RapportImport;
+
+/**
+ * Un fichier de catalogue a été importé. Publié une seule fois par import, au lieu
+ * d'un {@link LivreModifie} par livre : les abonnés rechargent leur liste.
+ */
+public class CatalogueImporte extends Evenement {
+
+    private final RapportImport rapport;
+
+    public CatalogueImporte(RapportImport rapport) {
+        this.rapport = rapport;
+    }
+
+    public RapportImport getRapport() {
+        return rapport;
+    }
+
+    @Override
+    public String toString() {
+        return "CatalogueImporte{" + rapport + '}';
+    }
+}
@@ -0,0 +1,24 @@
+package com.bibliotheque.event;
+
+import com.bibliotheque.model.Emprunt;
+
+/**
+ * Un emprunt a été enregistré.
+ */
+public class EmpruntCree extends Evenement {
+
+    private final Emprunt emprunt;
+
+    public EmpruntCree(Emprunt emprunt) {
+        this.emprunt = emprunt;
+    }
+
+    public Emprunt getEmprunt() {
+        return emprunt;
+    }
+
+    @Override
+    public String toString() {
+        return "EmpruntCree{" + emprunt + '}';
+    }
+}
@@ -0,0 +1,24 @@
+package com.bibliotheque.event;
+
+import com.bibliotheque.model.Emprunt;
+
+/**
+ * Un livre a été rendu ; l'emprunt porte la date de retour et la pénalité.
+ */
+public class EmpruntRetourne extends Evenement {
+
+    private final Emprunt emprunt;
+
+    public EmpruntRetourne(Emprunt emprunt) {
+        this.emprunt = emprunt;
+    }
+
+    public Emprunt getEmprunt() {
+        return emprunt;
+    }
+
+    @Override
+    public String toString() {
+        return "EmpruntRetourne{" + emprunt + '}';
+    }
+}
@@ -0,0 +1,15 @@
+package com.bibliotheque.event;
+
+import java.time.Instant;
+
+/**
+ * Événement métier publié sur le {@link BusEvenements} après une écriture réussie.
+ */
+public abstract class Evenement {
+
+    private final Instant date = Instant.now();
+
+    public Instant getDate() {
+        return date;
+    }
+}
@@ -0,0 +1,33 @@
+package com.bibliotheque.event;
+
+import com.bibliotheque.model.Livre;
+
+/**
+ * Un livre a été ajouté au catalogue ou modifié (notamment sa disponibilité).
+ */
+public class LivreModifie extends Evenement {
+
+    private final Livre livre;
+    private final boolean creation;
+
+    public LivreModifie(Livre livre, boolean creation) {
+        this.livre = livre;
+        this.creation = creation;
+    }
+
+    public Livre getLivre() {
+        return livre;
+    }
+
+    /**
+     * @return true pour un livre ajouté, false pour une modification
+     */
+    public boolean isCreation() {
+        return creation;
+    }
+
+    @Override
+    public String toString() {
+        return "LivreModifie{" + livre + ", creation=" + creation + '}';
+    }
+}
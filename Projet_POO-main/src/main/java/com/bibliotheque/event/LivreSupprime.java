@@ -0,0 +1,24 @@
+package com.bibliotheque.event;
+
+import com.bibliotheque.model.Livre;
+
+/**
+ * Un livre a été retiré du catalogue.
+ */
+public class LivreSupprime extends Evenement {
+
+    private final Livre livre;
+
+    public LivreSupprime(Livre livre) {
+        this.livre = livre;
+    }
+
+    public Livre getLivre() {
+        return livre;
+    }
+
+    @Override
+    public String toString() {
+        return "LivreSupprime{" + livre + '}';
+    }
+}
@@ -0,0 +1,33 @@
+package com.bibliotheque.event;
+
+import com.bibliotheque.model.Membre;
+
+/**
+ * Un membre a été créé ou modifié (y compris son statut actif).
+ */
+public class MembreEnregistre extends Evenement {
+
+    private final Membre membre;
+    private final boolean creation;
+
+    public MembreEnregistre(Membre membre, boolean creation) {
+        this.membre = membre;
+        this.creation = creation;
+    }
+
+    public Membre getMembre() {
+        return membre;
+    }
+
+    /**
+     * @return true pour un nouveau membre, false pour une modification
+     */
+    public boolean isCreation() {
+        return creation;
+    }
+
+    @Override
+    public String toString() {
+        return "MembreEnregistre{" + membre + ", creation=" + creation + '}';
+    }
+}
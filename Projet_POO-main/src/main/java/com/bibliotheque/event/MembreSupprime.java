@@ -0,0 +1,24 @@
+package com.bibliotheque.event;
+
+import com.bibliotheque.model.Membre;
+
+/**
+ * Un membre a été supprimé.
+ */
+public class MembreSupprime extends Evenement {
+
+    private final Membre membre;
+
+    public MembreSupprime(Membre membre) {
+        this.membre = membre;
+    }
+
+    public Membre getMembre() {
+        return membre;
+    }
+
+    @Override
+    public String toString() {
+        return "MembreSupprime{" + membre + '}';
+    }
+}
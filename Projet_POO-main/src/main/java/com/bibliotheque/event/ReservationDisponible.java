@@ -0,0 +1,24 @@
+package com.bibliotheque.event;
+
+import com.bibliotheque.model.Reservation;
+
+/**
+ * Un livre rendu est mis de côté pour le membre en tête de sa file de réservations.
+ */
+public class ReservationDisponible extends Evenement {
+
+    private final Reservation reservation;
+
+    public ReservationDisponible(Reservation reservation) {
+        this.reservation = reservation;
+    }
+
+    public Reservation getReservation() {
+        return reservation;
+    }
+
+    @Override
+    public String toString() {
+        return "ReservationDisponible{" + reservation + '}';
+    }
+}
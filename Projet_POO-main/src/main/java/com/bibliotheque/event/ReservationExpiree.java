@@ -0,0 +1,24 @@
+package com.bibliotheque.event;
+
+import com.bibliotheque.model.Reservation;
+
+/**
+ * Une réservation disponible n'a pas été retirée avant sa date limite.
+ */
+public class ReservationExpiree extends Evenement {
+
+    private final Reservation reservation;
+
+    public ReservationExpiree(Reservation reservation) {
+        this.reservation = reservation;
+    }
+
+    public Reservation getReservation() {
+        return reservation;
+    }
+
+    @Override
+    public String toString() {
+        return "ReservationExpiree{" + reservation + '}';
+    }
+}
@@ -0,0 +1,38 @@
+package com.bibliotheque.importation;
+
+/**
+ * Notice brute lue dans un fichier de catalogue, avant validation.
+ */
+public class EnregistrementCatalogue {
+
+    private final long ligne;
+    private final String isbn;
+    private final String titre;
+    private final String auteur;
+
+    public EnregistrementCatalogue(long ligne, String isbn, String titre, String auteur) {
+        this.ligne = ligne;
+        this.isbn = isbn;
+        this.titre = titre;
+        this.auteur = auteur;
+    }
+
+    /**
+     * @return le numéro de la (première) ligne de la notice dans le fichier
+     */
+    public long getLigne() {
+        return ligne;
+    }
+
+    public String getIsbn() {
+        return isbn;
+    }
+
+    public String getTitre() {
+        return titre;
+    }
+
+    public String getAuteur() {
+        return auteur;
+    }
+}
@@ -0,0 +1,66 @@
+package com.bibliotheque.importation;
+
+import java.util.Arrays;
+
+/**
+ * Ensemble d'ISBN déjà vus pendant un import, codés en {@code long} (13 chiffres au
+ * plus) dans une table à adressage ouvert : environ 16 octets par ISBN, contre
+ * une centaine pour un {@code HashSet<String>}.
+ */
+class EnsembleIsbn {
+
+    private static final long VIDE = -1;
+
+    private long[] table = nouvelleTable(1 << 16);
+    private int taille;
+
+    private static long[] nouvelleTable(int capacite) {
+        long[] t = new long[capacite];
+        Arrays.fill(t, VIDE);
+        return t;
+    }
+
+    /**
+     * @return true si la clé n'était pas encore présente
+     */
+    boolean ajouter(long cle) {
+        if (taille * 2 >= table.length) {
+            agrandir();
+        }
+        return inserer(table, cle);
+    }
+
+    private boolean inserer(long[] t, long cle) {
+        int masque = t.length - 1;
+        int i = (int) (melanger(cle) & masque);
+        while (t[i] != VIDE) {
+            if (t[i] == cle) {
+                return false;
+            }
+            i = (i + 1) & masque;
+        }
+        t[i] = cle;
+        if (t == table) {
+            taille++;
+        }
+        return true;
+    }
+
+    private void agrandir() {
+        long[] ancienne = table;
+        long[] nouvelle = nouvelleTable(ancienne.length * 2);
+        for (long cle : ancienne) {
+            if (cle != VIDE) {
+                inserer(nouvelle, cle);
+            }
+        }
+        table = nouvelle;
+    }
+
+    private static long melanger(long cle) {
+        cle ^= cle >>> 33;
+        cle *= 0xff51afd7ed558ccdL;
+        cle ^= cle >>> 33;
+        return cle;
+    }
+}
@@ -0,0 +1,234 @@
+package com.bibliotheque.importation;
+
+import com.bibliotheque.dao.LivreDAO;
+import com.bibliotheque.model.Livre;
+import com.bibliotheque.util.ErreursValidation;
+import com.bibliotheque.util.Isbn;
+import com.bibliotheque.util.StringValidator;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Import en flux d'un fichier de catalogue :
+ * <ol>
+ *   <li>lecture par lots de {@value #TAILLE_LOT} notices (thread appelant) ;</li>
+ *   <li>validation des lots en parallèle, un thread par cœur ;</li>
+ *   <li>élimination des ISBN en double puis insertion groupée de chaque lot (un seul
+ *       thread, dans l'ordre du fichier : la première occurrence d'un ISBN l'emporte).</li>
+ * </ol>
+ * Le nombre de lots en mémoire est borné, quelle que soit la taille du fichier ; seuls
+ * les ISBN déjà vus sont conservés, sous forme compacte. Les notices rejetées sont
+ * écrites au fil de l'eau dans un rapport CSV {@code ligne;isbn;motif}.
+ */
+public class ImportCatalogue {
+
+    static final int TAILLE_LOT = 5000;
+
+    private static final StringValidator.Regle<EnregistrementCatalogue> REGLE = notice -> {
+        String motif = StringValidator.verifierISBN(notice.getIsbn());
+        if (motif == null) {
+            motif = StringValidator.verifierTitre(notice.getTitre());
+        }
+        if (motif == null) {
+            motif = StringValidator.verifierNonVide(notice.getAuteur(), "L'auteur");
+        }
+        return motif;
+    };
+
+    private final LivreDAO livreDAO;
+    private final int paralleles;
+
+    public ImportCatalogue(LivreDAO livreDAO) {
+        this(livreDAO, Runtime.getRuntime().availableProcessors());
+    }
+
+    public ImportCatalogue(LivreDAO livreDAO, int paralleles) {
+        if (paralleles <= 0) {
+            throw new IllegalArgumentException("Le nombre de threads doit être positif");
+        }
+        this.livreDAO = livreDAO;
+        this.paralleles = paralleles;
+    }
+
+    /**
+     * Importe toutes les notices du lecteur.
+     *
+     * @param lecteur le fichier à importer
+     * @param rejets  destination du rapport des notices rejetées
+     * @return le bilan de l'import
+     * @throws IOException si la lecture ou l'écriture du rapport échoue
+     */
+    public RapportImport importer(LecteurCatalogue lecteur, Writer rejets) throws IOException {
+        long debut = System.currentTimeMillis();
+        ExecutorService validation = Executors.newFixedThreadPool(paralleles, r -> {
+            Thread t = new Thread(r, "import-validation");
+            t.setDaemon(true);
+            return t;
+        });
+        ExecutorService ecriture = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "import-ecriture");
+            t.setDaemon(true);
+            return t;
+        });
+        // Lots dans l'ordre de lecture ; la capacité borne la mémoire utilisée
+        BlockingQueue<Future<LotValide>> lots = new ArrayBlockingQueue<>(paralleles * 2);
+        Ecrivain ecrivain = new Ecrivain(lots, rejets);
+        Future<?> fin = ecriture.submit(ecrivain);
+        try {
+            List<EnregistrementCatalogue> lot;
+            do {
+                lot = lecteur.lireLot(TAILLE_LOT);
+                List<EnregistrementCatalogue> aValider = lot;
+                deposer(lots, validation.submit(() -> valider(aValider)), fin);
+            } while (!lot.isEmpty());
+            fin.get();
+            rejets.flush();
+            return new RapportImport(ecrivain.lues, ecrivain.importees, ecrivain.rejetees,
+                    System.currentTimeMillis() - debut);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Import interrompu", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) cause).getCause();
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException("Échec de l'import", cause);
+        } finally {
+            validation.shutdownNow();
+            ecriture.shutdownNow();
+        }
+    }
+
+    /**
+     * Attend une place dans la file, sauf si l'écriture s'est arrêtée sur une erreur.
+     */
+    private static void deposer(BlockingQueue<Future<LotValide>> lots, Future<LotValide> lot, Future<?> fin)
+            throws InterruptedException, ExecutionException {
+        while (!lots.offer(lot, 100, TimeUnit.MILLISECONDS)) {
+            if (fin.isDone()) {
+                fin.get();
+            }
+        }
+    }
+
+    private static LotValide valider(List<EnregistrementCatalogue> notices) {
+        LotValide lot = new LotValide(notices.size());
+        ErreursValidation erreurs = StringValidator.validerTout(notices, REGLE);
+        int erreur = 0;
+        for (int i = 0; i < notices.size(); i++) {
+            EnregistrementCatalogue notice = notices.get(i);
+            if (erreur < erreurs.nombre() && erreurs.indice(erreur) == i) {
+                lot.rejets.add(new Rejet(notice, erreurs.motif(erreur++)));
+            } else {
+                // ISBN-10 et ISBN-13 d'un même livre aboutissent à la même forme
+                lot.ajouter(new Livre(Isbn.normaliser(notice.getIsbn()), notice.getTitre().trim(),
+                        notice.getAuteur().trim()), notice);
+            }
+        }
+        return lot;
+    }
+
+    private final class Ecrivain implements Runnable {
+        private final BlockingQueue<Future<LotValide>> lots;
+        private final Writer rejets;
+        private final EnsembleIsbn vus = new EnsembleIsbn();
+        private long lues;
+        private long importees;
+        private long rejetees;
+
+        Ecrivain(BlockingQueue<Future<LotValide>> lots, Writer rejets) {
+            this.lots = lots;
+            this.rejets = rejets;
+        }
+
+        @Override
+        public void run() {
+            try {
+                rejets.write("ligne;isbn;motif\n");
+                while (true) {
+                    LotValide lot = lots.take().get();
+                    if (lot.taille == 0) {
+                        return;
+                    }
+                    traiter(lot);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Échec de la validation", e.getCause());
+            }
+        }
+
+        private void traiter(LotValide lot) throws IOException {
+            lues += lot.taille;
+            for (Rejet rejet : lot.rejets) {
+                rejeter(rejet.notice, rejet.motif);
+            }
+            List<Livre> nouveaux = new ArrayList<>(lot.livres.size());
+            for (Livre livre : lot.livres) {
+                if (vus.ajouter(Isbn.enNombre(livre.getIsbn()))) {
+                    nouveaux.add(livre);
+                } else {
+                    rejeter(lot.notices.get(livre), "ISBN en double dans le fichier");
+                }
+            }
+            List<Livre> existants = livreDAO.saveAll(nouveaux);
+            for (Livre livre : existants) {
+                rejeter(lot.notices.get(livre), "ISBN déjà présent au catalogue");
+            }
+            importees += nouveaux.size() - existants.size();
+        }
+
+        private void rejeter(EnregistrementCatalogue notice, String motif) throws IOException {
+            rejetees++;
+            rejets.write(notice.getLigne() + ";" + (notice.getIsbn() == null ? "" : notice.getIsbn())
+                    + ";" + motif.replace(';', ',') + "\n");
+        }
+    }
+
+    private static final class LotValide {
+        final int taille;
+        // Livres valides dans l'ordre du fichier, et leur notice d'origine pour le rapport
+        final List<Livre> livres = new ArrayList<>();
+        final Map<Livre, EnregistrementCatalogue> notices = new IdentityHashMap<>();
+        final List<Rejet> rejets = new ArrayList<>();
+
+        LotValide(int taille) {
+            this.taille = taille;
+        }
+
+        void ajouter(Livre livre, EnregistrementCatalogue notice) {
+            livres.add(livre);
+            notices.put(livre, notice);
+        }
+    }
+
+    private static final class Rejet {
+        final EnregistrementCatalogue notice;
+        final String motif;
+
+        Rejet(EnregistrementCatalogue notice, String motif) {
+            this.notice = notice;
+            this.motif = motif;
+        }
+    }
+}
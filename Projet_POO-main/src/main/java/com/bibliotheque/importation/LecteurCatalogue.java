@@ -0,0 +1,36 @@
+package com.bibliotheque.importation;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Lecture d'un fichier de catalogue par lots, sans le charger en entier.
+ */
+public interface LecteurCatalogue extends Closeable {
+
+    /**
+     * Lit les notices suivantes.
+     *
+     * @param taille le nombre maximal de notices
+     * @return les notices lues, liste vide en fin de fichier
+     */
+    List<EnregistrementCatalogue> lireLot(int taille) throws IOException;
+
+    /**
+     * Ouvre le lecteur adapté à l'extension du fichier : {@code .mrk}/{@code .marc}
+     * pour le format MARC texte, CSV sinon.
+     */
+    static LecteurCatalogue ouvrir(Path fichier) throws IOException {
+        BufferedReader lecteur = Files.newBufferedReader(fichier, StandardCharsets.UTF_8);
+        String nom = fichier.getFileName().toString().toLowerCase();
+        if (nom.endsWith(".mrk") || nom.endsWith(".marc")) {
+            return new LecteurMarc(lecteur);
+        }
+        return new LecteurCsv(lecteur);
+    }
+}
@@ -0,0 +1,98 @@
+package com.bibliotheque.importation;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Catalogue au format CSV : une notice par ligne, colonnes {@code isbn}, {@code titre},
+ * {@code auteur}. Une ligne d'en-tête, si elle est présente, peut les donner dans un
+ * autre ordre. Le séparateur ({@code ;} ou {@code ,}) est déduit de la première ligne ;
+ * les champs peuvent être entre guillemets ({@code ""} pour un guillemet).
+ */
+class LecteurCsv implements LecteurCatalogue {
+
+    private final BufferedReader lecteur;
+    private char separateur;
+    private int colIsbn = 0;
+    private int colTitre = 1;
+    private int colAuteur = 2;
+    private long ligne;
+    private boolean entete = true;
+
+    LecteurCsv(BufferedReader lecteur) {
+        this.lecteur = lecteur;
+    }
+
+    @Override
+    public List<EnregistrementCatalogue> lireLot(int taille) throws IOException {
+        List<EnregistrementCatalogue> lot = new ArrayList<>(taille);
+        String texte;
+        while (lot.size() < taille && (texte = lecteur.readLine()) != null) {
+            ligne++;
+            if (texte.isBlank()) {
+                continue;
+            }
+            if (entete) {
+                entete = false;
+                separateur = texte.indexOf(';') >= 0 ? ';' : ',';
+                List<String> champs = decouper(texte);
+                if (lireEntete(champs)) {
+                    continue;
+                }
+            }
+            List<String> champs = decouper(texte);
+            lot.add(new EnregistrementCatalogue(ligne, champ(champs, colIsbn), champ(champs, colTitre), champ(champs, colAuteur)));
+        }
+        return lot;
+    }
+
+    private boolean lireEntete(List<String> champs) {
+        int isbn = champs.indexOf("isbn");
+        if (isbn < 0) {
+            return false;
+        }
+        colIsbn = isbn;
+        colTitre = champs.indexOf("titre");
+        colAuteur = champs.indexOf("auteur");
+        return true;
+    }
+
+    private static String champ(List<String> champs, int colonne) {
+        return colonne >= 0 && colonne < champs.size() ? champs.get(colonne) : null;
+    }
+
+    private List<String> decouper(String texte) {
+        List<String> champs = new ArrayList<>(4);
+        StringBuilder courant = new StringBuilder();
+        boolean entreGuillemets = false;
+        for (int i = 0; i < texte.length(); i++) {
+            char c = texte.charAt(i);
+            if (entreGuillemets) {
+                if (c == '"' && i + 1 < texte.length() && texte.charAt(i + 1) == '"') {
+                    courant.append('"');
+                    i++;
+                } else if (c == '"') {
+                    entreGuillemets = false;
+                } else {
+                    courant.append(c);
+                }
+            } else if (c == '"') {
+                entreGuillemets = true;
+            } else if (c == separateur) {
+                champs.add(courant.toString().trim());
+                courant.setLength(0);
+            } else {
+                courant.append(c);
+            }
+        }
+        champs.add(courant.toString().trim());
+        return champs;
+    }
+
+    @Override
+    public void close() throws IOException {
+        lecteur.close();
+    }
+}
@@ -0,0 +1,89 @@
+package com.bibliotheque.importation;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Catalogue au format MARC texte (fichiers {@code .mrk}) : une notice par bloc de
+ * lignes {@code =TAG  indicateurs$asous-champ...}, les notices étant séparées par une
+ * ligne vide. Seules les zones utiles sont lues : 020 (ISBN), 245 (titre) et 100
+ * (auteur), sous-champ {@code $a}.
+ */
+class LecteurMarc implements LecteurCatalogue {
+
+    private final BufferedReader lecteur;
+    private long ligne;
+
+    LecteurMarc(BufferedReader lecteur) {
+        this.lecteur = lecteur;
+    }
+
+    @Override
+    public List<EnregistrementCatalogue> lireLot(int taille) throws IOException {
+        List<EnregistrementCatalogue> lot = new ArrayList<>(taille);
+        EnregistrementCatalogue notice;
+        while (lot.size() < taille && (notice = lireNotice()) != null) {
+            lot.add(notice);
+        }
+        return lot;
+    }
+
+    private EnregistrementCatalogue lireNotice() throws IOException {
+        String isbn = null;
+        String titre = null;
+        String auteur = null;
+        long debut = -1;
+        String texte;
+        while ((texte = lecteur.readLine()) != null) {
+            ligne++;
+            if (texte.isBlank()) {
+                if (debut >= 0) {
+                    break;
+                }
+                continue;
+            }
+            if (debut < 0) {
+                debut = ligne;
+            }
+            if (texte.length() < 4 || texte.charAt(0) != '=') {
+                continue;
+            }
+            switch (texte.substring(1, 4)) {
+                case "020":
+                    // Seul le premier ISBN compte (les suivants désignent d'autres éditions)
+                    isbn = isbn != null ? isbn : sousChampA(texte);
+                    break;
+                case "245":
+                    titre = sousChampA(texte);
+                    break;
+                case "100":
+                    auteur = sousChampA(texte);
+                    break;
+                default:
+                    break;
+            }
+        }
+        return debut < 0 ? null : new EnregistrementCatalogue(debut, isbn, titre, auteur);
+    }
+
+    private static String sousChampA(String texte) {
+        int debut = texte.indexOf("$a");
+        if (debut < 0) {
+            return null;
+        }
+        int fin = texte.indexOf('$', debut + 2);
+        String valeur = texte.substring(debut + 2, fin < 0 ? texte.length() : fin).trim();
+        // Ponctuation ISBD finale (" /", " :", ".") non significative
+        while (!valeur.isEmpty() && " /:;,.".indexOf(valeur.charAt(valeur.length() - 1)) >= 0) {
+            valeur = valeur.substring(0, valeur.length() - 1);
+        }
+        return valeur;
+    }
+
+    @Override
+    public void close() throws IOException {
+        lecteur.close();
+    }
+}
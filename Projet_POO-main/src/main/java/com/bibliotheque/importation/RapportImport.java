@@ -0,0 +1,42 @@
+package com.bibliotheque.importation;
+
+/**
+ * Bilan d'un import de catalogue. Le détail des notices rejetées est écrit au fil de
+ * l'eau dans le fichier de rejets.
+ */
+public class RapportImport {
+
+    private final long lues;
+    private final long importees;
+    private final long rejetees;
+    private final long dureeMs;
+
+    public RapportImport(long lues, long importees, long rejetees, long dureeMs) {
+        this.lues = lues;
+        this.importees = importees;
+        this.rejetees = rejetees;
+        this.dureeMs = dureeMs;
+    }
+
+    public long getLues() {
+        return lues;
+    }
+
+    public long getImportees() {
+        return importees;
+    }
+
+    public long getRejetees() {
+        return rejetees;
+    }
+
+    public long getDureeMs() {
+        return dureeMs;
+    }
+
+    @Override
+    public String toString() {
+        return lues + " notices lues, " + importees + " importées, " + rejetees + " rejetées en "
+                + (dureeMs / 1000.0) + " s";
+    }
+}
@@ -15,6 +15,14 @@ public abstract class Document {
         return isbn;
     }
 
+    /**
+     * Identifiant unique dans le catalogue, tous types confondus : l'ISBN d'un livre,
+     * le code d'un magazine.
+     */
+    public String getIdentifiant() {
+        return isbn;
+    }
+
     public String getTitre() {
         return titre;
     }
@@ -7,15 +7,16 @@ public class Emprunt {
     private LocalDate dateEmprunt;
     private LocalDate dateRetourPrevue ;
     private LocalDate dateRetourEffective ;
-    private Livre livre;
+    // Livre, magazine : tout document empruntable du catalogue
+    private Empruntable document;
     private Membre membre;
     private double penalite ;
-    public Emprunt(int id ,LocalDate dataEmprunt,LocalDate dateRetourPrevue,LocalDate dateRetourEffective,Livre livre,Membre membre,double penalite){
+    public Emprunt(int id ,LocalDate dataEmprunt,LocalDate dateRetourPrevue,LocalDate dateRetourEffective,Empruntable document,Membre membre,double penalite){
         this.id = id;
         this.dateEmprunt = dataEmprunt;
         this.dateRetourPrevue = dateRetourPrevue;
         this.dateRetourEffective = dateRetourEffective ; 
-        this.livre = livre;
+        this.document = document;
         this.membre = membre;
         this.penalite = penalite;
     }
@@ -35,8 +36,14 @@ public class Emprunt {
     public Membre getMembre(){
         return membre;
     }
+    public Empruntable getDocument(){
+        return document;
+    }
+    /**
+     * @return le livre emprunté, ou null si le document est d'un autre type
+     */
     public Livre getLivre(){
-        return livre;
+        return document instanceof Livre ? (Livre) document : null;
     }
     public double getPenalite(){
         return penalite;
@@ -57,8 +64,8 @@ public class Emprunt {
     public void setMembre(Membre membre){
         this.membre = membre;
     }
-    public void setLivre(Livre livre){
-        this.livre = livre;
+    public void setDocument(Empruntable document){
+        this.document = document;
     }
     public void setPenalite(double penalite){
         this.penalite = penalite;
@@ -69,7 +76,7 @@ public class Emprunt {
             ", dateEmprunt=" + dateEmprunt +
             ", dateRetourPrevue=" + dateRetourPrevue +
             ", dateRetourEffective=" + dateRetourEffective +
-            ", livre=" + (livre != null ? livre.getTitre() : "null") +
+            ", document=" + (document != null ? document.getTitre() : "null") +
             ", membre=" + (membre != null ? membre.getNom() + " " + membre.getPrenom() : "null") +
             ", penalite=" + penalite +
             '}';
@@ -1,8 +1,24 @@
 package com.bibliotheque.model;
 
+/**
+ * Document que l'on peut prêter, quel que soit son type : un emprunt ne connaît que
+ * son identifiant, son titre et son barème de pénalité.
+ */
 public interface Empruntable {
 
     boolean peutEtreEmprunte();
     void emprunter();
     void retourner();
+
+    /**
+     * @return l'identifiant du document dans le catalogue (ISBN d'un livre, code d'un magazine)
+     */
+    String getIdentifiant();
+
+    String getTitre();
+
+    /**
+     * @return la pénalité due pour {@code jours} jours de retard
+     */
+    double calculerPenaliteRetard(int jours);
 }
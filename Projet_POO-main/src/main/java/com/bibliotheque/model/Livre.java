@@ -1,15 +1,26 @@
 package com.bibliotheque.model;
 
+import com.bibliotheque.util.Dictionnaire;
+
 public class Livre extends Document implements Empruntable {
-    private String auteur;
+    // Code dans Dictionnaire.AUTEURS : un auteur n'est gardé qu'une fois pour tout le catalogue
+    private final int auteur;
     private boolean disponible = true;
     
     public Livre(String isbn, String titre, String auteur) {
-        super(isbn, titre); 
-        this.auteur = auteur;
+        this(isbn, titre, Dictionnaire.AUTEURS.code(auteur));
+    }
+
+    public Livre(String isbn, String titre, int codeAuteur) {
+        super(isbn, titre);
+        this.auteur = codeAuteur;
     }
     
     public String getAuteur() {
+        return Dictionnaire.AUTEURS.texte(auteur);
+    }
+
+    public int getCodeAuteur() {
         return auteur;
     }
     
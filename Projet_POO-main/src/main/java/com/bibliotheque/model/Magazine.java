@@ -1,6 +1,9 @@
 package com.bibliotheque.model;
 
 public class Magazine extends Document implements Empruntable {
+    // Pénalité par jour de retard (1,5 pour un livre)
+    private static final double PENALITE_PAR_JOUR = 1.0;
+
     private int numero;
     private String mois;
     private boolean disponible;
@@ -14,7 +17,7 @@ public class Magazine extends Document implements Empruntable {
     
     @Override
     public double calculerPenaliteRetard() {
-        return 1.0; 
+        return PENALITE_PAR_JOUR;
     }
 
     @Override
@@ -61,7 +64,7 @@ public class Magazine extends Document implements Empruntable {
     @Override
     public String toString() {
         return "Magazine{" +
-                "id='" + id + '\'' +
+                "id='" + getIdentifiant() + '\'' +
                 ", titre='" + titre + '\'' +
                 ", numero=" + numero +
                 ", mois='" + mois + '\'' +
@@ -71,6 +74,6 @@ public class Magazine extends Document implements Empruntable {
 
     @Override
     public double calculerPenaliteRetard(int jours) {
-        throw new UnsupportedOperationException("Unimplemented method 'calculerPenaliteRetard'");
+        return jours * PENALITE_PAR_JOUR;
     }
 }
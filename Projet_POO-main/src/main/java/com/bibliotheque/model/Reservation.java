@@ -0,0 +1,96 @@
+package com.bibliotheque.model;
+
+import java.time.LocalDate;
+
+/**
+ * Réservation d'un livre indisponible. Les réservations d'un même ISBN forment une
+ * file : la plus prioritaire, puis la plus ancienne, est servie au prochain retour.
+ */
+public class Reservation {
+
+    public enum Statut {
+        /** Dans la file d'attente */
+        EN_ATTENTE,
+        /** Livre mis de côté, à retirer avant la date limite */
+        DISPONIBLE,
+        /** Livre emprunté par le membre */
+        HONOREE,
+        /** Livre non retiré à temps */
+        EXPIREE,
+        ANNULEE
+    }
+
+    private int id;
+    private Livre livre;
+    private Membre membre;
+    private int priorite;
+    private LocalDate dateReservation;
+    private Statut statut;
+    private LocalDate dateLimite;
+
+    public Reservation(int id, Livre livre, Membre membre, int priorite, LocalDate dateReservation,
+                       Statut statut, LocalDate dateLimite) {
+        this.id = id;
+        this.livre = livre;
+        this.membre = membre;
+        this.priorite = priorite;
+        this.dateReservation = dateReservation;
+        this.statut = statut;
+        this.dateLimite = dateLimite;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    public Livre getLivre() {
+        return livre;
+    }
+
+    public Membre getMembre() {
+        return membre;
+    }
+
+    public int getPriorite() {
+        return priorite;
+    }
+
+    public LocalDate getDateReservation() {
+        return dateReservation;
+    }
+
+    public Statut getStatut() {
+        return statut;
+    }
+
+    public void setStatut(Statut statut) {
+        this.statut = statut;
+    }
+
+    /**
+     * @return la date limite de retrait, ou null tant que le livre n'est pas mis de côté
+     */
+    public LocalDate getDateLimite() {
+        return dateLimite;
+    }
+
+    public void setDateLimite(LocalDate dateLimite) {
+        this.dateLimite = dateLimite;
+    }
+
+    @Override
+    public String toString() {
+        return "Reservation{" +
+                "id=" + id +
+                ", livre=" + (livre != null ? livre.getTitre() : "null") +
+                ", membre=" + (membre != null ? membre.getNom() + " " + membre.getPrenom() : "null") +
+                ", priorite=" + priorite +
+                ", statut=" + statut +
+                ", dateLimite=" + dateLimite +
+                '}';
+    }
+}
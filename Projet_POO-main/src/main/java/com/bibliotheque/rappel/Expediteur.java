@@ -0,0 +1,19 @@
+package com.bibliotheque.rappel;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Canal d'envoi des avis.
+ */
+public interface Expediteur {
+
+    /**
+     * Envoie un lot d'avis. Les avis envoyés sont retirés de la liste : après un échec,
+     * seuls ceux qui restent sont présentés de nouveau.
+     */
+    void envoyer(List<Notification> lot) throws IOException;
+
+    default void fermer() {
+    }
+}
@@ -0,0 +1,34 @@
+package com.bibliotheque.rappel;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Remplaçant du serveur de messagerie : les avis sont ajoutés à un fichier texte.
+ */
+public class ExpediteurJournal implements Expediteur {
+
+    private final Path fichier;
+
+    public ExpediteurJournal(Path fichier) {
+        this.fichier = fichier;
+    }
+
+    @Override
+    public synchronized void envoyer(List<Notification> lot) throws IOException {
+        try (Writer sortie = Files.newBufferedWriter(fichier, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            String date = LocalDateTime.now().toString();
+            for (Notification notification : lot) {
+                sortie.write(date + " | " + notification.getDestinataire() + " | " + notification.getSujet() + "\n");
+            }
+        }
+        lot.clear();
+    }
+}
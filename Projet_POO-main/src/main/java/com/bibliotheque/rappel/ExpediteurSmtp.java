@@ -0,0 +1,97 @@
+package com.bibliotheque.rappel;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Envoi des avis à un relais SMTP (sans authentification ni TLS : relais interne de
+ * l'établissement). Une connexion par lot, un message par avis.
+ */
+public class ExpediteurSmtp implements Expediteur {
+
+    private static final int DELAI_MS = 10_000;
+
+    private final String hote;
+    private final int port;
+    private final String expediteur;
+
+    public ExpediteurSmtp(String hote, int port, String expediteur) {
+        this.hote = hote;
+        this.port = port;
+        this.expediteur = expediteur;
+    }
+
+    @Override
+    public void envoyer(List<Notification> lot) throws IOException {
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(hote, port), DELAI_MS);
+            socket.setSoTimeout(DELAI_MS);
+            BufferedReader entree = new BufferedReader(
+                    new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            OutputStream sortie = socket.getOutputStream();
+            attendre(entree, 220);
+            commande(sortie, entree, "HELO " + socket.getLocalAddress().getHostName(), 250);
+            Iterator<Notification> it = lot.iterator();
+            while (it.hasNext()) {
+                Notification notification = it.next();
+                commande(sortie, entree, "MAIL FROM:<" + expediteur + ">", 250);
+                commande(sortie, entree, "RCPT TO:<" + notification.getDestinataire() + ">", 250);
+                commande(sortie, entree, "DATA", 354);
+                ecrire(sortie, message(notification));
+                commande(sortie, entree, ".", 250);
+                it.remove();
+            }
+            commande(sortie, entree, "QUIT", 221);
+        }
+    }
+
+    private String message(Notification notification) {
+        StringBuilder texte = new StringBuilder()
+                .append("From: ").append(expediteur).append("\r\n")
+                .append("To: ").append(notification.getDestinataire()).append("\r\n")
+                .append("Subject: =?UTF-8?B?")
+                .append(Base64.getEncoder().encodeToString(notification.getSujet().getBytes(StandardCharsets.UTF_8)))
+                .append("?=\r\n")
+                .append("MIME-Version: 1.0\r\n")
+                .append("Content-Type: text/plain; charset=UTF-8\r\n")
+                .append("Content-Transfer-Encoding: 8bit\r\n\r\n");
+        for (String ligne : notification.getTexte().split("\n", -1)) {
+            // Une ligne commençant par un point serait prise pour la fin du message
+            texte.append(ligne.startsWith(".") ? "." : "").append(ligne).append("\r\n");
+        }
+        return texte.substring(0, texte.length() - 2);
+    }
+
+    private static void commande(OutputStream sortie, BufferedReader entree, String ligne, int attendu)
+            throws IOException {
+        ecrire(sortie, ligne);
+        attendre(entree, attendu);
+    }
+
+    private static void ecrire(OutputStream sortie, String ligne) throws IOException {
+        sortie.write((ligne + "\r\n").getBytes(StandardCharsets.UTF_8));
+        sortie.flush();
+    }
+
+    private static void attendre(BufferedReader entree, int attendu) throws IOException {
+        String ligne;
+        do {
+            ligne = entree.readLine();
+            if (ligne == null) {
+                throw new IOException("Connexion SMTP fermée");
+            }
+            // Les réponses sur plusieurs lignes ont un tiret après le code
+        } while (ligne.length() > 3 && ligne.charAt(3) == '-');
+        if (!ligne.startsWith(String.valueOf(attendu))) {
+            throw new IOException("Réponse SMTP inattendue : " + ligne);
+        }
+    }
+}
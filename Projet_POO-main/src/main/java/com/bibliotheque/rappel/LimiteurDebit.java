@@ -0,0 +1,41 @@
+package com.bibliotheque.rappel;
+
+/**
+ * Seau à jetons : au plus {@code parMinute} avis par minute, avec une rafale possible
+ * d'une minute de crédit.
+ */
+public class LimiteurDebit {
+
+    private final double jetonsParNano;
+    private final double capacite;
+    private double jetons;
+    private long dernier;
+
+    public LimiteurDebit(int parMinute) {
+        if (parMinute <= 0) {
+            throw new IllegalArgumentException("Le débit doit être positif");
+        }
+        this.capacite = parMinute;
+        this.jetonsParNano = parMinute / 60e9;
+        this.jetons = parMinute;
+        this.dernier = System.nanoTime();
+    }
+
+    /**
+     * Attend que {@code n} jetons soient disponibles et les consomme.
+     */
+    public synchronized void acquerir(int n) throws InterruptedException {
+        double demande = Math.min(n, capacite);
+        while (true) {
+            long maintenant = System.nanoTime();
+            jetons = Math.min(capacite, jetons + (maintenant - dernier) * jetonsParNano);
+            dernier = maintenant;
+            if (jetons >= demande) {
+                jetons -= demande;
+                return;
+            }
+            long attente = (long) Math.ceil((demande - jetons) / jetonsParNano / 1_000_000);
+            wait(Math.max(1, attente));
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.bibliotheque.rappel;
+
+import java.time.LocalDate;
+
+/**
+ * Avis envoyé à un membre au sujet d'un emprunt.
+ */
+public class Notification {
+
+    public enum Type {
+        /** Échéance dans quelques jours */
+        ECHEANCE_PROCHE,
+        /** Date de retour dépassée */
+        RETARD
+    }
+
+    private final Type type;
+    private final int empruntId;
+    private final String destinataire;
+    private final String nomMembre;
+    private final String titreLivre;
+    private final LocalDate dateRetourPrevue;
+
+    public Notification(Type type, int empruntId, String destinataire, String nomMembre, String titreLivre,
+                        LocalDate dateRetourPrevue) {
+        this.type = type;
+        this.empruntId = empruntId;
+        this.destinataire = destinataire;
+        this.nomMembre = nomMembre;
+        this.titreLivre = titreLivre;
+        this.dateRetourPrevue = dateRetourPrevue;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public int getEmpruntId() {
+        return empruntId;
+    }
+
+    /**
+     * @return l'adresse email du membre
+     */
+    public String getDestinataire() {
+        return destinataire;
+    }
+
+    public String getSujet() {
+        return type == Type.RETARD
+                ? "Retard : " + titreLivre
+                : "Rappel : retour de " + titreLivre + " le " + dateRetourPrevue;
+    }
+
+    public String getTexte() {
+        if (type == Type.RETARD) {
+            return "Bonjour " + nomMembre + ",\n\nLe livre « " + titreLivre + " » devait être rendu le "
+                    + dateRetourPrevue + ". Des pénalités de retard s'appliquent pour chaque jour supplémentaire.\n";
+        }
+        return "Bonjour " + nomMembre + ",\n\nLe livre « " + titreLivre + " » est à rendre le "
+                + dateRetourPrevue + ".\n";
+    }
+
+    @Override
+    public String toString() {
+        return "Notification{" + type + ", emprunt=" + empruntId + ", destinataire=" + destinataire + '}';
+    }
+}
@@ -0,0 +1,163 @@
+package com.bibliotheque.rappel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Roue temporelle hiérarchique : {@value #NIVEAUX} niveaux de {@value #CASES} cases,
+ * chaque case du niveau {@code n} couvrant {@code 64^n} crans.
+ * <p>
+ * Une échéance est rangée au niveau le plus fin qui la contient, puis redescend d'un
+ * niveau chaque fois que le curseur du niveau au-dessus atteint sa case. Planifier,
+ * annuler et faire avancer la roue d'un cran coûtent un temps constant, quel que soit
+ * le nombre d'échéances en attente : rien n'est parcouru hormis la case courante.
+ * <p>
+ * Non synchronisée : le propriétaire sérialise les appels.
+ */
+public class RoueTemporelle<T> {
+
+    static final int NIVEAUX = 4;
+    static final int CASES = 64;
+    private static final int BITS = 6;
+    private static final int MASQUE = CASES - 1;
+
+    private final List<List<Minuterie<T>>> cases = new ArrayList<>();
+    private long courant;
+    private int taille;
+
+    /**
+     * Échéance planifiée dans la roue.
+     */
+    public static final class Minuterie<T> {
+        private final long echeance;
+        private final T valeur;
+        private boolean annulee;
+
+        private Minuterie(long echeance, T valeur) {
+            this.echeance = echeance;
+            this.valeur = valeur;
+        }
+
+        public long getEcheance() {
+            return echeance;
+        }
+
+        public T getValeur() {
+            return valeur;
+        }
+
+        /**
+         * L'échéance est ignorée à son passage (retrait paresseux, sans parcours de case).
+         */
+        public void annuler() {
+            annulee = true;
+        }
+    }
+
+    /**
+     * @param depart le cran courant
+     */
+    public RoueTemporelle(long depart) {
+        this.courant = depart;
+        for (int i = 0; i < NIVEAUX * CASES; i++) {
+            cases.add(new ArrayList<>());
+        }
+    }
+
+    public long getCourant() {
+        return courant;
+    }
+
+    /**
+     * @return le nombre d'échéances en attente, annulées comprises
+     */
+    public int taille() {
+        return taille;
+    }
+
+    /**
+     * Planifie une valeur ; une échéance déjà passée sera rendue au prochain cran.
+     */
+    public Minuterie<T> planifier(long echeance, T valeur) {
+        Minuterie<T> minuterie = new Minuterie<>(echeance, valeur);
+        ranger(minuterie, courant + 1);
+        taille++;
+        return minuterie;
+    }
+
+    private void ranger(Minuterie<T> minuterie, long auPlusTot) {
+        long echeance = Math.max(minuterie.echeance, auPlusTot);
+        long ecart = echeance - courant;
+        int niveau = 0;
+        while (niveau < NIVEAUX - 1 && ecart >= 1L << (BITS * (niveau + 1))) {
+            niveau++;
+        }
+        // Au-delà de la portée du dernier niveau, la case est revisitée à chaque tour
+        int indice = (int) ((echeance >>> (BITS * niveau)) & MASQUE);
+        cases.get(niveau * CASES + indice).add(minuterie);
+    }
+
+    /**
+     * Fait avancer la roue jusqu'au cran indiqué et rend les échéances atteintes,
+     * dans l'ordre des crans.
+     */
+    public void avancer(long jusqua, Consumer<? super T> echues) {
+        if (taille == 0) {
+            courant = Math.max(courant, jusqua);
+            return;
+        }
+        while (courant < jusqua) {
+            courant++;
+            cascader();
+            List<Minuterie<T>> caseCourante = cases.get((int) (courant & MASQUE));
+            if (caseCourante.isEmpty()) {
+                continue;
+            }
+            List<Minuterie<T>> atteintes = new ArrayList<>(caseCourante);
+            caseCourante.clear();
+            for (Minuterie<T> minuterie : atteintes) {
+                if (minuterie.echeance > courant) {
+                    // Échéance hors de portée du dernier niveau : un tour de plus
+                    ranger(minuterie, courant + 1);
+                    continue;
+                }
+                taille--;
+                if (!minuterie.annulee) {
+                    echues.accept(minuterie.valeur);
+                }
+            }
+            if (taille == 0) {
+                courant = Math.max(courant, jusqua);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Au passage d'une frontière de niveau, redistribue la case correspondante du niveau
+     * supérieur dans les niveaux inférieurs, en commençant par le plus haut.
+     */
+    private void cascader() {
+        int niveaux = 0;
+        while (niveaux < NIVEAUX - 1 && ((courant >>> (BITS * niveaux)) & MASQUE) == 0) {
+            niveaux++;
+        }
+        for (int niveau = niveaux; niveau >= 1; niveau--) {
+            List<Minuterie<T>> caseNiveau = cases.get(niveau * CASES + (int) ((courant >>> (BITS * niveau)) & MASQUE));
+            if (caseNiveau.isEmpty()) {
+                continue;
+            }
+            List<Minuterie<T>> aRanger = new ArrayList<>(caseNiveau);
+            caseNiveau.clear();
+            for (Minuterie<T> minuterie : aRanger) {
+                if (minuterie.annulee) {
+                    taille--;
+                } else {
+                    // Une échéance du cran courant tombe dans la case traitée juste après
+                    ranger(minuterie, courant);
+                }
+            }
+        }
+    }
+}
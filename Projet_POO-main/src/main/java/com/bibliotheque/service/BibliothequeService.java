@@ -1,19 +1,37 @@
 package com.bibliotheque.service;
 
+import com.bibliotheque.audit.EntreeAudit;
+import com.bibliotheque.audit.JournalAudit;
+import com.bibliotheque.dao.DocumentDAO;
+import com.bibliotheque.dao.EmpruntDAO;
 import com.bibliotheque.dao.MembreDAO;
 import com.bibliotheque.dao.LivreDAO;
+import com.bibliotheque.dao.RequetePage;
+import com.bibliotheque.dao.impl.CatalogueDocuments;
 import com.bibliotheque.dao.impl.MembreDAOImpl;
 import com.bibliotheque.dao.impl.LivreDAOImpl;
+import com.bibliotheque.event.BusEvenements;
+import com.bibliotheque.event.MembreEnregistre;
+import com.bibliotheque.event.MembreSupprime;
+import com.bibliotheque.model.Document;
+import com.bibliotheque.model.Magazine;
 import com.bibliotheque.model.Membre;
 import com.bibliotheque.model.Livre;
+import com.bibliotheque.util.StringValidator;
 
+import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
 public class BibliothequeService {
 
     private final MembreDAO membreDAO;
+    private final DocumentDAO documentDAO;
     private final LivreDAO livreDAO;
+    private final EmpruntDAO empruntDAO;
+    private final BusEvenements bus;
+    private final JournalAudit audit;
 
     // Constructeurs
     public BibliothequeService() {
@@ -21,11 +39,40 @@ public class BibliothequeService {
     }
 
     public BibliothequeService(LivreDAO livreDAO, MembreDAO membreDAO) {
-        if (livreDAO == null || membreDAO == null) {
+        this(livreDAO, membreDAO, new BusEvenements());
+    }
+
+    public BibliothequeService(LivreDAO livreDAO, MembreDAO membreDAO, BusEvenements bus) {
+        this(new CatalogueDocuments(livreDAO), membreDAO, bus);
+    }
+
+    private BibliothequeService(CatalogueDocuments catalogue, MembreDAO membreDAO, BusEvenements bus) {
+        this(catalogue, catalogue.livres(), membreDAO, bus);
+    }
+
+    /**
+     * @param livreDAO les livres de {@code documentDAO}
+     */
+    public BibliothequeService(DocumentDAO documentDAO, LivreDAO livreDAO, MembreDAO membreDAO, BusEvenements bus) {
+        this(documentDAO, livreDAO, membreDAO, null, bus, JournalAudit.aucun());
+    }
+
+    /**
+     * @param livreDAO   les livres de {@code documentDAO}
+     * @param empruntDAO pour décrire dans l'audit les emprunts supprimés avec un membre,
+     *                   ou null
+     */
+    public BibliothequeService(DocumentDAO documentDAO, LivreDAO livreDAO, MembreDAO membreDAO,
+                               EmpruntDAO empruntDAO, BusEvenements bus, JournalAudit audit) {
+        if (documentDAO == null || livreDAO == null || membreDAO == null) {
             throw new IllegalArgumentException("DAO cannot be null");
         }
+        this.documentDAO = documentDAO;
         this.livreDAO = livreDAO;
         this.membreDAO = membreDAO;
+        this.empruntDAO = empruntDAO;
+        this.bus = bus;
+        this.audit = audit;
     }
 
     /* ============================
@@ -45,6 +92,11 @@ public class BibliothequeService {
             throw new IllegalArgumentException("L'email est obligatoire");
         }
 
+        String motif = StringValidator.verifierEmail(membre.getEmail());
+        if (motif != null) {
+            throw new IllegalArgumentException(motif);
+        }
+
         // Vérifier unicité email
         if (membreDAO.findByEmail(membre.getEmail()) != null) {
             throw new IllegalArgumentException("Cet email est déjà utilisé");
@@ -54,6 +106,8 @@ public class BibliothequeService {
         membre.setActif(true);
 
         membreDAO.save(membre);
+        audit.enregistrer(EntreeAudit.Action.MEMBRE_AJOUTE, "membre " + membre.getId(), identite(membre));
+        bus.publier(new MembreEnregistre(membre, true));
     }
 
     /* ============================
@@ -71,6 +125,9 @@ public class BibliothequeService {
         }
 
         membreDAO.update(membre);
+        audit.enregistrer(EntreeAudit.Action.MEMBRE_MODIFIE, "membre " + membre.getId(),
+                "avant : " + identite(existant) + " ; après : " + identite(membre));
+        bus.publier(new MembreEnregistre(membre, false));
     }
 
     /* ============================
@@ -89,6 +146,9 @@ public class BibliothequeService {
 
         membre.setActif(actif);
         membreDAO.update(membre);
+        audit.enregistrer(actif ? EntreeAudit.Action.MEMBRE_ACTIVE : EntreeAudit.Action.MEMBRE_DESACTIVE,
+                "membre " + id, identite(membre));
+        bus.publier(new MembreEnregistre(membre, false));
     }
 
     /* ============================
@@ -108,38 +168,99 @@ public class BibliothequeService {
 
     /**
      * Recherche les membres par mot-clé sur le nom, prénom ou email (insensible à la casse).
+     * Le filtre est appliqué par la base, comme pour les pages de l'écran des membres.
      */
     public List<Membre> rechercherMembres(String motCle) {
         if (motCle == null || motCle.isBlank()) {
             return rechercherMembres();
         }
+        int total = membreDAO.count(motCle);
+        if (total == 0) {
+            return new ArrayList<>();
+        }
+        return membreDAO.findPage(motCle, RequetePage.aDecalage("id", true, 0, total));
+    }
 
-        String cle = motCle.trim().toLowerCase();
-        return membreDAO.findAll().stream()
-                .filter(m -> (m.getNom() != null && m.getNom().toLowerCase().contains(cle))
-                        || (m.getPrenom() != null && m.getPrenom().toLowerCase().contains(cle))
-                        || (m.getEmail() != null && m.getEmail().toLowerCase().contains(cle)))
+    /**
+     * Recherche les livres par mot-clé sur l'ISBN, le titre ou l'auteur (insensible à la casse).
+     */
+    public List<Livre> rechercherLivres(String motCle) {
+        if (motCle == null || motCle.isBlank()) {
+            return getTousLesLivres();
+        }
+        return documentDAO.rechercher(motCle).stream()
+                .filter(d -> d instanceof Livre)
+                .map(d -> (Livre) d)
                 .collect(Collectors.toList());
     }
 
-    public List<Membre> rechercherMembresActifs() {
-        return membreDAO.findActifs();
+    /**
+     * Recherche dans tout le catalogue, livres et magazines, sur l'identifiant, le titre
+     * ou l'auteur (insensible à la casse).
+     */
+    public List<Document> rechercherDocuments(String motCle) {
+        return documentDAO.rechercher(motCle);
     }
 
-    public Membre rechercherParId(int id) {
-        return membreDAO.findById(id);
+    /**
+     * @return les documents disponibles au prêt, tous types confondus
+     */
+    public List<Document> getDocumentsDisponibles() {
+        return documentDAO.findDisponibles();
+    }
+
+    /**
+     * Ajoute un magazine au catalogue, disponible au prêt.
+     */
+    public void ajouterMagazine(Magazine magazine) {
+        if (magazine == null) {
+            throw new IllegalArgumentException("Le magazine ne peut pas être null");
+        }
+        String identifiant = magazine.getIdentifiant();
+        if (identifiant == null || identifiant.isBlank() || identifiant.length() > 20) {
+            throw new IllegalArgumentException("L'identifiant est obligatoire (20 caractères au plus)");
+        }
+        String motif = StringValidator.verifierTitre(magazine.getTitre());
+        if (motif != null) {
+            throw new IllegalArgumentException(motif);
+        }
+        if (magazine.getNumero() <= 0) {
+            throw new IllegalArgumentException("Le numéro doit être positif");
+        }
+        if (magazine.getMois() == null || magazine.getMois().isBlank() || magazine.getMois().length() > 20) {
+            throw new IllegalArgumentException("Le mois est obligatoire (20 caractères au plus)");
+        }
+        if (documentDAO.findById(identifiant) != null) {
+            throw new IllegalArgumentException("Cet identifiant est déjà utilisé");
+        }
+
+        magazine.setDisponible(true);
+        documentDAO.save(magazine);
+        audit.enregistrer(EntreeAudit.Action.MAGAZINE_AJOUTE, "magazine " + identifiant,
+                magazine.getTitre() + " n° " + magazine.getNumero() + " (" + magazine.getMois() + ")");
+    }
+
+    public List<Membre> rechercherMembresActifs() {
+        return membreDAO.findActifs();
     }
 
     /* ============================
-       Historique des emprunts
+       Pagination des membres
        ============================ */
-    public void getHistorique(int membreId) {
+    public int compterMembres(String motCle) {
+        return membreDAO.count(motCle);
+    }
 
-        if (membreId <= 0) {
-            throw new IllegalArgumentException("ID membre invalide");
-        }
+    public int compterMembresActifs() {
+        return membreDAO.countActifs();
+    }
 
-        
+    public List<Membre> getPageMembres(String motCle, RequetePage page) {
+        return membreDAO.findPage(motCle, page);
+    }
+
+    public Membre rechercherParId(int id) {
+        return membreDAO.findById(id);
     }
 
     public void supprimerMembre(int id) {
@@ -152,7 +273,34 @@ public class BibliothequeService {
             throw new IllegalArgumentException("Membre introuvable");
         }
 
-        // Suppression simple via la DAO
+        // Les emprunts du membre partent avec lui (ON DELETE CASCADE) : décrits avant
+        String details = identite(membre) + emprunts(membre);
         membreDAO.delete(id);
+        audit.enregistrer(EntreeAudit.Action.MEMBRE_SUPPRIME, "membre " + id, details);
+        bus.publier(new MembreSupprime(membre));
+    }
+
+    private static String identite(Membre membre) {
+        return membre.getPrenom() + " " + membre.getNom() + " <" + membre.getEmail() + ">"
+                + (membre.isActif() ? "" : " (inactif)");
+    }
+
+    /**
+     * Emprunts du membre pour l'audit de sa suppression : historique complet (archives
+     * comprises, qui restent) et emprunts en cours, supprimés en cascade.
+     */
+    private String emprunts(Membre membre) {
+        if (empruntDAO == null || !audit.isActif()) {
+            return "";
+        }
+        try {
+            int enCours = empruntDAO.countEmpruntEnCours(membre);
+            int historique = empruntDAO.findHistorique(membre.getId(), null, null,
+                    RequetePage.aDecalage("date_emprunt", false, 0, 1)).getTotal();
+            return ", historique de " + historique + " emprunt(s) dont " + enCours
+                    + " en cours, emprunts non archivés supprimés en cascade";
+        } catch (SQLException e) {
+            return ", emprunts non comptés : " + e.getMessage();
+        }
     }
 }
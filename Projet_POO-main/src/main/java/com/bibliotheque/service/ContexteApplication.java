@@ -0,0 +1,179 @@
+package com.bibliotheque.service;
+
+import com.bibliotheque.audit.DestinationAudit;
+import com.bibliotheque.audit.FichierAudit;
+import com.bibliotheque.audit.JournalAudit;
+import com.bibliotheque.dao.DocumentDAO;
+import com.bibliotheque.dao.EmpruntDAO;
+import com.bibliotheque.dao.LivreDAO;
+import com.bibliotheque.dao.MembreDAO;
+import com.bibliotheque.dao.ReservationDAO;
+import com.bibliotheque.dao.impl.ArchivageEmprunts;
+import com.bibliotheque.dao.impl.CatalogueDocuments;
+import com.bibliotheque.dao.impl.FabriqueDAO;
+import com.bibliotheque.dao.impl.JournalModifications;
+import com.bibliotheque.event.BusEvenements;
+import com.bibliotheque.util.Configuration;
+
+import java.nio.file.Path;
+import java.sql.SQLException;
+
+/**
+ * Assemble les DAO et les services partagés de l'application.
+ * Utilisé aussi bien par l'interface JavaFX que par le serveur HTTP,
+ * afin que les deux points d'entrée manipulent le même graphe d'objets.
+ */
+public class ContexteApplication {
+
+    private final BusEvenements bus;
+    private final JournalModifications journal;
+    private final ArchivageEmprunts archivage;
+    private final DocumentDAO documentDAO;
+    private final LivreDAO livreDAO;
+    private final MembreDAO membreDAO;
+    private final EmpruntDAO empruntDAO;
+    private final ReservationDAO reservationDAO;
+    private final BibliothequeService bibliothequeService;
+    private final EmpruntService empruntService;
+    private final LivreService livreService;
+    private final ReservationService reservationService;
+    private final RappelService rappelService;
+    private final IndicateursEmprunts indicateurs;
+    private final JournalAudit audit;
+
+    public ContexteApplication() {
+        this.bus = new BusEvenements();
+        // Implémentations des DAO choisies par la configuration (moteur, shards, catalogue)
+        FabriqueDAO fabrique = new FabriqueDAO();
+        // Schéma à jour avant la première requête
+        migrer(fabrique);
+        // Un seul catalogue pour les livres et les magazines ; les livres en sont une vue
+        CatalogueDocuments catalogue = fabrique.documents();
+        this.documentDAO = catalogue;
+        this.livreDAO = catalogue.livres();
+        // Plusieurs postes partagent la base : le cache des membres est invalidé
+        // par le journal des modifications
+        this.journal = new JournalModifications();
+        this.membreDAO = fabrique.membres(journal);
+        this.empruntDAO = fabrique.emprunts(documentDAO, membreDAO);
+        this.archivage = fabrique.archivage();
+        this.reservationDAO = fabrique.reservations(livreDAO, membreDAO);
+        journal.demarrer();
+        archivage.planifier();
+        // Toutes les écritures des services sont auditées, hors du parcours des requêtes
+        this.audit = journalAudit(fabrique);
+        audit.demarrer();
+        // Les services publient sur le même bus : un abonné voit toutes les écritures.
+        // Les réservations écoutent les retours publiés par le service des emprunts.
+        this.bibliothequeService = new BibliothequeService(documentDAO, livreDAO, membreDAO, empruntDAO, bus, audit);
+        this.reservationService = new ReservationService(reservationDAO, livreDAO, membreDAO, bus);
+        this.empruntService = new EmpruntService(empruntDAO, documentDAO, membreDAO, bus, reservationService, audit);
+        reservationService.planifier();
+        this.livreService = new LivreService(livreDAO, bus, audit);
+        // Indicateurs en direct, alimentés par les emprunts et retours du bus
+        this.indicateurs = new IndicateursEmprunts(empruntDAO, bus);
+        indicateurs.demarrer();
+        // Avis d'échéance : un seul poste doit les envoyer, celui où rappels.actifs=true
+        this.rappelService = new RappelService(empruntDAO, bus);
+        if (Boolean.parseBoolean(Configuration.get("rappels.actifs", "false"))) {
+            rappelService.demarrer();
+        }
+    }
+
+    /**
+     * Applique les migrations du schéma, sauf si {@code db.migrations=false}. Une base
+     * injoignable n'empêche pas le démarrage ; un script modifié après son application, si.
+     */
+    private static void migrer(FabriqueDAO fabrique) {
+        if (!Boolean.parseBoolean(Configuration.get("db.migrations", "true"))) {
+            return;
+        }
+        try {
+            int appliquees = fabrique.migrer();
+            if (appliquees > 0) {
+                System.out.println(appliquees + " migration(s) du schéma appliquée(s)");
+            }
+        } catch (SQLException e) {
+            System.err.println("Migration du schéma impossible : " + e.getMessage());
+        }
+    }
+
+    /**
+     * Journal d'audit choisi par {@code audit.destination} : {@code table}, ou fichier
+     * tournant {@code audit.fichier} par défaut ; aucun si {@code audit.actif=false}.
+     */
+    private static JournalAudit journalAudit(FabriqueDAO fabrique) {
+        if (!Boolean.parseBoolean(Configuration.get("audit.actif", "true"))) {
+            return JournalAudit.aucun();
+        }
+        DestinationAudit destination;
+        if ("table".equalsIgnoreCase(Configuration.get("audit.destination", "fichier"))) {
+            destination = fabrique.audit();
+        } else {
+            destination = new FichierAudit(Path.of(Configuration.get("audit.fichier", "audit.log")),
+                    Configuration.getInt("audit.fichier.taille", 10) * 1024L * 1024L,
+                    Configuration.getInt("audit.fichier.conserves", 10));
+        }
+        return new JournalAudit(destination);
+    }
+
+    public BusEvenements getBus() {
+        return bus;
+    }
+
+    public JournalModifications getJournal() {
+        return journal;
+    }
+
+    public ArchivageEmprunts getArchivage() {
+        return archivage;
+    }
+
+    public DocumentDAO getDocumentDAO() {
+        return documentDAO;
+    }
+
+    public LivreDAO getLivreDAO() {
+        return livreDAO;
+    }
+
+    public MembreDAO getMembreDAO() {
+        return membreDAO;
+    }
+
+    public EmpruntDAO getEmpruntDAO() {
+        return empruntDAO;
+    }
+
+    public BibliothequeService getBibliothequeService() {
+        return bibliothequeService;
+    }
+
+    public EmpruntService getEmpruntService() {
+        return empruntService;
+    }
+
+    public LivreService getLivreService() {
+        return livreService;
+    }
+
+    public ReservationDAO getReservationDAO() {
+        return reservationDAO;
+    }
+
+    public ReservationService getReservationService() {
+        return reservationService;
+    }
+
+    public RappelService getRappelService() {
+        return rappelService;
+    }
+
+    public IndicateursEmprunts getIndicateurs() {
+        return indicateurs;
+    }
+
+    public JournalAudit getAudit() {
+        return audit;
+    }
+}
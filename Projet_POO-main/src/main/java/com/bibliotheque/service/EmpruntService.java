@@ -3,33 +3,66 @@ package com.bibliotheque.service;
 import java.sql.SQLException;
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
-import java.util.ArrayList;
 import java.util.List;
 
+import com.bibliotheque.audit.EntreeAudit;
+import com.bibliotheque.audit.JournalAudit;
+import com.bibliotheque.dao.DocumentDAO;
 import com.bibliotheque.dao.EmpruntDAO;
-import com.bibliotheque.dao.LivreDAO;
+import com.bibliotheque.dao.FiltreEmprunt;
 import com.bibliotheque.dao.MembreDAO;
+import com.bibliotheque.dao.PageHistorique;
+import com.bibliotheque.dao.RequetePage;
+import com.bibliotheque.event.BusEvenements;
+import com.bibliotheque.event.EmpruntCree;
+import com.bibliotheque.event.EmpruntRetourne;
+import com.bibliotheque.event.LivreModifie;
 import com.bibliotheque.exception.LimiteEmpruntDepasseeException;
 import com.bibliotheque.exception.LivreIndisponibleException;
 import com.bibliotheque.exception.MembreInactifException;
+import com.bibliotheque.model.Document;
 import com.bibliotheque.model.Livre;
 import com.bibliotheque.model.Emprunt;
-import com.bibliotheque.model.Membre; 
+import com.bibliotheque.model.Empruntable;
+import com.bibliotheque.model.Membre;
+import com.bibliotheque.util.DatabaseConnection;
+import com.bibliotheque.util.Isbn;
 
 public class EmpruntService{
     EmpruntDAO empruntDAO ;
-    LivreDAO livreDAO ;
+    DocumentDAO documentDAO ;
     MembreDAO membreDAO;
-    public EmpruntService(EmpruntDAO empruntDAO, LivreDAO livreDAO , MembreDAO membreDAO){
+    private final BusEvenements bus;
+    private final ReservationService reservationService;
+    private final JournalAudit audit;
+    public EmpruntService(EmpruntDAO empruntDAO, DocumentDAO documentDAO , MembreDAO membreDAO){
+        this(empruntDAO, documentDAO, membreDAO, new BusEvenements());
+    }
+    public EmpruntService(EmpruntDAO empruntDAO, DocumentDAO documentDAO , MembreDAO membreDAO, BusEvenements bus){
+        this(empruntDAO, documentDAO, membreDAO, bus, null);
+    }
+    /**
+     * @param reservationService les files de réservation à respecter, ou null si les
+     *                           réservations ne sont pas gérées
+     */
+    public EmpruntService(EmpruntDAO empruntDAO, DocumentDAO documentDAO , MembreDAO membreDAO, BusEvenements bus,
+                          ReservationService reservationService){
+        this(empruntDAO, documentDAO, membreDAO, bus, reservationService, JournalAudit.aucun());
+    }
+    public EmpruntService(EmpruntDAO empruntDAO, DocumentDAO documentDAO , MembreDAO membreDAO, BusEvenements bus,
+                          ReservationService reservationService, JournalAudit audit){
         this.empruntDAO = empruntDAO ;
-        this.livreDAO = livreDAO;
+        this.documentDAO = documentDAO;
         this.membreDAO = membreDAO;
+        this.bus = bus;
+        this.reservationService = reservationService;
+        this.audit = audit;
     }
+    /**
+     * @param ISBN l'identifiant du document : ISBN d'un livre ou code d'un magazine
+     */
     public Emprunt emprunterLivre(String ISBN , int member_id) throws LivreIndisponibleException , MembreInactifException , LimiteEmpruntDepasseeException , SQLException {
-        Livre livre = livreDAO.findByIsbn(ISBN);
-        if (livre ==  null){
-            throw new LivreIndisponibleException("Livre Indisponible");
-        }
+        Empruntable document = trouverEmpruntable(ISBN);
         if (membreDAO.findById(member_id) == null){
             throw new MembreInactifException("Membre " + member_id + " inactig");
         }
@@ -38,17 +71,62 @@ public class EmpruntService{
             throw new LimiteEmpruntDepasseeException("Vous avez depassé votre Limite d'emprunt");
         }
         else{
+            // Vérifié et marqué emprunté d'un seul tenant : un second emprunt simultané échoue
+            boolean marque = documentDAO.emprunter(document);
+            if (!marque && !(reservationService != null && document instanceof Livre
+                    && reservationService.retirer((Livre) document, membre))){
+                // Indisponible et pas mis de côté pour ce membre : déjà prêté, ou réservé pour un autre
+                throw new LivreIndisponibleException("Document déjà emprunté : " + ISBN);
+            }
             LocalDate dateemprunt = LocalDate.now();
             LocalDate dateRetourPrevue = LocalDate.now().plusDays(15);
-            Emprunt emprunt = new Emprunt(0, dateemprunt, dateRetourPrevue, null, livre, membre, 0.0);
-            empruntDAO.save(emprunt);
-            livre.emprunter();
-            livreDAO.update(livre);
+            Emprunt emprunt = new Emprunt(0, dateemprunt, dateRetourPrevue, null, document, membre, 0.0);
+            try {
+                empruntDAO.save(emprunt);
+            } catch (SQLException | RuntimeException e) {
+                if (marque) {
+                    // Aucun emprunt enregistré : le document redevient disponible
+                    document.retourner();
+                    documentDAO.update((Document) document);
+                }
+                throw e;
+            }
+            audit.enregistrer(EntreeAudit.Action.EMPRUNT_CREE, "emprunt " + emprunt.getId(),
+                    document.getIdentifiant() + " par le membre " + member_id + ", retour prévu le " + dateRetourPrevue);
+            bus.publier(new EmpruntCree(emprunt));
+            signalerModification(document);
             return emprunt;
         }
 
     }
-    public double calculerPenalite(LocalDate dateRetourPrevue, LocalDate dateEmprunt, LocalDate dateRetourEffective) {
+    /**
+     * @return l'empruntable d'identifiant {@code identifiant}
+     * @throws LivreIndisponibleException s'il n'existe pas ou ne se prête pas
+     */
+    private Empruntable trouverEmpruntable(String identifiant) throws LivreIndisponibleException {
+        // Un ISBN est cherché sous la forme du catalogue, quelle que soit sa saisie
+        Document document = documentDAO.findById(Isbn.cleCatalogue(identifiant));
+        if (!(document instanceof Empruntable)){
+            throw new LivreIndisponibleException("Livre Indisponible");
+        }
+        return (Empruntable) document;
+    }
+
+    /**
+     * Les écrans des livres suivent leur disponibilité ; les autres documents n'y figurent pas.
+     */
+    private void signalerModification(Empruntable document) {
+        if (document instanceof Livre) {
+            bus.publier(new LivreModifie((Livre) document, false));
+        }
+    }
+
+    /**
+     * Pénalité au barème du document : 1,5 DH par jour de retard pour un livre, 1 DH
+     * pour un magazine.
+     */
+    public double calculerPenalite(Empruntable document, LocalDate dateRetourPrevue, LocalDate dateEmprunt,
+                                   LocalDate dateRetourEffective) {
         if (dateRetourPrevue == null || dateEmprunt == null || dateRetourEffective == null) {
             return 0.0;
         }
@@ -58,64 +136,53 @@ public class EmpruntService{
         }
 
         long joursRetard = ChronoUnit.DAYS.between(dateRetourPrevue, dateRetourEffective);
-        double penalite = joursRetard * 1.5;
+        double penalite = document.calculerPenaliteRetard((int) joursRetard);
         return penalite;
     
     }
     public Emprunt RetournerLivre(String ISBN , int member_id) throws LivreIndisponibleException , MembreInactifException , SQLException {
-        Livre livre = livreDAO.findByIsbn(ISBN);
-        if (livre ==  null){
-            throw new LivreIndisponibleException("Livre Indisponible");
-        }
+        Empruntable document = trouverEmpruntable(ISBN);
         if (membreDAO.findById(member_id) == null){
             throw new MembreInactifException("Membre " + member_id + " inactig");
         }
-        Membre membre = membreDAO.findById(member_id);
-        List<Emprunt> empruntsEnCours = empruntDAO.findEnCours();
-        Emprunt empruntActuel = null;
-        for ( Emprunt ept : empruntsEnCours){
-            if (ept.getLivre().getIsbn().equals(ISBN)){
-                empruntActuel = ept;
-                break;
-            }
+        Emprunt empruntActuel;
+        // L'emprunt à clôturer peut dater de quelques instants : pas encore sur les répliques
+        DatabaseConnection.Epinglage primaire = DatabaseConnection.getInstance().epinglerPrimaire();
+        try {
+            empruntActuel = empruntDAO.findEnCours(document);
+        } finally {
+            primaire.close();
+        }
+        if (empruntActuel == null){
+            throw new LivreIndisponibleException("Aucun emprunt en cours pour le document " + ISBN);
+        }
+        // L'emprunt garde son membre : c'est lui qui désigne le shard et la ligne à clôturer
+        Membre membre = empruntActuel.getMembre();
+        if (membre == null || membre.getId() != member_id){
+            throw new LivreIndisponibleException("Le document " + ISBN + " n'est pas emprunté par le membre " + member_id);
         }
         LocalDate dateRetourPrevue = empruntActuel.getdateRetourPrevue() ; 
         LocalDate dateRetourEffective = LocalDate.now();
         LocalDate dateEmprunt = empruntActuel.getDateEmprunt();
-        if (calculerPenalite(dateRetourPrevue, dateEmprunt, dateRetourEffective)==0.0){
-
-            Emprunt emprunt = new Emprunt(empruntActuel.getId(),dateEmprunt,dateRetourPrevue,dateRetourEffective,livre,membre,0.0);
-            empruntDAO.update(emprunt);
-            livreDAO.update(livre);
-            System.out.print("Pas de pénalité");
-            return emprunt;
-        }
-        else {
-            double penalite = calculerPenalite(dateRetourPrevue, dateEmprunt, dateRetourEffective);
-            Emprunt emprunt = new Emprunt(empruntActuel.getId(),dateEmprunt,dateRetourPrevue,dateRetourEffective,livre,membre,penalite);
-            empruntDAO.update(emprunt);
-            livreDAO.update(livre);
-            System.out.print("pénalité de " + penalite + "DH");
-            return emprunt;
-        }
-
-
-
+        double penalite = calculerPenalite(document, dateRetourPrevue, dateEmprunt, dateRetourEffective);
+        Emprunt emprunt = new Emprunt(empruntActuel.getId(),dateEmprunt,dateRetourPrevue,dateRetourEffective,document,membre,penalite);
+        // Échoue si aucune ligne n'est clôturée : le document reste alors emprunté
+        empruntDAO.update(emprunt);
+        document.retourner();
+        documentDAO.update((Document) document);
+        auditerRetour(emprunt);
+        bus.publier(new EmpruntRetourne(emprunt));
+        signalerModification(document);
+        return emprunt;
+    }
+    private void auditerRetour(Emprunt emprunt) {
+        audit.enregistrer(EntreeAudit.Action.EMPRUNT_RETOURNE, "emprunt " + emprunt.getId(),
+                emprunt.getDocument().getIdentifiant() + " par le membre " + emprunt.getMembre().getId()
+                        + ", pénalité " + emprunt.getPenalite());
     }
     public List<Emprunt> getEmpruntEnRetard() throws SQLException{
-        LocalDate DateToday = LocalDate.now();
-        List<Emprunt> EmpruntEnRetard = new ArrayList<>();
-        List<Emprunt> ToutEmprunt = empruntDAO.findAll();
-        for (Emprunt emprunt : ToutEmprunt){
-            LocalDate PreviewDate = emprunt.getdateRetourPrevue() ; 
-            LocalDate EmpruntDate = emprunt.getDateEmprunt();
-            if (calculerPenalite(PreviewDate, EmpruntDate, DateToday) > 0.0){
-                EmpruntEnRetard.add(emprunt);
-            }
-            
-        }
-        return EmpruntEnRetard ;
-
+        // Filtré par la base : seuls les emprunts non rendus dont la date prévue est dépassée
+        return empruntDAO.findEnRetard(LocalDate.now());
 
     }
 
@@ -129,6 +196,39 @@ public class EmpruntService{
         return empruntDAO.findEnCours();
     }
 
+    // Pagination of the loans table: counting and sorting are done by the database
+    public int compterEmprunts(FiltreEmprunt filtre) throws SQLException {
+        return empruntDAO.count(filtre);
+    }
+
+    public List<Emprunt> getPageEmprunts(FiltreEmprunt filtre, RequetePage page) throws SQLException {
+        return empruntDAO.findPage(filtre, page);
+    }
+
+    /**
+     * Première page de l'historique d'un membre, du plus récent au plus ancien, avec le
+     * nombre d'emprunts et le total des pénalités de la période.
+     *
+     * @param du première date d'emprunt incluse, ou null
+     * @param au dernière date d'emprunt incluse, ou null
+     */
+    public PageHistorique getHistorique(int membreId, LocalDate du, LocalDate au, int taille) throws SQLException {
+        return getHistorique(membreId, du, au, RequetePage.aDecalage("date_emprunt", false, 0, taille));
+    }
+
+    /**
+     * @param page la page voulue, par exemple {@link PageHistorique#suivante} de la précédente
+     */
+    public PageHistorique getHistorique(int membreId, LocalDate du, LocalDate au, RequetePage page) throws SQLException {
+        if (membreId <= 0) {
+            throw new IllegalArgumentException("ID membre invalide");
+        }
+        if (du != null && au != null && du.isAfter(au)) {
+            throw new IllegalArgumentException("La date de début doit précéder la date de fin");
+        }
+        return empruntDAO.findHistorique(membreId, du, au, page);
+    }
+
     // Wrapper to match controller's lowercase method name
     public Emprunt retournerLivre(String ISBN, int member_id) throws LivreIndisponibleException, MembreInactifException, SQLException {
         return RetournerLivre(ISBN, member_id);
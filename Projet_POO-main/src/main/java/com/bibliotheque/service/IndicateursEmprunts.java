@@ -0,0 +1,237 @@
+package com.bibliotheque.service;
+
+import com.bibliotheque.dao.EmpruntDAO;
+import com.bibliotheque.dao.FiltreEmprunt;
+import com.bibliotheque.event.BusEvenements;
+import com.bibliotheque.event.EmpruntCree;
+import com.bibliotheque.event.EmpruntRetourne;
+import com.bibliotheque.model.Emprunt;
+import com.bibliotheque.util.Configuration;
+import com.bibliotheque.util.FenetreGlissante;
+
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Indicateurs des emprunts en direct, pour le tableau de bord et {@code /api/indicateurs} :
+ * emprunts et retours de la dernière minute, de la dernière heure et des dernières 24
+ * heures, emprunts en cours et en retard, pénalités du jour.
+ * <p>
+ * Les compteurs sont alimentés par les emprunts et retours publiés sur le bus, dans des
+ * {@link FenetreGlissante} sans verrou : l'abonnement ne coûte au parcours d'emprunt que
+ * quelques additions, et {@link #instantane()} ne lit qu'un nombre fixe de cases, sans
+ * requête. Les débits et les pénalités sont ceux de ce processus. Les emprunts en cours
+ * et en retard sont comptés en base au démarrage, puis recalés toutes les
+ * {@code indicateurs.recalage.minutes} minutes (écritures des autres postes, emprunts
+ * passés en retard à minuit).
+ */
+public class IndicateursEmprunts {
+
+    private static final int EMPRUNTS = 0;
+    private static final int RETOURS = 1;
+    // En centimes : les fenêtres ne comptent que des entiers
+    private static final int PENALITES = 2;
+    private static final int GRANDEURS = 3;
+
+    private final EmpruntDAO empruntDAO;
+    private final FenetreGlissante minute = new FenetreGlissante(60, 1_000, GRANDEURS);
+    private final FenetreGlissante heure = new FenetreGlissante(60, 60_000, GRANDEURS);
+    private final FenetreGlissante jour = new FenetreGlissante(24, 3_600_000, GRANDEURS);
+    // Une seule case d'un jour, en heure locale : remise à zéro à minuit
+    private final FenetreGlissante aujourdhui = new FenetreGlissante(1, 86_400_000, GRANDEURS);
+    private final AtomicLong enCours = new AtomicLong();
+    private final AtomicLong enRetard = new AtomicLong();
+    private volatile long recaleA;
+    private ScheduledExecutorService planificateur;
+
+    public IndicateursEmprunts(EmpruntDAO empruntDAO, BusEvenements bus) {
+        this.empruntDAO = empruntDAO;
+        bus.abonner(EmpruntCree.class, e -> emprunte());
+        bus.abonner(EmpruntRetourne.class, e -> retourne(e.getEmprunt()));
+    }
+
+    /**
+     * Compte les emprunts en cours et en retard, puis les recale périodiquement.
+     */
+    public synchronized void demarrer() {
+        if (planificateur != null) {
+            return;
+        }
+        int minutes = Math.max(1, Configuration.getInt("indicateurs.recalage.minutes", 15));
+        planificateur = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "indicateurs");
+            t.setDaemon(true);
+            return t;
+        });
+        planificateur.scheduleWithFixedDelay(this::recaler, 0, minutes, TimeUnit.MINUTES);
+    }
+
+    public synchronized void arreter() {
+        if (planificateur != null) {
+            planificateur.shutdownNow();
+            planificateur = null;
+        }
+    }
+
+    void recaler() {
+        try {
+            enCours.set(empruntDAO.count(FiltreEmprunt.EN_COURS));
+            enRetard.set(empruntDAO.count(FiltreEmprunt.EN_RETARD));
+            recaleA = System.currentTimeMillis();
+        } catch (SQLException | RuntimeException e) {
+            System.err.println("Recalage des indicateurs impossible : " + e.getMessage());
+        }
+    }
+
+    private void emprunte() {
+        long maintenant = System.currentTimeMillis();
+        ajouter(maintenant, EMPRUNTS, 1);
+        enCours.incrementAndGet();
+    }
+
+    private void retourne(Emprunt emprunt) {
+        long maintenant = System.currentTimeMillis();
+        ajouter(maintenant, RETOURS, 1);
+        long centimes = Math.round(emprunt.getPenalite() * 100);
+        if (centimes != 0) {
+            ajouter(maintenant, PENALITES, centimes);
+        }
+        enCours.decrementAndGet();
+        // Compté en retard s'il l'était au dernier passage de minuit
+        LocalDate prevue = emprunt.getdateRetourPrevue();
+        if (prevue != null && prevue.isBefore(LocalDate.now())) {
+            enRetard.decrementAndGet();
+        }
+    }
+
+    private void ajouter(long maintenant, int grandeur, long valeur) {
+        minute.ajouter(maintenant, grandeur, valeur);
+        heure.ajouter(maintenant, grandeur, valeur);
+        jour.ajouter(maintenant, grandeur, valeur);
+        aujourdhui.ajouter(local(maintenant), grandeur, valeur);
+    }
+
+    private static long local(long instantMs) {
+        return instantMs + ZoneId.systemDefault().getRules()
+                .getOffset(Instant.ofEpochMilli(instantMs)).getTotalSeconds() * 1000L;
+    }
+
+    /**
+     * @return les indicateurs à cet instant, sans requête à la base
+     */
+    public Instantane instantane() {
+        long maintenant = System.currentTimeMillis();
+        long local = local(maintenant);
+        return new Instantane(maintenant, recaleA,
+                minute.total(maintenant, EMPRUNTS), minute.total(maintenant, RETOURS),
+                heure.total(maintenant, EMPRUNTS), heure.total(maintenant, RETOURS),
+                jour.total(maintenant, EMPRUNTS), jour.total(maintenant, RETOURS),
+                aujourdhui.total(local, EMPRUNTS), aujourdhui.total(local, RETOURS),
+                Math.max(0, enCours.get()), Math.max(0, enRetard.get()),
+                aujourdhui.total(local, PENALITES) / 100.0);
+    }
+
+    /**
+     * Valeurs des indicateurs à un instant donné.
+     */
+    public static final class Instantane {
+        private final long horodatage;
+        private final long recaleA;
+        private final long empruntsMinute;
+        private final long retoursMinute;
+        private final long empruntsHeure;
+        private final long retoursHeure;
+        private final long emprunts24h;
+        private final long retours24h;
+        private final long empruntsJour;
+        private final long retoursJour;
+        private final long enCours;
+        private final long enRetard;
+        private final double penalitesJour;
+
+        Instantane(long horodatage, long recaleA, long empruntsMinute, long retoursMinute,
+                   long empruntsHeure, long retoursHeure, long emprunts24h, long retours24h,
+                   long empruntsJour, long retoursJour, long enCours, long enRetard, double penalitesJour) {
+            this.horodatage = horodatage;
+            this.recaleA = recaleA;
+            this.empruntsMinute = empruntsMinute;
+            this.retoursMinute = retoursMinute;
+            this.empruntsHeure = empruntsHeure;
+            this.retoursHeure = retoursHeure;
+            this.emprunts24h = emprunts24h;
+            this.retours24h = retours24h;
+            this.empruntsJour = empruntsJour;
+            this.retoursJour = retoursJour;
+            this.enCours = enCours;
+            this.enRetard = enRetard;
+            this.penalitesJour = penalitesJour;
+        }
+
+        public long getHorodatage() {
+            return horodatage;
+        }
+
+        /**
+         * @return l'instant du dernier comptage en base des emprunts en cours et en
+         *         retard, 0 s'il n'a pas encore eu lieu
+         */
+        public long getRecaleA() {
+            return recaleA;
+        }
+
+        /** Emprunts des 60 dernières secondes. */
+        public long getEmpruntsMinute() {
+            return empruntsMinute;
+        }
+
+        public long getRetoursMinute() {
+            return retoursMinute;
+        }
+
+        /** Emprunts des 60 dernières minutes. */
+        public long getEmpruntsHeure() {
+            return empruntsHeure;
+        }
+
+        public long getRetoursHeure() {
+            return retoursHeure;
+        }
+
+        /** Emprunts des 24 dernières heures. */
+        public long getEmprunts24h() {
+            return emprunts24h;
+        }
+
+        public long getRetours24h() {
+            return retours24h;
+        }
+
+        /** Emprunts depuis minuit. */
+        public long getEmpruntsJour() {
+            return empruntsJour;
+        }
+
+        public long getRetoursJour() {
+            return retoursJour;
+        }
+
+        public long getEnCours() {
+            return enCours;
+        }
+
+        public long getEnRetard() {
+            return enRetard;
+        }
+
+        /** Pénalités des retours depuis minuit. */
+        public double getPenalitesJour() {
+            return penalitesJour;
+        }
+    }
+}
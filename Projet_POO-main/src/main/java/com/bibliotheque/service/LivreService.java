@@ -1,18 +1,87 @@
 package com.bibliotheque.service;
 
+import com.bibliotheque.audit.EntreeAudit;
+import com.bibliotheque.audit.JournalAudit;
 import com.bibliotheque.dao.LivreDAO;
 import com.bibliotheque.dao.impl.LivreDAOImpl;
+import com.bibliotheque.event.BusEvenements;
+import com.bibliotheque.event.CatalogueImporte;
+import com.bibliotheque.event.LivreModifie;
+import com.bibliotheque.event.LivreSupprime;
 import com.bibliotheque.exception.LivreIndisponibleException;
+import com.bibliotheque.importation.ImportCatalogue;
+import com.bibliotheque.importation.LecteurCatalogue;
+import com.bibliotheque.importation.RapportImport;
 import com.bibliotheque.model.Livre;
+import com.bibliotheque.util.Isbn;
+import com.bibliotheque.util.StringValidator;
 
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 
 public class LivreService {
 
-    private LivreDAO livreDAO = new LivreDAOImpl();
+    private final LivreDAO livreDAO;
+    private final BusEvenements bus;
+    private final JournalAudit audit;
+
+    public LivreService() {
+        this(new LivreDAOImpl(), new BusEvenements());
+    }
+
+    public LivreService(LivreDAO livreDAO, BusEvenements bus) {
+        this(livreDAO, bus, JournalAudit.aucun());
+    }
+
+    public LivreService(LivreDAO livreDAO, BusEvenements bus, JournalAudit audit) {
+        this.livreDAO = livreDAO;
+        this.bus = bus;
+        this.audit = audit;
+    }
 
     public void ajouterLivre(Livre livre) {
+        if (livre == null) {
+            throw new IllegalArgumentException("Le livre ne peut pas être null");
+        }
+        String motif = StringValidator.verifierISBN(livre.getIsbn());
+        if (motif == null) {
+            motif = StringValidator.verifierTitre(livre.getTitre());
+        }
+        if (motif != null) {
+            throw new IllegalArgumentException(motif);
+        }
+        String isbn = Isbn.normaliser(livre.getIsbn());
+        if (!isbn.equals(livre.getIsbn())) {
+            // Enregistré sous la forme du catalogue, comme à l'import : les recherches la retrouvent
+            Livre normalise = new Livre(isbn, livre.getTitre(), livre.getCodeAuteur());
+            if (!livre.isDisponible()) {
+                normalise.emprunter();
+            }
+            livre = normalise;
+        }
         livreDAO.save(livre);
+        audit.enregistrer(EntreeAudit.Action.LIVRE_AJOUTE, "livre " + livre.getIsbn(),
+                livre.getTitre() + " / " + livre.getAuteur());
+        bus.publier(new LivreModifie(livre, true));
+    }
+
+    /**
+     * Importe un fichier de catalogue (CSV, ou MARC texte pour {@code .mrk}). Les
+     * notices rejetées sont décrites dans {@code rejets}.
+     */
+    public RapportImport importerCatalogue(Path fichier, Path rejets) throws IOException {
+        RapportImport rapport;
+        try (LecteurCatalogue lecteur = LecteurCatalogue.ouvrir(fichier);
+             Writer rapportRejets = Files.newBufferedWriter(rejets, StandardCharsets.UTF_8)) {
+            rapport = new ImportCatalogue(livreDAO).importer(lecteur, rapportRejets);
+        }
+        audit.enregistrer(EntreeAudit.Action.CATALOGUE_IMPORTE, "fichier " + fichier.getFileName(), rapport.toString());
+        bus.publier(new CatalogueImporte(rapport));
+        return rapport;
     }
 
     public List<Livre> listerLivres() {
@@ -20,19 +89,29 @@ public class LivreService {
     }
 
     public Livre chercherParIsbn(String isbn) {
-        return livreDAO.findByIsbn(isbn);
+        return livreDAO.findByIsbn(Isbn.cleCatalogue(isbn));
     }
 
     public void supprimerLivre(String isbn) {
+        isbn = Isbn.cleCatalogue(isbn);
+        Livre livre = livreDAO.findByIsbn(isbn);
         livreDAO.delete(isbn);
+        audit.enregistrer(EntreeAudit.Action.LIVRE_SUPPRIME, "livre " + isbn,
+                livre != null ? livre.getTitre() + " / " + livre.getAuteur() : null);
+        if (livre != null) {
+            bus.publier(new LivreSupprime(livre));
+        }
     }
 
     public void emprunterLivre(String isbn) throws LivreIndisponibleException {
+        isbn = Isbn.cleCatalogue(isbn);
         Livre livre = livreDAO.findByIsbn(isbn);
         if (livre == null || !livre.isDisponible()) {
             throw new LivreIndisponibleException("Livre indisponible : " + isbn);
         }
         livre.emprunter();
         livreDAO.update(livre);
+        audit.enregistrer(EntreeAudit.Action.LIVRE_EMPRUNTE, "livre " + isbn, null);
+        bus.publier(new LivreModifie(livre, false));
     }
 }
@@ -0,0 +1,292 @@
+package com.bibliotheque.service;
+
+import com.bibliotheque.dao.EmpruntDAO;
+import com.bibliotheque.event.BusEvenements;
+import com.bibliotheque.event.EmpruntCree;
+import com.bibliotheque.event.EmpruntRetourne;
+import com.bibliotheque.model.Emprunt;
+import com.bibliotheque.rappel.Expediteur;
+import com.bibliotheque.rappel.ExpediteurJournal;
+import com.bibliotheque.rappel.ExpediteurSmtp;
+import com.bibliotheque.rappel.LimiteurDebit;
+import com.bibliotheque.rappel.Notification;
+import com.bibliotheque.rappel.RoueTemporelle;
+import com.bibliotheque.util.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rappels d'échéance des emprunts en cours : un avis « à rendre le ... » quelques jours
+ * avant la date prévue, puis un avis de retard le lendemain, renouvelé périodiquement
+ * tant que le livre n'est pas rendu.
+ * <p>
+ * Les échéances sont gardées dans une {@link RoueTemporelle} à l'heure près : chaque
+ * minute, seule la case de l'heure courante est examinée, sans relire la table des
+ * emprunts. La roue est alimentée par les emprunts et retours publiés sur le bus, et
+ * reconstruite une fois par jour pour tenir compte des autres postes.
+ * <p>
+ * Les avis partent par lots vers l'{@link Expediteur} configuré, avec un débit limité
+ * et de nouvelles tentatives espacées en cas d'échec.
+ */
+public class RappelService {
+
+    private static final long SECONDES_PAR_CRAN = 3600;
+
+    private final EmpruntDAO empruntDAO;
+    private final Expediteur expediteur;
+    private final LimiteurDebit limiteur;
+    private final int joursAvant;
+    private final int heure;
+    private final int relanceJours;
+    private final int tailleLot;
+    private final int tentatives;
+
+    private final BlockingQueue<Notification> aEnvoyer = new LinkedBlockingQueue<>();
+    private RoueTemporelle<Rappel> roue = new RoueTemporelle<>(cran(LocalDateTime.now()));
+    private final Map<Integer, List<RoueTemporelle.Minuterie<Rappel>>> parEmprunt = new HashMap<>();
+    private ScheduledExecutorService planificateur;
+    private Thread envoi;
+
+    /**
+     * Échéance d'un avis : seul l'id de l'emprunt est gardé, l'emprunt est relu à l'envoi.
+     */
+    private static final class Rappel {
+        final int empruntId;
+        final Notification.Type type;
+        final LocalDate dateRetourPrevue;
+
+        Rappel(int empruntId, Notification.Type type, LocalDate dateRetourPrevue) {
+            this.empruntId = empruntId;
+            this.type = type;
+            this.dateRetourPrevue = dateRetourPrevue;
+        }
+    }
+
+    public RappelService(EmpruntDAO empruntDAO, BusEvenements bus) {
+        this(empruntDAO, bus, expediteurConfigure());
+    }
+
+    public RappelService(EmpruntDAO empruntDAO, BusEvenements bus, Expediteur expediteur) {
+        this.empruntDAO = empruntDAO;
+        this.expediteur = expediteur;
+        this.limiteur = new LimiteurDebit(Configuration.getInt("rappels.parMinute", 60));
+        this.joursAvant = Configuration.getInt("rappels.joursAvant", 2);
+        this.heure = Configuration.getInt("rappels.heure", 9);
+        this.relanceJours = Configuration.getInt("rappels.relanceJours", 7);
+        this.tailleLot = Math.max(1, Configuration.getInt("rappels.lot", 20));
+        this.tentatives = Math.max(1, Configuration.getInt("rappels.tentatives", 5));
+        bus.abonner(EmpruntCree.class, e -> planifier(e.getEmprunt()));
+        bus.abonner(EmpruntRetourne.class, e -> annuler(e.getEmprunt().getId()));
+    }
+
+    /**
+     * Expéditeur choisi par {@code rappels.expediteur} : {@code smtp}, ou {@code journal}
+     * (fichier {@code rappels.fichier}) par défaut.
+     */
+    private static Expediteur expediteurConfigure() {
+        if ("smtp".equalsIgnoreCase(Configuration.get("rappels.expediteur", "journal"))) {
+            return new ExpediteurSmtp(Configuration.get("rappels.smtp.hote", "localhost"),
+                    Configuration.getInt("rappels.smtp.port", 25),
+                    Configuration.get("rappels.smtp.expediteur", "bibliotheque@localhost"));
+        }
+        return new ExpediteurJournal(Path.of(Configuration.get("rappels.fichier", "rappels.log")));
+    }
+
+    private static long cran(LocalDateTime moment) {
+        return moment.atZone(ZoneId.systemDefault()).toEpochSecond() / SECONDES_PAR_CRAN;
+    }
+
+    private long cran(LocalDate jour) {
+        return cran(jour.atTime(heure, 0));
+    }
+
+    /**
+     * Démarre le traitement : chargement des emprunts en cours, examen de la roue chaque
+     * minute, reconstruction quotidienne et envoi des avis.
+     */
+    public synchronized void demarrer() {
+        if (planificateur != null) {
+            return;
+        }
+        planificateur = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "rappels");
+            t.setDaemon(true);
+            return t;
+        });
+        planificateur.scheduleWithFixedDelay(this::recharger, 0, 1, TimeUnit.DAYS);
+        planificateur.scheduleWithFixedDelay(this::avancer, 1, 1, TimeUnit.MINUTES);
+        envoi = new Thread(this::envoyerEnContinu, "rappels-envoi");
+        envoi.setDaemon(true);
+        envoi.start();
+    }
+
+    public synchronized void arreter() {
+        if (planificateur != null) {
+            planificateur.shutdownNow();
+            planificateur = null;
+        }
+        if (envoi != null) {
+            envoi.interrupt();
+            envoi = null;
+        }
+        expediteur.fermer();
+    }
+
+    /**
+     * Reconstruit la roue à partir des emprunts en cours. Seules les échéances à venir
+     * sont planifiées : un avis déjà parti n'est pas renvoyé.
+     */
+    void recharger() {
+        List<Emprunt> enCours;
+        try {
+            enCours = empruntDAO.findEnCours();
+        } catch (SQLException e) {
+            System.err.println("Chargement des rappels impossible : " + e.getMessage());
+            return;
+        }
+        synchronized (this) {
+            roue = new RoueTemporelle<>(cran(LocalDateTime.now()));
+            parEmprunt.clear();
+            enCours.forEach(this::planifier);
+        }
+    }
+
+    synchronized void planifier(Emprunt emprunt) {
+        LocalDate prevue = emprunt.getdateRetourPrevue();
+        if (prevue == null || emprunt.getdateRetourEffective() != null) {
+            return;
+        }
+        List<RoueTemporelle.Minuterie<Rappel>> minuteries = new ArrayList<>(2);
+        long echeanceProche = cran(prevue.minusDays(joursAvant));
+        if (joursAvant > 0 && echeanceProche > roue.getCourant()) {
+            minuteries.add(roue.planifier(echeanceProche,
+                    new Rappel(emprunt.getId(), Notification.Type.ECHEANCE_PROCHE, prevue)));
+        }
+        long retard = prochainRetard(prevue);
+        if (retard > 0) {
+            minuteries.add(roue.planifier(retard, new Rappel(emprunt.getId(), Notification.Type.RETARD, prevue)));
+        }
+        if (!minuteries.isEmpty()) {
+            parEmprunt.put(emprunt.getId(), minuteries);
+        }
+    }
+
+    /**
+     * Les avis de retard tombent le lendemain de la date prévue puis tous les
+     * {@code rappels.relanceJours} jours : la prochaine de ces dates à venir, ou 0.
+     */
+    private long prochainRetard(LocalDate prevue) {
+        LocalDate jour = prevue.plusDays(1);
+        while (cran(jour) <= roue.getCourant()) {
+            if (relanceJours <= 0) {
+                return 0;
+            }
+            jour = jour.plusDays(relanceJours);
+        }
+        return cran(jour);
+    }
+
+    synchronized void annuler(int empruntId) {
+        List<RoueTemporelle.Minuterie<Rappel>> minuteries = parEmprunt.remove(empruntId);
+        if (minuteries != null) {
+            minuteries.forEach(RoueTemporelle.Minuterie::annuler);
+        }
+    }
+
+    private void avancer() {
+        List<Rappel> echus = new ArrayList<>();
+        synchronized (this) {
+            roue.avancer(cran(LocalDateTime.now()), echus::add);
+        }
+        for (Rappel rappel : echus) {
+            try {
+                preparer(rappel);
+            } catch (SQLException e) {
+                System.err.println("Rappel de l'emprunt " + rappel.empruntId + " impossible : " + e.getMessage());
+            }
+        }
+    }
+
+    private void preparer(Rappel rappel) throws SQLException {
+        // Relu pour ignorer un retour enregistré sur un autre poste
+        Emprunt emprunt = empruntDAO.findById(rappel.empruntId);
+        if (emprunt == null || emprunt.getdateRetourEffective() != null || emprunt.getMembre() == null) {
+            synchronized (this) {
+                parEmprunt.remove(rappel.empruntId);
+            }
+            return;
+        }
+        if (rappel.type == Notification.Type.RETARD && relanceJours > 0) {
+            synchronized (this) {
+                List<RoueTemporelle.Minuterie<Rappel>> minuteries = parEmprunt.computeIfAbsent(
+                        rappel.empruntId, id -> new ArrayList<>(1));
+                minuteries.removeIf(m -> m.getValeur().type == Notification.Type.RETARD);
+                minuteries.add(roue.planifier(prochainRetard(rappel.dateRetourPrevue), rappel));
+            }
+        } else if (rappel.type == Notification.Type.RETARD) {
+            synchronized (this) {
+                parEmprunt.remove(rappel.empruntId);
+            }
+        }
+        aEnvoyer.add(new Notification(rappel.type, emprunt.getId(), emprunt.getMembre().getEmail(),
+                emprunt.getMembre().getPrenom() + " " + emprunt.getMembre().getNom(),
+                emprunt.getDocument() != null ? emprunt.getDocument().getTitre() : "?", rappel.dateRetourPrevue));
+    }
+
+    private void envoyerEnContinu() {
+        List<Notification> lot = new ArrayList<>(tailleLot);
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                lot.add(aEnvoyer.take());
+                aEnvoyer.drainTo(lot, tailleLot - 1);
+                limiteur.acquerir(lot.size());
+                envoyer(lot);
+                lot.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Envoie un lot ; après un échec, les avis restants sont représentés avec une attente
+     * doublée à chaque fois (2 s, 4 s, 8 s...).
+     */
+    private void envoyer(List<Notification> lot) throws InterruptedException {
+        long attente = 2000;
+        for (int tentative = 1; ; tentative++) {
+            try {
+                expediteur.envoyer(lot);
+                return;
+            } catch (IOException e) {
+                if (tentative >= tentatives) {
+                    System.err.println(lot.size() + " rappels non envoyés : " + e.getMessage());
+                    return;
+                }
+                Thread.sleep(attente);
+                attente *= 2;
+            }
+        }
+    }
+
+    /**
+     * @return le nombre d'échéances en attente dans la roue
+     */
+    public synchronized int getEcheancesEnAttente() {
+        return roue.taille();
+    }
+}
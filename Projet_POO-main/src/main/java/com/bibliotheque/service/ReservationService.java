@@ -0,0 +1,213 @@
+package com.bibliotheque.service;
+
+import com.bibliotheque.dao.LivreDAO;
+import com.bibliotheque.dao.MembreDAO;
+import com.bibliotheque.dao.ReservationDAO;
+import com.bibliotheque.event.BusEvenements;
+import com.bibliotheque.event.EmpruntRetourne;
+import com.bibliotheque.event.LivreModifie;
+import com.bibliotheque.event.ReservationDisponible;
+import com.bibliotheque.event.ReservationExpiree;
+import com.bibliotheque.exception.LivreIndisponibleException;
+import com.bibliotheque.exception.MembreInactifException;
+import com.bibliotheque.model.Livre;
+import com.bibliotheque.model.Membre;
+import com.bibliotheque.model.Reservation;
+import com.bibliotheque.util.Configuration;
+import com.bibliotheque.util.Isbn;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Files de réservation des livres indisponibles.
+ * <p>
+ * À chaque retour ({@link EmpruntRetourne}), le livre est mis de côté pour la première
+ * réservation de sa file, qui dispose de {@code reservations.delaiRetrait} jours pour
+ * l'emprunter. Un balayage périodique expire les réservations non retirées et sert
+ * la suivante.
+ */
+public class ReservationService {
+
+    private final ReservationDAO reservationDAO;
+    private final LivreDAO livreDAO;
+    private final MembreDAO membreDAO;
+    private final BusEvenements bus;
+    private final int delaiRetrait;
+    private ScheduledExecutorService planificateur;
+
+    public ReservationService(ReservationDAO reservationDAO, LivreDAO livreDAO, MembreDAO membreDAO,
+                              BusEvenements bus) {
+        this.reservationDAO = reservationDAO;
+        this.livreDAO = livreDAO;
+        this.membreDAO = membreDAO;
+        this.bus = bus;
+        this.delaiRetrait = Configuration.getInt("reservations.delaiRetrait", 3);
+        // Abonnement synchrone : le livre est attribué avant la fin du retour
+        bus.abonner(EmpruntRetourne.class, e -> {
+            try {
+                servirSuivante(e.getEmprunt().getLivre());
+            } catch (SQLException ex) {
+                System.err.println("Attribution de la réservation impossible : " + ex.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Inscrit un membre dans la file d'un livre indisponible.
+     *
+     * @param priorite 0 pour une réservation ordinaire ; les plus grandes passent devant
+     */
+    public Reservation reserver(String isbn, int membreId, int priorite) throws MembreInactifException, SQLException {
+        isbn = Isbn.cleCatalogue(isbn);
+        Livre livre = livreDAO.findByIsbn(isbn);
+        if (livre == null) {
+            throw new IllegalArgumentException("Livre introuvable : " + isbn);
+        }
+        Membre membre = membreDAO.findById(membreId);
+        if (membre == null || !membre.isActif()) {
+            throw new MembreInactifException("Membre " + membreId + " inactif");
+        }
+        if (livre.isDisponible()) {
+            throw new IllegalArgumentException("Ce livre est disponible : il peut être emprunté directement");
+        }
+        for (Reservation existante : reservationDAO.findActives(membreId)) {
+            if (existante.getLivre() != null && existante.getLivre().getIsbn().equals(isbn)) {
+                throw new IllegalArgumentException("Ce membre a déjà réservé ce livre");
+            }
+        }
+        Reservation reservation = new Reservation(0, livre, membre, priorite, LocalDate.now(),
+                Reservation.Statut.EN_ATTENTE, null);
+        reservationDAO.save(reservation);
+        return reservation;
+    }
+
+    public Reservation reserver(String isbn, int membreId) throws MembreInactifException, SQLException {
+        return reserver(isbn, membreId, 0);
+    }
+
+    /**
+     * Annule une réservation ; si le livre était mis de côté, il passe à la suivante.
+     *
+     * @return la réservation, dans son nouvel état
+     */
+    public Reservation annuler(int id) throws SQLException {
+        Reservation reservation = reservationDAO.findById(id);
+        if (reservation == null) {
+            throw new IllegalArgumentException("Réservation introuvable");
+        }
+        Reservation.Statut statut = reservation.getStatut();
+        if (statut != Reservation.Statut.EN_ATTENTE && statut != Reservation.Statut.DISPONIBLE) {
+            return reservation;
+        }
+        reservation.setStatut(Reservation.Statut.ANNULEE);
+        reservationDAO.updateStatut(reservation);
+        if (statut == Reservation.Statut.DISPONIBLE) {
+            servirSuivante(reservation.getLivre());
+        }
+        return reservation;
+    }
+
+    public List<Reservation> getFileAttente(String isbn) throws SQLException {
+        return reservationDAO.findEnAttente(Isbn.cleCatalogue(isbn));
+    }
+
+    public List<Reservation> getReservations(int membreId) throws SQLException {
+        return reservationDAO.findActives(membreId);
+    }
+
+    /**
+     * Remet au membre qui emprunte le livre mis de côté pour sa réservation, qui est alors
+     * honorée.
+     *
+     * @return false si le livre n'est mis de côté pour personne
+     * @throws LivreIndisponibleException si le livre est réservé pour un autre membre, ou
+     *                                    si la réservation vient d'être honorée ailleurs
+     */
+    boolean retirer(Livre livre, Membre membre) throws LivreIndisponibleException, SQLException {
+        Reservation reservation = reservationDAO.findDisponible(livre.getIsbn());
+        if (reservation == null) {
+            return false;
+        }
+        if (reservation.getMembre() == null || reservation.getMembre().getId() != membre.getId()) {
+            throw new LivreIndisponibleException("Livre réservé pour un autre membre jusqu'au "
+                    + reservation.getDateLimite());
+        }
+        if (!reservationDAO.honorer(reservation)) {
+            throw new LivreIndisponibleException("Réservation déjà honorée : " + livre.getIsbn());
+        }
+        return true;
+    }
+
+    /**
+     * Met le livre de côté pour la première réservation de sa file, ou le rend
+     * disponible si la file est vide.
+     */
+    private void servirSuivante(Livre livre) throws SQLException {
+        if (livre == null) {
+            return;
+        }
+        Reservation suivante = reservationDAO.attribuerSuivante(livre.getIsbn(), LocalDate.now().plusDays(delaiRetrait));
+        boolean disponible = suivante == null;
+        if (livre.isDisponible() != disponible) {
+            if (disponible) {
+                livre.retourner();
+            } else {
+                livre.emprunter();
+            }
+            livreDAO.update(livre);
+            bus.publier(new LivreModifie(livre, false));
+        }
+        if (suivante != null) {
+            bus.publier(new ReservationDisponible(suivante));
+        }
+    }
+
+    /**
+     * Expire les réservations non retirées à temps et sert les suivantes.
+     *
+     * @return le nombre de réservations expirées
+     */
+    public int expirerReservations() throws SQLException {
+        List<Reservation> expirees = reservationDAO.expirer(LocalDate.now());
+        for (Reservation reservation : expirees) {
+            bus.publier(new ReservationExpiree(reservation));
+            servirSuivante(reservation.getLivre());
+        }
+        return expirees.size();
+    }
+
+    /**
+     * Planifie l'expiration des réservations toutes les
+     * {@code reservations.balayage.minutes} minutes.
+     */
+    public synchronized void planifier() {
+        if (planificateur != null) {
+            return;
+        }
+        int minutes = Math.max(1, Configuration.getInt("reservations.balayage.minutes", 15));
+        planificateur = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "expiration-reservations");
+            t.setDaemon(true);
+            return t;
+        });
+        planificateur.scheduleWithFixedDelay(() -> {
+            try {
+                expirerReservations();
+            } catch (SQLException e) {
+                System.err.println("Expiration des réservations impossible : " + e.getMessage());
+            }
+        }, 1, minutes, TimeUnit.MINUTES);
+    }
+
+    public synchronized void arreter() {
+        if (planificateur != null) {
+            planificateur.shutdownNow();
+            planificateur = null;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.bibliotheque.util;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * File bornée sans verrou, à plusieurs producteurs et un seul consommateur, rangée dans
+ * un anneau de cases.
+ * <p>
+ * Un producteur réserve la position suivante par compare-and-set, puis y publie son
+ * élément ; le consommateur lit les cases dans l'ordre des positions et s'arrête sur la
+ * première case pas encore publiée. Il vide chaque case lue avant d'avancer sa position
+ * de lecture, que les producteurs consultent pour ne pas dépasser la capacité.
+ *
+ * @param <T> le type des éléments
+ */
+public final class AnneauSansVerrou<T> {
+
+    private final int capacite;
+    private final int masque;
+    private final AtomicReferenceArray<T> cases;
+    // Prochaine position réservée par un producteur
+    private final AtomicLong ecriture = new AtomicLong();
+    // Prochaine position à lire, avancée par le seul consommateur
+    private volatile long lecture;
+
+    /**
+     * @param capacite nombre de cases, arrondi à la puissance de 2 supérieure
+     */
+    public AnneauSansVerrou(int capacite) {
+        if (capacite <= 0 || capacite > 1 << 30) {
+            throw new IllegalArgumentException("Capacité invalide : " + capacite);
+        }
+        this.capacite = capacite == 1 ? 1 : Integer.highestOneBit(capacite - 1) << 1;
+        this.masque = this.capacite - 1;
+        this.cases = new AtomicReferenceArray<>(this.capacite);
+    }
+
+    /**
+     * Ajoute un élément, sans attendre.
+     *
+     * @return false si l'anneau est plein
+     */
+    public boolean offrir(T element) {
+        if (element == null) {
+            throw new IllegalArgumentException("Élément null");
+        }
+        while (true) {
+            long position = ecriture.get();
+            if (position - lecture >= capacite) {
+                return false;
+            }
+            if (ecriture.compareAndSet(position, position + 1)) {
+                cases.lazySet((int) position & masque, element);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Retire jusqu'à {@code maximum} éléments, dans l'ordre des positions. Réservé au
+     * consommateur.
+     *
+     * @return le nombre d'éléments retirés
+     */
+    public int vider(Collection<? super T> destination, int maximum) {
+        long position = lecture;
+        int retires = 0;
+        while (retires < maximum) {
+            int indice = (int) position & masque;
+            T element = cases.get(indice);
+            if (element == null) {
+                // Case vide, ou réservée mais pas encore publiée
+                break;
+            }
+            cases.lazySet(indice, null);
+            destination.add(element);
+            position++;
+            retires++;
+        }
+        // Écriture volatile : la case est vue vide avant d'être vue libre
+        lecture = position;
+        return retires;
+    }
+
+    /**
+     * @return le nombre d'éléments réservés et pas encore retirés
+     */
+    public int taille() {
+        return (int) Math.max(0, Math.min(capacite, ecriture.get() - lecture));
+    }
+
+    public int getCapacite() {
+        return capacite;
+    }
+}
@@ -0,0 +1,85 @@
+package com.bibliotheque.util;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Jeton d'annulation d'un travail qui interroge la base (une recherche, par exemple).
+ * <p>
+ * Les requêtes créées par le thread qui exécute {@link #executer(Callable)} sur une
+ * connexion d'un {@link ConnectionPool} sont rattachées au jeton ; {@link #annuler()}
+ * les interrompt côté serveur ({@link Statement#cancel()}) et fait échouer les
+ * suivantes dès leur création, avec l'état SQL 70100 (requête interrompue).
+ */
+public final class Annulation {
+
+    private static final ThreadLocal<Annulation> COURANTE = new ThreadLocal<>();
+
+    private final Set<Statement> requetes = ConcurrentHashMap.newKeySet();
+    private volatile boolean annulee;
+
+    /**
+     * @return le jeton du thread courant, ou null hors de {@link #executer(Callable)}
+     */
+    public static Annulation courante() {
+        return COURANTE.get();
+    }
+
+    /**
+     * Exécute la tâche sur le thread courant, ses requêtes rattachées à ce jeton.
+     */
+    public <R> R executer(Callable<R> tache) throws Exception {
+        Annulation precedente = COURANTE.get();
+        COURANTE.set(this);
+        try {
+            return tache.call();
+        } finally {
+            if (precedente == null) {
+                COURANTE.remove();
+            } else {
+                COURANTE.set(precedente);
+            }
+        }
+    }
+
+    public void annuler() {
+        annulee = true;
+        for (Statement requete : requetes) {
+            // Sans test isClosed() : le pilote MySQL le bloque tant que la requête s'exécute
+            try {
+                requete.cancel();
+            } catch (SQLException ignored) {
+                // requête terminée entre-temps
+            }
+        }
+        requetes.clear();
+    }
+
+    public boolean isAnnulee() {
+        return annulee;
+    }
+
+    /**
+     * Rattache une requête au jeton du thread courant, s'il y en a un.
+     *
+     * @throws SQLException si ce jeton est déjà annulé
+     */
+    static void surveiller(Statement requete) throws SQLException {
+        Annulation jeton = COURANTE.get();
+        if (jeton == null) {
+            return;
+        }
+        if (jeton.annulee) {
+            requete.close();
+            throw new SQLException("Requête annulée", "70100");
+        }
+        jeton.requetes.add(requete);
+        // annuler() a pu passer entre le test et l'ajout
+        if (jeton.annulee) {
+            requete.cancel();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.bibliotheque.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Configuration de l'application.
+ * <p>
+ * Les valeurs par défaut viennent de {@code bibliotheque.properties} dans le JAR ; un
+ * fichier externe indiqué par {@code -Dbibliotheque.config=chemin} les complète, et
+ * toute propriété système de même nom l'emporte (ex. {@code -Ddb.url=...}).
+ */
+public final class Configuration {
+
+    private static final String RESSOURCE = "/bibliotheque.properties";
+    private static final Properties PROPRIETES = charger();
+
+    private Configuration() {
+    }
+
+    private static Properties charger() {
+        Properties proprietes = new Properties();
+        try (InputStream in = Configuration.class.getResourceAsStream(RESSOURCE)) {
+            if (in != null) {
+                proprietes.load(in);
+            }
+            String externe = System.getProperty("bibliotheque.config");
+            if (externe != null) {
+                try (InputStream fichier = Files.newInputStream(Path.of(externe))) {
+                    proprietes.load(fichier);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Lecture de la configuration impossible", e);
+        }
+        return proprietes;
+    }
+
+    /**
+     * @return la valeur de la clé, ou {@code defaut} si elle n'est définie nulle part
+     */
+    public static String get(String cle, String defaut) {
+        String valeur = System.getProperty(cle, PROPRIETES.getProperty(cle));
+        return valeur == null ? defaut : valeur.trim();
+    }
+
+    public static int getInt(String cle, int defaut) {
+        String valeur = get(cle, null);
+        if (valeur == null || valeur.isEmpty()) {
+            return defaut;
+        }
+        try {
+            return Integer.parseInt(valeur);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Valeur entière attendue pour " + cle + " : " + valeur, e);
+        }
+    }
+
+    /**
+     * @return les valeurs non vides d'une liste séparée par des virgules
+     */
+    public static List<String> getListe(String cle) {
+        List<String> valeurs = new ArrayList<>();
+        String valeur = get(cle, "");
+        for (String element : valeur.split(",")) {
+            if (!element.isBlank()) {
+                valeurs.add(element.trim());
+            }
+        }
+        return valeurs;
+    }
+}
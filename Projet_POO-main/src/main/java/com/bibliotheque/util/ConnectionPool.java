@@ -0,0 +1,206 @@
+package com.bibliotheque.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pool de connexions JDBC de taille bornée.
+ * Les connexions rendues par {@link #emprunter()} sont des proxys : leur méthode
+ * {@code close()} remet la connexion physique dans le pool au lieu de la fermer,
+ * ce qui permet aux DAO d'utiliser le try-with-resources habituel.
+ * <p>
+ * Les requêtes créées sur ces connexions reçoivent le délai par défaut du pool
+ * ({@link java.sql.Statement#setQueryTimeout(int)}) ; un appelant dont l'opération est
+ * plus longue par nature le remplace sur sa propre requête. Elles sont aussi rattachées
+ * à l'{@link Annulation} du thread courant, s'il y en a une.
+ */
+public class ConnectionPool {
+
+    private static final long DELAI_ATTENTE_MS = 30_000;
+    private static final int DELAI_VALIDATION_S = 2;
+    private static final long INACTIVITE_AVANT_VALIDATION_MS = 10_000;
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int delaiRequeteSecondes;
+    private final Semaphore permis;
+    private final LinkedBlockingDeque<Libre> libres = new LinkedBlockingDeque<>();
+    private volatile boolean ferme;
+
+    /**
+     * Crée un pool vide ; les connexions sont ouvertes à la demande.
+     *
+     * @param url      l'URL JDBC
+     * @param user     l'utilisateur
+     * @param password le mot de passe
+     * @param taille   le nombre maximal de connexions simultanées
+     */
+    public ConnectionPool(String url, String user, String password, int taille) {
+        this(url, user, password, taille, 0);
+    }
+
+    /**
+     * @param delaiRequeteSecondes délai d'exécution par défaut des requêtes (0 : illimité)
+     */
+    public ConnectionPool(String url, String user, String password, int taille, int delaiRequeteSecondes) {
+        if (taille <= 0) {
+            throw new IllegalArgumentException("La taille du pool doit être positive");
+        }
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.delaiRequeteSecondes = Math.max(delaiRequeteSecondes, 0);
+        this.permis = new Semaphore(taille, true);
+    }
+
+    /**
+     * Emprunte une connexion. Elle doit être fermée par l'appelant pour être rendue au pool.
+     *
+     * @return une connexion prête à l'emploi
+     * @throws AttenteDepassee si aucune connexion n'est disponible dans le délai imparti
+     */
+    public Connection emprunter() throws SQLException {
+        if (ferme) {
+            throw new SQLException("Le pool de connexions est fermé");
+        }
+        try {
+            if (!permis.tryAcquire(DELAI_ATTENTE_MS, TimeUnit.MILLISECONDS)) {
+                throw new AttenteDepassee();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Attente de connexion interrompue", e);
+        }
+
+        try {
+            return envelopper(connexionPhysique());
+        } catch (SQLException | RuntimeException e) {
+            permis.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Ferme toutes les connexions inactives et refuse les emprunts suivants.
+     */
+    public void fermer() {
+        ferme = true;
+        Libre l;
+        while ((l = libres.pollFirst()) != null) {
+            fermerSilencieusement(l.connexion);
+        }
+    }
+
+    private Connection connexionPhysique() throws SQLException {
+        Libre l;
+        while ((l = libres.pollFirst()) != null) {
+            // Une connexion rendue récemment est réutilisée sans aller-retour de validation
+            boolean recente = System.currentTimeMillis() - l.rendueA < INACTIVITE_AVANT_VALIDATION_MS;
+            if (!l.connexion.isClosed() && (recente || l.connexion.isValid(DELAI_VALIDATION_S))) {
+                return l.connexion;
+            }
+            fermerSilencieusement(l.connexion);
+        }
+        return DriverManager.getConnection(url, user, password);
+    }
+
+    private void rendre(Connection physique) {
+        try {
+            if (ferme || physique.isClosed()) {
+                fermerSilencieusement(physique);
+                return;
+            }
+            if (!physique.getAutoCommit()) {
+                physique.rollback();
+                physique.setAutoCommit(true);
+            }
+            if (physique.isReadOnly()) {
+                physique.setReadOnly(false);
+            }
+            libres.offerFirst(new Libre(physique, System.currentTimeMillis()));
+        } catch (SQLException e) {
+            fermerSilencieusement(physique);
+        } finally {
+            permis.release();
+        }
+    }
+
+    private Connection envelopper(Connection physique) {
+        InvocationHandler handler = new InvocationHandler() {
+            private boolean rendue;
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                switch (method.getName()) {
+                    case "close":
+                        if (!rendue) {
+                            rendue = true;
+                            rendre(physique);
+                        }
+                        return null;
+                    case "isClosed":
+                        return rendue || physique.isClosed();
+                    default:
+                        if (rendue) {
+                            throw new SQLException("Connexion déjà rendue au pool");
+                        }
+                        try {
+                            Object resultat = method.invoke(physique, args);
+                            if (resultat instanceof Statement) {
+                                if (delaiRequeteSecondes > 0) {
+                                    ((Statement) resultat).setQueryTimeout(delaiRequeteSecondes);
+                                }
+                                Annulation.surveiller((Statement) resultat);
+                            }
+                            return resultat;
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                }
+            }
+        };
+        return (Connection) Proxy.newProxyInstance(
+                ConnectionPool.class.getClassLoader(), new Class<?>[]{Connection.class}, handler);
+    }
+
+    private static final class Libre {
+        final Connection connexion;
+        final long rendueA;
+
+        Libre(Connection connexion, long rendueA) {
+            this.connexion = connexion;
+            this.rendueA = rendueA;
+        }
+    }
+
+    private static void fermerSilencieusement(Connection c) {
+        try {
+            c.close();
+        } catch (SQLException ignored) {
+            // connexion déjà inutilisable
+        }
+    }
+
+    /**
+     * Toutes les connexions du pool sont restées occupées pendant le délai d'attente.
+     * L'appelant a déjà attendu longtemps : un nouvel essai ne ferait que prolonger l'attente.
+     */
+    public static final class AttenteDepassee extends SQLTransientConnectionException {
+        private static final long serialVersionUID = 1L;
+
+        AttenteDepassee() {
+            super("Délai d'attente dépassé pour obtenir une connexion");
+        }
+    }
+}
@@ -1,21 +1,47 @@
 package com.bibliotheque.util;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
- * Singleton pour gérer la connexion à la base de données MySQL.
+ * Singleton pour gérer les connexions à la base de données, MySQL ou embarquée
+ * selon {@link MoteurBase#configure()}.
  * Utilise le pattern Double-Checked Locking pour la thread-safety.
+ * Les connexions proviennent d'un {@link ConnectionPool} : chaque appelant
+ * emprunte sa propre connexion et la rend en la fermant.
+ * <p>
+ * Les écritures passent par la base principale ({@link #getConnection()}). Les
+ * lectures lourdes ({@link #getConnectionLecture()}) sont réparties à tour de rôle
+ * entre les répliques déclarées dans la {@link Configuration} ; une réplique en
+ * échec est écartée jusqu'à ce que la vérification périodique la retrouve. Sans
+ * réplique saine, ou quand le thread courant a épinglé la base principale
+ * ({@link #epinglerPrimaire()}), les lectures vont à la base principale. La base
+ * embarquée n'a pas de réplique.
  */
 public class DatabaseConnection {
     private static volatile DatabaseConnection instance;
-    private Connection connection;
+    private final ConnectionPool pool;
+    private final List<Replique> repliques = new ArrayList<>();
+    private final AtomicInteger suivante = new AtomicInteger();
+    private final ThreadLocal<int[]> epinglages = ThreadLocal.withInitial(() -> new int[1]);
+    private ScheduledExecutorService verificateur;
 
-    private static final String URL = "jdbc:mysql://localhost:3306/bibliotheque";
-    private static final String USER = "root";
-    private static final String PASSWORD = "";
-    private static final String DRIVER = "com.mysql.cj.jdbc.Driver";
+    private static final int DELAI_VALIDATION_S = 2;
+
+    /**
+     * Épinglage de la base principale pour le thread courant, levé par {@link #close()}.
+     */
+    public interface Epinglage extends AutoCloseable {
+        @Override
+        void close();
+    }
 
     /**
      * Constructeur privé pour éviter l'instanciation.
@@ -24,14 +50,43 @@ public class DatabaseConnection {
      */
     private DatabaseConnection() throws SQLException {
         try {
-            Class.forName(DRIVER);
-            this.connection = DriverManager.getConnection(URL, USER, PASSWORD);
+            MoteurBase moteur = MoteurBase.configure();
+            Class.forName(moteur.getPilote());
+            String utilisateur = Configuration.get("db.utilisateur", "root");
+            String motDePasse = Configuration.get("db.motDePasse", "");
+            int taille = Configuration.getInt("db.pool.taille", 20);
+            int delai = Configuration.getInt("db.requete.delai", 10);
+            this.pool = new ConnectionPool(moteur.url(), utilisateur, motDePasse, taille, delai);
+            // Ouvre une première connexion pour échouer dès le démarrage si la base est injoignable
+            try (Connection premiere = pool.emprunter()) {
+                if (moteur == MoteurBase.EMBARQUE) {
+                    declarerVerrous(premiere);
+                }
+            }
+            List<String> urlsRepliques = moteur == MoteurBase.MYSQL
+                    ? Configuration.getListe("db.repliques") : List.of();
+            for (String url : urlsRepliques) {
+                repliques.add(new Replique(url, new ConnectionPool(url, utilisateur, motDePasse, taille, delai)));
+            }
+            if (!repliques.isEmpty()) {
+                demarrerVerification(Configuration.getInt("db.repliques.verification", 5));
+            }
         } catch (ClassNotFoundException | SQLException e) {
             System.err.println("Erreur de connexion à la base de données : " + e.getMessage());
             throw new SQLException("Impossible de se connecter à la base de données", e);
         }
     }
 
+    /**
+     * Déclare les verrous nommés de MySQL dans la base embarquée ({@link VerrousNommes}).
+     */
+    private static void declarerVerrous(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE ALIAS IF NOT EXISTS GET_LOCK FOR 'com.bibliotheque.util.VerrousNommes.obtenir'");
+            stmt.execute("CREATE ALIAS IF NOT EXISTS RELEASE_LOCK FOR 'com.bibliotheque.util.VerrousNommes.liberer'");
+        }
+    }
+
     /**
      * Retourne l'instance unique de DatabaseConnection (Singleton avec Double-Checked Locking).
      *
@@ -50,38 +105,112 @@ public class DatabaseConnection {
     }
 
     /**
-     * Retourne la connexion active.
+     * Emprunte une connexion au pool. L'appelant doit la fermer (try-with-resources)
+     * pour la rendre au pool.
      *
-     * @return la connexion MySQL
+     * @return une connexion MySQL
+     * @throws SQLException si aucune connexion n'est disponible
      */
-    public Connection getConnection() {
-        return connection;
+    public Connection getConnection() throws SQLException {
+        return pool.emprunter();
     }
 
     /**
-     * Ferme la connexion à la base de données.
+     * Emprunte une connexion pour une lecture qui tolère le retard de réplication :
+     * sur une réplique saine à tour de rôle, sinon sur la base principale.
+     *
+     * @return une connexion à rendre en la fermant
+     * @throws SQLException si aucune connexion n'est disponible
      */
-    public void closeConnection() {
-        try {
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
-                System.out.println("Connexion fermée avec succès");
+    public Connection getConnectionLecture() throws SQLException {
+        if (repliques.isEmpty() || epinglages.get()[0] > 0) {
+            return pool.emprunter();
+        }
+        int debut = Math.floorMod(suivante.getAndIncrement(), repliques.size());
+        for (int i = 0; i < repliques.size(); i++) {
+            Replique replique = repliques.get((debut + i) % repliques.size());
+            if (!replique.saine) {
+                continue;
+            }
+            try {
+                Connection connexion = replique.pool.emprunter();
+                connexion.setReadOnly(true);
+                return connexion;
+            } catch (SQLException e) {
+                replique.saine = false;
+                System.err.println("Réplique écartée " + replique.url + " : " + e.getMessage());
             }
-        } catch (SQLException e) {
-            System.err.println("Erreur lors de la fermeture de la connexion : " + e.getMessage());
         }
+        return pool.emprunter();
+    }
+
+    /**
+     * Envoie les lectures du thread courant à la base principale jusqu'à la fermeture
+     * de l'épinglage, pour relire ses propres écritures :
+     * {@code try (Epinglage e = db.epinglerPrimaire()) { ... }}. Les épinglages
+     * peuvent être imbriqués.
+     */
+    public Epinglage epinglerPrimaire() {
+        int[] compteur = epinglages.get();
+        compteur[0]++;
+        return () -> compteur[0]--;
+    }
+
+    private void demarrerVerification(int intervalleSecondes) {
+        verificateur = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "verification-repliques");
+            t.setDaemon(true);
+            return t;
+        });
+        verificateur.scheduleWithFixedDelay(() -> {
+            for (Replique replique : repliques) {
+                boolean saine;
+                try (Connection c = replique.pool.emprunter()) {
+                    saine = c.isValid(DELAI_VALIDATION_S);
+                } catch (SQLException e) {
+                    saine = false;
+                }
+                if (saine != replique.saine) {
+                    System.err.println("Réplique " + replique.url + (saine ? " rétablie" : " indisponible"));
+                }
+                replique.saine = saine;
+            }
+        }, intervalleSecondes, intervalleSecondes, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Ferme les connexions du pool.
+     */
+    public void closeConnection() {
+        if (verificateur != null) {
+            verificateur.shutdownNow();
+        }
+        pool.fermer();
+        repliques.forEach(r -> r.pool.fermer());
+        System.out.println("Connexions fermées avec succès");
     }
 
     /**
      * Teste la connexion à la base de données.
      *
-     * @return true si la connexion est valide
+     * @return true si une connexion valide peut être obtenue
      */
     public boolean testConnection() {
-        try {
-            return !connection.isClosed();
+        try (Connection c = pool.emprunter()) {
+            return c.isValid(2);
         } catch (SQLException e) {
             return false;
         }
     }
+
+    private static final class Replique {
+        final String url;
+        final ConnectionPool pool;
+        volatile boolean saine = true;
+
+        Replique(String url, ConnectionPool pool) {
+            this.url = url;
+            this.pool = pool;
+        }
+    }
 }
@@ -0,0 +1,88 @@
+package com.bibliotheque.util;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Dictionnaire de chaînes répétées : chaque texte distinct reçoit un code entier, et
+ * les objets gardent le code au lieu de leur propre copie de la chaîne.
+ * <p>
+ * Les codes sont attribués dans l'ordre d'apparition et ne sont jamais retirés ; ils
+ * ne valent que pour l'exécution en cours et ne doivent pas être enregistrés.
+ */
+public class Dictionnaire {
+
+    /** Auteurs du catalogue, partagés par tous les livres. */
+    public static final Dictionnaire AUTEURS = new Dictionnaire();
+
+    /** Code d'un texte absent ({@code null}). */
+    public static final int AUCUN = -1;
+
+    private final Map<String, Integer> codes = new HashMap<>();
+    // Agrandi par copie : texte() lit sans verrou
+    private volatile String[] textes = new String[256];
+    private int taille;
+
+    /**
+     * @return le code du texte, attribué s'il est nouveau
+     */
+    public int code(String texte) {
+        if (texte == null) {
+            return AUCUN;
+        }
+        synchronized (codes) {
+            Integer code = codes.get(texte);
+            if (code != null) {
+                return code;
+            }
+            String[] actuels = textes;
+            if (taille == actuels.length) {
+                actuels = Arrays.copyOf(actuels, taille * 2);
+            }
+            actuels[taille] = texte;
+            textes = actuels;
+            codes.put(texte, taille);
+            return taille++;
+        }
+    }
+
+    /**
+     * @return le code du texte, ou {@link #AUCUN} s'il n'a jamais été codé
+     */
+    public int codeExistant(String texte) {
+        if (texte == null) {
+            return AUCUN;
+        }
+        synchronized (codes) {
+            return codes.getOrDefault(texte, AUCUN);
+        }
+    }
+
+    public String texte(int code) {
+        return code == AUCUN ? null : textes[code];
+    }
+
+    public int taille() {
+        synchronized (codes) {
+            return taille;
+        }
+    }
+
+    /**
+     * Codes des textes contenant {@code motMinuscule}, sans distinction de casse : le
+     * filtre d'une liste d'objets ne compare ensuite que des entiers.
+     */
+    public BitSet codesContenant(String motMinuscule) {
+        int n = taille();
+        String[] actuels = textes;
+        BitSet resultat = new BitSet(n);
+        for (int code = 0; code < n; code++) {
+            if (actuels[code].toLowerCase().contains(motMinuscule)) {
+                resultat.set(code);
+            }
+        }
+        return resultat;
+    }
+}
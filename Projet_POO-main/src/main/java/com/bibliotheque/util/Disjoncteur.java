@@ -0,0 +1,89 @@
+package com.bibliotheque.util;
+
+/**
+ * Disjoncteur d'une ressource distante (une base de données).
+ * <p>
+ * Après {@code seuil} échecs consécutifs, il s'ouvre : les appels sont refusés sans
+ * attendre pendant {@code pauseMs}, au lieu de bloquer chacun jusqu'à son délai. Passé
+ * ce temps, un seul appel d'essai est laissé passer (demi-ouvert) : son succès referme
+ * le disjoncteur, son échec le rouvre pour une nouvelle pause.
+ */
+public class Disjoncteur {
+
+    public enum Etat {
+        FERME,
+        OUVERT,
+        DEMI_OUVERT
+    }
+
+    private final String nom;
+    private final int seuil;
+    private final long pauseNanos;
+    private Etat etat = Etat.FERME;
+    private int echecs;
+    private long ouvertA;
+    private boolean essaiEnCours;
+
+    public Disjoncteur(String nom, int seuil, long pauseMs) {
+        if (seuil <= 0 || pauseMs < 0) {
+            throw new IllegalArgumentException("Seuil positif et pause non négative attendus");
+        }
+        this.nom = nom;
+        this.seuil = seuil;
+        this.pauseNanos = pauseMs * 1_000_000;
+    }
+
+    /**
+     * Disjoncteur réglé par {@code db.disjoncteur.seuil} et {@code db.disjoncteur.pause} (secondes).
+     */
+    public static Disjoncteur configure(String nom) {
+        return new Disjoncteur(nom, Configuration.getInt("db.disjoncteur.seuil", 5),
+                Configuration.getInt("db.disjoncteur.pause", 15) * 1000L);
+    }
+
+    /**
+     * @return true si l'appel peut être tenté ; l'appelant signale ensuite son issue
+     *         par {@link #succes()} ou {@link #echec()}
+     */
+    public synchronized boolean autoriser() {
+        if (etat == Etat.OUVERT && System.nanoTime() - ouvertA >= pauseNanos) {
+            etat = Etat.DEMI_OUVERT;
+            essaiEnCours = false;
+        }
+        switch (etat) {
+            case FERME:
+                return true;
+            case DEMI_OUVERT:
+                if (essaiEnCours) {
+                    return false;
+                }
+                essaiEnCours = true;
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    public synchronized void succes() {
+        if (etat != Etat.FERME) {
+            System.err.println("Disjoncteur " + nom + " refermé");
+        }
+        etat = Etat.FERME;
+        echecs = 0;
+        essaiEnCours = false;
+    }
+
+    public synchronized void echec() {
+        echecs++;
+        if (etat == Etat.DEMI_OUVERT || (etat == Etat.FERME && echecs >= seuil)) {
+            System.err.println("Disjoncteur " + nom + " ouvert après " + echecs + " échec(s)");
+            etat = Etat.OUVERT;
+            ouvertA = System.nanoTime();
+            essaiEnCours = false;
+        }
+    }
+
+    public synchronized Etat getEtat() {
+        return etat;
+    }
+}
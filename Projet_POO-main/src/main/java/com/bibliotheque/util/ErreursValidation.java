@@ -0,0 +1,43 @@
+package com.bibliotheque.util;
+
+import java.util.Arrays;
+
+/**
+ * Rejets d'une validation en lot : indice de l'élément dans le lot et motif.
+ * Les indices sont rangés par ordre croissant.
+ */
+public class ErreursValidation {
+
+    private int[] indices = new int[8];
+    private String[] motifs = new String[8];
+    private int nombre;
+
+    void ajouter(int indice, String motif) {
+        if (nombre == indices.length) {
+            indices = Arrays.copyOf(indices, nombre * 2);
+            motifs = Arrays.copyOf(motifs, nombre * 2);
+        }
+        indices[nombre] = indice;
+        motifs[nombre] = motif;
+        nombre++;
+    }
+
+    public int nombre() {
+        return nombre;
+    }
+
+    public boolean estVide() {
+        return nombre == 0;
+    }
+
+    /**
+     * @return l'indice, dans le lot validé, du {@code i}-ème élément rejeté
+     */
+    public int indice(int i) {
+        return indices[i];
+    }
+
+    public String motif(int i) {
+        return motifs[i];
+    }
+}
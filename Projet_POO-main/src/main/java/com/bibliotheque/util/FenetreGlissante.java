@@ -0,0 +1,92 @@
+package com.bibliotheque.util;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compteurs sur une fenêtre de temps glissante, découpée en {@code cases} cases de
+ * durée fixe rangées dans un anneau : la fenêtre d'une heure en cases d'une minute,
+ * par exemple. Une case est réutilisée quand le temps en fait le tour.
+ * <p>
+ * Sans verrou : une case porte le numéro de sa période et des {@link LongAdder} ; la
+ * première écriture d'une nouvelle période remplace l'ancienne case par
+ * compare-and-set. Lire un total additionne au plus {@code cases} cases, quel que soit
+ * le nombre d'écritures.
+ */
+public final class FenetreGlissante {
+
+    private final int cases;
+    private final long dureeCaseMs;
+    private final int grandeurs;
+    private final AtomicReferenceArray<Case> anneau;
+
+    /**
+     * @param cases       nombre de cases de l'anneau
+     * @param dureeCaseMs durée couverte par une case
+     * @param grandeurs   nombre de grandeurs comptées (indices 0 à {@code grandeurs - 1})
+     */
+    public FenetreGlissante(int cases, long dureeCaseMs, int grandeurs) {
+        if (cases <= 0 || dureeCaseMs <= 0 || grandeurs <= 0) {
+            throw new IllegalArgumentException("Fenêtre vide");
+        }
+        this.cases = cases;
+        this.dureeCaseMs = dureeCaseMs;
+        this.grandeurs = grandeurs;
+        this.anneau = new AtomicReferenceArray<>(cases);
+    }
+
+    /**
+     * Ajoute {@code valeur} à la grandeur {@code grandeur} dans la case de l'instant.
+     */
+    public void ajouter(long instantMs, int grandeur, long valeur) {
+        caseDe(Math.floorDiv(instantMs, dureeCaseMs)).valeurs[grandeur].add(valeur);
+    }
+
+    /**
+     * @return le total de la grandeur sur la fenêtre qui se termine à l'instant
+     */
+    public long total(long instantMs, int grandeur) {
+        long periode = Math.floorDiv(instantMs, dureeCaseMs);
+        long total = 0;
+        for (int i = 0; i < cases; i++) {
+            Case c = anneau.get(i);
+            // Cases des périodes sorties de la fenêtre (ou pas encore commencées) ignorées
+            if (c != null && c.periode <= periode && c.periode > periode - cases) {
+                total += c.valeurs[grandeur].sum();
+            }
+        }
+        return total;
+    }
+
+    public long getDureeMs() {
+        return cases * dureeCaseMs;
+    }
+
+    private Case caseDe(long periode) {
+        int indice = (int) Math.floorMod(periode, (long) cases);
+        while (true) {
+            Case c = anneau.get(indice);
+            if (c != null && c.periode >= periode) {
+                // Une écriture en retard d'un tour complet compte dans la période récente
+                return c;
+            }
+            Case nouvelle = new Case(periode, grandeurs);
+            if (anneau.compareAndSet(indice, c, nouvelle)) {
+                return nouvelle;
+            }
+        }
+    }
+
+    private static final class Case {
+        final long periode;
+        final LongAdder[] valeurs;
+
+        Case(long periode, int grandeurs) {
+            this.periode = periode;
+            this.valeurs = new LongAdder[grandeurs];
+            for (int i = 0; i < grandeurs; i++) {
+                valeurs[i] = new LongAdder();
+            }
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.bibliotheque.util;
+
+/**
+ * Lecture et contrôle des ISBN-10 et ISBN-13 sans expression régulière ni allocation :
+ * les tirets et espaces sont ignorés, la clé de contrôle est vérifiée et un ISBN-10 est
+ * converti en son équivalent ISBN-13 (préfixe 978).
+ * <p>
+ * La forme normalisée est celle du catalogue : préfixe, tiret, puis les dix autres
+ * chiffres ({@code 978-2070368228}).
+ */
+public class Isbn {
+
+    public static final String ERREUR_VIDE = "L'ISBN ne peut pas être vide";
+    public static final String ERREUR_FORMAT = "Format ISBN invalide : 10 ou 13 chiffres attendus (préfixe 978 ou 979)";
+    public static final String ERREUR_CLE = "Clé de contrôle ISBN incorrecte";
+
+    private static final long VIDE = -1;
+    private static final long FORMAT = -2;
+    private static final long CLE = -3;
+
+    /**
+     * @param isbn l'ISBN saisi, avec ou sans tirets
+     * @return null si l'ISBN est valide, sinon le motif du rejet
+     */
+    public static String verifier(String isbn) {
+        long valeur = lire(isbn);
+        if (valeur >= 0) {
+            return null;
+        }
+        return valeur == VIDE ? ERREUR_VIDE : valeur == FORMAT ? ERREUR_FORMAT : ERREUR_CLE;
+    }
+
+    /**
+     * @return l'ISBN-13 sous forme de nombre, ou -1 s'il est invalide
+     */
+    public static long enNombre(String isbn) {
+        long valeur = lire(isbn);
+        return valeur >= 0 ? valeur : -1;
+    }
+
+    /**
+     * @return l'ISBN au format du catalogue ({@code 978-XXXXXXXXXX}), ou null s'il est invalide
+     */
+    public static String normaliser(String isbn) {
+        long valeur = lire(isbn);
+        if (valeur < 0) {
+            return null;
+        }
+        char[] texte = new char[14];
+        for (int i = 13; i >= 4; i--) {
+            texte[i] = (char) ('0' + valeur % 10);
+            valeur /= 10;
+        }
+        texte[3] = '-';
+        for (int i = 2; i >= 0; i--) {
+            texte[i] = (char) ('0' + valeur % 10);
+            valeur /= 10;
+        }
+        return new String(texte);
+    }
+
+    /**
+     * Clé de recherche dans le catalogue : la forme normalisée d'un ISBN valide, quelle
+     * que soit sa saisie (ISBN-10, sans tirets) ; tout autre identifiant, comme le code
+     * d'un magazine, est rendu tel quel.
+     */
+    public static String cleCatalogue(String identifiant) {
+        String normalise = normaliser(identifiant);
+        return normalise != null ? normalise : identifiant;
+    }
+
+    private static long lire(String isbn) {
+        if (isbn == null) {
+            return VIDE;
+        }
+        long chiffres = 0;
+        long neufPremiers = 0;
+        int nombre = 0;
+        int somme10 = 0;
+        int somme13 = 0;
+        boolean cleX = false;
+        for (int i = 0; i < isbn.length(); i++) {
+            char c = isbn.charAt(i);
+            int chiffre;
+            if (c >= '0' && c <= '9') {
+                chiffre = c - '0';
+            } else if ((c == 'X' || c == 'x') && nombre == 9) {
+                // « X » vaut 10, seulement comme clé d'un ISBN-10
+                chiffre = 10;
+                cleX = true;
+            } else if (c == '-' || c == ' ') {
+                continue;
+            } else {
+                return isbn.isBlank() ? VIDE : FORMAT;
+            }
+            if (nombre == 13 || (cleX && nombre == 10)) {
+                return FORMAT;
+            }
+            somme10 += (10 - nombre) * chiffre;
+            somme13 += (nombre % 2 == 0 ? 1 : 3) * chiffre;
+            chiffres = chiffres * 10 + chiffre;
+            if (++nombre == 9) {
+                neufPremiers = chiffres;
+            }
+        }
+        if (nombre == 0) {
+            return VIDE;
+        }
+        if (nombre == 10) {
+            if (somme10 % 11 != 0) {
+                return CLE;
+            }
+            long base = 978_000_000_000L + neufPremiers;
+            return base * 10 + cle13(base);
+        }
+        if (nombre != 13) {
+            return FORMAT;
+        }
+        long prefixe = chiffres / 10_000_000_000L;
+        if (prefixe != 978 && prefixe != 979) {
+            return FORMAT;
+        }
+        return somme13 % 10 == 0 ? chiffres : CLE;
+    }
+
+    private static int cle13(long douzeChiffres) {
+        int somme = 0;
+        for (int i = 0; i < 12; i++) {
+            int chiffre = (int) (douzeChiffres % 10);
+            douzeChiffres /= 10;
+            // Pondération 1, 3, 1, 3... à partir de la gauche : le dernier des douze pèse 3
+            somme += (i % 2 == 0 ? 3 : 1) * chiffre;
+        }
+        return (10 - somme % 10) % 10;
+    }
+}
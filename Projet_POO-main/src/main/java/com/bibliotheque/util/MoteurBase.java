@@ -0,0 +1,53 @@
+package com.bibliotheque.util;
+
+/**
+ * Moteur de la base principale, choisi par {@code db.moteur}.
+ * <p>
+ * {@link #MYSQL} : serveur partagé par tous les postes ({@code db.url}), avec répliques
+ * et shards possibles. {@link #EMBARQUE} : base H2 exécutée dans la JVM de l'application,
+ * en mode de compatibilité MySQL, pour une borne isolée, un poste hors ligne ou des
+ * essais sans serveur ; les DAO JDBC l'interrogent sans aller-retour réseau. Le fichier
+ * ({@code db.embarque.base}) ne peut être ouvert que par un processus à la fois.
+ */
+public enum MoteurBase {
+
+    MYSQL("com.mysql.cj.jdbc.Driver"),
+    EMBARQUE("org.h2.Driver");
+
+    // Syntaxe et identifiants en minuscules comme MySQL ; base gardée ouverte tant que la
+    // JVM tourne, même quand le pool n'a plus de connexion (indispensable pour mem:)
+    private static final String OPTIONS_H2 = ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    private final String pilote;
+
+    MoteurBase(String pilote) {
+        this.pilote = pilote;
+    }
+
+    /**
+     * @return le moteur désigné par {@code db.moteur} (mysql par défaut)
+     */
+    public static MoteurBase configure() {
+        String valeur = Configuration.get("db.moteur", "mysql");
+        for (MoteurBase moteur : values()) {
+            if (moteur.name().equalsIgnoreCase(valeur)) {
+                return moteur;
+            }
+        }
+        throw new IllegalArgumentException("Moteur de base inconnu (db.moteur) : " + valeur);
+    }
+
+    public String getPilote() {
+        return pilote;
+    }
+
+    /**
+     * @return l'URL JDBC de la base principale
+     */
+    public String url() {
+        if (this == EMBARQUE) {
+            return "jdbc:h2:" + Configuration.get("db.embarque.base", "./donnees/bibliotheque") + OPTIONS_H2;
+        }
+        return Configuration.get("db.url", "jdbc:mysql://localhost:3306/bibliotheque");
+    }
+}
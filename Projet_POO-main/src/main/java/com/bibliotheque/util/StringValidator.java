@@ -2,11 +2,125 @@ package com.bibliotheque.util;
 
 import com.bibliotheque.exception.ValidationException;
 
+import java.util.List;
+
 /**
  * Utilitaire pour la validation des chaînes de caractères.
+ * <p>
+ * Chaque règle existe en deux variantes : {@code verifierXxx} renvoie le motif du
+ * rejet (ou null) sans lever d'exception ni allouer, pour les traitements en masse ;
+ * {@code validateXxx} lève une {@link ValidationException}.
  */
 public class StringValidator {
 
+    /**
+     * Règle de validation d'un élément d'un lot.
+     */
+    @FunctionalInterface
+    public interface Regle<T> {
+        /**
+         * @return null si l'élément est valide, sinon le motif du rejet
+         */
+        String verifier(T valeur);
+    }
+
+    /**
+     * Applique une règle à tout un lot.
+     *
+     * @return les éléments rejetés, par indice croissant (vide si tout est valide)
+     */
+    public static <T> ErreursValidation validerTout(List<T> valeurs, Regle<? super T> regle) {
+        ErreursValidation erreurs = new ErreursValidation();
+        for (int i = 0; i < valeurs.size(); i++) {
+            String motif = regle.verifier(valeurs.get(i));
+            if (motif != null) {
+                erreurs.ajouter(i, motif);
+            }
+        }
+        return erreurs;
+    }
+
+    /**
+     * Vérifie une adresse email, sans expression régulière.
+     *
+     * @return null si l'email est valide, sinon le motif du rejet
+     */
+    public static String verifierEmail(String email) {
+        if (email == null || email.isBlank()) {
+            return "L'email ne peut pas être vide";
+        }
+        // Équivalent de ^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+\.[A-Za-z]{2,}$
+        int arobase = email.indexOf('@');
+        if (arobase <= 0) {
+            return "Format d'email invalide";
+        }
+        for (int i = 0; i < arobase; i++) {
+            char c = email.charAt(i);
+            if (!alphanumerique(c) && c != '+' && c != '_' && c != '.' && c != '-') {
+                return "Format d'email invalide";
+            }
+        }
+        int point = email.lastIndexOf('.');
+        if (point < arobase + 2 || email.length() - point - 1 < 2) {
+            return "Format d'email invalide";
+        }
+        for (int i = arobase + 1; i < point; i++) {
+            char c = email.charAt(i);
+            if (!alphanumerique(c) && c != '.' && c != '-') {
+                return "Format d'email invalide";
+            }
+        }
+        for (int i = point + 1; i < email.length(); i++) {
+            char c = email.charAt(i);
+            if (!(c >= 'A' && c <= 'Z') && !(c >= 'a' && c <= 'z')) {
+                return "Format d'email invalide";
+            }
+        }
+        return null;
+    }
+
+    private static boolean alphanumerique(char c) {
+        return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9');
+    }
+
+    /**
+     * Vérifie un ISBN-10 ou ISBN-13, clé de contrôle comprise (voir {@link Isbn}).
+     *
+     * @return null si l'ISBN est valide, sinon le motif du rejet
+     */
+    public static String verifierISBN(String isbn) {
+        return Isbn.verifier(isbn);
+    }
+
+    /**
+     * @return null si la chaîne n'est pas vide, sinon le motif du rejet
+     */
+    public static String verifierNonVide(String value, String fieldName) {
+        if (value == null || value.isBlank()) {
+            return fieldName + " ne peut pas être vide";
+        }
+        return null;
+    }
+
+    /**
+     * @return null si le titre est valide, sinon le motif du rejet
+     */
+    public static String verifierTitre(String titre) {
+        if (titre == null || titre.isBlank()) {
+            return "Le titre ne peut pas être vide";
+        }
+        if (titre.length() > 200) {
+            return "Le titre ne peut pas dépasser 200 caractères";
+        }
+        return null;
+    }
+
+    private static void lever(String motif) throws ValidationException {
+        if (motif != null) {
+            throw new ValidationException(motif);
+        }
+    }
+
     /**
      * Valide une adresse email.
      *
@@ -14,31 +128,20 @@ public class StringValidator {
      * @throws ValidationException si l'email n'est pas valide
      */
     public static void validateEmail(String email) throws ValidationException {
-        if (email == null || email.trim().isEmpty()) {
-            throw new ValidationException("L'email ne peut pas être vide");
-        }
-
-        String emailRegex = "^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,}$";
-        if (!email.matches(emailRegex)) {
-            throw new ValidationException("Format d'email invalide : " + email);
+        String motif = verifierEmail(email);
+        if (motif != null) {
+            throw new ValidationException(email == null || email.isBlank() ? motif : motif + " : " + email);
         }
     }
 
     /**
-     * Valide un numéro ISBN.
+     * Valide un numéro ISBN-10 ou ISBN-13, avec ou sans tirets.
      *
      * @param isbn l'ISBN à valider
      * @throws ValidationException si l'ISBN n'est pas valide
      */
     public static void validateISBN(String isbn) throws ValidationException {
-        if (isbn == null || isbn.trim().isEmpty()) {
-            throw new ValidationException("L'ISBN ne peut pas être vide");
-        }
-
-        String isbnRegex = "^978-\\d{10}$";
-        if (!isbn.matches(isbnRegex)) {
-            throw new ValidationException("Format ISBN invalide. Format attendu : 978-XXXXXXXXXX");
-        }
+        lever(verifierISBN(isbn));
     }
 
     /**
@@ -49,9 +152,7 @@ public class StringValidator {
      * @throws ValidationException si la chaîne est vide
      */
     public static void validateNotEmpty(String value, String fieldName) throws ValidationException {
-        if (value == null || value.trim().isEmpty()) {
-            throw new ValidationException(fieldName + " ne peut pas être vide");
-        }
+        lever(verifierNonVide(value, fieldName));
     }
 
     /**
@@ -80,10 +181,7 @@ public class StringValidator {
      * @throws ValidationException si le titre est invalide
      */
     public static void validateTitre(String titre) throws ValidationException {
-        validateNotEmpty(titre, "Le titre");
-        if (titre.length() > 200) {
-            throw new ValidationException("Le titre ne peut pas dépasser 200 caractères");
-        }
+        lever(verifierTitre(titre));
     }
 
     /**
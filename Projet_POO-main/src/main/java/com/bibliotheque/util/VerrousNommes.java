@@ -0,0 +1,43 @@
+package com.bibliotheque.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * {@code GET_LOCK} et {@code RELEASE_LOCK} de MySQL pour la base embarquée, déclarées
+ * comme fonctions H2 par {@link DatabaseConnection} : les migrations et l'archivage
+ * gardent les mêmes requêtes quel que soit le moteur.
+ * <p>
+ * La base embarquée n'est ouverte que par ce processus : un verrou de la JVM suffit. Il
+ * appartient au thread qui l'a obtenu (sous MySQL, à la session), ce qui revient au même
+ * pour les appelants, qui libèrent le verrou sur le thread et la connexion qui l'ont pris.
+ */
+public final class VerrousNommes {
+
+    private static final Map<String, ReentrantLock> VERROUS = new ConcurrentHashMap<>();
+
+    private VerrousNommes() {
+    }
+
+    /**
+     * @return 1 si le verrou est obtenu, 0 si le délai (en secondes) est écoulé
+     */
+    public static int obtenir(String nom, int secondes) throws InterruptedException {
+        ReentrantLock verrou = VERROUS.computeIfAbsent(nom, n -> new ReentrantLock());
+        return verrou.tryLock(Math.max(secondes, 0), TimeUnit.SECONDS) ? 1 : 0;
+    }
+
+    /**
+     * @return 1 si le verrou était tenu par le thread courant et a été libéré, 0 sinon
+     */
+    public static int liberer(String nom) {
+        ReentrantLock verrou = VERROUS.get(nom);
+        if (verrou == null || !verrou.isHeldByCurrentThread()) {
+            return 0;
+        }
+        verrou.unlock();
+        return 1;
+    }
+}
@@ -1,7 +0,0 @@
-CREATE TABLE livres (
-    isbn VARCHAR(20) PRIMARY KEY,
-    titre VARCHAR(100),
-    auteur VARCHAR(100),
-    disponible BOOLEAN
-);
-
@@ -0,0 +1,87 @@
+-- Schéma initial (ancien database.sql). Sur une base déjà créée à la main, les tables
+-- existent et les index en double sont ignorés.
+
+CREATE TABLE IF NOT EXISTS livres (
+    isbn VARCHAR(20) PRIMARY KEY,
+    titre VARCHAR(200) NOT NULL,
+    auteur VARCHAR(100) NOT NULL,
+    annee_publication INT NOT NULL,
+    disponible BOOLEAN DEFAULT TRUE,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_livres_titre ON livres(titre);
+CREATE INDEX idx_livres_auteur ON livres(auteur);
+
+CREATE TABLE IF NOT EXISTS membres (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    nom VARCHAR(50) NOT NULL,
+    prenom VARCHAR(50) NOT NULL,
+    email VARCHAR(100) UNIQUE NOT NULL,
+    actif BOOLEAN DEFAULT TRUE,
+    date_inscription DATE NOT NULL
+);
+
+CREATE INDEX idx_membres_email ON membres(email);
+
+CREATE TABLE IF NOT EXISTS emprunts (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    isbn VARCHAR(20) NOT NULL,
+    membre_id INT NOT NULL,
+    date_emprunt DATE NOT NULL,
+    date_retour_prevue DATE NOT NULL,
+    date_retour_effective DATE DEFAULT NULL,
+    penalite DOUBLE DEFAULT 0,
+    FOREIGN KEY (isbn) REFERENCES livres(isbn) ON DELETE CASCADE,
+    FOREIGN KEY (membre_id) REFERENCES membres(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_emprunt_en_cours ON emprunts(date_retour_effective);
+-- Historique d'un membre, du plus récent au plus ancien
+CREATE INDEX idx_emprunts_membre ON emprunts(membre_id, date_emprunt);
+
+-- Emprunts rendus depuis longtemps, déplacés par l'archivage (mêmes colonnes que emprunts)
+CREATE TABLE IF NOT EXISTS emprunts_archive (
+    id INT PRIMARY KEY,
+    isbn VARCHAR(20) NOT NULL,
+    membre_id INT NOT NULL,
+    date_emprunt DATE NOT NULL,
+    date_retour_prevue DATE NOT NULL,
+    date_retour_effective DATE DEFAULT NULL,
+    penalite DOUBLE DEFAULT 0
+);
+
+CREATE INDEX idx_archive_membre ON emprunts_archive(membre_id, date_emprunt);
+
+-- Files de réservation des livres indisponibles (sur la base principale, même en mode réparti)
+CREATE TABLE IF NOT EXISTS reservations (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    isbn VARCHAR(20) NOT NULL,
+    membre_id INT NOT NULL,
+    priorite INT NOT NULL DEFAULT 0,
+    date_reservation DATE NOT NULL,
+    statut VARCHAR(12) NOT NULL,
+    date_limite DATE DEFAULT NULL
+);
+
+-- Tête de la file d'un livre : plus haute priorité, puis plus ancienne
+CREATE INDEX idx_reservations_file ON reservations(isbn, statut, priorite DESC, id);
+-- Balayage des réservations non retirées, par date limite
+CREATE INDEX idx_reservations_echeance ON reservations(statut, date_limite);
+CREATE INDEX idx_reservations_membre ON reservations(membre_id, statut);
+
+-- Journal des écritures, relu par chaque poste pour invalider ses caches
+CREATE TABLE IF NOT EXISTS journal_modifications (
+    version BIGINT AUTO_INCREMENT PRIMARY KEY,
+    entite VARCHAR(20) NOT NULL,
+    cle VARCHAR(64) NOT NULL,
+    date_modification TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_journal_date ON journal_modifications(date_modification);
+
+-- Compteurs d'identifiants communs aux shards (mode réparti uniquement)
+CREATE TABLE IF NOT EXISTS sequences (
+    nom VARCHAR(30) PRIMARY KEY,
+    valeur BIGINT NOT NULL
+);
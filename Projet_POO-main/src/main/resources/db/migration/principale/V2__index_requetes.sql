@@ -0,0 +1,16 @@
+-- Index des requêtes fréquentes des DAO.
+
+-- Limite de 3 emprunts : nombre d'emprunts en cours d'un membre, lu dans l'index seul
+CREATE INDEX idx_emprunts_membre_en_cours ON emprunts(membre_id, date_retour_effective);
+
+-- Emprunts en cours, en retard (date_retour_effective IS NULL AND date_retour_prevue < ?)
+-- et sélection de l'archivage ; remplace idx_emprunt_en_cours, qui en est le préfixe
+CREATE INDEX idx_emprunts_retour ON emprunts(date_retour_effective, date_retour_prevue);
+DROP INDEX idx_emprunt_en_cours ON emprunts;
+
+-- Pages de membres triées par nom ou prénom (InnoDB ajoute l'id à chaque entrée)
+CREATE INDEX idx_membres_nom ON membres(nom);
+CREATE INDEX idx_membres_prenom ON membres(prenom);
+
+-- Doublon de l'index de la contrainte UNIQUE sur email
+DROP INDEX idx_membres_email ON membres;
@@ -0,0 +1,20 @@
+-- Magazines au catalogue, et emprunts de tout document empruntable.
+
+CREATE TABLE IF NOT EXISTS magazines (
+    identifiant VARCHAR(20) PRIMARY KEY,
+    titre VARCHAR(200) NOT NULL,
+    numero INT NOT NULL,
+    mois VARCHAR(20) NOT NULL,
+    disponible BOOLEAN DEFAULT TRUE
+);
+
+-- Le document prêté est un livre (isbn) ou un magazine (magazine_id), l'autre colonne
+-- restant NULL : chacune garde sa clé étrangère
+ALTER TABLE emprunts MODIFY isbn VARCHAR(20) NULL;
+ALTER TABLE emprunts ADD COLUMN magazine_id VARCHAR(20) NULL;
+ALTER TABLE emprunts ADD CONSTRAINT fk_emprunts_magazine
+    FOREIGN KEY (magazine_id) REFERENCES magazines(identifiant) ON DELETE CASCADE;
+
+-- Mêmes colonnes, dans le même ordre, que emprunts (l'archivage copie les lignes telles quelles)
+ALTER TABLE emprunts_archive MODIFY isbn VARCHAR(20) NULL;
+ALTER TABLE emprunts_archive ADD COLUMN magazine_id VARCHAR(20) NULL;
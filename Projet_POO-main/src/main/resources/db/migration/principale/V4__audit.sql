@@ -0,0 +1,15 @@
+-- Journal d'audit des écritures des services (audit.destination=table). Table en ajout
+-- seul : l'application n'y fait ni UPDATE ni DELETE.
+
+CREATE TABLE IF NOT EXISTS audit (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    -- DATETIME : un TIMESTAMP recevrait ON UPDATE CURRENT_TIMESTAMP sous MySQL
+    horodatage DATETIME(3) NOT NULL,
+    acteur VARCHAR(100) NOT NULL,
+    action VARCHAR(30) NOT NULL,
+    cible VARCHAR(100),
+    details VARCHAR(1000)
+);
+
+-- Relecture par période
+CREATE INDEX idx_audit_horodatage ON audit(horodatage);
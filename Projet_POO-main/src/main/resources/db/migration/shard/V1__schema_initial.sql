@@ -0,0 +1,39 @@
+-- Schéma initial d'un shard (ancien database-shard.sql). Les ids viennent de la table
+-- sequences de la base principale, sans AUTO_INCREMENT ; les livres restent sur la base
+-- principale, sans clé étrangère vers livres.
+
+CREATE TABLE IF NOT EXISTS membres (
+    id INT PRIMARY KEY,
+    nom VARCHAR(50) NOT NULL,
+    prenom VARCHAR(50) NOT NULL,
+    email VARCHAR(100) UNIQUE NOT NULL,
+    actif BOOLEAN DEFAULT TRUE,
+    date_inscription DATE NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS emprunts (
+    id INT PRIMARY KEY,
+    isbn VARCHAR(20) NOT NULL,
+    membre_id INT NOT NULL,
+    date_emprunt DATE NOT NULL,
+    date_retour_prevue DATE NOT NULL,
+    date_retour_effective DATE DEFAULT NULL,
+    penalite DOUBLE DEFAULT 0,
+    FOREIGN KEY (membre_id) REFERENCES membres(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_emprunt_en_cours ON emprunts(date_retour_effective);
+CREATE INDEX idx_emprunts_membre ON emprunts(membre_id);
+
+-- Emprunts rendus depuis longtemps, déplacés par l'archivage (mêmes colonnes que emprunts)
+CREATE TABLE IF NOT EXISTS emprunts_archive (
+    id INT PRIMARY KEY,
+    isbn VARCHAR(20) NOT NULL,
+    membre_id INT NOT NULL,
+    date_emprunt DATE NOT NULL,
+    date_retour_prevue DATE NOT NULL,
+    date_retour_effective DATE DEFAULT NULL,
+    penalite DOUBLE DEFAULT 0
+);
+
+CREATE INDEX idx_archive_membre ON emprunts_archive(membre_id, date_emprunt);
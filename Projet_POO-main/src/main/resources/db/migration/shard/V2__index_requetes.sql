@@ -0,0 +1,17 @@
+-- Index des requêtes fréquentes des DAO (mêmes index que la base principale).
+
+-- Historique d'un membre, du plus récent au plus ancien ; remplace l'index sur membre_id
+-- seul (la clé étrangère s'appuie désormais sur celui-ci)
+CREATE INDEX idx_emprunts_membre_date ON emprunts(membre_id, date_emprunt);
+DROP INDEX idx_emprunts_membre ON emprunts;
+
+-- Limite de 3 emprunts : nombre d'emprunts en cours d'un membre, lu dans l'index seul
+CREATE INDEX idx_emprunts_membre_en_cours ON emprunts(membre_id, date_retour_effective);
+
+-- Emprunts en cours, en retard et sélection de l'archivage
+CREATE INDEX idx_emprunts_retour ON emprunts(date_retour_effective, date_retour_prevue);
+DROP INDEX idx_emprunt_en_cours ON emprunts;
+
+-- Pages de membres triées par nom ou prénom
+CREATE INDEX idx_membres_nom ON membres(nom);
+CREATE INDEX idx_membres_prenom ON membres(prenom);
@@ -0,0 +1,9 @@
+-- Emprunts de tout document empruntable (mêmes colonnes que la base principale) : le
+-- document prêté est un livre (isbn) ou un magazine (magazine_id), l'autre colonne
+-- restant NULL.
+
+ALTER TABLE emprunts MODIFY isbn VARCHAR(20) NULL;
+ALTER TABLE emprunts ADD COLUMN magazine_id VARCHAR(20) NULL;
+
+ALTER TABLE emprunts_archive MODIFY isbn VARCHAR(20) NULL;
+ALTER TABLE emprunts_archive ADD COLUMN magazine_id VARCHAR(20) NULL;
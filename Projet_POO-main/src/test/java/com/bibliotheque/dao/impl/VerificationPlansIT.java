@@ -0,0 +1,706 @@
+package com.bibliotheque.dao.impl;
+
+import com.bibliotheque.audit.EntreeAudit;
+import com.bibliotheque.dao.FiltreEmprunt;
+import com.bibliotheque.dao.MembreDAO;
+import com.bibliotheque.dao.RequetePage;
+import com.bibliotheque.model.Emprunt;
+import com.bibliotheque.model.Livre;
+import com.bibliotheque.model.Magazine;
+import com.bibliotheque.model.Membre;
+import com.bibliotheque.model.Reservation;
+import com.bibliotheque.util.Configuration;
+import com.bibliotheque.util.ConnectionPool;
+import com.bibliotheque.util.DatabaseConnection;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Contrôle des plans d'exécution des requêtes des DAO JDBC : {@code mvn -Pplans verify}.
+ * <p>
+ * Chaque vérification appelle une méthode de DAO sur une base de contrôle
+ * ({@code plans.url}, vidée et regarnie de données synthétiques à chaque passage) et
+ * enregistre toutes les requêtes émises, avec leurs paramètres et le nombre de lignes
+ * réellement lues par le serveur (compteurs {@code Handler_read_*} de la session).
+ * Chaque requête est ensuite passée à {@code EXPLAIN}. La vérification échoue si une
+ * table est lue en entier sans que ce soit prévu, si elle est lue par un autre index
+ * que celui attendu, ou si une requête examine plus de lignes que le plafond.
+ * <p>
+ * Les DAO sont construits tels que l'application les construit, sur la base principale :
+ * {@code db.url} désigne la base de contrôle à travers le {@link Pilote} d'enregistrement.
+ * Une nouvelle requête dans un DAO appelle une nouvelle vérification ici, et un
+ * plafond ne se relève qu'avec une raison.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class VerificationPlansIT {
+
+    private static final String URL_DEFAUT = "jdbc:mysql://localhost:3306/bibliotheque_plans"
+            + "?createDatabaseIfNotExist=true&rewriteBatchedStatements=true";
+
+    // Volumes de la base de contrôle
+    private static final int LIVRES = 5_000;
+    private static final int MAGAZINES = 1_000;
+    private static final int MEMBRES = 20_000;
+    private static final int EMPRUNTS = 100_000;
+    private static final int ARCHIVES = 100_000;
+    private static final int RESERVATIONS = 10_000;
+    private static final int LIVRES_RESERVES = 2_000;
+    private static final int JOURNAL = 10_000;
+    private static final int LOT_INSERTION = 1_000;
+
+    // Membre dont les requêtes sont vérifiées : ses emprunts ont l'id du membre
+    // (table chaude) et EMPRUNTS + id (archive)
+    private static final int TEMOIN = 4_242;
+    private static final String ISBN_TEMOIN = isbn(TEMOIN % LIVRES_RESERVES + 1);
+    private static final String MAGAZINE_TEMOIN = magazine(TEMOIN % MAGAZINES + 1);
+
+    private static final String LECTURES = "SHOW SESSION STATUS LIKE 'Handler_read%'";
+    private static final long ATTENTE_JOURNAL_S = 10;
+
+    private Pilote pilote;
+    private ConnectionPool pool;
+    // Connexions directes à la base de contrôle, jamais enregistrées
+    private SourceConnexions base;
+    private final List<Requete> requetes = Collections.synchronizedList(new ArrayList<>());
+    private volatile boolean enregistrement;
+    // Lectures comptées par LECTURES elle-même, selon la version du serveur
+    private long surcout;
+
+    private interface Appel {
+        void executer() throws Exception;
+    }
+
+    private interface Ligne {
+        void lier(PreparedStatement stmt, int numero) throws SQLException;
+    }
+
+    /**
+     * Attendu d'une méthode de DAO, valable pour chacune des requêtes qu'elle émet.
+     */
+    private static final class Verification {
+        final String nom;
+        final Appel appel;
+        final Set<String> index = new LinkedHashSet<>();
+        long plafond = Long.MAX_VALUE;
+        String parcours;
+
+        Verification(String nom, Appel appel) {
+            this.nom = nom;
+            this.appel = appel;
+        }
+
+        /** Index par lesquels les tables doivent être lues. */
+        Verification index(String... noms) {
+            index.addAll(Arrays.asList(noms));
+            return this;
+        }
+
+        /** Nombre maximal de lignes examinées par requête. */
+        Verification auPlus(long lignes) {
+            plafond = lignes;
+            return this;
+        }
+
+        /** Lecture complète admise, pour la raison donnée. */
+        Verification parcours(String raison) {
+            parcours = raison;
+            return this;
+        }
+    }
+
+    /**
+     * Requête émise par un DAO pendant une vérification.
+     */
+    private static final class Requete {
+        final String sql;
+        final List<Object> parametres;
+        final long lignesExaminees;
+        final Set<String> acces = new LinkedHashSet<>();
+
+        Requete(String sql, List<Object> parametres, long lignesExaminees) {
+            this.sql = sql;
+            this.parametres = parametres;
+            this.lignesExaminees = lignesExaminees;
+        }
+    }
+
+    /**
+     * Pilote JDBC des URL {@code jdbc:enregistree:<url sans jdbc:>} : ouvre la connexion
+     * sur l'URL réelle et la passe à l'enveloppe courante.
+     */
+    static final class Pilote implements Driver {
+        static final String PREFIXE = "jdbc:enregistree:";
+
+        private final UnaryOperator<Connection> enveloppe;
+
+        Pilote(UnaryOperator<Connection> enveloppe) {
+            this.enveloppe = enveloppe;
+        }
+
+        @Override
+        public Connection connect(String url, Properties info) throws SQLException {
+            if (!acceptsURL(url)) {
+                return null;
+            }
+            return enveloppe.apply(DriverManager.getConnection("jdbc:" + url.substring(PREFIXE.length()), info));
+        }
+
+        @Override
+        public boolean acceptsURL(String url) {
+            return url != null && url.startsWith(PREFIXE);
+        }
+
+        @Override
+        public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+            return new DriverPropertyInfo[0];
+        }
+
+        @Override
+        public int getMajorVersion() {
+            return 1;
+        }
+
+        @Override
+        public int getMinorVersion() {
+            return 0;
+        }
+
+        @Override
+        public boolean jdbcCompliant() {
+            return false;
+        }
+
+        @Override
+        public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+            throw new SQLFeatureNotSupportedException();
+        }
+    }
+
+    @BeforeAll
+    void preparer() throws SQLException {
+        String url = Configuration.get("plans.url", URL_DEFAUT);
+        pilote = new Pilote(this::envelopper);
+        DriverManager.registerDriver(pilote);
+        // Avant le premier appel à DatabaseConnection : la base principale est la base de contrôle
+        System.setProperty("db.moteur", "mysql");
+        System.setProperty("db.url", Pilote.PREFIXE + url.substring("jdbc:".length()));
+        System.setProperty("db.repliques", "");
+
+        pool = new ConnectionPool(url, Configuration.get("db.utilisateur", "root"),
+                Configuration.get("db.motDePasse", ""), 4);
+        base = SourceConnexions.de(pool);
+        Migrations.principale().appliquer();
+        try (Connection conn = base.ecriture()) {
+            alimenter(conn);
+        }
+    }
+
+    @AfterAll
+    void fermer() throws SQLException {
+        DatabaseConnection.getInstance().closeConnection();
+        pool.fermer();
+        DriverManager.deregisterDriver(pilote);
+    }
+
+    @Test
+    void requetesDesDaoParLesIndexAttendus() throws Exception {
+        int echecs = verifier();
+        assertEquals(0, echecs, echecs + " vérification(s) de plan en échec, voir le rapport");
+    }
+
+    /**
+     * Les vérifications, dans l'ordre où elles s'exécutent : les écritures de l'une
+     * (archivage, expiration) ne doivent pas vider les données lues par les suivantes.
+     */
+    private List<Verification> verifications() {
+        // Les livres et membres des lignes lues sont chargés hors enregistrement
+        MembreDAO annexe = new MembreDAOImpl(base);
+        LivreDAOImpl livres = new LivreDAOImpl();
+        MembreDAOImpl membres = new MembreDAOImpl();
+        MagazineDAOImpl magazines = new MagazineDAOImpl();
+        EmpruntDAOImpl emprunts = new EmpruntDAOImpl(new CatalogueDocuments(livres, magazines), annexe);
+        ReservationDAOImpl reservations = new ReservationDAOImpl(livres, annexe);
+        JournalModifications journal = new JournalModifications(10);
+        ArchivageEmprunts archivage = new ArchivageEmprunts();
+        TableAudit audit = new TableAudit();
+
+        LocalDate aujourdhui = LocalDate.now();
+        Livre livre = new Livre(ISBN_TEMOIN, "Titre", "Auteur");
+        Membre temoin = new Membre(TEMOIN, nom(TEMOIN), prenom(TEMOIN), email(TEMOIN), true);
+        Membre nouveau = new Membre("Plans", "Verification", "verification.plans@exemple.fr", true);
+        Magazine magazine = new Magazine("MAG-PLANS", "Verification", 1, "janvier", true);
+        Reservation reservation = new Reservation(0, livre, temoin, 0, aujourdhui,
+                Reservation.Statut.EN_ATTENTE, null);
+
+        return List.of(
+                new Verification("MembreDAO.findById", () -> membres.findById(TEMOIN))
+                        .index("PRIMARY").auPlus(1),
+                new Verification("MembreDAO.findByEmail", () -> membres.findByEmail(email(TEMOIN)))
+                        .index("email").auPlus(1),
+                new Verification("MembreDAO.save", () -> membres.save(nouveau)),
+                new Verification("MembreDAO.update", () -> membres.update(nouveau))
+                        .index("PRIMARY").auPlus(1),
+                new Verification("MembreDAO.delete", () -> membres.delete(nouveau.getId()))
+                        .index("PRIMARY").auPlus(1),
+                new Verification("MembreDAO.findPage (id)",
+                        () -> membres.findPage(null, RequetePage.apres("id", true, TEMOIN, TEMOIN, 20)))
+                        .index("PRIMARY").auPlus(20),
+                new Verification("MembreDAO.findPage (nom)",
+                        () -> membres.findPage(null, RequetePage.aDecalage("nom", true, 0, 20)))
+                        .index("idx_membres_nom").auPlus(20),
+                new Verification("MembreDAO.findPage (nom, ancre)",
+                        () -> membres.findPage(null, RequetePage.apres("nom", true, nom(TEMOIN), TEMOIN, 20)))
+                        .index("idx_membres_nom").auPlus(100),
+                new Verification("MembreDAO.findPage (prenom)",
+                        () -> membres.findPage(null, RequetePage.aDecalage("prenom", false, 0, 20)))
+                        .index("idx_membres_prenom").auPlus(20),
+                new Verification("MembreDAO.findPage (recherche)",
+                        () -> membres.findPage("nom01", RequetePage.aDecalage("nom", true, 0, 20)))
+                        .parcours("recherche libre (LIKE '%...%')"),
+                new Verification("MembreDAO.count (recherche)", () -> membres.count("nom01"))
+                        .parcours("recherche libre (LIKE '%...%')"),
+                new Verification("MembreDAO.count", () -> membres.count(null))
+                        .parcours("nombre total de membres"),
+                new Verification("MembreDAO.findAll", membres::findAll)
+                        .parcours("liste complète"),
+                new Verification("MembreDAO.findActifs", membres::findActifs)
+                        .parcours("90 % des membres sont actifs"),
+                new Verification("MembreDAO.countActifs", membres::countActifs)
+                        .parcours("90 % des membres sont actifs"),
+
+                new Verification("EmpruntDAO.findById", () -> emprunts.findById(TEMOIN))
+                        .index("PRIMARY").auPlus(1),
+                new Verification("EmpruntDAO.findById (archive)", () -> emprunts.findById(EMPRUNTS + TEMOIN))
+                        .index("PRIMARY").auPlus(1),
+                new Verification("EmpruntDAO.save", () -> emprunts.save(new Emprunt(0, aujourdhui,
+                        aujourdhui.plusDays(14), null, livre, temoin, 0))),
+                new Verification("EmpruntDAO.update (archive)", () -> emprunts.update(new Emprunt(EMPRUNTS + TEMOIN,
+                        aujourdhui.minusYears(2), aujourdhui.minusYears(2).plusDays(14),
+                        aujourdhui.minusYears(2).plusDays(20), livre, temoin, 3)))
+                        .index("PRIMARY").auPlus(1),
+                new Verification("EmpruntDAO.countEmpruntEnCours", () -> emprunts.countEmpruntEnCours(temoin))
+                        .index("idx_emprunts_membre_en_cours").auPlus(10),
+                new Verification("EmpruntDAO.findHistorique",
+                        () -> emprunts.findHistorique(TEMOIN, null, null, RequetePage.aDecalage("date_emprunt", false, 0, 50)))
+                        .index("idx_emprunts_membre", "idx_archive_membre").auPlus(250),
+                new Verification("EmpruntDAO.findHistorique (période, ancre)",
+                        () -> emprunts.findHistorique(TEMOIN, aujourdhui.minusYears(5), aujourdhui,
+                                RequetePage.apres("date_emprunt", false, aujourdhui, Integer.MAX_VALUE, 50)))
+                        .index("idx_emprunts_membre", "idx_archive_membre").auPlus(250),
+                new Verification("EmpruntDAO.findEnCours", emprunts::findEnCours)
+                        .index("idx_emprunts_retour").auPlus(EMPRUNTS / 20),
+                new Verification("EmpruntDAO.findEnCours (livre)", () -> emprunts.findEnCours(livre))
+                        .index("isbn").auPlus(50),
+                new Verification("EmpruntDAO.findEnCours (magazine)", () -> emprunts.findEnCours(
+                        new Magazine(MAGAZINE_TEMOIN, "Magazine", 1, "janvier", false)))
+                        .index("fk_emprunts_magazine").auPlus(50),
+                new Verification("EmpruntDAO.findEnRetard", () -> emprunts.findEnRetard(aujourdhui))
+                        .index("idx_emprunts_retour").auPlus(EMPRUNTS / 20),
+                new Verification("EmpruntDAO.count (en cours)", () -> emprunts.count(FiltreEmprunt.EN_COURS))
+                        .index("idx_emprunts_retour").auPlus(EMPRUNTS / 20),
+                new Verification("EmpruntDAO.count (en retard)", () -> emprunts.count(FiltreEmprunt.EN_RETARD))
+                        .index("idx_emprunts_retour").auPlus(EMPRUNTS / 20),
+                new Verification("EmpruntDAO.findPage (en retard)",
+                        () -> emprunts.findPage(FiltreEmprunt.EN_RETARD, RequetePage.aDecalage("id", true, 0, 20)))
+                        .auPlus(EMPRUNTS / 20),
+                new Verification("EmpruntDAO.findPage (tous)",
+                        () -> emprunts.findPage(FiltreEmprunt.TOUS, RequetePage.aDecalage("id", false, 0, 20)))
+                        .index("PRIMARY").auPlus(150),
+                new Verification("EmpruntDAO.count (tous)", () -> emprunts.count(FiltreEmprunt.TOUS))
+                        .parcours("nombre total d'emprunts"),
+                new Verification("EmpruntDAO.findAll", emprunts::findAll)
+                        .parcours("liste complète"),
+
+                new Verification("ReservationDAO.save", () -> reservations.save(reservation)),
+                new Verification("ReservationDAO.findById", () -> reservations.findById(reservation.getId()))
+                        .index("PRIMARY").auPlus(1),
+                new Verification("ReservationDAO.updateStatut", () -> {
+                    reservation.setStatut(Reservation.Statut.ANNULEE);
+                    reservations.updateStatut(reservation);
+                }).index("PRIMARY").auPlus(1),
+                new Verification("ReservationDAO.honorer", () -> reservations.honorer(reservation))
+                        .index("PRIMARY").auPlus(1),
+                new Verification("ReservationDAO.findEnAttente", () -> reservations.findEnAttente(ISBN_TEMOIN))
+                        .index("idx_reservations_file").auPlus(10),
+                new Verification("ReservationDAO.findActives", () -> reservations.findActives(TEMOIN))
+                        .index("idx_reservations_membre").auPlus(10),
+                new Verification("ReservationDAO.findDisponible", () -> reservations.findDisponible(ISBN_TEMOIN))
+                        .index("idx_reservations_file").auPlus(10),
+                new Verification("ReservationDAO.attribuerSuivante",
+                        () -> reservations.attribuerSuivante(ISBN_TEMOIN, aujourdhui.plusDays(3)))
+                        .index("idx_reservations_file", "PRIMARY").auPlus(10),
+                new Verification("ReservationDAO.expirer", () -> reservations.expirer(aujourdhui))
+                        .index("idx_reservations_echeance", "PRIMARY").auPlus(RESERVATIONS / 10),
+
+                new Verification("MagazineDAO.findById", () -> magazines.findById(MAGAZINE_TEMOIN))
+                        .index("PRIMARY").auPlus(1),
+                new Verification("MagazineDAO.save", () -> magazines.save(magazine)),
+                new Verification("MagazineDAO.update", () -> magazines.update(magazine))
+                        .index("PRIMARY").auPlus(1),
+                new Verification("MagazineDAO.delete", () -> magazines.delete(magazine.getIdentifiant()))
+                        .index("PRIMARY").auPlus(1),
+                new Verification("MagazineDAO.findAll", magazines::findAll)
+                        .parcours("liste complète, chargée au démarrage"),
+
+                new Verification("ArchivageEmprunts.archiver", archivage::archiver)
+                        .index("idx_emprunts_retour", "PRIMARY").auPlus(EMPRUNTS / 20),
+                new Verification("TableAudit.ecrire", () -> audit.ecrire(new ArrayList<>(List.of(
+                        new EntreeAudit(System.currentTimeMillis(), "plans", EntreeAudit.Action.MEMBRE_MODIFIE,
+                                "membre " + TEMOIN, null),
+                        new EntreeAudit(System.currentTimeMillis(), "plans", EntreeAudit.Action.EMPRUNT_CREE,
+                                "emprunt " + TEMOIN, null))))),
+                new Verification("JournalModifications.enregistrer", () -> journal.enregistrer("membre", "1")),
+                // En dernier : la relecture tourne sur le thread du journal, qui peut finir
+                // sa requête en cours après l'arrêt
+                new Verification("JournalModifications (relecture)", () -> {
+                    CountDownLatch relue = new CountDownLatch(1);
+                    journal.surveiller("membre", cle -> {
+                        if ("2".equals(cle)) {
+                            relue.countDown();
+                        }
+                    });
+                    journal.demarrer();
+                    try {
+                        // Le premier passage ne fait que noter la version courante : la
+                        // modification est renouvelée jusqu'à ce qu'un passage suivant la lise
+                        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(ATTENTE_JOURNAL_S);
+                        do {
+                            journal.enregistrer("membre", "2");
+                        } while (!relue.await(50, TimeUnit.MILLISECONDS) && System.nanoTime() - limite < 0);
+                    } finally {
+                        journal.arreter();
+                    }
+                    if (relue.getCount() > 0) {
+                        throw new IllegalStateException("Modification non relue par le journal");
+                    }
+                }).index("PRIMARY").auPlus(10)
+        );
+    }
+
+    /**
+     * Exécute les vérifications et affiche le rapport.
+     *
+     * @return le nombre de vérifications en échec
+     */
+    private int verifier() throws Exception {
+        List<Verification> verifications = verifications();
+        int echecs = 0;
+        try (Connection conn = base.ecriture()) {
+            long premiere = lectures(conn);
+            surcout = lectures(conn) - premiere;
+            for (Verification verification : verifications) {
+                requetes.clear();
+                enregistrement = true;
+                try {
+                    verification.appel.executer();
+                } finally {
+                    enregistrement = false;
+                }
+                List<Requete> emises;
+                synchronized (requetes) {
+                    emises = new ArrayList<>(requetes);
+                }
+                List<String> ecarts = new ArrayList<>();
+                long maximum = 0;
+                Set<String> acces = new LinkedHashSet<>();
+                for (Requete requete : emises) {
+                    List<String> ecartsRequete = analyser(conn, requete, verification);
+                    for (String ecart : ecartsRequete) {
+                        ecarts.add(ecart + "\n        " + requete.sql);
+                    }
+                    maximum = Math.max(maximum, requete.lignesExaminees);
+                    acces.addAll(requete.acces);
+                }
+                if (emises.isEmpty()) {
+                    ecarts.add("aucune requête émise : vérification à mettre à jour");
+                }
+                System.out.printf("%-7s %-45s %8d ligne(s)  %s%s%n", ecarts.isEmpty() ? "OK" : "ECHEC",
+                        verification.nom, maximum, String.join(", ", acces),
+                        verification.parcours == null ? "" : "  (parcours admis : " + verification.parcours + ")");
+                for (String ecart : ecarts) {
+                    System.out.println("    - " + ecart);
+                }
+                if (!ecarts.isEmpty()) {
+                    echecs++;
+                }
+            }
+        }
+        System.out.println(verifications.size() + " vérification(s), " + echecs + " échec(s)");
+        return echecs;
+    }
+
+    /**
+     * Confronte le plan d'une requête à l'attendu de sa vérification.
+     *
+     * @return les écarts constatés
+     */
+    private static List<String> analyser(Connection conn, Requete requete, Verification verification)
+            throws SQLException {
+        List<String> ecarts = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement("EXPLAIN " + requete.sql)) {
+            SqlPagination.lier(stmt, requete.parametres);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                String table = rs.getString("table");
+                // Tables dérivées ou temporaires, requête sans table, table cible d'un INSERT
+                if (table == null || table.startsWith("<") || "INSERT".equals(rs.getString("select_type"))) {
+                    continue;
+                }
+                String index = rs.getString("key");
+                requete.acces.add(table + ":" + (index == null ? "-" : index));
+                if ("ALL".equals(rs.getString("type"))) {
+                    if (verification.parcours == null) {
+                        ecarts.add("parcours complet de " + table);
+                    }
+                } else if (!verification.index.isEmpty() && !verification.index.contains(index)) {
+                    ecarts.add(table + " lue par " + index + " au lieu de " + verification.index);
+                }
+            }
+        }
+        if (requete.lignesExaminees > verification.plafond) {
+            ecarts.add(requete.lignesExaminees + " lignes examinées, plafond " + verification.plafond);
+        }
+        return ecarts;
+    }
+
+    /**
+     * Enveloppe une connexion ouverte par le {@link Pilote} : pendant une vérification,
+     * chaque requête exécutée est ajoutée à {@link #requetes}.
+     */
+    private Connection envelopper(Connection conn) {
+        return proxy(Connection.class, (proxy, methode, args) -> {
+            Object resultat = invoquer(conn, methode, args);
+            switch (methode.getName()) {
+                case "prepareStatement":
+                    return envelopper(PreparedStatement.class, (PreparedStatement) resultat, conn, (String) args[0]);
+                case "createStatement":
+                    return envelopper(Statement.class, (Statement) resultat, conn, null);
+                default:
+                    return resultat;
+            }
+        });
+    }
+
+    /**
+     * @param sqlPrepare la requête d'un PreparedStatement, null pour un Statement
+     *                   (la requête est alors l'argument de {@code execute...})
+     */
+    private <S extends Statement> S envelopper(Class<S> type, S stmt, Connection conn, String sqlPrepare) {
+        Map<Integer, Object> parametres = new TreeMap<>();
+        return proxy(type, (proxy, methode, args) -> {
+            String nom = methode.getName();
+            if (nom.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                parametres.put((Integer) args[0], "setNull".equals(nom) ? null : args[1]);
+            }
+            if (!nom.startsWith("execute") || !enregistrement) {
+                return invoquer(stmt, methode, args);
+            }
+            long avant = lectures(conn);
+            Object resultat = invoquer(stmt, methode, args);
+            String sql = sqlPrepare != null ? sqlPrepare : (String) args[0];
+            requetes.add(new Requete(sql, new ArrayList<>(parametres.values()), lectures(conn) - avant - surcout));
+            return resultat;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(VerificationPlansIT.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private static Object invoquer(Object cible, Method methode, Object[] args) throws Throwable {
+        try {
+            return methode.invoke(cible, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * @return le total des lignes lues (index et tables, tables temporaires comprises)
+     *         depuis l'ouverture de la session
+     */
+    private static long lectures(Connection conn) throws SQLException {
+        long total = 0;
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(LECTURES)) {
+            while (rs.next()) {
+                total += rs.getLong(2);
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Vide la base de contrôle et la remplit de données reproductibles, puis met à jour
+     * les statistiques des index pour que l'optimiseur voie les volumes réels.
+     */
+    private static void alimenter(Connection conn) throws SQLException {
+        List<String> tables = List.of("emprunts", "emprunts_archive", "reservations", "journal_modifications",
+                "audit", "membres", "magazines", "livres");
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("SET FOREIGN_KEY_CHECKS = 0");
+            for (String table : tables) {
+                stmt.execute("TRUNCATE TABLE " + table);
+            }
+            stmt.execute("SET FOREIGN_KEY_CHECKS = 1");
+        }
+
+        Random aleatoire = new Random(42);
+        LocalDate aujourdhui = LocalDate.now();
+        conn.setAutoCommit(false);
+        try {
+            inserer(conn, "INSERT INTO livres (isbn, titre, auteur, annee_publication) VALUES (?, ?, ?, ?)",
+                    LIVRES, (stmt, i) -> {
+                        stmt.setString(1, isbn(i));
+                        stmt.setString(2, "Titre " + i);
+                        stmt.setString(3, "Auteur " + i % 800);
+                        stmt.setInt(4, 1950 + i % 75);
+                    });
+            inserer(conn, "INSERT INTO magazines (identifiant, titre, numero, mois, disponible)"
+                    + " VALUES (?, ?, ?, ?, ?)", MAGAZINES, (stmt, i) -> {
+                        stmt.setString(1, magazine(i));
+                        stmt.setString(2, "Magazine " + i % 50);
+                        stmt.setInt(3, i / 50 + 1);
+                        stmt.setString(4, "mois " + i % 12);
+                        stmt.setBoolean(5, i % 5 != 0);
+                    });
+            inserer(conn, "INSERT INTO membres (id, nom, prenom, email, actif, date_inscription)"
+                    + " VALUES (?, ?, ?, ?, ?, ?)", MEMBRES, (stmt, i) -> {
+                        stmt.setInt(1, i);
+                        stmt.setString(2, nom(i));
+                        stmt.setString(3, prenom(i));
+                        stmt.setString(4, email(i));
+                        stmt.setBoolean(5, i % 10 != 0);
+                        stmt.setDate(6, Date.valueOf(aujourdhui.minusDays(i % 2000)));
+                    });
+            String emprunt = " (id, isbn, membre_id, date_emprunt, date_retour_prevue, date_retour_effective,"
+                    + " penalite) VALUES (?, ?, ?, ?, ?, ?, ?)";
+            inserer(conn, "INSERT INTO emprunts" + emprunt, EMPRUNTS, (stmt, i) -> {
+                LocalDate debut;
+                LocalDate retour;
+                if (i % 100 == 1) {
+                    // Rendu depuis plus d'un an : à archiver
+                    debut = aujourdhui.minusDays(400 + aleatoire.nextInt(300));
+                    retour = debut.plusDays(aleatoire.nextInt(21));
+                } else if (i % 33 == 0) {
+                    // En cours, en retard pour la moitié environ
+                    debut = aujourdhui.minusDays(aleatoire.nextInt(30));
+                    retour = null;
+                } else {
+                    debut = aujourdhui.minusDays(21 + aleatoire.nextInt(340));
+                    retour = debut.plusDays(aleatoire.nextInt(21));
+                }
+                lierEmprunt(stmt, i, i, debut, retour, aleatoire);
+            });
+            inserer(conn, "INSERT INTO emprunts_archive" + emprunt, ARCHIVES, (stmt, i) -> {
+                LocalDate debut = aujourdhui.minusDays(400 + aleatoire.nextInt(1500));
+                lierEmprunt(stmt, EMPRUNTS + i, i, debut, debut.plusDays(aleatoire.nextInt(21)), aleatoire);
+            });
+            Reservation.Statut[] statuts = Reservation.Statut.values();
+            inserer(conn, "INSERT INTO reservations (isbn, membre_id, priorite, date_reservation, statut, date_limite)"
+                    + " VALUES (?, ?, ?, ?, ?, ?)", RESERVATIONS, (stmt, i) -> {
+                        Reservation.Statut statut = i % 10 < 7 ? Reservation.Statut.EN_ATTENTE : statuts[i % statuts.length];
+                        stmt.setString(1, isbn((i - 1) % LIVRES_RESERVES + 1));
+                        stmt.setInt(2, aleatoire.nextInt(MEMBRES) + 1);
+                        stmt.setInt(3, aleatoire.nextInt(3));
+                        stmt.setDate(4, Date.valueOf(aujourdhui.minusDays(aleatoire.nextInt(60))));
+                        stmt.setString(5, statut.name());
+                        stmt.setDate(6, statut == Reservation.Statut.DISPONIBLE
+                                ? Date.valueOf(aujourdhui.plusDays(aleatoire.nextInt(7) - 3)) : null);
+                    });
+            inserer(conn, "INSERT INTO journal_modifications (entite, cle) VALUES (?, ?)", JOURNAL, (stmt, i) -> {
+                stmt.setString(1, "membre");
+                stmt.setString(2, String.valueOf(aleatoire.nextInt(MEMBRES) + 1));
+            });
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("ANALYZE TABLE " + String.join(", ", tables));
+        }
+    }
+
+    private static void lierEmprunt(PreparedStatement stmt, int id, int numero, LocalDate debut, LocalDate retour,
+                                    Random aleatoire) throws SQLException {
+        LocalDate prevue = debut.plusDays(14);
+        stmt.setInt(1, id);
+        stmt.setString(2, isbn(aleatoire.nextInt(LIVRES) + 1));
+        stmt.setInt(3, (numero - 1) % MEMBRES + 1);
+        stmt.setDate(4, Date.valueOf(debut));
+        stmt.setDate(5, Date.valueOf(prevue));
+        stmt.setDate(6, retour == null ? null : Date.valueOf(retour));
+        stmt.setDouble(7, retour != null && retour.isAfter(prevue) ? (retour.toEpochDay() - prevue.toEpochDay()) * 0.5 : 0);
+    }
+
+    private static void inserer(Connection conn, String sql, int nombre, Ligne ligne) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (int i = 1; i <= nombre; i++) {
+                ligne.lier(stmt, i);
+                stmt.addBatch();
+                if (i % LOT_INSERTION == 0 || i == nombre) {
+                    stmt.executeBatch();
+                }
+            }
+        }
+    }
+
+    private static String isbn(int numero) {
+        return String.format("978-%010d", numero);
+    }
+
+    private static String magazine(int numero) {
+        return String.format("MAG-%05d", numero);
+    }
+
+    // Environ vingt membres par nom, sans lien avec l'ordre des id
+    private static String nom(int id) {
+        return String.format("Nom%03d", id * 7919 % 1000);
+    }
+
+    private static String prenom(int id) {
+        return String.format("Prenom%03d", id * 613 % 300);
+    }
+
+    private static String email(int id) {
+        return "membre" + id + "@exemple.fr";
+    }
+}